@@ -0,0 +1,390 @@
+package uk.co.fivium.testapplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Checks nodes claiming notifications at the same time are given disjoint notifications, that an expired claim can be
+ * taken over by another node, and that the node whose claim expired can't then save its outcome over the other node's.
+ * Each node is a separate connection with its own transaction, so the row locks are held by the database exactly as
+ * they are when the library runs on more than one node. The claim and save queries mirror those used by the library,
+ * with each database running the claim clause the library uses for it.
+ */
+abstract class NotificationClaimConcurrencyIntegrationTest {
+
+  // the claims are kept to the microsecond precision the databases store, as they are by the library
+  private static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.MICROS);
+
+  private static final int CLAIM_LEASE_SECONDS = 60;
+
+  private static final String CLAIMABLE_NOTIFICATIONS_QUERY = """
+      SELECT %s AS id, n.requested_on, n.last_send_attempt_at
+      FROM %s n
+      WHERE n.status IN ('QUEUED', 'RETRY')
+      AND n.priority IN ('HIGH', 'NORMAL', 'LOW')
+      AND (n.claimed_until IS NULL OR n.claimed_until <= ?)
+      AND (n.next_status_check_at IS NULL OR n.next_status_check_at <= ?)
+      AND (n.next_attempt_at IS NULL OR n.next_attempt_at <= ?)
+      """;
+
+  private static final String AFTER_NEVER_SENT_CURSOR_CONDITION = """
+      AND (
+        n.last_send_attempt_at IS NOT NULL
+        OR n.requested_on > ?
+        OR (n.requested_on = ? AND n.id > %s)
+      )
+      """;
+
+  private static final String AFTER_SENT_CURSOR_CONDITION = """
+      AND n.last_send_attempt_at >= ?
+      AND (
+        n.last_send_attempt_at > ?
+        OR n.requested_on > ?
+        OR (n.requested_on = ? AND n.id > %s)
+      )
+      """;
+
+  private static final String QUEUE_ORDER = """
+      ORDER BY n.last_send_attempt_at ASC NULLS FIRST, n.requested_on ASC, n.id ASC
+      """;
+
+  private Node firstNode;
+
+  private Node secondNode;
+
+  /**
+   * The data source of the database, which the notification library migrations have been run against.
+   */
+  abstract DataSource getDataSource();
+
+  /**
+   * The name of the notifications table, qualified with its schema if needed.
+   */
+  abstract String getNotificationsTable();
+
+  /**
+   * The expression selecting the ID of a notification as text.
+   */
+  abstract String getIdColumn();
+
+  /**
+   * The expression binding an ID selected with {@link #getIdColumn()} back to the type of the ID column.
+   */
+  abstract String getIdParameter();
+
+  /**
+   * The insert statement seeding the provided number of queued notifications with the provided requested on and last
+   * send attempt dates, which are bound in that order.
+   */
+  abstract String getSeedStatement(int count);
+
+  /**
+   * Claim the notifications selected by the provided claimable notifications query on the provided connection, in the
+   * way the library does for this database.
+   */
+  abstract List<ClaimedNotification> claim(Connection connection, String query, List<Object> parameters, int limit)
+      throws SQLException;
+
+  @BeforeEach
+  void setupNodes() throws SQLException {
+    firstNode = new Node(getDataSource().getConnection());
+    secondNode = new Node(getDataSource().getConnection());
+  }
+
+  @AfterEach
+  void teardown() throws SQLException {
+    firstNode.close();
+    secondNode.close();
+    new JdbcTemplate(getDataSource()).execute("DELETE FROM %s".formatted(getNotificationsTable()));
+  }
+
+  @DisplayName("WHEN two nodes claim notifications at the same time")
+  @Nested
+  class WhenClaimingAtSameTime {
+
+    @DisplayName("THEN the rows locked by one node are skipped by the other so they are given disjoint notifications")
+    @Test
+    void claim_whenClaimedAtSameTime_thenDisjointNotificationsClaimed() throws SQLException {
+
+      seedNotifications(6, NOW.minusSeconds(60), null);
+
+      var firstClaim = firstNode.claim(NOW, null, 3);
+      var secondClaim = secondNode.claim(NOW, null, 3);
+
+      assertThat(firstClaim).hasSize(3);
+      assertThat(secondClaim).hasSize(3);
+
+      assertThat(Stream.concat(firstClaim.stream(), secondClaim.stream()).map(ClaimedNotification::id))
+          .doesNotHaveDuplicates()
+          .hasSize(6);
+    }
+
+    @DisplayName("THEN a notification locked to save the outcome of processing it is skipped")
+    @Test
+    void claim_whenLockedToSaveOutcome_thenSkipped() throws SQLException {
+
+      seedNotifications(2, NOW.minusSeconds(60), null);
+
+      var lockedNotification = firstNode.claim(NOW, null, 2).get(0);
+      firstNode.rollback();
+
+      // the notification can be claimed, but is locked while the first node saves the outcome of processing it
+      firstNode.lock(lockedNotification.id());
+
+      assertThat(secondNode.claim(NOW, null, 2))
+          .extracting(ClaimedNotification::id)
+          .doesNotContain(lockedNotification.id())
+          .hasSize(1);
+    }
+  }
+
+  @DisplayName("WHEN a notification is claimed")
+  @Nested
+  class WhenClaimed {
+
+    @DisplayName("THEN it is not claimed by another node until the lease has expired")
+    @Test
+    void claim_whenLeaseNotExpired_thenNotClaimed() throws SQLException {
+
+      seedNotifications(1, NOW.minusSeconds(60), null);
+
+      var claimedUntil = NOW.plusSeconds(CLAIM_LEASE_SECONDS);
+
+      var claimedNotification = firstNode.claim(NOW, null, 1).get(0);
+      firstNode.lease(claimedNotification.id(), claimedUntil);
+      firstNode.commit();
+
+      assertThat(secondNode.claim(NOW, null, 1)).isEmpty();
+
+      assertThat(secondNode.claim(claimedUntil, null, 1))
+          .extracting(ClaimedNotification::id)
+          .containsExactly(claimedNotification.id());
+    }
+
+    @DisplayName("AND the lease expires and another node claims it")
+    @Nested
+    class AndClaimedByAnotherNode {
+
+      @DisplayName("THEN the outcome of the first node is not saved over the claim of the other node")
+      @Test
+      void save_whenClaimedByAnotherNode_thenOnlyOtherNodeSaves() throws SQLException {
+
+        seedNotifications(1, NOW.minusSeconds(60), null);
+
+        var firstClaimedUntil = NOW.plusSeconds(CLAIM_LEASE_SECONDS).plus(123_456, ChronoUnit.MICROS);
+
+        var claimedNotification = firstNode.claim(NOW, null, 1).get(0);
+        firstNode.lease(claimedNotification.id(), firstClaimedUntil);
+        firstNode.commit();
+
+        // the first node stalls for longer than its lease, so the second node claims the notification
+        var secondClaimedUntil = firstClaimedUntil.plusSeconds(CLAIM_LEASE_SECONDS);
+
+        assertThat(secondNode.claim(firstClaimedUntil, null, 1))
+            .extracting(ClaimedNotification::id)
+            .containsExactly(claimedNotification.id());
+
+        secondNode.lease(claimedNotification.id(), secondClaimedUntil);
+        secondNode.commit();
+
+        assertThat(firstNode.saveOutcome(claimedNotification.id(), firstClaimedUntil, "SENT_TO_NOTIFY")).isZero();
+        firstNode.commit();
+
+        assertThat(secondNode.saveOutcome(claimedNotification.id(), secondClaimedUntil, "FAILED_TO_SEND_TO_NOTIFY"))
+            .isOne();
+        secondNode.commit();
+
+        assertThat(new JdbcTemplate(getDataSource()).queryForObject(
+            "SELECT status FROM %s".formatted(getNotificationsTable()),
+            String.class
+        ))
+            .isEqualTo("FAILED_TO_SEND_TO_NOTIFY");
+      }
+    }
+  }
+
+  @DisplayName("WHEN notifications are claimed a page at a time")
+  @Nested
+  class WhenClaimingPages {
+
+    @DisplayName("THEN each page starts after the cursor without skipping or repeating notifications")
+    @Test
+    void claim_whenPagedWithCursor_thenEveryNotificationClaimedOnce() throws SQLException {
+
+      // notifications requested and attempted at the same time are only ordered by their ID
+      seedNotifications(3, NOW.minusSeconds(60), null);
+      seedNotifications(3, NOW.minusSeconds(120), NOW.minusSeconds(30));
+      seedNotifications(2, NOW.minusSeconds(90), NOW.minusSeconds(30));
+
+      var allNotifications = firstNode.claim(NOW, null, 100);
+      firstNode.rollback();
+
+      List<ClaimedNotification> pagedNotifications = new ArrayList<>();
+      ClaimedNotification cursor = null;
+
+      // a cursor which repeats notifications stops once more have been claimed than exist, rather than never ending
+      while (pagedNotifications.size() <= allNotifications.size()) {
+        var page = firstNode.claim(NOW, cursor, 3);
+        if (page.isEmpty()) {
+          break;
+        }
+        pagedNotifications.addAll(page);
+        cursor = page.get(page.size() - 1);
+      }
+
+      assertThat(pagedNotifications)
+          .hasSize(8)
+          .containsExactlyElementsOf(allNotifications);
+
+      assertThat(pagedNotifications.subList(0, 3))
+          .extracting(ClaimedNotification::lastSendAttemptAt)
+          .containsOnlyNulls();
+    }
+  }
+
+  private void seedNotifications(int count, Instant requestedOn, Instant lastSendAttemptAt) {
+    new JdbcTemplate(getDataSource()).update(getSeedStatement(count), statement -> {
+      statement.setObject(1, toOffsetDateTime(requestedOn), Types.TIMESTAMP_WITH_TIMEZONE);
+      statement.setObject(2, toOffsetDateTime(lastSendAttemptAt), Types.TIMESTAMP_WITH_TIMEZONE);
+    });
+  }
+
+  private static OffsetDateTime toOffsetDateTime(Instant instant) {
+    return instant == null ? null : instant.atOffset(ZoneOffset.UTC);
+  }
+
+  static void bindParameters(PreparedStatement statement, List<Object> parameters) throws SQLException {
+    for (int index = 0; index < parameters.size(); index++) {
+      if (parameters.get(index) instanceof OffsetDateTime dateTime) {
+        statement.setObject(index + 1, dateTime, Types.TIMESTAMP_WITH_TIMEZONE);
+      } else {
+        statement.setObject(index + 1, parameters.get(index));
+      }
+    }
+  }
+
+  static ClaimedNotification toClaimedNotification(ResultSet resultSet) throws SQLException {
+    var lastSendAttemptAt = resultSet.getObject("last_send_attempt_at", OffsetDateTime.class);
+    return new ClaimedNotification(
+        resultSet.getString("id"),
+        resultSet.getObject("requested_on", OffsetDateTime.class).toInstant(),
+        lastSendAttemptAt == null ? null : lastSendAttemptAt.toInstant()
+    );
+  }
+
+  record ClaimedNotification(String id, Instant requestedOn, Instant lastSendAttemptAt) {
+  }
+
+  private class Node implements AutoCloseable {
+
+    private final Connection connection;
+
+    Node(Connection connection) throws SQLException {
+      this.connection = connection;
+      connection.setAutoCommit(false);
+    }
+
+    List<ClaimedNotification> claim(Instant claimableAt, ClaimedNotification after, int limit) throws SQLException {
+
+      var query = new StringBuilder(CLAIMABLE_NOTIFICATIONS_QUERY.formatted(getIdColumn(), getNotificationsTable()));
+
+      List<Object> parameters = new ArrayList<>(List.of(
+          toOffsetDateTime(claimableAt),
+          toOffsetDateTime(claimableAt),
+          toOffsetDateTime(claimableAt)
+      ));
+
+      if (after != null && after.lastSendAttemptAt() == null) {
+        query.append(AFTER_NEVER_SENT_CURSOR_CONDITION.formatted(getIdParameter()));
+        parameters.addAll(List.of(
+            toOffsetDateTime(after.requestedOn()),
+            toOffsetDateTime(after.requestedOn()),
+            after.id()
+        ));
+      } else if (after != null) {
+        query.append(AFTER_SENT_CURSOR_CONDITION.formatted(getIdParameter()));
+        parameters.addAll(List.of(
+            toOffsetDateTime(after.lastSendAttemptAt()),
+            toOffsetDateTime(after.lastSendAttemptAt()),
+            toOffsetDateTime(after.requestedOn()),
+            toOffsetDateTime(after.requestedOn()),
+            after.id()
+        ));
+      }
+
+      query.append(QUEUE_ORDER);
+
+      return NotificationClaimConcurrencyIntegrationTest.this.claim(connection, query.toString(), parameters, limit);
+    }
+
+    // mirrors the claim lease written by the library once notifications have been claimed
+    void lease(String id, Instant claimedUntil) throws SQLException {
+      try (var statement = connection.prepareStatement(
+          "UPDATE %s SET claimed_until = ? WHERE id = %s".formatted(getNotificationsTable(), getIdParameter())
+      )) {
+        statement.setObject(1, toOffsetDateTime(claimedUntil), Types.TIMESTAMP_WITH_TIMEZONE);
+        statement.setString(2, id);
+        statement.executeUpdate();
+      }
+    }
+
+    // mirrors the lock taken by the library before saving the outcome of processing claimed notifications
+    void lock(String id) throws SQLException {
+      try (var statement = connection.prepareStatement(
+          "SELECT n.id FROM %s n WHERE n.id = %s FOR UPDATE".formatted(getNotificationsTable(), getIdParameter())
+      )) {
+        statement.setString(1, id);
+        statement.executeQuery().close();
+      }
+    }
+
+    // mirrors the guarded update the library uses to save the outcome of sending a notification
+    int saveOutcome(String id, Instant claimedUntil, String status) throws SQLException {
+      try (PreparedStatement statement = connection.prepareStatement("""
+          UPDATE %s
+          SET status = ?, claimed_until = NULL
+          WHERE id = %s
+          AND claimed_until = ?
+          """.formatted(getNotificationsTable(), getIdParameter())
+      )) {
+        statement.setString(1, status);
+        statement.setString(2, id);
+        statement.setObject(3, toOffsetDateTime(claimedUntil), Types.TIMESTAMP_WITH_TIMEZONE);
+        return statement.executeUpdate();
+      }
+    }
+
+    void commit() throws SQLException {
+      connection.commit();
+    }
+
+    void rollback() throws SQLException {
+      connection.rollback();
+    }
+
+    @Override
+    public void close() throws SQLException {
+      connection.rollback();
+      connection.close();
+    }
+  }
+}
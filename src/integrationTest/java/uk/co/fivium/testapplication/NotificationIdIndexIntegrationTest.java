@@ -0,0 +1,154 @@
+package uk.co.fivium.testapplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Compares inserting notifications with random version 4 UUIDs against time-ordered version 7 UUIDs, the way the
+ * library now generates notification IDs. The notifications are inserted into two copies of the notification table in
+ * the same batches, and the insert time and the size of each primary key index are logged. This runs against its own
+ * database rather than the test application, so the inserted notifications are never picked up by the scheduled jobs.
+ * Inserting a million notifications into each table takes minutes, so this is only run by the integrationBenchmark task.
+ */
+@Tag("benchmark")
+@DisplayName("GIVEN notifications are inserted with random and time-ordered IDs")
+class NotificationIdIndexIntegrationTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationIdIndexIntegrationTest.class);
+
+  private static final String SCHEMA = "id_index_test";
+
+  private static final int BATCHES = 100;
+
+  private static final int BATCH_SIZE = 10_000;
+
+  private static final String RANDOM_ID = "gen_random_uuid()";
+
+  // the millisecond timestamp written over the first 48 bits of a random UUID, with the version changed from 4 to 7,
+  // as PostgreSQL 14 has no function to generate version 7 UUIDs
+  private static final String TIME_ORDERED_ID = """
+      encode(
+        set_bit(
+          set_bit(
+            overlay(
+              uuid_send(gen_random_uuid())
+              placing substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::BIGINT) FROM 3)
+              FROM 1 FOR 6
+            ),
+            52, 1
+          ),
+          53, 1
+        ),
+        'hex'
+      )::UUID
+      """;
+
+  private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14.3");
+
+  private static JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  static void setup() {
+
+    POSTGRES.start();
+
+    var dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+
+    Flyway.configure()
+        .dataSource(dataSource)
+        .schemas(SCHEMA)
+        .locations("classpath:db/notification-library-migration/postgresql")
+        .load()
+        .migrate();
+
+    jdbcTemplate = new JdbcTemplate(dataSource);
+
+    jdbcTemplate.execute("""
+        CREATE TABLE id_index_test.random_id_notifications
+        (LIKE id_index_test.notification_library_notifications INCLUDING ALL)
+        """);
+
+    jdbcTemplate.execute("""
+        CREATE TABLE id_index_test.time_ordered_id_notifications
+        (LIKE id_index_test.notification_library_notifications INCLUDING ALL)
+        """);
+  }
+
+  @AfterAll
+  static void teardown() {
+    POSTGRES.stop();
+  }
+
+  @DisplayName("THEN the primary key index of the time-ordered IDs is smaller")
+  @Test
+  void whenInserted_thenTimeOrderedPrimaryKeyIndexSmaller() {
+
+    var randomInsertTime = Duration.ZERO;
+    var timeOrderedInsertTime = Duration.ZERO;
+
+    // the batches alternate between the tables so both see the same load on the database
+    for (int batch = 0; batch < BATCHES; batch++) {
+      randomInsertTime = randomInsertTime.plus(insertNotifications("random_id_notifications", RANDOM_ID));
+      timeOrderedInsertTime = timeOrderedInsertTime.plus(
+          insertNotifications("time_ordered_id_notifications", TIME_ORDERED_ID)
+      );
+    }
+
+    var randomIndexSize = getPrimaryKeyIndexSize("random_id_notifications");
+    var timeOrderedIndexSize = getPrimaryKeyIndexSize("time_ordered_id_notifications");
+
+    LOGGER.info(
+        "Inserted {} notifications with random IDs in {}ms ({} bytes of primary key index) and with time-ordered IDs " +
+            "in {}ms ({} bytes of primary key index)",
+        BATCHES * BATCH_SIZE,
+        randomInsertTime.toMillis(),
+        randomIndexSize,
+        timeOrderedInsertTime.toMillis(),
+        timeOrderedIndexSize
+    );
+
+    assertThat(timeOrderedIndexSize).isLessThan(randomIndexSize);
+  }
+
+  private static Duration insertNotifications(String tableName, String idExpression) {
+
+    var startedAt = System.nanoTime();
+
+    jdbcTemplate.execute("""
+        INSERT INTO id_index_test.%s (
+          id, type, status, notify_template_id, recipient, domain_reference_id, domain_reference_type, requested_on,
+          priority
+        )
+        SELECT
+          %s, 'EMAIL', 'QUEUED', 'template-id', 'someone@example.com', series::TEXT, 'test', now(), 'NORMAL'
+        FROM generate_series(1, %d) series
+        """.formatted(tableName, idExpression, BATCH_SIZE)
+    );
+
+    return Duration.ofNanos(System.nanoTime() - startedAt);
+  }
+
+  private static long getPrimaryKeyIndexSize(String tableName) {
+    return jdbcTemplate.queryForObject(
+        """
+        SELECT pg_relation_size(i.indexrelid)
+        FROM pg_index i
+        WHERE i.indrelid = 'id_index_test.%s'::REGCLASS
+        AND i.indisprimary
+        """.formatted(tableName),
+        Long.class
+    );
+  }
+}
@@ -0,0 +1,178 @@
+package uk.co.fivium.testapplication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Checks the claim queries are served by the queue indexes once the table holds millions of notifications which have
+ * finished being processed. This runs against its own database rather than the test application, so the seeded
+ * notifications are never picked up by the scheduled jobs. Seeding the notifications takes minutes, so this is only run
+ * by the integrationBenchmark task.
+ */
+@Tag("benchmark")
+@DisplayName("GIVEN millions of processed notifications and a small backlog in the database")
+class NotificationQueueIndexIntegrationTest {
+
+  private static final String SCHEMA = "queue_index_test";
+
+  private static final int PROCESSED_NOTIFICATIONS = 2_000_000;
+
+  private static final int QUEUED_NOTIFICATIONS = 3_000;
+
+  private static final int SENT_TO_NOTIFY_NOTIFICATIONS = 3_000;
+
+  // mirrors the claim query used by the library on PostgreSQL, with the statuses, priorities and time bound as
+  // parameters and the statuses of the queue being claimed from repeated as literals
+  private static final String CLAIM_QUERY = """
+      PREPARE claim_query(%s) AS
+      SELECT n.*
+      FROM queue_index_test.notification_library_notifications n
+      WHERE n.status IN (%s)
+      AND n.priority IN (%s)
+      AND (n.claimed_until IS NULL OR n.claimed_until <= $%d)
+      AND (n.next_status_check_at IS NULL OR n.next_status_check_at <= $%d)
+      AND (n.next_attempt_at IS NULL OR n.next_attempt_at <= $%d)
+      AND n.status IN (%s)
+      ORDER BY n.last_send_attempt_at ASC NULLS FIRST, n.requested_on ASC, n.id ASC
+      LIMIT $%d
+      FOR UPDATE SKIP LOCKED
+      """;
+
+  private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14.3");
+
+  private static JdbcTemplate jdbcTemplate;
+
+  @BeforeAll
+  static void setup() {
+
+    POSTGRES.start();
+
+    var dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+
+    Flyway.configure()
+        .dataSource(dataSource)
+        .schemas(SCHEMA)
+        .locations("classpath:db/notification-library-migration/postgresql")
+        .load()
+        .migrate();
+
+    jdbcTemplate = new JdbcTemplate(dataSource);
+
+    seedNotifications(PROCESSED_NOTIFICATIONS, "SENT", "now() - interval '1 day'");
+    seedNotifications(QUEUED_NOTIFICATIONS, "QUEUED", "NULL");
+    seedNotifications(SENT_TO_NOTIFY_NOTIFICATIONS, "SENT_TO_NOTIFY", "now() - interval '1 minute'");
+
+    jdbcTemplate.execute("ANALYZE queue_index_test.notification_library_notifications");
+  }
+
+  @AfterAll
+  static void teardown() {
+    POSTGRES.stop();
+  }
+
+  @DisplayName("THEN claiming notifications to send reads the send queue index")
+  @Test
+  void whenClaimingNotificationsToSend_thenSendQueueIndexUsed() {
+    assertThat(explainClaim(List.of("QUEUED", "RETRY"), List.of("HIGH"), "'QUEUED', 'RETRY'"))
+        .contains("notification_library_notifications_send_queue_idx")
+        .doesNotContain("Seq Scan");
+  }
+
+  @DisplayName("THEN claiming notifications to update reads the update queue index")
+  @Test
+  void whenClaimingNotificationsToUpdate_thenUpdateQueueIndexUsed() {
+    assertThat(explainClaim(
+        List.of("SENT_TO_NOTIFY"),
+        List.of("HIGH", "NORMAL", "LOW"),
+        "'SENDING_TO_NOTIFY', 'SENT_TO_NOTIFY', 'FAILED_TO_SEND_TO_NOTIFY'"
+    ))
+        .contains("notification_library_notifications_update_queue_idx")
+        .doesNotContain("Seq Scan");
+  }
+
+  /**
+   * Explain the generic plan of the claim query, which is the plan PostgreSQL uses once it has been run a few times with
+   * the statuses bound as parameters. The plan can't use the values bound to the parameters, so a partial index is only
+   * used if the literal statuses of the queue match its predicate.
+   */
+  private static String explainClaim(List<String> statuses, List<String> priorities, String queueStatuses) {
+
+    var parameterTypes = new ArrayList<String>();
+    var arguments = new ArrayList<String>();
+
+    var statusParameters = addParameters(statuses, "TEXT", parameterTypes, arguments);
+    var priorityParameters = addParameters(priorities, "TEXT", parameterTypes, arguments);
+    var claimableAtParameter = addParameters(List.of("now()"), "TIMESTAMPTZ", parameterTypes, arguments);
+    var limitParameter = addParameters(List.of("100"), "INT", parameterTypes, arguments);
+
+    var claimQuery = CLAIM_QUERY.formatted(
+        String.join(", ", parameterTypes),
+        statusParameters,
+        priorityParameters,
+        parameterTypes.size() - 1,
+        parameterTypes.size() - 1,
+        parameterTypes.size() - 1,
+        queueStatuses,
+        parameterTypes.size()
+    );
+
+    return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+      try (var statement = connection.createStatement()) {
+        statement.execute("SET plan_cache_mode = force_generic_plan");
+        statement.execute(claimQuery);
+        try (var resultSet = statement.executeQuery(
+            "EXPLAIN (FORMAT JSON) EXECUTE claim_query(%s)".formatted(String.join(", ", arguments))
+        )) {
+          resultSet.next();
+          return resultSet.getString(1);
+        } finally {
+          statement.execute("DEALLOCATE claim_query");
+          statement.execute("RESET plan_cache_mode");
+        }
+      }
+    });
+  }
+
+  private static String addParameters(List<String> values,
+                                      String type,
+                                      List<String> parameterTypes,
+                                      List<String> arguments) {
+
+    var parameters = new ArrayList<String>();
+
+    for (var value : values) {
+      parameterTypes.add(type);
+      parameters.add("$" + parameterTypes.size());
+      // the time and limit are passed as they are, the statuses and priorities as string literals
+      arguments.add("TIMESTAMPTZ".equals(type) || "INT".equals(type) ? value : "'%s'".formatted(value));
+    }
+
+    return String.join(", ", parameters);
+  }
+
+  private static void seedNotifications(int count, String status, String lastSendAttemptAt) {
+    jdbcTemplate.execute("""
+        INSERT INTO queue_index_test.notification_library_notifications (
+          id, type, status, notify_template_id, recipient, domain_reference_id, domain_reference_type, requested_on,
+          last_send_attempt_at, priority
+        )
+        SELECT
+          gen_random_uuid(), 'EMAIL', '%s', 'template-id', 'someone@example.com', series::TEXT, 'test', now(),
+          %s, (ARRAY['HIGH', 'NORMAL', 'LOW'])[1 + series %% 3]
+        FROM generate_series(1, %d) series
+        """.formatted(status, lastSendAttemptAt, count)
+    );
+  }
+}
@@ -0,0 +1,101 @@
+package uk.co.fivium.testapplication;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.OracleContainer;
+
+/**
+ * Runs the claim concurrency checks against Oracle, which doesn't allow a row limiting clause with FOR UPDATE, so rows
+ * are only locked as they are fetched and the claim stops reading once it has enough. This runs against its own
+ * database rather than the test application, which runs on PostgreSQL.
+ */
+@DisplayName("GIVEN notifications in an Oracle database are claimed by more than one node")
+class OracleNotificationClaimConcurrencyIntegrationTest extends NotificationClaimConcurrencyIntegrationTest {
+
+  private static final OracleContainer ORACLE = new OracleContainer("gvenzl/oracle-xe:21-slim-faststart");
+
+  private static DataSource dataSource;
+
+  @BeforeAll
+  static void setup() {
+
+    ORACLE.start();
+
+    dataSource = new DriverManagerDataSource(ORACLE.getJdbcUrl(), ORACLE.getUsername(), ORACLE.getPassword());
+
+    Flyway.configure()
+        .dataSource(dataSource)
+        .locations("classpath:db/notification-library-migration/oracle")
+        .load()
+        .migrate();
+  }
+
+  @AfterAll
+  static void stopDatabase() {
+    ORACLE.stop();
+  }
+
+  @Override
+  DataSource getDataSource() {
+    return dataSource;
+  }
+
+  @Override
+  String getNotificationsTable() {
+    return "notification_library_notifications";
+  }
+
+  @Override
+  String getIdColumn() {
+    return "RAWTOHEX(n.id)";
+  }
+
+  @Override
+  String getIdParameter() {
+    return "HEXTORAW(?)";
+  }
+
+  @Override
+  String getSeedStatement(int count) {
+    return """
+        INSERT INTO %s (
+          id, type, status, notify_template_id, recipient, domain_reference_id, domain_reference_type, requested_on,
+          last_send_attempt_at
+        )
+        SELECT
+          SYS_GUID(), 'EMAIL', 'QUEUED', 'template-id', 'someone@example.com', TO_CHAR(LEVEL), 'test', ?, ?
+        FROM dual
+        CONNECT BY LEVEL <= %d
+        """.formatted(getNotificationsTable(), count);
+  }
+
+  // mirrors the claim clause used by the library on Oracle, fetching and so locking only as many rows as are claimed
+  @Override
+  List<ClaimedNotification> claim(Connection connection, String query, List<Object> parameters, int limit)
+      throws SQLException {
+
+    try (var statement = connection.prepareStatement(query + "FOR UPDATE SKIP LOCKED")) {
+
+      bindParameters(statement, parameters);
+      statement.setFetchSize(limit);
+
+      List<ClaimedNotification> claimedNotifications = new ArrayList<>();
+
+      try (var resultSet = statement.executeQuery()) {
+        while (claimedNotifications.size() < limit && resultSet.next()) {
+          claimedNotifications.add(toClaimedNotification(resultSet));
+        }
+      }
+
+      return claimedNotifications;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package uk.co.fivium.testapplication;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Runs the claim concurrency checks against PostgreSQL, which limits the claim query and locks every row it returns.
+ * This runs against its own database rather than the test application, so the seeded notifications are never picked up
+ * by the scheduled jobs.
+ */
+@DisplayName("GIVEN notifications in a PostgreSQL database are claimed by more than one node")
+class PostgresNotificationClaimConcurrencyIntegrationTest extends NotificationClaimConcurrencyIntegrationTest {
+
+  private static final String SCHEMA = "claim_concurrency_test";
+
+  private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:14.3");
+
+  private static DataSource dataSource;
+
+  @BeforeAll
+  static void setup() {
+
+    POSTGRES.start();
+
+    dataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+
+    Flyway.configure()
+        .dataSource(dataSource)
+        .schemas(SCHEMA)
+        .locations("classpath:db/notification-library-migration/postgresql")
+        .load()
+        .migrate();
+  }
+
+  @AfterAll
+  static void stopDatabase() {
+    POSTGRES.stop();
+  }
+
+  @Override
+  DataSource getDataSource() {
+    return dataSource;
+  }
+
+  @Override
+  String getNotificationsTable() {
+    return SCHEMA + ".notification_library_notifications";
+  }
+
+  @Override
+  String getIdColumn() {
+    return "n.id::TEXT";
+  }
+
+  @Override
+  String getIdParameter() {
+    return "CAST(? AS UUID)";
+  }
+
+  @Override
+  String getSeedStatement(int count) {
+    return """
+        INSERT INTO %s (
+          id, type, status, notify_template_id, recipient, domain_reference_id, domain_reference_type, requested_on,
+          last_send_attempt_at
+        )
+        SELECT
+          gen_random_uuid(), 'EMAIL', 'QUEUED', 'template-id', 'someone@example.com', series::TEXT, 'test', ?, ?
+        FROM generate_series(1, %d) series
+        """.formatted(getNotificationsTable(), count);
+  }
+
+  // mirrors the claim clause used by the library on PostgreSQL
+  @Override
+  List<ClaimedNotification> claim(Connection connection, String query, List<Object> parameters, int limit)
+      throws SQLException {
+
+    List<Object> limitedParameters = new ArrayList<>(parameters);
+    limitedParameters.add(limit);
+
+    try (var statement = connection.prepareStatement(query + "LIMIT ?\nFOR UPDATE SKIP LOCKED")) {
+
+      bindParameters(statement, limitedParameters);
+
+      List<ClaimedNotification> claimedNotifications = new ArrayList<>();
+
+      try (var resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          claimedNotifications.add(toClaimedNotification(resultSet));
+        }
+      }
+
+      return claimedNotifications;
+    }
+  }
+}
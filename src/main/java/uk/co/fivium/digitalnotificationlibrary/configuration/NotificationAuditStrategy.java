@@ -0,0 +1,13 @@
+package uk.co.fivium.digitalnotificationlibrary.configuration;
+
+/**
+ * Enum containing the ways changes to notifications can be audited.
+ */
+public enum NotificationAuditStrategy {
+  /** Every change to a notification is audited by Hibernate Envers, including its mail merge fields and attachments. */
+  ENVERS,
+  /** Only changes to the status of a notification are recorded, in a narrow append-only status transition table. */
+  JOURNAL,
+  /** Changes to notifications are not audited. */
+  NONE
+}
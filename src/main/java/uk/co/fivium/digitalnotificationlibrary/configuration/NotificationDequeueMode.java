@@ -0,0 +1,11 @@
+package uk.co.fivium.digitalnotificationlibrary.configuration;
+
+/**
+ * Enum containing the ways nodes running the library can coordinate processing notifications.
+ */
+public enum NotificationDequeueMode {
+  /** Only one node processes notifications at any time, coordinated by a ShedLock scheduler lock. */
+  SCHEDULER_LOCK,
+  /** Every node processes notifications at the same time, each claiming its own batch of notifications. */
+  CLAIM
+}
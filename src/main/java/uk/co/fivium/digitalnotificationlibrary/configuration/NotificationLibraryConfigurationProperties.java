@@ -5,8 +5,10 @@ import jakarta.validation.constraints.NotNull;
 import java.util.Optional;
 import java.util.Set;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+import org.springframework.boot.context.properties.bind.ConstructorBinding;
 import org.springframework.lang.NonNull;
 import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
@@ -35,6 +37,90 @@ public record NotificationLibraryConfigurationProperties(@NotNull GovukNotify go
   /** The default notification poll time for the library. Set as string so can use in annotations. */
   public static final String DEFAULT_NOTIFICATION_POLL_TIME_SECONDS = "10";
 
+  /** The default number of notifications sent to GOV.UK notify concurrently. A value of 1 sends sequentially. */
+  public static final int DEFAULT_SEND_CONCURRENCY = 1;
+
+  /** The default number of notification updates written to the database in each batch. */
+  public static final int DEFAULT_PERSISTENCE_BATCH_SIZE = 50;
+
+  /** The default number of seconds a node holds a claim on notifications it has taken from the queue. */
+  public static final int DEFAULT_CLAIM_LEASE_SECONDS = 300;
+
+  /** The default maximum number of requests a minute made to GOV.UK notify, matching the GOV.UK notify rate limit. */
+  public static final int DEFAULT_RATE_LIMIT_REQUESTS_PER_MINUTE = 3000;
+
+  /** The longest a node can hold the scheduler lock for. Set as string so can use in annotations. */
+  public static final String SCHEDULER_LOCK_AT_MOST_FOR_SECONDS = "600";
+
+  /**
+   * The number of seconds a single run of the archive or retention job can keep starting new batches for, half the
+   * longest a node can hold the scheduler lock for so a run finishes before another node can take the lock.
+   */
+  public static final int HOUSEKEEPING_CYCLE_TIME_BUDGET_SECONDS = Integer.parseInt(SCHEDULER_LOCK_AT_MOST_FOR_SECONDS) / 2;
+
+  /** The default number of seconds a single processing cycle can keep sending pages of notifications in drain mode. */
+  public static final int DEFAULT_DRAIN_CYCLE_TIME_BUDGET_SECONDS = 300;
+
+  /** The flyway vendor used when the library is running against an Oracle database. */
+  public static final String ORACLE_VENDOR = "oracle";
+
+  /** The default share of each batch of notifications given to the high priority lane. */
+  public static final int DEFAULT_HIGH_PRIORITY_WEIGHT = 6;
+
+  /** The default share of each batch of notifications given to the normal priority lane. */
+  public static final int DEFAULT_NORMAL_PRIORITY_WEIGHT = 3;
+
+  /** The default share of each batch of notifications given to the low priority lane. */
+  public static final int DEFAULT_LOW_PRIORITY_WEIGHT = 1;
+
+  /** The default maximum number of pages of notifications requested from GOV.UK notify when updating statuses in bulk. */
+  public static final int DEFAULT_BULK_STATUS_UPDATE_MAX_PAGES = 10;
+
+  /** The default share of each status update batch given to notifications waiting in GOV.UK notify. */
+  public static final int DEFAULT_SENT_TO_NOTIFY_STATUS_UPDATE_WEIGHT = 6;
+
+  /** The default share of each status update batch given to notifications which failed to send to GOV.UK notify. */
+  public static final int DEFAULT_FAILED_TO_SEND_STATUS_UPDATE_WEIGHT = 3;
+
+  /** The default share of each status update batch given to notifications abandoned while being sent. */
+  public static final int DEFAULT_SENDING_TO_NOTIFY_STATUS_UPDATE_WEIGHT = 1;
+
+  /** The default number of days after being requested that processed notifications are archived. */
+  public static final int DEFAULT_ARCHIVE_AFTER_DAYS = 90;
+
+  /** The default number of notifications moved to the archive in each transaction. */
+  public static final int DEFAULT_ARCHIVE_BATCH_SIZE = 500;
+
+  /** The largest number of notifications which can be moved to the archive in each transaction. */
+  public static final int MAX_ARCHIVE_BATCH_SIZE = 1000;
+
+  /** The default archive job poll time. Set as string so can use in annotations. */
+  public static final String DEFAULT_ARCHIVE_POLL_TIME_SECONDS = "3600";
+
+  /** The default number of days after being requested that processed notifications are deleted. */
+  public static final int DEFAULT_RETENTION_DAYS = 365;
+
+  /** The default number of notifications deleted in each transaction. */
+  public static final int DEFAULT_RETENTION_BATCH_SIZE = 200;
+
+  /** The largest number of notifications which can be deleted in each transaction. */
+  public static final int MAX_RETENTION_BATCH_SIZE = 1000;
+
+  /** The default number of milliseconds to pause between each batch of deletes. */
+  public static final int DEFAULT_RETENTION_BATCH_DELAY_MILLIS = 200;
+
+  /** The default retention job poll time. Set as string so can use in annotations. */
+  public static final String DEFAULT_RETENTION_POLL_TIME_SECONDS = "3600";
+
+  /** The default size in bytes a notification payload must reach before it is compressed. */
+  public static final int DEFAULT_PAYLOAD_COMPRESSION_MINIMUM_BYTES = 512;
+
+  /** The default number of notifications inserted in each transaction when notifications are queued from a stream. */
+  public static final int DEFAULT_STREAMING_ENQUEUE_CHUNK_SIZE = 1000;
+
+  /** The default number of seconds between each count of the notifications the library still has to process. */
+  public static final int DEFAULT_BACKLOG_METRICS_POLL_TIME_SECONDS = 60;
+
   /**
    * The configuration for interactions between the library and GOV.UK notify.
    * @param apiKey The API key to use for GOV.UK notify
@@ -47,8 +133,258 @@ public record NotificationLibraryConfigurationProperties(@NotNull GovukNotify go
    * @param pollTimeSeconds Number of seconds between each iteration of the notification processing job
    * @param bulkRetrievalLimit For each iteration of the notification processing job, how many notifications will be
    *                           processed in that interaction.
+   * @param sendConcurrency The maximum number of notifications which will be sent to GOV.UK notify at the same time
+   *                        during each iteration of the notification processing job
+   * @param persistenceBatchSize The maximum number of notification updates written to the database in a single
+   *                             transaction and JDBC batch at the end of each iteration of the notification
+   *                             processing job
+   * @param dequeue The configuration for how notifications are taken from the queue for processing
+   * @param drain The configuration for sending a backlog of notifications as quickly as possible
+   * @param rateLimit The configuration for limiting the rate of requests made to GOV.UK notify
+   * @param sending The configuration for the job sending notifications to GOV.UK notify. Any values not provided are
+   *                taken from the poll time and bulk retrieval limit above.
+   * @param statusUpdate The configuration for the job updating the status of notifications sent to GOV.UK notify. Any
+   *                     values not provided are taken from the poll time and bulk retrieval limit above.
+   * @param priorityWeights The share of each batch of notifications given to each priority lane
+   * @param immediateDispatch The configuration for sending notifications as soon as they have been queued
+   * @param listen The configuration for waking the sending job when notifications are queued on PostgreSQL
+   * @param bulkStatusUpdate The configuration for updating the status of notifications from pages of notifications
+   *                         requested from GOV.UK notify
+   * @param deliveryReceipt The configuration for receiving delivery receipts from GOV.UK notify
+   * @param statusUpdateWeights The share of each status update batch given to notifications with each status
+   * @param archive The configuration for moving processed notifications out of the notification table
+   * @param retention The configuration for deleting processed notifications and their audit rows
+   * @param audit The configuration for how changes to notifications are audited
+   * @param payloadCompression The configuration for compressing the mail merge fields and file attachments of
+   *                           notifications when they are stored
+   * @param streamingEnqueue The configuration for queueing notifications from a stream of requests
+   * @param backlogMetrics The configuration for publishing the number of notifications the library still has to process
+   */
+  public record Notification(Integer pollTimeSeconds,
+                             Integer bulkRetrievalLimit,
+                             Integer sendConcurrency,
+                             Integer persistenceBatchSize,
+                             Dequeue dequeue,
+                             Drain drain,
+                             RateLimit rateLimit,
+                             Schedule sending,
+                             Schedule statusUpdate,
+                             PriorityWeights priorityWeights,
+                             ImmediateDispatch immediateDispatch,
+                             Listen listen,
+                             BulkStatusUpdate bulkStatusUpdate,
+                             DeliveryReceipt deliveryReceipt,
+                             StatusUpdateWeights statusUpdateWeights,
+                             Archive archive,
+                             Retention retention,
+                             Audit audit,
+                             PayloadCompression payloadCompression,
+                             StreamingEnqueue streamingEnqueue,
+                             BacklogMetrics backlogMetrics) {
+
+    // the properties are bound with every component, even though there is another constructor
+    @ConstructorBinding
+    public Notification {
+    }
+
+    /**
+     * The configuration for handling and processing notifications with only the poll time and bulk retrieval limit set,
+     * as it was before the other configuration was added. Everything else takes its default.
+     * @param pollTimeSeconds Number of seconds between each iteration of the notification processing job
+     * @param bulkRetrievalLimit For each iteration of the notification processing job, how many notifications will be
+     *                           processed in that interaction.
+     */
+    public Notification(Integer pollTimeSeconds, Integer bulkRetrievalLimit) {
+      this(
+          pollTimeSeconds,
+          bulkRetrievalLimit,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null,
+          null
+      );
+    }
+  }
+
+  /**
+   * The configuration for one of the scheduled notification processing jobs.
+   * @param pollTimeSeconds Number of seconds between each iteration of the job
+   * @param bulkRetrievalLimit For each iteration of the job, how many notifications will be processed
+   */
+  public record Schedule(Integer pollTimeSeconds, Integer bulkRetrievalLimit) {
+  }
+
+  /**
+   * The configuration for how each batch of notifications is shared between the priority lanes. Each lane is first given
+   * its weighted share of the batch, highest priority first, and any of the batch not used by a lane is then given to
+   * the other lanes, also highest priority first.
+   * @param high The weight of the high priority lane
+   * @param normal The weight of the normal priority lane
+   * @param low The weight of the low priority lane
+   */
+  public record PriorityWeights(Integer high, Integer normal, Integer low) {
+  }
+
+  /**
+   * The configuration for sending notifications as soon as they have been queued.
+   * @param enabled If true, notifications are sent to GOV.UK notify as soon as the transaction queueing them commits
+   *                rather than waiting for the next iteration of the sending job. The sending job still sends any
+   *                notifications which could not be sent immediately.
+   */
+  public record ImmediateDispatch(Boolean enabled) {
+  }
+
+  /**
+   * The configuration for waking the sending job when notifications are queued. This is only supported on PostgreSQL.
+   * @param enabled If true, each node listens for a PostgreSQL notification issued whenever notifications are queued
+   *                and runs the sending job straight away. The sending job still runs every poll interval as a
+   *                fallback, so the sending poll time can be increased to reduce the load from idle polling.
+   */
+  public record Listen(Boolean enabled) {
+  }
+
+  /**
+   * The configuration for updating the status of notifications from pages of notifications requested from GOV.UK
+   * notify, rather than requesting each notification individually.
+   * @param enabled If true, the status update job pages through the notifications recently sent by GOV.UK notify and
+   *                matches them to the notifications being updated. Any notifications not found in the pages are
+   *                requested individually.
+   * @param maxPages The maximum number of pages of notifications requested from GOV.UK notify in each iteration of
+   *                 the status update job
+   */
+  public record BulkStatusUpdate(Boolean enabled, Integer maxPages) {
+  }
+
+  /**
+   * The configuration for receiving delivery receipts from GOV.UK notify.
+   * @param bearerToken The bearer token configured for the callback in GOV.UK notify. Delivery receipts which do not
+   *                    include this token are rejected, and all delivery receipts are rejected if it is not provided.
+   */
+  public record DeliveryReceipt(String bearerToken) {
+  }
+
+  /**
+   * The configuration for how each batch of the status update job is shared between the statuses it updates. Each
+   * status is claimed separately and first given its weighted share of the batch, so a backlog of notifications with
+   * one status cannot stop notifications with the other statuses being updated. Any of the batch not used by a status
+   * is then given to the other statuses.
+   * @param sentToNotify The weight of notifications sent to GOV.UK notify which are waiting to be delivered
+   * @param failedToSendToNotify The weight of notifications which failed to send to GOV.UK notify and are waiting to
+   *                             be retried
+   * @param sendingToNotify The weight of notifications whose send attempt was abandoned by a node which stopped
+   */
+  public record StatusUpdateWeights(Integer sentToNotify, Integer failedToSendToNotify, Integer sendingToNotify) {
+  }
+
+  /**
+   * The configuration for moving notifications which have finished being processed into an archive table, so the
+   * notification table only holds the notifications the library is working on and those recently processed.
+   * @param enabled If true, a scheduled job moves processed notifications into the archive table in batches
+   * @param afterDays Number of days after being requested that processed notifications are archived
+   * @param batchSize The number of notifications moved to the archive in each transaction
+   * @param pollTimeSeconds Number of seconds between each iteration of the archive job
+   */
+  public record Archive(Boolean enabled, Integer afterDays, Integer batchSize, Integer pollTimeSeconds) {
+  }
+
+  /**
+   * The configuration for deleting notifications which have finished being processed, from both the notification and
+   * archive tables, along with their audit rows.
+   * @param enabled If true, a scheduled job deletes processed notifications in batches once their retention period
+   *                has passed
+   * @param sentDays Number of days after being requested that sent notifications are deleted
+   * @param failedNotSentDays Number of days after being requested that notifications which failed to send are deleted
+   * @param unexpectedNotifyStatusDays Number of days after being requested that notifications with an unexpected
+   *                                   GOV.UK notify status are deleted
+   * @param batchSize The number of notifications deleted in each transaction
+   * @param batchDelayMillis Number of milliseconds to pause between each batch, to limit the load on the database
+   * @param pollTimeSeconds Number of seconds between each iteration of the retention job
+   */
+  public record Retention(Boolean enabled,
+                          Integer sentDays,
+                          Integer failedNotSentDays,
+                          Integer unexpectedNotifyStatusDays,
+                          Integer batchSize,
+                          Integer batchDelayMillis,
+                          Integer pollTimeSeconds) {
+  }
+
+  /**
+   * The configuration for how changes to notifications are audited.
+   * @param strategy The way changes to notifications are audited
+   */
+  public record Audit(NotificationAuditStrategy strategy) {
+  }
+
+  /**
+   * The configuration for compressing the mail merge fields and file attachments of notifications when they are stored.
+   * @param enabled If true, the mail merge fields and file attachments of new notifications are stored compressed
+   * @param minimumBytes The size in bytes the mail merge fields and file attachments must reach before they are
+   *                     compressed. Smaller payloads are stored uncompressed, as compressing them saves little or
+   *                     nothing.
+   */
+  public record PayloadCompression(Boolean enabled, Integer minimumBytes) {
+  }
+
+  /**
+   * The configuration for queueing notifications from a stream of requests.
+   * @param chunkSize The number of notifications inserted and committed in each transaction. Only one chunk of
+   *                  notifications is held in memory at a time.
+   */
+  public record StreamingEnqueue(Integer chunkSize) {
+  }
+
+  /**
+   * The configuration for publishing the number of notifications the library still has to process.
+   * @param pollTimeSeconds Number of seconds between each count of the notifications with each status
    */
-  public record Notification(Integer pollTimeSeconds, Integer bulkRetrievalLimit) {
+  public record BacklogMetrics(Integer pollTimeSeconds) {
+  }
+
+  /**
+   * The configuration for how notifications are taken from the queue for processing.
+   * @param mode The way nodes running the library coordinate processing notifications
+   * @param claimLeaseSeconds Number of seconds a node keeps its claim on the notifications it has taken from the queue.
+   *                          If the node hasn't finished processing a notification in this time, it can be claimed
+   *                          by another node.
+   */
+  public record Dequeue(NotificationDequeueMode mode, Integer claimLeaseSeconds) {
+  }
+
+  /**
+   * The configuration for sending a backlog of notifications as quickly as possible.
+   * @param enabled If true, each iteration of the notification processing job will keep sending pages of
+   *                notifications back to back while there are more notifications waiting to be sent
+   * @param cycleTimeBudgetSeconds Number of seconds after which an iteration of the notification processing job will
+   *                               stop starting new pages of notifications. This must be less than the time the
+   *                               scheduler lock is held for at most.
+   */
+  public record Drain(Boolean enabled, Integer cycleTimeBudgetSeconds) {
+  }
+
+  /**
+   * The configuration for limiting the rate of requests made to GOV.UK notify. The limit is shared by all nodes
+   * running the library.
+   * @param enabled If true, requests to GOV.UK notify are limited to the configured rate. Defaults to false, in which
+   *                case requests are made to GOV.UK notify as fast as notifications are processed
+   * @param requestsPerMinute The maximum number of requests a minute made to GOV.UK notify across all nodes
+   */
+  public record RateLimit(Boolean enabled, Integer requestsPerMinute) {
   }
 
   /**
@@ -93,6 +429,169 @@ public record NotificationLibraryConfigurationProperties(@NotNull GovukNotify go
           "You must set test email and sms recipients when in test mode"
       );
     }
+
+    if (getSendingPollTimeSeconds() < 1 || getStatusUpdatePollTimeSeconds() < 1) {
+      errors.reject(
+          "notification.poll-time-seconds.invalid",
+          "The notification poll time must be at least 1 second"
+      );
+    }
+
+    if (getSendingBulkRetrievalLimit() < 1 || getStatusUpdateBulkRetrievalLimit() < 1) {
+      errors.reject(
+          "notification.bulk-retrieval-limit.invalid",
+          "The notification bulk retrieval limit must be at least 1"
+      );
+    }
+
+    if (getSendConcurrency() < 1) {
+      errors.reject(
+          "notification.send-concurrency.invalid",
+          "The notification send concurrency must be at least 1"
+      );
+    }
+
+    if (getPersistenceBatchSize() < 1) {
+      errors.reject(
+          "notification.persistence-batch-size.invalid",
+          "The notification persistence batch size must be at least 1"
+      );
+    }
+
+    if (getDrainCycleTimeBudgetSeconds() < 1
+        || getDrainCycleTimeBudgetSeconds() >= Integer.parseInt(SCHEDULER_LOCK_AT_MOST_FOR_SECONDS)) {
+      errors.reject(
+          "notification.drain.cycle-time-budget-seconds.invalid",
+          "The notification drain cycle time budget must be at least 1 second and less than %s seconds"
+              .formatted(SCHEDULER_LOCK_AT_MOST_FOR_SECONDS)
+      );
+    }
+
+    if (getRateLimitRequestsPerMinute() < 1) {
+      errors.reject(
+          "notification.rate-limit.requests-per-minute.invalid",
+          "The notification rate limit must be at least 1 request per minute"
+      );
+    }
+
+    if (getHighPriorityWeight() < 1 || getNormalPriorityWeight() < 1 || getLowPriorityWeight() < 1) {
+      errors.reject(
+          "notification.priority-weights.invalid",
+          "The notification priority weights must be at least 1"
+      );
+    }
+
+    if (getSentToNotifyStatusUpdateWeight() < 1
+        || getFailedToSendStatusUpdateWeight() < 1
+        || getSendingToNotifyStatusUpdateWeight() < 1) {
+      errors.reject(
+          "notification.status-update-weights.invalid",
+          "The notification status update weights must be at least 1"
+      );
+    }
+
+    if (getArchiveAfterDays() < 1) {
+      errors.reject(
+          "notification.archive.after-days.invalid",
+          "The notification archive after days must be at least 1"
+      );
+    }
+
+    if (getArchiveBatchSize() < 1 || getArchiveBatchSize() > MAX_ARCHIVE_BATCH_SIZE) {
+      errors.reject(
+          "notification.archive.batch-size.invalid",
+          "The notification archive batch size must be between 1 and %s".formatted(MAX_ARCHIVE_BATCH_SIZE)
+      );
+    }
+
+    if (getArchivePollTimeSeconds() < 1) {
+      errors.reject(
+          "notification.archive.poll-time-seconds.invalid",
+          "The notification archive poll time must be at least 1 second"
+      );
+    }
+
+    if (getSentRetentionDays() < 1 || getFailedNotSentRetentionDays() < 1 || getUnexpectedNotifyStatusRetentionDays() < 1) {
+      errors.reject(
+          "notification.retention.days.invalid",
+          "The notification retention periods must be at least 1 day"
+      );
+    }
+
+    if (getRetentionBatchSize() < 1 || getRetentionBatchSize() > MAX_RETENTION_BATCH_SIZE) {
+      errors.reject(
+          "notification.retention.batch-size.invalid",
+          "The notification retention batch size must be between 1 and %s".formatted(MAX_RETENTION_BATCH_SIZE)
+      );
+    }
+
+    if (getRetentionBatchDelayMillis() < 0) {
+      errors.reject(
+          "notification.retention.batch-delay-millis.invalid",
+          "The notification retention batch delay must not be negative"
+      );
+    }
+
+    if (getRetentionPollTimeSeconds() < 1) {
+      errors.reject(
+          "notification.retention.poll-time-seconds.invalid",
+          "The notification retention poll time must be at least 1 second"
+      );
+    }
+
+    if (getBacklogMetricsPollTimeSeconds() < 1) {
+      errors.reject(
+          "notification.backlog-metrics.poll-time-seconds.invalid",
+          "The notification backlog metrics poll time must be at least 1 second"
+      );
+    }
+
+    if (getStreamingEnqueueChunkSize() < 1) {
+      errors.reject(
+          "notification.streaming-enqueue.chunk-size.invalid",
+          "The streaming enqueue chunk size must be at least 1"
+      );
+    }
+
+    if (getBulkStatusUpdateMaxPages() < 1) {
+      errors.reject(
+          "notification.bulk-status-update.max-pages.invalid",
+          "The notification bulk status update max pages must be at least 1"
+      );
+    }
+
+    if (notification().deliveryReceipt() != null
+        && notification().deliveryReceipt().bearerToken() != null
+        && StringUtils.isBlank(notification().deliveryReceipt().bearerToken())) {
+      errors.reject(
+          "notification.delivery-receipt.bearer-token.invalid",
+          "The notification delivery receipt bearer token must not be blank"
+      );
+    }
+
+    if (isListenEnabled() && ORACLE_VENDOR.equalsIgnoreCase(flywayVendor())) {
+      errors.reject(
+          "notification.listen.enabled.invalid",
+          "Listening for queued notifications is only supported on PostgreSQL"
+      );
+    }
+
+    if (getClaimLeaseSeconds() < 1) {
+      errors.reject(
+          "notification.dequeue.claim-lease-seconds.invalid",
+          "The notification claim lease must be at least 1 second"
+      );
+    }
+  }
+
+  /**
+   * Method to get the number of seconds between each iteration of the notification processing jobs. This is either
+   * consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided poll time or the default library poll time if one is not provided
+   */
+  public int getPollTimeSeconds() {
+    return Optional.ofNullable(notification().pollTimeSeconds())
+        .orElse(Integer.parseInt(DEFAULT_NOTIFICATION_POLL_TIME_SECONDS));
   }
 
   /**
@@ -105,11 +604,468 @@ public record NotificationLibraryConfigurationProperties(@NotNull GovukNotify go
         .orElse(DEFAULT_BULK_RETRIEVAL_LIMIT);
   }
 
+  /**
+   * Method to get the number of seconds between each iteration of the job sending notifications to GOV.UK notify. This
+   * is either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided sending poll time, the consumer provided poll time or the default library poll time
+   */
+  public int getSendingPollTimeSeconds() {
+    return Optional.ofNullable(notification().sending())
+        .map(Schedule::pollTimeSeconds)
+        .orElseGet(this::getPollTimeSeconds);
+  }
+
+  /**
+   * Method to get how many notifications are sent to GOV.UK notify in each iteration of the sending job. This is either
+   * consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided sending retrieval limit, the consumer provided retrieval limit or the default library
+   *         limit
+   */
+  public int getSendingBulkRetrievalLimit() {
+    return Optional.ofNullable(notification().sending())
+        .map(Schedule::bulkRetrievalLimit)
+        .orElseGet(this::getBulkRetrievalLimit);
+  }
+
+  /**
+   * Method to get the number of seconds between each iteration of the job updating the status of notifications. This
+   * is either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided status update poll time, the consumer provided poll time or the default library poll
+   *         time
+   */
+  public int getStatusUpdatePollTimeSeconds() {
+    return Optional.ofNullable(notification().statusUpdate())
+        .map(Schedule::pollTimeSeconds)
+        .orElseGet(this::getPollTimeSeconds);
+  }
+
+  /**
+   * Method to get how many notifications have their status updated in each iteration of the status update job. This is
+   * either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided status update retrieval limit, the consumer provided retrieval limit or the default
+   *         library limit
+   */
+  public int getStatusUpdateBulkRetrievalLimit() {
+    return Optional.ofNullable(notification().statusUpdate())
+        .map(Schedule::bulkRetrievalLimit)
+        .orElseGet(this::getBulkRetrievalLimit);
+  }
+
+  /**
+   * Method to get the number of notifications which can be sent to GOV.UK notify at the same time. This is either
+   * consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided send concurrency or the default library concurrency if one is not provided
+   */
+  public int getSendConcurrency() {
+    return Optional.ofNullable(notification().sendConcurrency())
+        .orElse(DEFAULT_SEND_CONCURRENCY);
+  }
+
+  /**
+   * Method to get the number of notification updates written to the database in each batch. This is either consumer
+   * provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided persistence batch size or the default library batch size if one is not provided
+   */
+  public int getPersistenceBatchSize() {
+    return Optional.ofNullable(notification().persistenceBatchSize())
+        .orElse(DEFAULT_PERSISTENCE_BATCH_SIZE);
+  }
+
+  /**
+   * Method to get the way nodes running the library coordinate processing notifications. This is either consumer
+   * provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided dequeue mode or the default library mode if one is not provided
+   */
+  public NotificationDequeueMode getDequeueMode() {
+    return Optional.ofNullable(notification().dequeue())
+        .map(Dequeue::mode)
+        .orElse(NotificationDequeueMode.SCHEDULER_LOCK);
+  }
+
+  /**
+   * Method to get the number of seconds a node keeps its claim on notifications taken from the queue. This is either
+   * consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided claim lease or the default library claim lease if one is not provided
+   */
+  public int getClaimLeaseSeconds() {
+    return Optional.ofNullable(notification().dequeue())
+        .map(Dequeue::claimLeaseSeconds)
+        .orElse(DEFAULT_CLAIM_LEASE_SECONDS);
+  }
+
+  /**
+   * Method to check if each iteration of the notification processing job should keep sending pages of notifications
+   * while there are more notifications waiting to be sent. This is either consumer provided or defaulted within the
+   * library and should not be used by the consumers.
+   * @return true if the consumer has enabled drain mode, false otherwise
+   */
+  public boolean isDrainEnabled() {
+    return Optional.ofNullable(notification().drain())
+        .map(Drain::enabled)
+        .orElse(false);
+  }
+
+  /**
+   * Method to get the number of seconds after which an iteration of the notification processing job in drain mode will
+   * stop starting new pages of notifications. This is either consumer provided or defaulted within the library and
+   * should not be used by the consumers.
+   * @return the consumer provided cycle time budget or the default library budget if one is not provided
+   */
+  public int getDrainCycleTimeBudgetSeconds() {
+    return Optional.ofNullable(notification().drain())
+        .map(Drain::cycleTimeBudgetSeconds)
+        .orElse(DEFAULT_DRAIN_CYCLE_TIME_BUDGET_SECONDS);
+  }
+
+  /**
+   * Method to check if the rate of requests made to GOV.UK notify should be limited. This is either consumer provided
+   * or defaulted within the library and should not be used by the consumers.
+   * @return true if the consumer has enabled the rate limit, false otherwise
+   */
+  public boolean isRateLimitEnabled() {
+    return Optional.ofNullable(notification().rateLimit())
+        .map(RateLimit::enabled)
+        .orElse(false);
+  }
+
+  /**
+   * Method to get the maximum number of requests a minute made to GOV.UK notify across all nodes. This is either
+   * consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided rate limit or the default library rate limit if one is not provided
+   */
+  public int getRateLimitRequestsPerMinute() {
+    return Optional.ofNullable(notification().rateLimit())
+        .map(RateLimit::requestsPerMinute)
+        .orElse(DEFAULT_RATE_LIMIT_REQUESTS_PER_MINUTE);
+  }
+
   public Notification notification() {
     return Optional.ofNullable(notification)
         .orElse(new Notification(
             Integer.parseInt(DEFAULT_NOTIFICATION_POLL_TIME_SECONDS),
-            DEFAULT_BULK_RETRIEVAL_LIMIT
+            DEFAULT_BULK_RETRIEVAL_LIMIT,
+            DEFAULT_SEND_CONCURRENCY,
+            DEFAULT_PERSISTENCE_BATCH_SIZE,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null
         ));
   }
-}
\ No newline at end of file
+
+  /**
+   * Method to get the weight of the high priority lane when sharing each batch of notifications between the lanes. This
+   * is either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided weight or the default library weight if one is not provided
+   */
+  public int getHighPriorityWeight() {
+    return Optional.ofNullable(notification().priorityWeights())
+        .map(PriorityWeights::high)
+        .orElse(DEFAULT_HIGH_PRIORITY_WEIGHT);
+  }
+
+  /**
+   * Method to get the weight of the normal priority lane when sharing each batch of notifications between the lanes.
+   * This is either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided weight or the default library weight if one is not provided
+   */
+  public int getNormalPriorityWeight() {
+    return Optional.ofNullable(notification().priorityWeights())
+        .map(PriorityWeights::normal)
+        .orElse(DEFAULT_NORMAL_PRIORITY_WEIGHT);
+  }
+
+  /**
+   * Method to get the weight of the low priority lane when sharing each batch of notifications between the lanes. This
+   * is either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided weight or the default library weight if one is not provided
+   */
+  public int getLowPriorityWeight() {
+    return Optional.ofNullable(notification().priorityWeights())
+        .map(PriorityWeights::low)
+        .orElse(DEFAULT_LOW_PRIORITY_WEIGHT);
+  }
+
+  /**
+   * Method to determine if notifications should be sent to GOV.UK notify as soon as they have been queued. This is
+   * either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided value or false if one is not provided
+   */
+  public boolean isImmediateDispatchEnabled() {
+    return Optional.ofNullable(notification().immediateDispatch())
+        .map(ImmediateDispatch::enabled)
+        .orElse(false);
+  }
+
+  /**
+   * Method to determine if the sending job should be woken when notifications are queued on PostgreSQL. This is either
+   * consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided value or false if one is not provided
+   */
+  public boolean isListenEnabled() {
+    return Optional.ofNullable(notification().listen())
+        .map(Listen::enabled)
+        .orElse(false);
+  }
+
+  /**
+   * Method to determine if notification statuses should be updated from pages of notifications requested from GOV.UK
+   * notify. This is either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided value or false if one is not provided
+   */
+  public boolean isBulkStatusUpdateEnabled() {
+    return Optional.ofNullable(notification().bulkStatusUpdate())
+        .map(BulkStatusUpdate::enabled)
+        .orElse(false);
+  }
+
+  /**
+   * Method to get the maximum number of pages of notifications requested from GOV.UK notify in each iteration of the
+   * status update job. This is either consumer provided or defaulted within the library and should not be used by the
+   * consumers.
+   * @return the consumer provided maximum or the default library maximum if one is not provided
+   */
+  public int getBulkStatusUpdateMaxPages() {
+    return Optional.ofNullable(notification().bulkStatusUpdate())
+        .map(BulkStatusUpdate::maxPages)
+        .orElse(DEFAULT_BULK_STATUS_UPDATE_MAX_PAGES);
+  }
+
+  /**
+   * Method to get the bearer token GOV.UK notify includes in delivery receipts. This is consumer provided and should not
+   * be used by the consumers.
+   * @return the consumer provided bearer token or empty if one is not provided
+   */
+  public Optional<String> getDeliveryReceiptBearerToken() {
+    return Optional.ofNullable(notification().deliveryReceipt())
+        .map(DeliveryReceipt::bearerToken)
+        .filter(StringUtils::isNotBlank);
+  }
+
+  /**
+   * Method to get the weight of notifications waiting in GOV.UK notify when sharing each batch of the status update job
+   * between the statuses it updates. This is either consumer provided or defaulted within the library and should not be
+   * used by the consumers.
+   * @return the consumer provided weight or the default library weight if one is not provided
+   */
+  public int getSentToNotifyStatusUpdateWeight() {
+    return Optional.ofNullable(notification().statusUpdateWeights())
+        .map(StatusUpdateWeights::sentToNotify)
+        .orElse(DEFAULT_SENT_TO_NOTIFY_STATUS_UPDATE_WEIGHT);
+  }
+
+  /**
+   * Method to get the weight of notifications which failed to send to GOV.UK notify when sharing each batch of the
+   * status update job between the statuses it updates. This is either consumer provided or defaulted within the library
+   * and should not be used by the consumers.
+   * @return the consumer provided weight or the default library weight if one is not provided
+   */
+  public int getFailedToSendStatusUpdateWeight() {
+    return Optional.ofNullable(notification().statusUpdateWeights())
+        .map(StatusUpdateWeights::failedToSendToNotify)
+        .orElse(DEFAULT_FAILED_TO_SEND_STATUS_UPDATE_WEIGHT);
+  }
+
+  /**
+   * Method to get the weight of notifications whose send attempt was abandoned when sharing each batch of the status
+   * update job between the statuses it updates. This is either consumer provided or defaulted within the library and
+   * should not be used by the consumers.
+   * @return the consumer provided weight or the default library weight if one is not provided
+   */
+  public int getSendingToNotifyStatusUpdateWeight() {
+    return Optional.ofNullable(notification().statusUpdateWeights())
+        .map(StatusUpdateWeights::sendingToNotify)
+        .orElse(DEFAULT_SENDING_TO_NOTIFY_STATUS_UPDATE_WEIGHT);
+  }
+
+  /**
+   * Method to determine if processed notifications should be moved into the archive table. This is either consumer
+   * provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided value or false if one is not provided
+   */
+  public boolean isArchiveEnabled() {
+    return Optional.ofNullable(notification().archive())
+        .map(Archive::enabled)
+        .orElse(false);
+  }
+
+  /**
+   * Method to get the number of days after being requested that processed notifications are archived. This is either
+   * consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided number of days or the default library number of days if one is not provided
+   */
+  public int getArchiveAfterDays() {
+    return Optional.ofNullable(notification().archive())
+        .map(Archive::afterDays)
+        .orElse(DEFAULT_ARCHIVE_AFTER_DAYS);
+  }
+
+  /**
+   * Method to get the number of notifications moved to the archive in each transaction. This is either consumer
+   * provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided batch size or the default library batch size if one is not provided
+   */
+  public int getArchiveBatchSize() {
+    return Optional.ofNullable(notification().archive())
+        .map(Archive::batchSize)
+        .orElse(DEFAULT_ARCHIVE_BATCH_SIZE);
+  }
+
+  /**
+   * Method to get the number of seconds between each iteration of the archive job. This is either consumer provided or
+   * defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided poll time or the default library poll time if one is not provided
+   */
+  public int getArchivePollTimeSeconds() {
+    return Optional.ofNullable(notification().archive())
+        .map(Archive::pollTimeSeconds)
+        .orElse(Integer.parseInt(DEFAULT_ARCHIVE_POLL_TIME_SECONDS));
+  }
+
+  /**
+   * Method to determine if processed notifications should be deleted once their retention period has passed. This is
+   * either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided value or false if one is not provided
+   */
+  public boolean isRetentionEnabled() {
+    return Optional.ofNullable(notification().retention())
+        .map(Retention::enabled)
+        .orElse(false);
+  }
+
+  /**
+   * Method to get the number of days after being requested that sent notifications are deleted. This is either
+   * consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided number of days or the default library number of days if one is not provided
+   */
+  public int getSentRetentionDays() {
+    return Optional.ofNullable(notification().retention())
+        .map(Retention::sentDays)
+        .orElse(DEFAULT_RETENTION_DAYS);
+  }
+
+  /**
+   * Method to get the number of days after being requested that notifications which failed to send are deleted. This
+   * is either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided number of days or the default library number of days if one is not provided
+   */
+  public int getFailedNotSentRetentionDays() {
+    return Optional.ofNullable(notification().retention())
+        .map(Retention::failedNotSentDays)
+        .orElse(DEFAULT_RETENTION_DAYS);
+  }
+
+  /**
+   * Method to get the number of days after being requested that notifications with an unexpected GOV.UK notify status
+   * are deleted. This is either consumer provided or defaulted within the library and should not be used by the
+   * consumers.
+   * @return the consumer provided number of days or the default library number of days if one is not provided
+   */
+  public int getUnexpectedNotifyStatusRetentionDays() {
+    return Optional.ofNullable(notification().retention())
+        .map(Retention::unexpectedNotifyStatusDays)
+        .orElse(DEFAULT_RETENTION_DAYS);
+  }
+
+  /**
+   * Method to get the number of notifications deleted in each transaction by the retention job. This is either
+   * consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided batch size or the default library batch size if one is not provided
+   */
+  public int getRetentionBatchSize() {
+    return Optional.ofNullable(notification().retention())
+        .map(Retention::batchSize)
+        .orElse(DEFAULT_RETENTION_BATCH_SIZE);
+  }
+
+  /**
+   * Method to get the number of milliseconds the retention job pauses between each batch. This is either consumer
+   * provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided delay or the default library delay if one is not provided
+   */
+  public int getRetentionBatchDelayMillis() {
+    return Optional.ofNullable(notification().retention())
+        .map(Retention::batchDelayMillis)
+        .orElse(DEFAULT_RETENTION_BATCH_DELAY_MILLIS);
+  }
+
+  /**
+   * Method to get the number of seconds between each iteration of the retention job. This is either consumer provided
+   * or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided poll time or the default library poll time if one is not provided
+   */
+  public int getRetentionPollTimeSeconds() {
+    return Optional.ofNullable(notification().retention())
+        .map(Retention::pollTimeSeconds)
+        .orElse(Integer.parseInt(DEFAULT_RETENTION_POLL_TIME_SECONDS));
+  }
+
+  /**
+   * Method to get the way changes to notifications are audited. This is either consumer provided or defaulted within the
+   * library and should not be used by the consumers.
+   * @return the consumer provided audit strategy or the default library strategy if one is not provided
+   */
+  public NotificationAuditStrategy getAuditStrategy() {
+    return Optional.ofNullable(notification().audit())
+        .map(Audit::strategy)
+        .orElse(NotificationAuditStrategy.ENVERS);
+  }
+
+  /**
+   * Method to determine if the mail merge fields and file attachments of new notifications should be stored compressed.
+   * This is either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided value or false if one is not provided
+   */
+  public boolean isPayloadCompressionEnabled() {
+    return Optional.ofNullable(notification().payloadCompression())
+        .map(PayloadCompression::enabled)
+        .orElse(false);
+  }
+
+  /**
+   * Method to get the size in bytes the mail merge fields and file attachments of a notification must reach before they
+   * are compressed. This is either consumer provided or defaulted within the library and should not be used by the
+   * consumers.
+   * @return the consumer provided size or the default library size if one is not provided
+   */
+  public int getPayloadCompressionMinimumBytes() {
+    return Optional.ofNullable(notification().payloadCompression())
+        .map(PayloadCompression::minimumBytes)
+        .orElse(DEFAULT_PAYLOAD_COMPRESSION_MINIMUM_BYTES);
+  }
+
+  /**
+   * Method to get the number of notifications inserted in each transaction when notifications are queued from a stream.
+   * This is either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided chunk size or the default library chunk size if one is not provided
+   */
+  public int getStreamingEnqueueChunkSize() {
+    return Optional.ofNullable(notification().streamingEnqueue())
+        .map(StreamingEnqueue::chunkSize)
+        .orElse(DEFAULT_STREAMING_ENQUEUE_CHUNK_SIZE);
+  }
+
+  /**
+   * Method to get the number of seconds between each count of the notifications the library still has to process. This
+   * is either consumer provided or defaulted within the library and should not be used by the consumers.
+   * @return the consumer provided poll time or the default library poll time if one is not provided
+   */
+  public int getBacklogMetricsPollTimeSeconds() {
+    return Optional.ofNullable(notification().backlogMetrics())
+        .map(BacklogMetrics::pollTimeSeconds)
+        .orElse(DEFAULT_BACKLOG_METRICS_POLL_TIME_SECONDS);
+  }
+}
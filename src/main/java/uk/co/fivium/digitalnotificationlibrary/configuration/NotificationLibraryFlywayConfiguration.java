@@ -16,6 +16,12 @@ class NotificationLibraryFlywayConfiguration {
   private static final String MIGRATION_HISTORY_TABLE_NAME = "notification_library_flyway_schema_history";
   private static final String MIGRATION_FILE_LOCATION = "classpath:db/notification-library-migration/%s";
 
+  // only run when archiving or retention is enabled, with its own history so it can be turned on after the main migrations
+  private static final String HOUSEKEEPING_MIGRATION_HISTORY_TABLE_NAME =
+      "notification_library_housekeeping_flyway_schema_history";
+  private static final String HOUSEKEEPING_MIGRATION_FILE_LOCATION =
+      "classpath:db/notification-library-housekeeping-migration/%s";
+
   NotificationLibraryFlywayConfiguration(@Value("${spring.flyway.schemas}") String[] existingSchemas,
                                          DataSource dataSource,
                                          NotificationLibraryConfigurationProperties properties,
@@ -33,13 +39,26 @@ class NotificationLibraryFlywayConfiguration {
       return;
     }
 
+    migrate(selectedDataSource, existingSchemas, MIGRATION_HISTORY_TABLE_NAME, MIGRATION_FILE_LOCATION.formatted(vendor));
+
+    if (properties.isArchiveEnabled() || properties.isRetentionEnabled()) {
+      migrate(
+          selectedDataSource,
+          existingSchemas,
+          HOUSEKEEPING_MIGRATION_HISTORY_TABLE_NAME,
+          HOUSEKEEPING_MIGRATION_FILE_LOCATION.formatted(vendor)
+      );
+    }
+  }
+
+  private void migrate(DataSource dataSource, String[] schemas, String historyTableName, String location) {
     Flyway.configure()
-        .dataSource(selectedDataSource) // use the existing datasource
-        .schemas(existingSchemas) // and these schemas
-        .table(MIGRATION_HISTORY_TABLE_NAME) // use this table to keep track of migrations
+        .dataSource(dataSource) // use the existing datasource
+        .schemas(schemas) // and these schemas
+        .table(historyTableName) // use this table to keep track of migrations
         .baselineOnMigrate(true) // create the schema history table
         .baselineVersion("0") // with version 0, our migrations will start from V1
-        .locations(MIGRATION_FILE_LOCATION.formatted(vendor)) // look for migrations here
+        .locations(location) // look for migrations here
         .load()
         .migrate();
   }
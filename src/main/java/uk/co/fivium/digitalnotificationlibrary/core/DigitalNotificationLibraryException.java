@@ -12,4 +12,13 @@ public class DigitalNotificationLibraryException extends RuntimeException {
   public DigitalNotificationLibraryException(String message) {
     super(message);
   }
+
+  /**
+   * Create an instance of this exception with a given message and cause.
+   * @param message The error message summarising the error
+   * @param cause The exception which caused the error
+   */
+  public DigitalNotificationLibraryException(String message, Throwable cause) {
+    super(message, cause);
+  }
 }
@@ -0,0 +1,46 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Processes notifications on every node at the same time. There is no scheduler lock, instead each node claims its own
+ * disjoint batch of notifications from the queue so throughput scales with the number of nodes. Sending and status
+ * updates are separate jobs, each with its own poll time, scheduled by the {@link NotificationLibraryJobScheduler}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "digital-notification-library.notification.dequeue", name = "mode", havingValue = "claim")
+class ClaimingNotificationProcessor implements NotificationProcessingJob {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ClaimingNotificationProcessor.class);
+
+  private final NotificationProcessingCycle notificationProcessingCycle;
+
+  @Autowired
+  ClaimingNotificationProcessor(NotificationProcessingCycle notificationProcessingCycle) {
+    this.notificationProcessingCycle = notificationProcessingCycle;
+  }
+
+  @Override
+  public void sendNotifications() {
+
+    LOGGER.debug("Starting scheduled sending of claimed notifications");
+
+    notificationProcessingCycle.sendNotifications();
+
+    LOGGER.debug("Finished scheduled sending of claimed notifications");
+  }
+
+  @Override
+  public void updateNotificationStatuses() {
+
+    LOGGER.debug("Starting scheduled update of claimed notification statuses");
+
+    notificationProcessingCycle.updateNotificationStatuses();
+
+    LOGGER.debug("Finished scheduled update of claimed notification statuses");
+  }
+}
@@ -4,6 +4,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import uk.gov.service.notify.NotificationClient;
 import uk.gov.service.notify.NotificationClientException;
+import uk.gov.service.notify.NotificationList;
 
 @Service
 class GovukNotifyNotificationService {
@@ -24,4 +25,35 @@ class GovukNotifyNotificationService {
       return Response.failedResponse(exception.getHttpResult(), exception.getMessage());
     }
   }
+
+  /**
+   * Get a page of the notifications sent by GOV.UK notify, most recently created first.
+   * @param olderThanNotifyNotificationId Only return notifications created before the notification with this ID, or
+   *                                      null to return the first page
+   * @return the page of notifications
+   */
+  Response<NotificationList> getNotifications(String olderThanNotifyNotificationId) {
+    try {
+      return Response.successfulResponse(
+          govukNotificationClient.getNotifications(null, null, null, olderThanNotifyNotificationId)
+      );
+    } catch (NotificationClientException exception) {
+      return Response.failedResponse(exception.getHttpResult(), exception.getMessage());
+    }
+  }
+
+  /**
+   * Get the notifications sent to GOV.UK notify with the provided reference, most recently created first.
+   * @param reference The reference the notifications were sent to GOV.UK notify with
+   * @return the notifications with the reference, which is empty if GOV.UK notify never received the notification
+   */
+  Response<NotificationList> getNotificationsByReference(String reference) {
+    try {
+      return Response.successfulResponse(
+          govukNotificationClient.getNotifications(null, null, reference, null)
+      );
+    } catch (NotificationClientException exception) {
+      return Response.failedResponse(exception.getHttpResult(), exception.getMessage());
+    }
+  }
 }
@@ -0,0 +1,69 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+/**
+ * The shared state of a token bucket limiting the rate of requests made to GOV.UK notify by all nodes.
+ */
+@Entity
+@Table(name = "notification_library_rate_limits")
+class GovukNotifyRateLimit {
+
+  @Id
+  private String name;
+
+  private double availableTokens;
+
+  private Double currentRequestsPerMinute;
+
+  private Instant refilledAt;
+
+  private Instant lastRateLimitedAt;
+
+  protected GovukNotifyRateLimit() {
+  }
+
+  GovukNotifyRateLimit(String name, Instant refilledAt) {
+    this.name = name;
+    this.refilledAt = refilledAt;
+  }
+
+  String getName() {
+    return name;
+  }
+
+  double getAvailableTokens() {
+    return availableTokens;
+  }
+
+  void setAvailableTokens(double availableTokens) {
+    this.availableTokens = availableTokens;
+  }
+
+  Double getCurrentRequestsPerMinute() {
+    return currentRequestsPerMinute;
+  }
+
+  void setCurrentRequestsPerMinute(Double currentRequestsPerMinute) {
+    this.currentRequestsPerMinute = currentRequestsPerMinute;
+  }
+
+  Instant getRefilledAt() {
+    return refilledAt;
+  }
+
+  void setRefilledAt(Instant refilledAt) {
+    this.refilledAt = refilledAt;
+  }
+
+  Instant getLastRateLimitedAt() {
+    return lastRateLimitedAt;
+  }
+
+  void setLastRateLimitedAt(Instant lastRateLimitedAt) {
+    this.lastRateLimitedAt = lastRateLimitedAt;
+  }
+}
@@ -0,0 +1,18 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import jakarta.persistence.LockModeType;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * A repository for the shared GOV.UK notify rate limit state. This repository is public only for ease of configuring
+ * via the NotificationLibraryEntityAutoConfiguration. Consumers should not inject this repository directly.
+ */
+@Repository
+public interface GovukNotifyRateLimitRepository extends CrudRepository<GovukNotifyRateLimit, String> {
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  Optional<GovukNotifyRateLimit> findLockedByName(String name);
+}
@@ -0,0 +1,234 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+/**
+ * A token bucket limiting the rate of requests made to GOV.UK notify. The bucket is stored in the database so the
+ * limit is shared by every node running the library. To avoid a database round trip for every request, each node
+ * reserves up to one second's worth of tokens at a time and spends them locally.
+ *
+ * <p>When GOV.UK notify responds with a 429 the shared rate is halved, down to a minimum of a tenth of the configured
+ * rate, and then recovers linearly back to the configured rate over {@link #RATE_RECOVERY_SECONDS} seconds.
+ */
+@Service
+class GovukNotifyRateLimiter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GovukNotifyRateLimiter.class);
+
+  static final String RATE_LIMIT_NAME = "govuk-notify";
+
+  static final double RATE_RECOVERY_SECONDS = 300;
+
+  static final double MINIMUM_RATE_FRACTION = 0.1;
+
+  // 429 responses seen by several workers at the same time are treated as a single signal to slow down
+  private static final Duration RATE_DECREASE_INTERVAL = Duration.ofSeconds(1);
+
+  private static final double MILLISECONDS_PER_MINUTE = Duration.ofMinutes(1).toMillis();
+
+  private static final Duration MINIMUM_WAIT = Duration.ofMillis(10);
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final GovukNotifyRateLimitRepository rateLimitRepository;
+
+  private final NotificationLibraryConfigurationProperties libraryConfigurationProperties;
+
+  private final Clock clock;
+
+  private final Consumer<Duration> sleeper;
+
+  private final AtomicInteger reservedTokens = new AtomicInteger();
+
+  private final ReentrantLock reservationLock = new ReentrantLock();
+
+  @Autowired
+  GovukNotifyRateLimiter(PlatformTransactionManager transactionManager,
+                         GovukNotifyRateLimitRepository rateLimitRepository,
+                         NotificationLibraryConfigurationProperties libraryConfigurationProperties,
+                         Clock clock) {
+    this(transactionManager, rateLimitRepository, libraryConfigurationProperties, clock, GovukNotifyRateLimiter::sleep);
+  }
+
+  GovukNotifyRateLimiter(PlatformTransactionManager transactionManager,
+                         GovukNotifyRateLimitRepository rateLimitRepository,
+                         NotificationLibraryConfigurationProperties libraryConfigurationProperties,
+                         Clock clock,
+                         Consumer<Duration> sleeper) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.rateLimitRepository = rateLimitRepository;
+    this.libraryConfigurationProperties = libraryConfigurationProperties;
+    this.clock = clock;
+    this.sleeper = sleeper;
+  }
+
+  /**
+   * Wait until a request can be made to GOV.UK notify without exceeding the rate limit.
+   */
+  void acquire() {
+
+    if (!libraryConfigurationProperties.isRateLimitEnabled() || takeReservedToken()) {
+      return;
+    }
+
+    while (!takeReservedToken()) {
+
+      Duration waitTime;
+
+      // only one worker on this node reserves tokens at a time, the others wait and then spend what was reserved
+      reservationLock.lock();
+
+      try {
+
+        // another worker may have reserved tokens while this one was waiting for the lock
+        if (takeReservedToken()) {
+          return;
+        }
+
+        var reservation = reserveTokens(getTokensPerSecond());
+
+        if (reservation.grantedTokens() > 0) {
+          reservedTokens.addAndGet(reservation.grantedTokens() - 1);
+          return;
+        }
+
+        waitTime = reservation.waitTime();
+      } finally {
+        reservationLock.unlock();
+      }
+
+      // wait without holding the lock so the other workers are free to reserve tokens once they become available
+      sleeper.accept(waitTime);
+    }
+  }
+
+  /**
+   * Slow down the rate of requests made to GOV.UK notify by all nodes after GOV.UK notify has rejected a request for
+   * exceeding its rate limit.
+   */
+  void onRateLimited() {
+
+    if (!libraryConfigurationProperties.isRateLimitEnabled()) {
+      return;
+    }
+
+    reservedTokens.set(0);
+
+    transactionTemplate.executeWithoutResult(status -> {
+
+      var now = clock.instant();
+      var rateLimit = getRateLimit(now);
+
+      refill(rateLimit, now);
+
+      var hasRecentlyDecreased = rateLimit.getLastRateLimitedAt() != null
+          && rateLimit.getLastRateLimitedAt().plus(RATE_DECREASE_INTERVAL).isAfter(now);
+
+      if (!hasRecentlyDecreased) {
+
+        var maximumRate = libraryConfigurationProperties.getRateLimitRequestsPerMinute();
+        var decreasedRate = Math.max(maximumRate * MINIMUM_RATE_FRACTION, rateLimit.getCurrentRequestsPerMinute() / 2);
+
+        LOGGER.warn(
+            "Rate limited by GOV.UK notify. Reducing rate of requests to {} a minute",
+            Math.round(decreasedRate)
+        );
+
+        rateLimit.setCurrentRequestsPerMinute(decreasedRate);
+        rateLimit.setLastRateLimitedAt(now);
+      }
+
+      rateLimit.setAvailableTokens(0);
+      rateLimitRepository.save(rateLimit);
+    });
+  }
+
+  private boolean takeReservedToken() {
+    return reservedTokens.getAndUpdate(tokens -> tokens > 0 ? tokens - 1 : tokens) > 0;
+  }
+
+  private TokenReservation reserveTokens(int requestedTokens) {
+    return transactionTemplate.execute(status -> {
+
+      var now = clock.instant();
+      var rateLimit = getRateLimit(now);
+
+      refill(rateLimit, now);
+
+      var grantedTokens = (int) Math.min(requestedTokens, Math.floor(rateLimit.getAvailableTokens()));
+      rateLimit.setAvailableTokens(rateLimit.getAvailableTokens() - grantedTokens);
+      rateLimitRepository.save(rateLimit);
+
+      var waitTime = Duration.ZERO;
+
+      if (grantedTokens == 0) {
+        var millisecondsUntilToken = (long) Math.ceil(
+            (1 - rateLimit.getAvailableTokens()) * MILLISECONDS_PER_MINUTE / rateLimit.getCurrentRequestsPerMinute()
+        );
+        waitTime = Duration.ofMillis(Math.max(MINIMUM_WAIT.toMillis(), millisecondsUntilToken));
+      }
+
+      return new TokenReservation(grantedTokens, waitTime);
+    });
+  }
+
+  private GovukNotifyRateLimit getRateLimit(Instant now) {
+    return rateLimitRepository.findLockedByName(RATE_LIMIT_NAME)
+        .orElseGet(() -> new GovukNotifyRateLimit(RATE_LIMIT_NAME, now));
+  }
+
+  private void refill(GovukNotifyRateLimit rateLimit, Instant now) {
+
+    var maximumRate = (double) libraryConfigurationProperties.getRateLimitRequestsPerMinute();
+
+    // clocks on different nodes can disagree slightly, so never refill for negative time
+    var elapsedMilliseconds = (double) Math.max(0, Duration.between(rateLimit.getRefilledAt(), now).toMillis());
+
+    var currentRate = Optional.ofNullable(rateLimit.getCurrentRequestsPerMinute())
+        .map(rate -> Math.min(
+            maximumRate,
+            rate + maximumRate * elapsedMilliseconds / (RATE_RECOVERY_SECONDS * 1000)
+        ))
+        .orElse(maximumRate);
+
+    // the bucket holds at most one second's worth of tokens so bursts stay within the limit
+    var capacity = Math.max(1, maximumRate / 60);
+    var availableTokens = Math.min(
+        capacity,
+        rateLimit.getAvailableTokens() + currentRate * elapsedMilliseconds / MILLISECONDS_PER_MINUTE
+    );
+
+    rateLimit.setCurrentRequestsPerMinute(currentRate);
+    rateLimit.setAvailableTokens(availableTokens);
+    rateLimit.setRefilledAt(now.isAfter(rateLimit.getRefilledAt()) ? now : rateLimit.getRefilledAt());
+  }
+
+  private int getTokensPerSecond() {
+    return Math.max(1, libraryConfigurationProperties.getRateLimitRequestsPerMinute() / 60);
+  }
+
+  private static void sleep(Duration duration) {
+    try {
+      Thread.sleep(duration.toMillis());
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the GOV.UK notify rate limit", exception);
+    }
+  }
+
+  record TokenReservation(int grantedTokens, Duration waitTime) {
+  }
+}
@@ -39,7 +39,7 @@ class GovukNotifySenderService {
           notification.getNotifyTemplateId(),
           recipient,
           mailMergeFields,
-          notification.getLogCorrelationId()
+          getReference(notification)
       );
 
       return Response.successfulResponse(notifyResponse);
@@ -68,7 +68,7 @@ class GovukNotifySenderService {
           notification.getNotifyTemplateId(),
           recipient,
           mailMergeFields,
-          notification.getLogCorrelationId()
+          getReference(notification)
       );
 
       return Response.successfulResponse(notifyResponse);
@@ -78,6 +78,16 @@ class GovukNotifySenderService {
     }
   }
 
+  /**
+   * The reference GOV.UK notify keeps against each notification sent to it. The ID of the notification in the library is
+   * used, so a send attempt whose outcome was never recorded can be looked up to find out if GOV.UK notify received it.
+   * @param notification The notification being sent
+   * @return the reference to send to GOV.UK notify
+   */
+  static String getReference(Notification notification) {
+    return String.valueOf(notification.getId());
+  }
+
   private Map<String, Object> toNotifyMailMergeFormat(Set<MailMergeField> mailMergeFields) {
     return mailMergeFields
         .stream()
@@ -1,26 +1,52 @@
 package uk.co.fivium.digitalnotificationlibrary.core.notification;
 
+import jakarta.persistence.ColumnResult;
+import jakarta.persistence.ConstructorResult;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SqlResultSetMapping;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import java.time.Instant;
 import java.util.Set;
 import java.util.UUID;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.envers.Audited;
+import org.hibernate.envers.NotAudited;
 import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "notification_library_notifications")
 @Audited
+@SqlResultSetMapping(
+    name = Notification.STATUS_PROJECTION_MAPPING,
+    classes = @ConstructorResult(
+        targetClass = NotificationStatusProjection.class,
+        columns = {
+            @ColumnResult(name = "id", type = UUID.class),
+            @ColumnResult(name = "status", type = String.class),
+            @ColumnResult(name = "notify_notification_id", type = String.class),
+            @ColumnResult(name = "notify_status", type = String.class),
+            @ColumnResult(name = "notify_status_last_updated_at", type = Instant.class),
+            @ColumnResult(name = "requested_on", type = Instant.class),
+            @ColumnResult(name = "sent_at", type = Instant.class),
+            @ColumnResult(name = "failure_reason", type = String.class),
+            @ColumnResult(name = "last_failed_at", type = Instant.class),
+            @ColumnResult(name = "retry_count", type = Integer.class),
+            @ColumnResult(name = "last_send_attempt_at", type = Instant.class),
+            @ColumnResult(name = "next_status_check_at", type = Instant.class),
+            @ColumnResult(name = "next_attempt_at", type = Instant.class)
+        }
+    )
+)
 class Notification {
 
+  static final String STATUS_PROJECTION_MAPPING = "NotificationStatusProjection";
+
   @Id
-  @GeneratedValue(strategy = GenerationType.UUID)
+  @TimeOrderedUuid
   @JdbcTypeCode(SqlTypes.UUID)
   private UUID id;
 
@@ -46,6 +72,18 @@ class Notification {
   @JdbcTypeCode(SqlTypes.JSON)
   private Set<FileAttachment> fileAttachments;
 
+  // the mail merge fields and file attachments compressed together, stored in place of the JSON columns when payload
+  // compression is enabled
+  private byte[] compressedPayload;
+
+  @Transient
+  private NotificationPayload decodedPayload;
+
+  // the status a status-only copy had when it was claimed, so a change of status can be journalled without reading the
+  // notification again
+  @Transient
+  private NotificationStatus claimedStatus;
+
   private String domainReferenceId;
 
   private String domainReferenceType;
@@ -64,6 +102,21 @@ class Notification {
 
   private Instant lastSendAttemptAt;
 
+  @Enumerated(EnumType.STRING)
+  private NotificationPriority priority;
+
+  // the claim only coordinates which node is processing the notification, so changes to it are not audited
+  @NotAudited
+  private Instant claimedUntil;
+
+  // only schedules when the status update job next checks the notification, so changes to it are not audited
+  @NotAudited
+  private Instant nextStatusCheckAt;
+
+  // only schedules when a failed notification is next retried, so changes to it are not audited
+  @NotAudited
+  private Instant nextAttemptAt;
+
   protected Notification() {
   }
 
@@ -91,6 +144,14 @@ class Notification {
     this.status = status;
   }
 
+  NotificationStatus getClaimedStatus() {
+    return claimedStatus;
+  }
+
+  void setClaimedStatus(NotificationStatus claimedStatus) {
+    this.claimedStatus = claimedStatus;
+  }
+
   String getNotifyTemplateId() {
     return notifyTemplateId;
   }
@@ -124,7 +185,7 @@ class Notification {
   }
 
   Set<MailMergeField> getMailMergeFields() {
-    return mailMergeFields;
+    return compressedPayload != null ? getDecodedPayload().mailMergeFields() : mailMergeFields;
   }
 
   void setMailMergeFields(Set<MailMergeField> mailMergeFields) {
@@ -132,13 +193,47 @@ class Notification {
   }
 
   public Set<FileAttachment> getFileAttachments() {
-    return fileAttachments;
+    return compressedPayload != null ? getDecodedPayload().fileAttachments() : fileAttachments;
   }
 
   public void setFileAttachments(Set<FileAttachment> fileAttachments) {
     this.fileAttachments = fileAttachments;
   }
 
+  byte[] getCompressedPayload() {
+    return compressedPayload;
+  }
+
+  /**
+   * Store the mail merge fields and file attachments of this notification as a compressed payload, in place of the
+   * uncompressed JSON columns.
+   * @param compressedPayload The payload encoded by the {@link NotificationPayloadCodec}
+   */
+  void setCompressedPayload(byte[] compressedPayload) {
+    this.compressedPayload = compressedPayload;
+    this.decodedPayload = null;
+    this.mailMergeFields = null;
+    this.fileAttachments = null;
+  }
+
+  /**
+   * Write the mail merge fields and file attachments read from the compressed payload back into it, so changes made to
+   * them, such as adding the contents of resolved file attachments, are saved with the notification. Does nothing if
+   * the notification isn't stored compressed.
+   */
+  void updateCompressedPayload() {
+    if (compressedPayload != null && decodedPayload != null) {
+      compressedPayload = NotificationPayloadCodec.encode(decodedPayload);
+    }
+  }
+
+  private NotificationPayload getDecodedPayload() {
+    if (decodedPayload == null) {
+      decodedPayload = NotificationPayloadCodec.decode(compressedPayload);
+    }
+    return decodedPayload;
+  }
+
   String getDomainReferenceId() {
     return domainReferenceId;
   }
@@ -219,6 +314,55 @@ class Notification {
     this.retryCount = retryCount;
   }
 
+  NotificationPriority getPriority() {
+    return priority;
+  }
+
+  void setPriority(NotificationPriority priority) {
+    this.priority = priority;
+  }
+
+  Instant getClaimedUntil() {
+    return claimedUntil;
+  }
+
+  void setClaimedUntil(Instant claimedUntil) {
+    this.claimedUntil = claimedUntil;
+  }
+
+  Instant getNextStatusCheckAt() {
+    return nextStatusCheckAt;
+  }
+
+  void setNextStatusCheckAt(Instant nextStatusCheckAt) {
+    this.nextStatusCheckAt = nextStatusCheckAt;
+  }
+
+  Instant getNextAttemptAt() {
+    return nextAttemptAt;
+  }
+
+  void setNextAttemptAt(Instant nextAttemptAt) {
+    this.nextAttemptAt = nextAttemptAt;
+  }
+
+  /**
+   * Copy the outcome of updating the status of a notification onto this notification. Only the fields the status update
+   * job changes are copied, so a status-only copy of a notification can be applied without overwriting its content.
+   * @param statusUpdate The status-only copy of this notification holding the outcome of the status update
+   */
+  void applyStatusUpdate(Notification statusUpdate) {
+    this.status = statusUpdate.getStatus();
+    this.notifyNotificationId = statusUpdate.getNotifyNotificationId();
+    this.notifyStatus = statusUpdate.getNotifyStatus();
+    this.notifyStatusLastUpdatedAt = statusUpdate.getNotifyStatusLastUpdatedAt();
+    this.sentAt = statusUpdate.getSentAt();
+    this.failureReason = statusUpdate.getFailureReason();
+    this.lastFailedAt = statusUpdate.getLastFailedAt();
+    this.nextStatusCheckAt = statusUpdate.getNextStatusCheckAt();
+    this.nextAttemptAt = statusUpdate.getNextAttemptAt();
+  }
+
   @Override
   public String toString() {
     return "Notification{" +
@@ -230,7 +374,7 @@ class Notification {
         ", notifyStatus='" + notifyStatus + '\'' +
         ", notifyStatusLastUpdatedAt=" + notifyStatusLastUpdatedAt +
         ", recipient='" + recipient + '\'' +
-        ", mailMergeFields=" + mailMergeFields +
+        ", mailMergeFields=" + getMailMergeFields() +
         ", domainReferenceId='" + domainReferenceId + '\'' +
         ", domainReferenceType='" + domainReferenceType + '\'' +
         ", logCorrelationId='" + logCorrelationId + '\'' +
@@ -240,7 +384,9 @@ class Notification {
         ", lastFailedAt='" + lastFailedAt +
         ", retryCount='" + retryCount + '\'' +
         ", lastSendAttemptAt='" + lastSendAttemptAt +
-        ", fileAttachments='" + fileAttachments +
+        ", fileAttachments='" + getFileAttachments() +
+        ", priority=" + priority +
+        ", claimedUntil='" + claimedUntil +
         '}';
   }
 }
@@ -0,0 +1,39 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import net.javacrumbs.shedlock.core.LockAssert;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Archives processed notifications on a single node at a time, coordinated using a ShedLock scheduler lock. This runs
+ * whichever dequeue mode the library is using, as archiving doesn't take notifications from the queue.
+ */
+@Component
+@ConditionalOnProperty(prefix = "digital-notification-library.notification.archive", name = "enabled", havingValue = "true")
+class NotificationArchiveJob {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationArchiveJob.class);
+
+  private final NotificationArchiveService notificationArchiveService;
+
+  @Autowired
+  NotificationArchiveJob(NotificationArchiveService notificationArchiveService) {
+    this.notificationArchiveService = notificationArchiveService;
+  }
+
+  @SchedulerLock(name = "NotificationScheduler_archiveNotifications")
+  void archiveNotifications() {
+
+    LOGGER.debug("Starting scheduled archiving of notifications");
+
+    LockAssert.assertLocked();
+
+    notificationArchiveService.archiveNotifications();
+
+    LOGGER.debug("Finished scheduled archiving of notifications");
+  }
+}
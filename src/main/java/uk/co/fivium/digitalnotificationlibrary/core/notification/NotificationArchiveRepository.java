@@ -0,0 +1,22 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Repository fragment for moving notifications which have finished being processed into the archive table.
+ */
+interface NotificationArchiveRepository {
+
+  /**
+   * Move the oldest notifications with the provided statuses which were requested before the provided instant into
+   * the archive table. Rows locked by another transaction are skipped rather than waited on. Must be called within a
+   * transaction, so the notifications are either both copied to the archive and removed or neither.
+   * @param statuses The statuses of notifications to archive
+   * @param requestedBefore The instant notifications must have been requested before to be archived
+   * @param archivedAt The instant to record the notifications as archived at
+   * @param limit The maximum number of notifications to archive
+   * @return the number of notifications archived
+   */
+  int archiveNotifications(Collection<NotificationStatus> statuses, Instant requestedBefore, Instant archivedAt, int limit);
+}
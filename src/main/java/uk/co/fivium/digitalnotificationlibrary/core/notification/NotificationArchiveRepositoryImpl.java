@@ -0,0 +1,125 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+class NotificationArchiveRepositoryImpl implements NotificationArchiveRepository {
+
+  private static final String FETCH_SIZE_HINT = "org.hibernate.fetchSize";
+
+  private static final String ARCHIVABLE_NOTIFICATIONS_QUERY = """
+      SELECT n.id
+      FROM {h-schema}notification_library_notifications n
+      WHERE n.status IN (:statuses)
+      AND n.requested_on < :requestedBefore
+      ORDER BY n.requested_on ASC, n.id ASC
+      """;
+
+  private static final String POSTGRES_ARCHIVABLE_NOTIFICATIONS_QUERY = ARCHIVABLE_NOTIFICATIONS_QUERY + """
+      LIMIT :limit
+      FOR UPDATE SKIP LOCKED
+      """;
+
+  // Oracle doesn't allow FOR UPDATE with a row limiting clause, instead rows are locked as they are fetched
+  // so only the first n rows of the result are read
+  private static final String ORACLE_ARCHIVABLE_NOTIFICATIONS_QUERY = ARCHIVABLE_NOTIFICATIONS_QUERY + """
+      FOR UPDATE SKIP LOCKED
+      """;
+
+  // the claim and scheduling columns are not copied as they have no meaning once a notification has been processed
+  private static final String ARCHIVED_COLUMNS = """
+      id, type, status, notify_template_id, notify_notification_id, notify_status, notify_status_last_updated_at,
+      recipient, mail_merge_fields, domain_reference_id, domain_reference_type, log_correlation_id, requested_on,
+      sent_at, failure_reason, last_failed_at, retry_count, last_send_attempt_at, file_attachments, priority,
+      compressed_payload
+      """;
+
+  private static final String COPY_TO_ARCHIVE_QUERY = """
+      INSERT INTO {h-schema}notification_library_notifications_archive (%s, archived_at)
+      SELECT %s, :archivedAt
+      FROM {h-schema}notification_library_notifications
+      WHERE id IN (:ids)
+      """.formatted(ARCHIVED_COLUMNS, ARCHIVED_COLUMNS);
+
+  private static final String DELETE_ARCHIVED_QUERY = """
+      DELETE FROM {h-schema}notification_library_notifications
+      WHERE id IN (:ids)
+      """;
+
+  private final EntityManager entityManager;
+
+  private final boolean isOracle;
+
+  @Autowired
+  NotificationArchiveRepositoryImpl(EntityManager entityManager,
+                                    NotificationLibraryConfigurationProperties libraryConfigurationProperties) {
+    this.entityManager = entityManager;
+    this.isOracle = NotificationLibraryConfigurationProperties.ORACLE_VENDOR
+        .equalsIgnoreCase(libraryConfigurationProperties.flywayVendor());
+  }
+
+  @Override
+  public int archiveNotifications(Collection<NotificationStatus> statuses,
+                                  Instant requestedBefore,
+                                  Instant archivedAt,
+                                  int limit) {
+
+    var ids = getArchivableNotificationIds(statuses, requestedBefore, limit);
+
+    if (ids.isEmpty()) {
+      return 0;
+    }
+
+    entityManager.createNativeQuery(COPY_TO_ARCHIVE_QUERY)
+        .setParameter("ids", ids)
+        .setParameter("archivedAt", archivedAt)
+        .executeUpdate();
+
+    return entityManager.createNativeQuery(DELETE_ARCHIVED_QUERY)
+        .setParameter("ids", ids)
+        .executeUpdate();
+  }
+
+  private List<Object> getArchivableNotificationIds(Collection<NotificationStatus> statuses,
+                                                    Instant requestedBefore,
+                                                    int limit) {
+
+    var statusNames = statuses.stream()
+        .map(Enum::name)
+        .toList();
+
+    if (isOracle) {
+      Query query = entityManager.createNativeQuery(ORACLE_ARCHIVABLE_NOTIFICATIONS_QUERY)
+          .setParameter("statuses", statusNames)
+          .setParameter("requestedBefore", requestedBefore)
+          .setHint(FETCH_SIZE_HINT, limit);
+
+      try (Stream<Object> ids = getResultStream(query)) {
+        return ids.limit(limit).toList();
+      }
+    }
+
+    Query query = entityManager.createNativeQuery(POSTGRES_ARCHIVABLE_NOTIFICATIONS_QUERY)
+        .setParameter("statuses", statusNames)
+        .setParameter("requestedBefore", requestedBefore)
+        .setParameter("limit", limit);
+
+    return getResultList(query);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Object> getResultList(Query query) {
+    return query.getResultList();
+  }
+
+  @SuppressWarnings("unchecked")
+  private Stream<Object> getResultStream(Query query) {
+    return query.getResultStream();
+  }
+}
@@ -0,0 +1,83 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+/**
+ * Moves notifications which have finished being processed out of the notification table and into the archive table.
+ * Each batch is moved in its own transaction, so an iteration which is stopped part way through leaves every
+ * notification either archived or still in the notification table, and the next iteration carries on from there.
+ */
+@Service
+class NotificationArchiveService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationArchiveService.class);
+
+  static final Set<NotificationStatus> ARCHIVABLE_STATUSES = EnumSet.of(
+      NotificationStatus.SENT,
+      NotificationStatus.FAILED_NOT_SENT,
+      NotificationStatus.UNEXPECTED_NOTIFY_STATUS
+  );
+
+  static final Duration ARCHIVE_CYCLE_TIME_BUDGET =
+      Duration.ofSeconds(NotificationLibraryConfigurationProperties.HOUSEKEEPING_CYCLE_TIME_BUDGET_SECONDS);
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final NotificationLibraryNotificationRepository notificationRepository;
+
+  private final NotificationLibraryConfigurationProperties libraryConfigurationProperties;
+
+  private final Clock clock;
+
+  @Autowired
+  NotificationArchiveService(PlatformTransactionManager transactionManager,
+                             NotificationLibraryNotificationRepository notificationRepository,
+                             NotificationLibraryConfigurationProperties libraryConfigurationProperties,
+                             Clock clock) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.notificationRepository = notificationRepository;
+    this.libraryConfigurationProperties = libraryConfigurationProperties;
+    this.clock = clock;
+  }
+
+  /**
+   * Archive processed notifications requested longer ago than the configured number of days, one batch at a time,
+   * until there are none left or the cycle time budget has been spent.
+   * @return the number of notifications archived
+   */
+  int archiveNotifications() {
+
+    var now = clock.instant();
+    var requestedBefore = now.minus(Duration.ofDays(libraryConfigurationProperties.getArchiveAfterDays()));
+    var cycleDeadline = now.plus(ARCHIVE_CYCLE_TIME_BUDGET);
+    var batchSize = libraryConfigurationProperties.getArchiveBatchSize();
+
+    var notificationsArchived = 0;
+    int notificationsInBatch;
+
+    do {
+      notificationsInBatch = Optional.ofNullable(transactionTemplate.execute(status ->
+          notificationRepository.archiveNotifications(ARCHIVABLE_STATUSES, requestedBefore, clock.instant(), batchSize)
+      ))
+          .orElse(0);
+      notificationsArchived += notificationsInBatch;
+    } while (notificationsInBatch >= batchSize && clock.instant().isBefore(cycleDeadline));
+
+    if (notificationsArchived > 0) {
+      LOGGER.info("Archived {} notifications requested before {}", notificationsArchived, requestedBefore);
+    }
+
+    return notificationsArchived;
+  }
+}
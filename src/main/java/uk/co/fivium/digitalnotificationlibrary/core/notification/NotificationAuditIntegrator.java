@@ -0,0 +1,188 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.envers.boot.internal.EnversService;
+import org.hibernate.envers.event.spi.EnversPostCollectionRecreateEventListenerImpl;
+import org.hibernate.envers.event.spi.EnversPostDeleteEventListenerImpl;
+import org.hibernate.envers.event.spi.EnversPostInsertEventListenerImpl;
+import org.hibernate.envers.event.spi.EnversPostUpdateEventListenerImpl;
+import org.hibernate.envers.event.spi.EnversPreCollectionRemoveEventListenerImpl;
+import org.hibernate.envers.event.spi.EnversPreCollectionUpdateEventListenerImpl;
+import org.hibernate.envers.event.spi.EnversPreUpdateEventListenerImpl;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PreUpdateEvent;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationAuditStrategy;
+import uk.co.fivium.digitalnotificationlibrary.core.DigitalNotificationLibraryException;
+
+/**
+ * Registers the Envers listeners in place of Envers itself, so notifications can be left out of the Envers audit
+ * while any other audited entities in the consumer are audited as usual. Used when the audit strategy is not
+ * {@link NotificationAuditStrategy#ENVERS}, in which case Envers is told not to register its own listeners.
+ */
+class NotificationAuditIntegrator implements Integrator {
+
+  static final String ENVERS_AUTO_REGISTER_LISTENERS_PROPERTY = "hibernate.envers.autoRegisterListeners";
+
+  static final String INTEGRATOR_PROVIDER_PROPERTY = "hibernate.integrator_provider";
+
+  private final NotificationAuditStrategy auditStrategy;
+
+  private final Clock clock;
+
+  NotificationAuditIntegrator(NotificationAuditStrategy auditStrategy, Clock clock) {
+    this.auditStrategy = auditStrategy;
+    this.clock = clock;
+  }
+
+  @Override
+  public void integrate(Metadata metadata,
+                        BootstrapContext bootstrapContext,
+                        SessionFactoryImplementor sessionFactory) {
+
+    var serviceRegistry = sessionFactory.getServiceRegistry();
+    var listenerRegistry = serviceRegistry.getService(EventListenerRegistry.class);
+    var enversService = serviceRegistry.getService(EnversService.class);
+
+    if (enversService != null && enversService.isEnabled()
+        && enversService.getEntitiesConfigurations().hasAuditedEntities()) {
+
+      listenerRegistry.appendListeners(EventType.POST_INSERT, new NonNotificationPostInsertListener(enversService));
+      listenerRegistry.appendListeners(EventType.PRE_UPDATE, new NonNotificationPreUpdateListener(enversService));
+      listenerRegistry.appendListeners(EventType.POST_UPDATE, new NonNotificationPostUpdateListener(enversService));
+      listenerRegistry.appendListeners(EventType.POST_DELETE, new NonNotificationPostDeleteListener(enversService));
+
+      // notifications have no audited collections, so the collection listeners are registered as Envers would
+      listenerRegistry.appendListeners(
+          EventType.POST_COLLECTION_RECREATE,
+          new EnversPostCollectionRecreateEventListenerImpl(enversService)
+      );
+      listenerRegistry.appendListeners(
+          EventType.PRE_COLLECTION_REMOVE,
+          new EnversPreCollectionRemoveEventListenerImpl(enversService)
+      );
+      listenerRegistry.appendListeners(
+          EventType.PRE_COLLECTION_UPDATE,
+          new EnversPreCollectionUpdateEventListenerImpl(enversService)
+      );
+    }
+
+    if (NotificationAuditStrategy.JOURNAL.equals(auditStrategy)) {
+      var journalListener = new NotificationStatusJournalListener(clock);
+      listenerRegistry.appendListeners(EventType.POST_INSERT, journalListener);
+      listenerRegistry.appendListeners(EventType.POST_UPDATE, journalListener);
+    }
+  }
+
+  /**
+   * Create an integrator provider which provides this integrator as well as the integrators of an integrator provider
+   * the consumer has already configured, rather than replacing it.
+   * @param existingIntegratorProvider The value of {@link #INTEGRATOR_PROVIDER_PROPERTY} already configured, if any,
+   *                                   which Hibernate accepts as an instance, class or class name
+   * @return the integrator provider to configure
+   */
+  IntegratorProvider withIntegratorProvider(Object existingIntegratorProvider) {
+
+    if (existingIntegratorProvider == null) {
+      return () -> List.of(this);
+    }
+
+    var integratorProvider = toIntegratorProvider(existingIntegratorProvider);
+
+    return () -> {
+      List<Integrator> integrators = new ArrayList<>(integratorProvider.getIntegrators());
+      integrators.add(this);
+      return integrators;
+    };
+  }
+
+  private static IntegratorProvider toIntegratorProvider(Object integratorProvider) {
+
+    if (integratorProvider instanceof IntegratorProvider provider) {
+      return provider;
+    }
+
+    try {
+      var providerClass = integratorProvider instanceof Class<?> configuredClass
+          ? configuredClass
+          : Class.forName(integratorProvider.toString(), true, Thread.currentThread().getContextClassLoader());
+
+      return (IntegratorProvider) providerClass.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException | ClassCastException exception) {
+      throw new DigitalNotificationLibraryException(
+          "Could not create the Hibernate integrator provider %s".formatted(integratorProvider),
+          exception
+      );
+    }
+  }
+
+  @Override
+  public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    // nothing to release
+  }
+
+  private static class NonNotificationPostInsertListener extends EnversPostInsertEventListenerImpl {
+
+    NonNotificationPostInsertListener(EnversService enversService) {
+      super(enversService);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+      if (!NotificationStatusJournalListener.isNotification(event.getPersister())) {
+        super.onPostInsert(event);
+      }
+    }
+  }
+
+  private static class NonNotificationPreUpdateListener extends EnversPreUpdateEventListenerImpl {
+
+    NonNotificationPreUpdateListener(EnversService enversService) {
+      super(enversService);
+    }
+
+    @Override
+    public boolean onPreUpdate(PreUpdateEvent event) {
+      return !NotificationStatusJournalListener.isNotification(event.getPersister()) && super.onPreUpdate(event);
+    }
+  }
+
+  private static class NonNotificationPostUpdateListener extends EnversPostUpdateEventListenerImpl {
+
+    NonNotificationPostUpdateListener(EnversService enversService) {
+      super(enversService);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+      if (!NotificationStatusJournalListener.isNotification(event.getPersister())) {
+        super.onPostUpdate(event);
+      }
+    }
+  }
+
+  private static class NonNotificationPostDeleteListener extends EnversPostDeleteEventListenerImpl {
+
+    NonNotificationPostDeleteListener(EnversService enversService) {
+      super(enversService);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+      if (!NotificationStatusJournalListener.isNotification(event.getPersister())) {
+        super.onPostDelete(event);
+      }
+    }
+  }
+}
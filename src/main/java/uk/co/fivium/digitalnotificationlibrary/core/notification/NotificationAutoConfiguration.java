@@ -1,11 +1,21 @@
 package uk.co.fivium.digitalnotificationlibrary.core.notification;
 
+import java.time.Clock;
+import net.javacrumbs.shedlock.spring.annotation.EnableSchedulerLock;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationAuditStrategy;
 import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
 
+// the jobs are proxied by class, as the archive and retention jobs are scheduled through their classes rather than an
+// interface
 @Configuration
+@EnableSchedulerLock(
+    defaultLockAtMostFor = NotificationLibraryConfigurationProperties.SCHEDULER_LOCK_AT_MOST_FOR_SECONDS + "s",
+    proxyTargetClass = true
+)
 class NotificationAutoConfiguration {
 
   @Bean
@@ -20,4 +30,27 @@ class NotificationAutoConfiguration {
   GovukNotifySender productionGovukNotifySender(GovukNotifySenderService govukNotifySenderService) {
     return new ProductionGovukNotifySender(govukNotifySenderService);
   }
+
+  @Bean
+  HibernatePropertiesCustomizer notificationAuditHibernatePropertiesCustomizer(
+      NotificationLibraryConfigurationProperties libraryConfigurationProperties,
+      Clock clock
+  ) {
+    return hibernateProperties -> {
+
+      var auditStrategy = libraryConfigurationProperties.getAuditStrategy();
+
+      if (NotificationAuditStrategy.ENVERS.equals(auditStrategy)) {
+        return;
+      }
+
+      hibernateProperties.put(NotificationAuditIntegrator.ENVERS_AUTO_REGISTER_LISTENERS_PROPERTY, false);
+      // any integrator provider the consumer has configured is kept, with the audit integrator added to it
+      hibernateProperties.put(
+          NotificationAuditIntegrator.INTEGRATOR_PROVIDER_PROPERTY,
+          new NotificationAuditIntegrator(auditStrategy, clock)
+              .withIntegratorProvider(hibernateProperties.get(NotificationAuditIntegrator.INTEGRATOR_PROVIDER_PROPERTY))
+      );
+    };
+  }
 }
@@ -0,0 +1,71 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the number of notifications waiting with each status the library still has to process. The counts are
+ * refreshed by the {@link NotificationBacklogMetricsJob} rather than when the metrics are scraped, so scraping the
+ * metrics never queries the database.
+ */
+@Component
+class NotificationBacklogMetrics {
+
+  static final String METRIC_NAME = "notification.library.backlog";
+
+  static final Set<NotificationStatus> BACKLOG_STATUSES = EnumSet.of(
+      NotificationStatus.QUEUED,
+      NotificationStatus.RETRY,
+      NotificationStatus.SENDING_TO_NOTIFY,
+      NotificationStatus.SENT_TO_NOTIFY,
+      NotificationStatus.FAILED_TO_SEND_TO_NOTIFY
+  );
+
+  private final NotificationLibraryNotificationRepository notificationRepository;
+
+  private final Map<NotificationStatus, AtomicLong> backlogByStatus = new EnumMap<>(NotificationStatus.class);
+
+  @Autowired
+  NotificationBacklogMetrics(NotificationLibraryNotificationRepository notificationRepository,
+                             ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    this(notificationRepository, meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  NotificationBacklogMetrics(NotificationLibraryNotificationRepository notificationRepository,
+                             MeterRegistry meterRegistry) {
+    this.notificationRepository = notificationRepository;
+
+    BACKLOG_STATUSES.forEach(status -> {
+      var backlog = new AtomicLong();
+      backlogByStatus.put(status, backlog);
+
+      Gauge.builder(METRIC_NAME, backlog, AtomicLong::get)
+          .description("The number of notifications with the status when the backlog was last counted")
+          .tag("status", status.name())
+          .register(meterRegistry);
+    });
+  }
+
+  /**
+   * Count the notifications with each backlog status and publish the counts.
+   */
+  void refresh() {
+
+    Map<NotificationStatus, Long> counts = new EnumMap<>(NotificationStatus.class);
+
+    notificationRepository.countNotificationsByStatuses(BACKLOG_STATUSES)
+        .forEach(statusCount -> counts.put(statusCount.status(), statusCount.count()));
+
+    // statuses without any notifications are not returned by the count
+    backlogByStatus.forEach((status, backlog) -> backlog.set(counts.getOrDefault(status, 0L)));
+  }
+}
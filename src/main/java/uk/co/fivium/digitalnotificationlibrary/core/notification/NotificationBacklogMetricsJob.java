@@ -0,0 +1,35 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the notifications the library still has to process for the backlog metrics. Every node publishes the gauges,
+ * so this runs on every node without a scheduler lock, otherwise the nodes not holding the lock would publish counts
+ * which are never refreshed. The count is a single grouped query of the notifications still being processed. This runs
+ * on its own schedule, which is slower than the status update job by default, whichever dequeue mode the library is
+ * using.
+ */
+@Component
+class NotificationBacklogMetricsJob {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationBacklogMetricsJob.class);
+
+  private final NotificationBacklogMetrics notificationBacklogMetrics;
+
+  @Autowired
+  NotificationBacklogMetricsJob(NotificationBacklogMetrics notificationBacklogMetrics) {
+    this.notificationBacklogMetrics = notificationBacklogMetrics;
+  }
+
+  void refreshBacklogMetrics() {
+
+    LOGGER.debug("Starting scheduled refresh of the notification backlog metrics");
+
+    notificationBacklogMetrics.refresh();
+
+    LOGGER.debug("Finished scheduled refresh of the notification backlog metrics");
+  }
+}
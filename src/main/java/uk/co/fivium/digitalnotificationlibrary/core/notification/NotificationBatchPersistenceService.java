@@ -0,0 +1,331 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import jakarta.persistence.EntityManager;
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.apache.commons.collections4.ListUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationAuditStrategy;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+/**
+ * Records the outcome of processing a batch of claimed notifications. Notifications are written in chunks, each in a
+ * single transaction using JDBC batching, rather than one transaction per notification. If a chunk fails to be written
+ * each notification in that chunk is retried in its own transaction so one bad row doesn't lose the outcome of the
+ * others.
+ */
+@Service
+class NotificationBatchPersistenceService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationBatchPersistenceService.class);
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final TransactionTemplate newTransactionTemplate;
+
+  private final NotificationLibraryNotificationRepository notificationRepository;
+
+  private final EntityManager entityManager;
+
+  private final NotificationLibraryConfigurationProperties libraryConfigurationProperties;
+
+  private final Clock clock;
+
+  private final NotificationQueuedNotifier notificationQueuedNotifier;
+
+  @Autowired
+  NotificationBatchPersistenceService(PlatformTransactionManager transactionManager,
+                                      NotificationLibraryNotificationRepository notificationRepository,
+                                      EntityManager entityManager,
+                                      NotificationLibraryConfigurationProperties libraryConfigurationProperties,
+                                      Clock clock,
+                                      NotificationQueuedNotifier notificationQueuedNotifier) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.newTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.notificationRepository = notificationRepository;
+    this.entityManager = entityManager;
+    this.libraryConfigurationProperties = libraryConfigurationProperties;
+    this.clock = clock;
+    this.notificationQueuedNotifier = notificationQueuedNotifier;
+  }
+
+  /**
+   * Save the provided notifications and release this node's claim on them. Notifications which have been claimed by
+   * another node since this node's claim expired are left as the other node saves them.
+   * @param notifications The claimed notifications to save
+   */
+  void saveNotifications(List<Notification> notifications) {
+    saveInBatches(notifications, this::saveBatch, this::saveNotification);
+  }
+
+  /**
+   * Apply the outcome of updating the status of the provided status-only copies of notifications to the notifications
+   * they were read from and release this node's claim on them. Only the status columns are changed, so the content of
+   * each notification is left as it is. Notifications which have been claimed by another node since this node's claim
+   * expired are left as the other node saves them.
+   *
+   * <p>The status columns of each batch are written with a single JDBC batch of updates, so the mail merge fields and
+   * file attachments are never read. Envers audits a copy of the whole notification, so when the Envers audit strategy
+   * is used each notification has to be loaded and saved instead, which reads its mail merge fields and file attachments.
+   * @param notificationStatuses The status-only copies of the claimed notifications to save
+   */
+  void saveNotificationStatuses(List<Notification> notificationStatuses) {
+    if (NotificationAuditStrategy.ENVERS.equals(libraryConfigurationProperties.getAuditStrategy())) {
+      saveInBatches(notificationStatuses, this::saveStatusBatch, this::saveNotificationStatus);
+    } else {
+      saveInBatches(notificationStatuses, this::updateStatusBatch, this::updateNotificationStatus);
+    }
+  }
+
+  /**
+   * Insert the provided newly queued notifications in chunks using JDBC batching, so each chunk is written in one round
+   * trip. Every chunk is inserted in a single transaction, which is the caller's transaction if there is one, so either
+   * every notification is queued or none are and a caller retrying a failed call doesn't queue duplicates. Unlike saving
+   * the outcome of processing notifications, a chunk which fails to be inserted is not retried and the exception is
+   * thrown to the caller. The notifications are detached once their chunk has been written, so the transaction doesn't
+   * hold on to every notification it has queued.
+   * @param notifications The new notifications to insert
+   */
+  void insertNotifications(List<Notification> notifications) {
+
+    var batchSize = libraryConfigurationProperties.getPersistenceBatchSize();
+
+    transactionTemplate.executeWithoutResult(status -> {
+
+      notificationQueuedNotifier.notifyQueuedAfterCommit();
+
+      // each chunk is sent to the database before the next is saved, even though they are committed together
+      for (List<Notification> batch : ListUtils.partition(notifications, batchSize)) {
+        NotificationJdbcBatching.flushBatch(entityManager, batchSize, () -> notificationRepository.saveAll(batch));
+      }
+    });
+  }
+
+  /**
+   * Insert and commit one chunk of notifications queued from a stream, in a new transaction even if there is already a
+   * transaction. The persistence context is cleared once the chunk has been written, so the notifications can be
+   * garbage collected once the caller has finished with them rather than building up until the stream ends.
+   * @param chunk The new notifications to insert
+   */
+  void insertNotificationChunk(List<Notification> chunk) {
+
+    var batchSize = libraryConfigurationProperties.getPersistenceBatchSize();
+
+    newTransactionTemplate.executeWithoutResult(status -> {
+      NotificationJdbcBatching.flushBatch(entityManager, batchSize, () -> notificationRepository.saveAll(chunk));
+      notificationQueuedNotifier.notifyQueuedAfterCommit();
+      // the transaction is this chunk's own, so nothing else in the persistence context needs to be kept
+      entityManager.clear();
+    });
+  }
+
+  private void saveInBatches(List<Notification> notifications,
+                             Function<List<Notification>, List<Notification>> batchSaver,
+                             Consumer<Notification> notificationSaver) {
+
+    var batchSize = libraryConfigurationProperties.getPersistenceBatchSize();
+
+    for (List<Notification> batch : ListUtils.partition(notifications, batchSize)) {
+      try {
+        transactionTemplate.executeWithoutResult(status ->
+            NotificationJdbcBatching.flushBatch(entityManager, batchSize, () -> batchSaver.apply(batch))
+        );
+      } catch (RuntimeException exception) {
+        LOGGER.warn(
+            "Failed to save batch of {} notifications. Saving each notification individually.",
+            batch.size(),
+            exception
+        );
+        batch.forEach(notificationSaver);
+      }
+    }
+  }
+
+  private List<Notification> saveBatch(List<Notification> batch) {
+
+    var claimedNotificationsById = lockClaimedNotifications(batch);
+
+    return batch.stream()
+        .filter(notification -> claimedNotificationsById.containsKey(notification.getId()))
+        .map(notification -> {
+          // the claim is released on the saved notification, so the claimed copy still holds the claim if the batch
+          // fails and its outcome is saved again on its own
+          var savedNotification = notificationRepository.save(notification);
+          savedNotification.setClaimedUntil(null);
+          return savedNotification;
+        })
+        .toList();
+  }
+
+  private List<Notification> saveStatusBatch(List<Notification> batch) {
+
+    var claimedNotificationsById = lockClaimedNotifications(batch);
+
+    batch.stream()
+        .filter(notificationStatus -> claimedNotificationsById.containsKey(notificationStatus.getId()))
+        .forEach(notificationStatus ->
+            applyStatusUpdate(claimedNotificationsById.get(notificationStatus.getId()), notificationStatus)
+        );
+
+    return List.copyOf(claimedNotificationsById.values());
+  }
+
+  /**
+   * Lock the notifications the provided claimed copies were read from and return those still claimed by this node. A
+   * notification whose claim expired and has since been claimed by another node is left for that node, rather than
+   * having the outcome of this node's processing written over the other node's.
+   *
+   * <p>The claimed copies were loaded in the claim transaction so are detached. Loading the notifications in one query
+   * first means saving the copies merges into the persistence context rather than selecting each row individually, and
+   * the lock stops them being claimed by another node before the outcome is saved.
+   * @param claimedNotifications The copies of the notifications read when they were claimed
+   * @return the locked notifications still claimed by this node by ID
+   */
+  private Map<UUID, Notification> lockClaimedNotifications(List<Notification> claimedNotifications) {
+
+    Map<UUID, Notification> lockedNotificationsById = new HashMap<>();
+    notificationRepository.lockNotificationsByIds(claimedNotifications.stream().map(Notification::getId).toList())
+        .forEach(notification -> lockedNotificationsById.put(notification.getId(), notification));
+
+    Map<UUID, Notification> claimedNotificationsById = new HashMap<>();
+
+    claimedNotifications.forEach(claimedNotification -> {
+
+      var lockedNotification = lockedNotificationsById.get(claimedNotification.getId());
+
+      if (lockedNotification == null) {
+        // the notification may have been deleted since it was claimed, in which case there is nothing to update
+        LOGGER.warn("Notification with ID {} no longer exists so its outcome was not saved", claimedNotification.getId());
+      } else if (!Objects.equals(lockedNotification.getClaimedUntil(), claimedNotification.getClaimedUntil())) {
+        LOGGER.warn(
+            "Notification with ID {} was claimed by another node after this node's claim expired so its outcome was " +
+                "not saved",
+            claimedNotification.getId()
+        );
+      } else {
+        claimedNotificationsById.put(lockedNotification.getId(), lockedNotification);
+      }
+    });
+
+    return claimedNotificationsById;
+  }
+
+  private void saveNotification(Notification notification) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> saveBatch(List.of(notification)));
+    } catch (RuntimeException exception) {
+      LOGGER.warn(
+          "Failed to save notification with ID {}. Saving the outcome of sending it only.",
+          notification.getId(),
+          exception
+      );
+      updateSendOutcome(notification);
+    }
+  }
+
+  private void updateSendOutcome(Notification notification) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+
+        if (notificationRepository.updateSendOutcome(notification) == 0) {
+          LOGGER.warn(
+              "Notification with ID {} no longer exists or is claimed by another node so its outcome was not saved",
+              notification.getId()
+          );
+          return;
+        }
+
+        // the notification was saved as being sent to notify when it was claimed
+        journalStatusChange(
+            notification.getId(),
+            NotificationStatus.SENDING_TO_NOTIFY,
+            notification.getStatus(),
+            notification.getFailureReason()
+        );
+      });
+    } catch (RuntimeException exception) {
+      // the notification remains claimed so will be processed again once the claim has expired
+      LOGGER.error("Failed to save outcome of sending notification with ID {}", notification.getId(), exception);
+    }
+  }
+
+  private void saveNotificationStatus(Notification notificationStatus) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> saveStatusBatch(List.of(notificationStatus)));
+    } catch (RuntimeException exception) {
+      // the notification remains claimed so will be processed again once the claim has expired
+      LOGGER.error("Failed to save status of notification with ID {}", notificationStatus.getId(), exception);
+    }
+  }
+
+  private List<Notification> updateStatusBatch(List<Notification> batch) {
+
+    var updatedStatuses = notificationRepository.updateNotificationStatuses(batch);
+    var updatedIds = updatedStatuses.stream().map(Notification::getId).collect(Collectors.toSet());
+
+    batch.stream()
+        .filter(notificationStatus -> !updatedIds.contains(notificationStatus.getId()))
+        .forEach(notificationStatus -> LOGGER.warn(
+            "Notification with ID {} no longer exists or is claimed by another node so its status was not saved",
+            notificationStatus.getId()
+        ));
+
+    updatedStatuses.forEach(notificationStatus -> journalStatusChange(
+        notificationStatus.getId(),
+        notificationStatus.getClaimedStatus(),
+        notificationStatus.getStatus(),
+        notificationStatus.getFailureReason()
+    ));
+
+    // the status-only copies were never in the persistence context, so there is nothing to detach
+    return List.of();
+  }
+
+  private void updateNotificationStatus(Notification notificationStatus) {
+    try {
+      transactionTemplate.executeWithoutResult(status -> updateStatusBatch(List.of(notificationStatus)));
+    } catch (RuntimeException exception) {
+      // the notification remains claimed so will be processed again once the claim has expired
+      LOGGER.error("Failed to save status of notification with ID {}", notificationStatus.getId(), exception);
+    }
+  }
+
+  private void journalStatusChange(UUID notificationId,
+                                   NotificationStatus fromStatus,
+                                   NotificationStatus toStatus,
+                                   String failureReason) {
+
+    // updates aren't seen by the journal listener, so the change of status is journalled here instead
+    var isStatusChanged = !Objects.equals(fromStatus, toStatus);
+
+    if (isStatusChanged && NotificationAuditStrategy.JOURNAL.equals(libraryConfigurationProperties.getAuditStrategy())) {
+      entityManager.persist(new NotificationStatusTransition(
+          notificationId,
+          fromStatus,
+          toStatus,
+          clock.instant(),
+          failureReason
+      ));
+    }
+  }
+
+  private void applyStatusUpdate(Notification notification, Notification notificationStatus) {
+    notification.applyStatusUpdate(notificationStatus);
+    notification.setClaimedUntil(null);
+    notificationRepository.save(notification);
+  }
+}
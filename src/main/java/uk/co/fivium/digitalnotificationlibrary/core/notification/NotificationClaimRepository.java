@@ -0,0 +1,54 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository fragment for claiming notifications from the queue using vendor specific row locking.
+ */
+interface NotificationClaimRepository {
+
+  /**
+   * Lock and return notifications with the provided statuses and priorities which are not currently claimed by another
+   * node and are due a status check or retry, if one has been scheduled. Notifications are ordered by last send attempt
+   * date (taking into account null values) followed by the requested on date and ID. Rows locked by another transaction
+   * are skipped rather than waited on, so nodes claiming at the same time are given disjoint notifications. Must be
+   * called within a transaction.
+   *
+   * <p>Providing a cursor returns the page of notifications after it, seeking past the earlier notifications rather than
+   * reading and discarding them, so each page costs the same however far through the queue it is.
+   * @param statuses The statuses of notifications to return
+   * @param priorities The priorities of notifications to return
+   * @param claimableAt The instant claims must have expired by, and status checks and retries must be due by, for a
+   *                    notification to be returned
+   * @param after The position in the queue to return notifications after, or null to start at the head of the queue
+   * @param limit The maximum number of notifications to return
+   * @return the locked notifications in the order they should be processed
+   */
+  List<Notification> claimNotificationsByStatuses(Collection<NotificationStatus> statuses,
+                                                  Collection<NotificationPriority> priorities,
+                                                  Instant claimableAt,
+                                                  NotificationQueueCursor after,
+                                                  int limit);
+
+  /**
+   * Lock and return status-only copies of the notifications which would be returned by
+   * {@link #claimNotificationsByStatuses}. Only the columns needed to update the status of a notification are read, so
+   * the mail merge fields and file attachments are never read or deserialised. The copies are not managed by the
+   * persistence context, so changes to them must be applied using {@link Notification#applyStatusUpdate}. Must be
+   * called within a transaction.
+   * @param statuses The statuses of notifications to return
+   * @param priorities The priorities of notifications to return
+   * @param claimableAt The instant claims must have expired by, and status checks and retries must be due by, for a
+   *                    notification to be returned
+   * @param after The position in the queue to return notifications after, or null to start at the head of the queue
+   * @param limit The maximum number of notifications to return
+   * @return status-only copies of the locked notifications in the order they should be processed
+   */
+  List<Notification> claimNotificationStatusesByStatuses(Collection<NotificationStatus> statuses,
+                                                         Collection<NotificationPriority> priorities,
+                                                         Instant claimableAt,
+                                                         NotificationQueueCursor after,
+                                                         int limit);
+}
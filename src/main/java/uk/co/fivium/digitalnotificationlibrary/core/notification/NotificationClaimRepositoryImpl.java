@@ -0,0 +1,221 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.springframework.beans.factory.annotation.Autowired;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+class NotificationClaimRepositoryImpl implements NotificationClaimRepository {
+
+  private static final String FETCH_SIZE_HINT = "org.hibernate.fetchSize";
+
+  private static final String NOTIFICATION_COLUMNS = """
+      SELECT n.*
+      """;
+
+  // everything the status update job reads, leaving out the mail merge fields and file attachments
+  private static final String STATUS_COLUMNS = """
+      SELECT
+        n.id, n.status, n.notify_notification_id, n.notify_status, n.notify_status_last_updated_at, n.requested_on,
+        n.sent_at, n.failure_reason, n.last_failed_at, n.retry_count, n.last_send_attempt_at, n.next_status_check_at,
+        n.next_attempt_at
+      """;
+
+  private static final String CLAIMABLE_NOTIFICATIONS_QUERY = """
+      FROM {h-schema}notification_library_notifications n
+      WHERE n.status IN (:statuses)
+      AND n.priority IN (:priorities)
+      AND (n.claimed_until IS NULL OR n.claimed_until <= :claimableAt)
+      AND (n.next_status_check_at IS NULL OR n.next_status_check_at <= :claimableAt)
+      AND (n.next_attempt_at IS NULL OR n.next_attempt_at <= :claimableAt)
+      """;
+
+  // The statuses are bound, so PostgreSQL can't tell a generic plan only reads rows in a partial queue index. Repeating
+  // the statuses of the queue being claimed from as literals lets it use the index, so these must match the predicates
+  // of the queue indexes.
+  private static final Set<NotificationStatus> SEND_QUEUE_STATUSES =
+      EnumSet.of(NotificationStatus.QUEUED, NotificationStatus.RETRY);
+
+  private static final String SEND_QUEUE_CONDITION = """
+      AND n.status IN ('QUEUED', 'RETRY')
+      """;
+
+  private static final Set<NotificationStatus> UPDATE_QUEUE_STATUSES = EnumSet.of(
+      NotificationStatus.SENDING_TO_NOTIFY,
+      NotificationStatus.SENT_TO_NOTIFY,
+      NotificationStatus.FAILED_TO_SEND_TO_NOTIFY
+  );
+
+  private static final String UPDATE_QUEUE_CONDITION = """
+      AND n.status IN ('SENDING_TO_NOTIFY', 'SENT_TO_NOTIFY', 'FAILED_TO_SEND_TO_NOTIFY')
+      """;
+
+  // notifications never sent are at the head of the queue, so everything which has been sent comes after them
+  private static final String AFTER_NEVER_SENT_CURSOR_CONDITION = """
+      AND (
+        n.last_send_attempt_at IS NOT NULL
+        OR n.requested_on > :afterRequestedOn
+        OR (n.requested_on = :afterRequestedOn AND n.id > :afterId)
+      )
+      """;
+
+  // the redundant lower bound on the last send attempt date lets the queue indexes seek straight to the cursor
+  private static final String AFTER_SENT_CURSOR_CONDITION = """
+      AND n.last_send_attempt_at >= :afterLastSendAttemptAt
+      AND (
+        n.last_send_attempt_at > :afterLastSendAttemptAt
+        OR n.requested_on > :afterRequestedOn
+        OR (n.requested_on = :afterRequestedOn AND n.id > :afterId)
+      )
+      """;
+
+  // the ID makes the order unique, so a cursor never skips or repeats notifications requested at the same time
+  private static final String QUEUE_ORDER = """
+      ORDER BY n.last_send_attempt_at ASC NULLS FIRST, n.requested_on ASC, n.id ASC
+      """;
+
+  private static final String POSTGRES_CLAIM_CLAUSE = """
+      LIMIT :limit
+      FOR UPDATE SKIP LOCKED
+      """;
+
+  // Oracle doesn't allow FOR UPDATE with a row limiting clause, instead rows are locked as they are fetched
+  // so only the first n rows of the result are read
+  private static final String ORACLE_CLAIM_CLAUSE = """
+      FOR UPDATE SKIP LOCKED
+      """;
+
+  private final EntityManager entityManager;
+
+  private final boolean isOracle;
+
+  @Autowired
+  NotificationClaimRepositoryImpl(EntityManager entityManager,
+                                  NotificationLibraryConfigurationProperties libraryConfigurationProperties) {
+    this.entityManager = entityManager;
+    this.isOracle = NotificationLibraryConfigurationProperties.ORACLE_VENDOR
+        .equalsIgnoreCase(libraryConfigurationProperties.flywayVendor());
+  }
+
+  @Override
+  public List<Notification> claimNotificationsByStatuses(Collection<NotificationStatus> statuses,
+                                                         Collection<NotificationPriority> priorities,
+                                                         Instant claimableAt,
+                                                         NotificationQueueCursor after,
+                                                         int limit) {
+    return claim(
+        NOTIFICATION_COLUMNS,
+        sql -> entityManager.createNativeQuery(sql, Notification.class),
+        statuses,
+        priorities,
+        claimableAt,
+        after,
+        limit
+    );
+  }
+
+  @Override
+  public List<Notification> claimNotificationStatusesByStatuses(Collection<NotificationStatus> statuses,
+                                                                Collection<NotificationPriority> priorities,
+                                                                Instant claimableAt,
+                                                                NotificationQueueCursor after,
+                                                                int limit) {
+    List<NotificationStatusProjection> projections = claim(
+        STATUS_COLUMNS,
+        sql -> entityManager.createNativeQuery(sql, Notification.STATUS_PROJECTION_MAPPING),
+        statuses,
+        priorities,
+        claimableAt,
+        after,
+        limit
+    );
+
+    return projections.stream()
+        .map(NotificationStatusProjection::toNotification)
+        .toList();
+  }
+
+  private <T> List<T> claim(String columns,
+                            Function<String, Query> queryFactory,
+                            Collection<NotificationStatus> statuses,
+                            Collection<NotificationPriority> priorities,
+                            Instant claimableAt,
+                            NotificationQueueCursor after,
+                            int limit) {
+
+    var statusNames = statuses.stream()
+        .map(Enum::name)
+        .toList();
+
+    var priorityNames = priorities.stream()
+        .map(Enum::name)
+        .toList();
+
+    var sql = columns +
+        CLAIMABLE_NOTIFICATIONS_QUERY +
+        getQueueCondition(statuses) +
+        getCursorCondition(after) +
+        QUEUE_ORDER +
+        (isOracle ? ORACLE_CLAIM_CLAUSE : POSTGRES_CLAIM_CLAUSE);
+
+    Query query = queryFactory.apply(sql)
+        .setParameter("statuses", statusNames)
+        .setParameter("priorities", priorityNames)
+        .setParameter("claimableAt", claimableAt);
+
+    if (after != null) {
+      query.setParameter("afterRequestedOn", after.requestedOn());
+      query.setParameter("afterId", after.id());
+      if (after.lastSendAttemptAt() != null) {
+        query.setParameter("afterLastSendAttemptAt", after.lastSendAttemptAt());
+      }
+    }
+
+    if (isOracle) {
+      query.setHint(FETCH_SIZE_HINT, limit);
+
+      try (Stream<T> results = getResultStream(query)) {
+        return results.limit(limit).toList();
+      }
+    }
+
+    query.setParameter("limit", limit);
+
+    return getResultList(query);
+  }
+
+  private String getQueueCondition(Collection<NotificationStatus> statuses) {
+    if (SEND_QUEUE_STATUSES.containsAll(statuses)) {
+      return SEND_QUEUE_CONDITION;
+    } else if (UPDATE_QUEUE_STATUSES.containsAll(statuses)) {
+      return UPDATE_QUEUE_CONDITION;
+    }
+    // the statuses span both queues, so no single queue index can serve the claim
+    return "";
+  }
+
+  private String getCursorCondition(NotificationQueueCursor after) {
+    if (after == null) {
+      return "";
+    }
+    // separate conditions are used rather than binding a null last send attempt date, which not all drivers can type
+    return after.lastSendAttemptAt() == null ? AFTER_NEVER_SENT_CURSOR_CONDITION : AFTER_SENT_CURSOR_CONDITION;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> List<T> getResultList(Query query) {
+    return query.getResultList();
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> Stream<T> getResultStream(Query query) {
+    return query.getResultStream();
+  }
+}
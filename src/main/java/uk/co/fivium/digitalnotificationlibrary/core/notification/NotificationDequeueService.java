@@ -0,0 +1,349 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+@Service
+class NotificationDequeueService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationDequeueService.class);
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final NotificationLibraryNotificationRepository notificationRepository;
+
+  private final NotificationLibraryConfigurationProperties libraryConfigurationProperties;
+
+  private final Clock clock;
+
+  @Autowired
+  NotificationDequeueService(PlatformTransactionManager transactionManager,
+                             NotificationLibraryNotificationRepository notificationRepository,
+                             NotificationLibraryConfigurationProperties libraryConfigurationProperties,
+                             Clock clock) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.notificationRepository = notificationRepository;
+    this.libraryConfigurationProperties = libraryConfigurationProperties;
+    this.clock = clock;
+  }
+
+  /**
+   * Claim notifications with the provided statuses for processing by this node. The claim is made in its own short
+   * transaction. Notifications being claimed by another node at the same time are skipped and claimed notifications
+   * are leased to this node, so no other node will be given them until they have been processed or the lease expires.
+   * @param statuses The statuses of notifications to claim
+   * @param limit The maximum number of notifications to claim
+   * @return the claimed notifications in the order they should be processed
+   */
+  List<Notification> claimNotifications(Set<NotificationStatus> statuses, int limit) {
+    return claimNotifications(statuses, limit, notification -> {
+    });
+  }
+
+  /**
+   * Claim notifications with the provided statuses for processing by this node, applying the provided action to each
+   * claimed notification within the claim transaction. This allows the state of the notification to be updated in the
+   * same transaction it is claimed in, for example to mark it as in flight.
+   *
+   * <p>Each priority lane is first given its weighted share of the limit, highest priority first, so lower priority
+   * notifications still progress while higher priority lanes are busy. Any of the limit not used by a lane is then given
+   * to the lanes which had more notifications waiting, again highest priority first.
+   * @param statuses The statuses of notifications to claim
+   * @param limit The maximum number of notifications to claim
+   * @param claimAction The action to apply to each claimed notification before the claim is committed
+   * @return the claimed notifications in the order they should be processed
+   */
+  List<Notification> claimNotifications(Set<NotificationStatus> statuses,
+                                        int limit,
+                                        Consumer<Notification> claimAction) {
+
+    // lanes are ordered by priority so the highest priority notifications are processed first
+    var priorityLanes = Arrays.stream(NotificationPriority.values())
+        .map(priority -> new ClaimLane(statuses, Set.of(priority), getPriorityWeight(priority)))
+        .toList();
+
+    return claimNotificationsByLane(priorityLanes, limit, claimAction);
+  }
+
+  /**
+   * Claim notifications for their status to be updated by this node, giving notifications with each of the provided
+   * statuses a guaranteed share of the limit. Each status is claimed with a separate query and first given its weighted
+   * share of the limit, so a backlog of notifications with one status cannot stop notifications with another status
+   * being claimed. Any of the limit not used by a status is then given to the statuses which had more notifications
+   * waiting, in the order the statuses were provided.
+   *
+   * <p>Only the columns needed to update the status of the notifications are read, so the returned notifications are
+   * status-only copies which must be saved using
+   * {@link NotificationBatchPersistenceService#saveNotificationStatuses}.
+   * @param statusWeights The statuses of notifications to claim and the weight of each, in the order they should be
+   *                      processed
+   * @param limit The maximum number of notifications to claim
+   * @return status-only copies of the claimed notifications in the order they should be processed
+   */
+  List<Notification> claimNotificationStatuses(Map<NotificationStatus, Integer> statusWeights, int limit) {
+
+    var statusLanes = statusWeights.entrySet()
+        .stream()
+        .map(statusWeight -> new ClaimLane(
+            Set.of(statusWeight.getKey()),
+            EnumSet.allOf(NotificationPriority.class),
+            statusWeight.getValue()
+        ))
+        .toList();
+
+    List<Notification> claimedNotifications = transactionTemplate.execute(status -> {
+
+      var now = clock.instant();
+
+      List<Notification> notifications = claimNotificationsFromLanes(
+          statusLanes,
+          now,
+          limit,
+          notificationRepository::claimNotificationStatusesByStatuses
+      );
+
+      if (!notifications.isEmpty()) {
+        var claimedUntil = getClaimedUntil(now);
+        notificationRepository.updateClaimedUntil(notifications.stream().map(Notification::getId).toList(), claimedUntil);
+        notifications.forEach(notification -> notification.setClaimedUntil(claimedUntil));
+      }
+
+      return notifications;
+    });
+
+    LOGGER.debug(
+        "Claimed the status of {} notifications from lanes {}",
+        Optional.ofNullable(claimedNotifications).map(List::size).orElse(0), statusLanes
+    );
+
+    return Optional.ofNullable(claimedNotifications).orElse(List.of());
+  }
+
+  /**
+   * Claim the notification with the provided ID for processing by this node if it has one of the provided statuses,
+   * applying the provided action to it within the claim transaction. Nothing is claimed if the notification is being
+   * claimed by another node at the same time or is already leased to another node.
+   * @param notificationId The ID of the notification to claim
+   * @param statuses The statuses the notification must have to be claimed
+   * @param claimAction The action to apply to the notification before the claim is committed
+   * @return the claimed notification, or empty if it could not be claimed
+   */
+  Optional<Notification> claimNotification(UUID notificationId,
+                                           Set<NotificationStatus> statuses,
+                                           Consumer<Notification> claimAction) {
+
+    Optional<Notification> claimedNotification = transactionTemplate.execute(status -> {
+
+      var now = clock.instant();
+
+      Optional<Notification> notification = notificationRepository.claimNotificationById(notificationId, statuses, now);
+
+      notification.ifPresent(notificationToClaim -> {
+        notificationToClaim.setClaimedUntil(getClaimedUntil(now));
+        claimAction.accept(notificationToClaim);
+        notificationRepository.save(notificationToClaim);
+      });
+
+      return notification;
+    });
+
+    return Optional.ofNullable(claimedNotification).flatMap(notification -> notification);
+  }
+
+  private Instant getClaimedUntil(Instant now) {
+    // the claim is compared when the outcome is saved, so it is kept to the microsecond precision the databases store
+    return now.plusSeconds(libraryConfigurationProperties.getClaimLeaseSeconds()).truncatedTo(ChronoUnit.MICROS);
+  }
+
+  private List<Notification> claimNotificationsByLane(List<ClaimLane> lanes,
+                                                      int limit,
+                                                      Consumer<Notification> claimAction) {
+
+    List<Notification> claimedNotifications = transactionTemplate.execute(status -> {
+
+      var now = clock.instant();
+
+      List<Notification> notifications = claimNotificationsFromLanes(
+          lanes,
+          now,
+          limit,
+          notificationRepository::claimNotificationsByStatuses
+      );
+
+      if (!notifications.isEmpty()) {
+        var claimedUntil = getClaimedUntil(now);
+        notifications.forEach(notification -> {
+          notification.setClaimedUntil(claimedUntil);
+          claimAction.accept(notification);
+        });
+        notificationRepository.saveAll(notifications);
+      }
+
+      return notifications;
+    });
+
+    LOGGER.debug(
+        "Claimed {} notifications from lanes {}",
+        Optional.ofNullable(claimedNotifications).map(List::size).orElse(0), lanes
+    );
+
+    return Optional.ofNullable(claimedNotifications).orElse(List.of());
+  }
+
+  private List<Notification> claimNotificationsFromLanes(List<ClaimLane> lanes,
+                                                         Instant claimableAt,
+                                                         int limit,
+                                                         LaneQuery laneQuery) {
+
+    var shares = getShares(lanes, limit);
+
+    // the claimed notifications of each lane, at the same index as the lane
+    List<List<Notification>> claimedNotificationsByLane = new ArrayList<>();
+
+    var claimedCount = 0;
+
+    for (var laneIndex = 0; laneIndex < lanes.size(); laneIndex++) {
+
+      var lane = lanes.get(laneIndex);
+      var share = shares[laneIndex];
+
+      List<Notification> laneNotifications = new ArrayList<>();
+
+      if (share > 0) {
+        laneNotifications.addAll(laneQuery.claim(
+            lane.statuses(),
+            lane.priorities(),
+            claimableAt,
+            null,
+            share
+        ));
+        claimedCount += laneNotifications.size();
+      }
+
+      claimedNotificationsByLane.add(laneNotifications);
+    }
+
+    for (var laneIndex = 0; laneIndex < lanes.size(); laneIndex++) {
+
+      var lane = lanes.get(laneIndex);
+      var laneNotifications = claimedNotificationsByLane.get(laneIndex);
+
+      var remaining = limit - claimedCount;
+
+      // a lane which returned fewer notifications than its share has no more waiting
+      if (remaining == 0 || laneNotifications.size() < shares[laneIndex]) {
+        continue;
+      }
+
+      // carry on from the last notification claimed from the lane rather than reading its claimed notifications again
+      var cursor = laneNotifications.isEmpty()
+          ? null
+          : NotificationQueueCursor.of(laneNotifications.get(laneNotifications.size() - 1));
+
+      var additionalNotifications = laneQuery.claim(
+          lane.statuses(),
+          lane.priorities(),
+          claimableAt,
+          cursor,
+          remaining
+      );
+
+      laneNotifications.addAll(additionalNotifications);
+      claimedCount += additionalNotifications.size();
+    }
+
+    return claimedNotificationsByLane.stream()
+        .flatMap(List::stream)
+        .toList();
+  }
+
+  /**
+   * Split the limit between the lanes in proportion to their weights using largest remainder rounding. Each lane is
+   * given the whole part of its exact share and what is left of the limit is given one at a time to the lanes with the
+   * largest fractional part, highest priority first when they are equal, so the shares always add up to the limit.
+   * @param lanes The lanes to share the limit between
+   * @param limit The maximum number of notifications to claim
+   * @return the share of each lane, at the same index as the lane
+   */
+  private int[] getShares(List<ClaimLane> lanes, int limit) {
+
+    var totalWeight = lanes.stream()
+        .mapToLong(ClaimLane::weight)
+        .sum();
+
+    var shares = new int[lanes.size()];
+    var remainders = new long[lanes.size()];
+    var allocated = 0;
+
+    for (var laneIndex = 0; laneIndex < lanes.size(); laneIndex++) {
+      var weightedLimit = (long) limit * lanes.get(laneIndex).weight();
+      shares[laneIndex] = (int) (weightedLimit / totalWeight);
+      remainders[laneIndex] = weightedLimit % totalWeight;
+      allocated += shares[laneIndex];
+    }
+
+    for (var unallocated = limit - allocated; unallocated > 0; unallocated--) {
+
+      var largestRemainderIndex = 0;
+
+      for (var laneIndex = 1; laneIndex < lanes.size(); laneIndex++) {
+        if (remainders[laneIndex] > remainders[largestRemainderIndex]) {
+          largestRemainderIndex = laneIndex;
+        }
+      }
+
+      shares[largestRemainderIndex]++;
+      remainders[largestRemainderIndex] = -1;
+    }
+
+    return shares;
+  }
+
+  private int getPriorityWeight(NotificationPriority priority) {
+    return switch (priority) {
+      case HIGH -> libraryConfigurationProperties.getHighPriorityWeight();
+      case NORMAL -> libraryConfigurationProperties.getNormalPriorityWeight();
+      case LOW -> libraryConfigurationProperties.getLowPriorityWeight();
+    };
+  }
+
+  /**
+   * A subset of the queue which is claimed with its own query and given a weighted share of each claim.
+   * @param statuses The statuses of the notifications in the lane
+   * @param priorities The priorities of the notifications in the lane
+   * @param weight The weight of the lane when sharing the limit of a claim between the lanes
+   */
+  private record ClaimLane(Set<NotificationStatus> statuses, Set<NotificationPriority> priorities, int weight) {
+  }
+
+  /**
+   * The query used to lock and return the notifications in a lane.
+   */
+  @FunctionalInterface
+  private interface LaneQuery {
+
+    List<Notification> claim(Collection<NotificationStatus> statuses,
+                             Collection<NotificationPriority> priorities,
+                             Instant claimableAt,
+                             NotificationQueueCursor after,
+                             int limit);
+  }
+}
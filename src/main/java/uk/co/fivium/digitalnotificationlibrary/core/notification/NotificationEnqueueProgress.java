@@ -0,0 +1,11 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.util.List;
+
+/**
+ * The progress of queueing notifications from a stream, reported each time a chunk of notifications has been committed.
+ * @param notificationsQueued The total number of notifications queued so far
+ * @param chunkNotificationIds The IDs of the notifications in the chunk just committed, in the order of the requests
+ */
+public record NotificationEnqueueProgress(long notificationsQueued, List<String> chunkNotificationIds) {
+}
@@ -0,0 +1,129 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+/**
+ * Sends notifications to GOV.UK notify as soon as the transaction queueing them commits, rather than waiting for the
+ * next iteration of the sending job. This is best effort only. If the dispatcher is busy, the notification fails to
+ * send or the application stops, the notification remains queued and is sent by the sending job as normal.
+ */
+@Component
+class NotificationImmediateDispatcher implements DisposableBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationImmediateDispatcher.class);
+
+  private static final String THREAD_NAME_PREFIX = "notification-library-dispatcher-";
+
+  private final NotificationSendingService notificationSendingService;
+
+  private final Executor executor;
+
+  @Autowired
+  NotificationImmediateDispatcher(NotificationSendingService notificationSendingService,
+                                  NotificationLibraryConfigurationProperties libraryConfigurationProperties) {
+    this(
+        notificationSendingService,
+        libraryConfigurationProperties.isImmediateDispatchEnabled() ? createExecutor(libraryConfigurationProperties) : null
+    );
+  }
+
+  NotificationImmediateDispatcher(NotificationSendingService notificationSendingService, Executor executor) {
+    this.notificationSendingService = notificationSendingService;
+    this.executor = executor;
+  }
+
+  /**
+   * Send the notification with the provided ID once the current transaction has committed. If there is no current
+   * transaction the notification is sent straight away. Does nothing if immediate dispatch is not enabled.
+   * @param notificationId The ID of the notification to send
+   */
+  void dispatchAfterCommit(UUID notificationId) {
+
+    if (executor == null) {
+      return;
+    }
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          dispatch(notificationId);
+        }
+      });
+    } else {
+      dispatch(notificationId);
+    }
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    if (executor instanceof ExecutorService executorService) {
+      executorService.shutdown();
+      if (!executorService.awaitTermination(30, TimeUnit.SECONDS)) {
+        LOGGER.warn("Notification dispatcher did not finish within 30 seconds of shutdown being requested");
+        executorService.shutdownNow();
+      }
+    }
+  }
+
+  private void dispatch(UUID notificationId) {
+    try {
+      executor.execute(() -> sendNotification(notificationId));
+    } catch (RejectedExecutionException exception) {
+      LOGGER.debug(
+          "Notification dispatcher is busy so notification with ID {} will be sent by the sending job",
+          notificationId
+      );
+    }
+  }
+
+  private void sendNotification(UUID notificationId) {
+    try {
+      notificationSendingService.sendNotificationToNotify(notificationId);
+    } catch (RuntimeException exception) {
+      LOGGER.warn(
+          "Failed to immediately send notification with ID {} so it will be sent by the sending job",
+          notificationId,
+          exception
+      );
+    }
+  }
+
+  /**
+   * The queue is bounded by the sending bulk retrieval limit so a burst of notifications can't build up an unbounded
+   * backlog in memory. Anything rejected is left for the sending job.
+   * @param libraryConfigurationProperties The configuration properties for the library
+   * @return an executor for sending notifications immediately
+   */
+  private static ExecutorService createExecutor(NotificationLibraryConfigurationProperties libraryConfigurationProperties) {
+    var threadCount = new AtomicLong();
+    var concurrency = libraryConfigurationProperties.getSendConcurrency();
+    return new ThreadPoolExecutor(
+        concurrency,
+        concurrency,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(libraryConfigurationProperties.getSendingBulkRetrievalLimit()),
+        runnable -> {
+          var thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.getAndIncrement());
+          thread.setDaemon(true);
+          return thread;
+        }
+    );
+  }
+}
@@ -0,0 +1,41 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import jakarta.persistence.EntityManager;
+import java.util.function.Supplier;
+import org.hibernate.Session;
+
+/**
+ * Writes a batch of notifications using JDBC batching in the session of the current transaction. The session can be
+ * shared with the consumer's own work, for example when notifications are queued in the consumer's transaction, so
+ * the batch size the session had before is restored and only the entities written are detached afterwards.
+ */
+class NotificationJdbcBatching {
+
+  private NotificationJdbcBatching() {
+    throw new IllegalStateException("This is a util class and should not be instantiated");
+  }
+
+  /**
+   * Run the provided writes with the provided JDBC batch size and flush them to the database, then detach the entities
+   * they wrote so they don't build up in the persistence context. Must be called within a transaction.
+   * @param entityManager The entity manager of the current transaction
+   * @param batchSize The JDBC batch size to write with
+   * @param writes The writes to run, returning the entities they wrote
+   */
+  static void flushBatch(EntityManager entityManager, int batchSize, Supplier<? extends Iterable<?>> writes) {
+
+    var session = entityManager.unwrap(Session.class);
+    var previousBatchSize = session.getJdbcBatchSize();
+
+    session.setJdbcBatchSize(batchSize);
+
+    try {
+      var writtenEntities = writes.get();
+      // flushed while the batch size is set, otherwise the writes would be sent on commit with the restored batch size
+      entityManager.flush();
+      writtenEntities.forEach(entityManager::detach);
+    } finally {
+      session.setJdbcBatchSize(previousBatchSize);
+    }
+  }
+}
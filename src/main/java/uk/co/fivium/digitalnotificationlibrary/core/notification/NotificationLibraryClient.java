@@ -2,7 +2,15 @@ package uk.co.fivium.digitalnotificationlibrary.core.notification;
 
 import jakarta.transaction.Transactional;
 import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpStatus;
@@ -12,8 +20,10 @@ import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibrary
 import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationMode;
 import uk.co.fivium.digitalnotificationlibrary.core.DigitalNotificationLibraryException;
 import uk.co.fivium.digitalnotificationlibrary.core.notification.email.EmailNotification;
+import uk.co.fivium.digitalnotificationlibrary.core.notification.email.EmailNotificationRequest;
 import uk.co.fivium.digitalnotificationlibrary.core.notification.email.EmailRecipient;
 import uk.co.fivium.digitalnotificationlibrary.core.notification.sms.SmsNotification;
+import uk.co.fivium.digitalnotificationlibrary.core.notification.sms.SmsNotificationRequest;
 import uk.co.fivium.digitalnotificationlibrary.core.notification.sms.SmsRecipient;
 
 /**
@@ -32,6 +42,12 @@ public class NotificationLibraryClient {
 
   private final NotificationLibraryEmailAttachmentResolver emailAttachmentResolver;
 
+  private final NotificationImmediateDispatcher notificationImmediateDispatcher;
+
+  private final NotificationBatchPersistenceService notificationBatchPersistenceService;
+
+  private final NotificationQueuedNotifier notificationQueuedNotifier;
+
   /**
    * Create an instance of NotificationLibraryClient.
    *
@@ -39,18 +55,28 @@ public class NotificationLibraryClient {
    * @param templateService                The service for retrieving templates
    * @param clock                          The clock instance
    * @param libraryConfigurationProperties The configuration properties for the library
+   * @param emailAttachmentResolver        The resolver for files attached to email notifications
+   * @param notificationImmediateDispatcher The dispatcher sending notifications as soon as they have been queued
+   * @param notificationBatchPersistenceService The service inserting notifications queued in bulk in batches
+   * @param notificationQueuedNotifier     The notifier waking the listeners on each node when notifications are queued
    */
   @Autowired
   public NotificationLibraryClient(NotificationLibraryNotificationRepository notificationRepository,
                                    TemplateService templateService,
                                    Clock clock,
                                    NotificationLibraryConfigurationProperties libraryConfigurationProperties,
-                                   NotificationLibraryEmailAttachmentResolver emailAttachmentResolver) {
+                                   NotificationLibraryEmailAttachmentResolver emailAttachmentResolver,
+                                   NotificationImmediateDispatcher notificationImmediateDispatcher,
+                                   NotificationBatchPersistenceService notificationBatchPersistenceService,
+                                   NotificationQueuedNotifier notificationQueuedNotifier) {
     this.notificationRepository = notificationRepository;
     this.templateService = templateService;
     this.clock = clock;
     this.libraryConfigurationProperties = libraryConfigurationProperties;
     this.emailAttachmentResolver = emailAttachmentResolver;
+    this.notificationImmediateDispatcher = notificationImmediateDispatcher;
+    this.notificationBatchPersistenceService = notificationBatchPersistenceService;
+    this.notificationQueuedNotifier = notificationQueuedNotifier;
   }
 
   /**
@@ -98,6 +124,25 @@ public class NotificationLibraryClient {
                                      EmailRecipient recipient,
                                      DomainReference domainReference,
                                      String logCorrelationId) {
+    return sendEmail(mergedTemplate, recipient, domainReference, logCorrelationId, NotificationPriority.NORMAL);
+  }
+
+  /**
+   * Queue an email notification to be sent from the provided priority lane.
+   *
+   * @param mergedTemplate   The template with mail merge fields to send
+   * @param recipient        The recipient of the notification
+   * @param domainReference  A reference to the consumers domain concept the notification is for
+   * @param logCorrelationId An identifier for log correlation
+   * @param priority         The priority lane the notification is sent from
+   * @return A representation of the notification that has been queued to send
+   */
+  @Transactional
+  public EmailNotification sendEmail(MergedTemplate mergedTemplate,
+                                     EmailRecipient recipient,
+                                     DomainReference domainReference,
+                                     String logCorrelationId,
+                                     NotificationPriority priority) {
 
     if (mergedTemplate instanceof MergedTemplateWithFiles) {
       throw new DigitalNotificationLibraryException(
@@ -105,7 +150,8 @@ public class NotificationLibraryClient {
     }
 
     checkEmailConfigIsValid(mergedTemplate, recipient, domainReference, logCorrelationId);
-    return sendEmail(mergedTemplate, Set.of(), recipient, domainReference, logCorrelationId);
+    checkPriorityIsValid(priority, logCorrelationId);
+    return sendEmail(mergedTemplate, Set.of(), recipient, domainReference, logCorrelationId, priority);
   }
 
   /**
@@ -137,7 +183,27 @@ public class NotificationLibraryClient {
                                      EmailRecipient recipient,
                                      DomainReference domainReference,
                                      String logCorrelationId) throws NotificationLibraryFileException {
+    return sendEmail(mergedTemplate, recipient, domainReference, logCorrelationId, NotificationPriority.NORMAL);
+  }
+
+  /**
+   * Queue an email notification with files to be sent from the provided priority lane.
+   *
+   * @param mergedTemplate   The template with mail merge fields and file attachments to send
+   * @param recipient        The recipient of the notification
+   * @param domainReference  A reference to the consumers domain concept the notification is for
+   * @param logCorrelationId An identifier for log correlation
+   * @param priority         The priority lane the notification is sent from
+   * @return A representation of the notification that has been queued to send
+   */
+  @Transactional
+  public EmailNotification sendEmail(MergedTemplateWithFiles mergedTemplate,
+                                     EmailRecipient recipient,
+                                     DomainReference domainReference,
+                                     String logCorrelationId,
+                                     NotificationPriority priority) throws NotificationLibraryFileException {
     checkEmailConfigIsValid(mergedTemplate, recipient, domainReference, logCorrelationId);
+    checkPriorityIsValid(priority, logCorrelationId);
 
     if (CollectionUtils.isEmpty(mergedTemplate.getFileAttachments())) {
       throw new NotificationLibraryFileException("File attachments not provided for email notification");
@@ -152,7 +218,7 @@ public class NotificationLibraryClient {
         case INCORRECT_FILE_EXTENSION ->
             throw new NotificationLibraryFileException("File name must include a valid file extension");
         case SUCCESS -> sendEmail(mergedTemplate, mergedTemplate.getFileAttachments(), recipient, domainReference,
-            logCorrelationId);
+            logCorrelationId, priority);
       };
     }
 
@@ -188,29 +254,29 @@ public class NotificationLibraryClient {
                                  SmsRecipient recipient,
                                  DomainReference domainReference,
                                  String logCorrelationId) {
+    return sendSms(mergedTemplate, recipient, domainReference, logCorrelationId, NotificationPriority.NORMAL);
+  }
 
-    if (mergedTemplate == null) {
-      throw new DigitalNotificationLibraryException("MergedTemplate must not be null");
-    }
-
-    if (!isSmsTemplateType(mergedTemplate)) {
-      throw new DigitalNotificationLibraryException(
-          "Cannot send an sms for template with ID %s and type %s"
-              .formatted(mergedTemplate.getTemplate().notifyTemplateId(), mergedTemplate.getTemplate().type())
-      );
-    }
-
-    if (recipient == null || StringUtils.isBlank(recipient.getSmsRecipient())) {
-      throw new DigitalNotificationLibraryException(
-          "SmsRecipient must not be null or empty for notification with correlation ID %s".formatted(logCorrelationId)
-      );
-    }
+  /**
+   * Queue an sms notification to be sent from the provided priority lane.
+   *
+   * @param mergedTemplate   The template with mail merge fields to send
+   * @param recipient        The recipient of the notification
+   * @param domainReference  A reference to the consumers domain concept the notification is for
+   * @param logCorrelationId An identifier for log correlation
+   * @param priority         The priority lane the notification is sent from
+   * @return A representation of the notification that has been queued to send
+   */
+  @Transactional
+  public SmsNotification sendSms(MergedTemplate mergedTemplate,
+                                 SmsRecipient recipient,
+                                 DomainReference domainReference,
+                                 String logCorrelationId,
+                                 NotificationPriority priority) {
 
-    if (domainReference == null) {
-      throw new DigitalNotificationLibraryException(
-          "DomainReference must not be null for notification with correlation ID %s".formatted(logCorrelationId)
-      );
-    }
+    checkSmsTemplateIsValid(mergedTemplate);
+    checkSmsRecipientIsValid(recipient, domainReference, logCorrelationId);
+    checkPriorityIsValid(priority, logCorrelationId);
 
     var notification = queueNotification(
         NotificationType.SMS,
@@ -219,7 +285,8 @@ public class NotificationLibraryClient {
         logCorrelationId,
         mergedTemplate.getMailMergeFields(),
         Set.of(),
-        mergedTemplate.getTemplate()
+        mergedTemplate.getTemplate(),
+        priority
     );
 
     return new SmsNotification(String.valueOf(notification.getId()));
@@ -240,6 +307,163 @@ public class NotificationLibraryClient {
     return sendSms(mergedTemplate, recipient, domainReference, null);
   }
 
+  /**
+   * <p>Queue a batch of email notifications to be sent, such as a mail out to many recipients. Every request is
+   * validated before any notification is queued, with each template only checked once however many requests use it.
+   * The notifications are then inserted using JDBC batching, with every batch inserted in one transaction, so if any
+   * batch fails none of the notifications are queued and the call can be retried. If this is called within a
+   * transaction, every batch is inserted in that transaction instead.</p>
+   *
+   * <p>Notifications queued in bulk are sent by the sending job rather than being sent immediately. Email
+   * notifications with files must be queued individually.</p>
+   *
+   * @param requests The email notifications to queue
+   * @return A representation of each notification that has been queued to send, in the order of the requests
+   */
+  public List<EmailNotification> sendEmails(Collection<EmailNotificationRequest> requests) {
+
+    if (requests == null) {
+      throw new DigitalNotificationLibraryException("EmailNotificationRequests must not be null");
+    }
+
+    Set<Template> validatedTemplates = new HashSet<>();
+    List<Notification> notifications = new ArrayList<>(requests.size());
+
+    for (EmailNotificationRequest request : requests) {
+      notifications.add(createEmailNotification(request, validatedTemplates));
+    }
+
+    notificationBatchPersistenceService.insertNotifications(notifications);
+
+    return notifications.stream()
+        .map(notification -> new EmailNotification(String.valueOf(notification.getId())))
+        .toList();
+  }
+
+  /**
+   * <p>Queue a batch of sms notifications to be sent. Every request is validated before any notification is queued,
+   * with each template only checked once however many requests use it. The notifications are then inserted using JDBC
+   * batching, with every batch inserted in one transaction, so if any batch fails none of the notifications are queued
+   * and the call can be retried. If this is called within a transaction, every batch is inserted in that transaction
+   * instead.</p>
+   *
+   * <p>Notifications queued in bulk are sent by the sending job rather than being sent immediately.</p>
+   *
+   * @param requests The sms notifications to queue
+   * @return A representation of each notification that has been queued to send, in the order of the requests
+   */
+  public List<SmsNotification> sendSmsBatch(Collection<SmsNotificationRequest> requests) {
+
+    if (requests == null) {
+      throw new DigitalNotificationLibraryException("SmsNotificationRequests must not be null");
+    }
+
+    Set<Template> validatedTemplates = new HashSet<>();
+    List<Notification> notifications = new ArrayList<>(requests.size());
+
+    for (SmsNotificationRequest request : requests) {
+      notifications.add(createSmsNotification(request, validatedTemplates));
+    }
+
+    notificationBatchPersistenceService.insertNotifications(notifications);
+
+    return notifications.stream()
+        .map(notification -> new SmsNotification(String.valueOf(notification.getId())))
+        .toList();
+  }
+
+  /**
+   * <p>Queue email notifications to be sent from a stream of requests too large to hold in memory, such as a mail out
+   * to a million recipients read from a database cursor. The requests are consumed one chunk at a time, with the size
+   * of a chunk set by the streaming-enqueue.chunk-size property. Each chunk is validated, inserted using JDBC batching
+   * and committed in its own transaction, even if this is called within a transaction, and the persistence context is
+   * cleared before the next chunk is read. The memory used stays the same however many requests are streamed.</p>
+   *
+   * <p>If a request is invalid the stream stops being consumed and an exception is thrown. The notifications in chunks
+   * already committed stay queued, so the progress reported can be used to work out where to resume from.</p>
+   *
+   * <p>Notifications queued from a stream are sent by the sending job rather than being sent immediately. Email
+   * notifications with files must be queued individually.</p>
+   *
+   * @param requests The email notifications to queue
+   * @param progressListener Notified after each chunk has been committed
+   * @return The number of notifications queued
+   */
+  public long streamEmails(Iterator<EmailNotificationRequest> requests,
+                           Consumer<NotificationEnqueueProgress> progressListener) {
+
+    if (requests == null) {
+      throw new DigitalNotificationLibraryException("EmailNotificationRequests must not be null");
+    }
+
+    Set<Template> validatedTemplates = new HashSet<>();
+
+    return enqueueInChunks(requests, request -> createEmailNotification(request, validatedTemplates), progressListener);
+  }
+
+  /**
+   * Queue email notifications to be sent from a stream of requests. The stream is consumed in chunks with each chunk
+   * committed in its own transaction, see {@link #streamEmails(Iterator, Consumer)}. The stream is not closed.
+   *
+   * @param requests The email notifications to queue
+   * @param progressListener Notified after each chunk has been committed
+   * @return The number of notifications queued
+   */
+  public long streamEmails(Stream<EmailNotificationRequest> requests,
+                           Consumer<NotificationEnqueueProgress> progressListener) {
+
+    if (requests == null) {
+      throw new DigitalNotificationLibraryException("EmailNotificationRequests must not be null");
+    }
+
+    return streamEmails(requests.iterator(), progressListener);
+  }
+
+  /**
+   * <p>Queue sms notifications to be sent from a stream of requests too large to hold in memory. The requests are
+   * consumed one chunk at a time, with the size of a chunk set by the streaming-enqueue.chunk-size property. Each
+   * chunk is validated, inserted using JDBC batching and committed in its own transaction, even if this is called
+   * within a transaction, and the persistence context is cleared before the next chunk is read.</p>
+   *
+   * <p>If a request is invalid the stream stops being consumed and an exception is thrown. The notifications in chunks
+   * already committed stay queued.</p>
+   *
+   * <p>Notifications queued from a stream are sent by the sending job rather than being sent immediately.</p>
+   *
+   * @param requests The sms notifications to queue
+   * @param progressListener Notified after each chunk has been committed
+   * @return The number of notifications queued
+   */
+  public long streamSms(Iterator<SmsNotificationRequest> requests,
+                        Consumer<NotificationEnqueueProgress> progressListener) {
+
+    if (requests == null) {
+      throw new DigitalNotificationLibraryException("SmsNotificationRequests must not be null");
+    }
+
+    Set<Template> validatedTemplates = new HashSet<>();
+
+    return enqueueInChunks(requests, request -> createSmsNotification(request, validatedTemplates), progressListener);
+  }
+
+  /**
+   * Queue sms notifications to be sent from a stream of requests. The stream is consumed in chunks with each chunk
+   * committed in its own transaction, see {@link #streamSms(Iterator, Consumer)}. The stream is not closed.
+   *
+   * @param requests The sms notifications to queue
+   * @param progressListener Notified after each chunk has been committed
+   * @return The number of notifications queued
+   */
+  public long streamSms(Stream<SmsNotificationRequest> requests,
+                        Consumer<NotificationEnqueueProgress> progressListener) {
+
+    if (requests == null) {
+      throw new DigitalNotificationLibraryException("SmsNotificationRequests must not be null");
+    }
+
+    return streamSms(requests.iterator(), progressListener);
+  }
+
   /**
    * Determines if the library is running in test mode.
    *
@@ -290,7 +514,115 @@ public class NotificationLibraryClient {
                                          String logCorrelationId,
                                          Set<MailMergeField> mailMergeFields,
                                          Set<FileAttachment> fileAttachments,
-                                         Template template) {
+                                         Template template,
+                                         NotificationPriority priority) {
+
+    var notification = createNotification(
+        notificationType,
+        recipient,
+        domainReference,
+        logCorrelationId,
+        mailMergeFields,
+        fileAttachments,
+        template,
+        priority
+    );
+
+    notificationRepository.save(notification);
+    notificationQueuedNotifier.notifyQueuedAfterCommit();
+    notificationImmediateDispatcher.dispatchAfterCommit(notification.getId());
+    return notification;
+  }
+
+  private Notification createEmailNotification(EmailNotificationRequest request, Set<Template> validatedTemplates) {
+
+    var mergedTemplate = request.mergedTemplate();
+
+    if (mergedTemplate instanceof MergedTemplateWithFiles) {
+      throw new DigitalNotificationLibraryException(
+          "MergedTemplate of a bulk email notification must not be an instance of MergedTemplateWithFiles");
+    }
+
+    if (mergedTemplate == null || validatedTemplates.add(mergedTemplate.getTemplate())) {
+      checkEmailTemplateIsValid(mergedTemplate);
+    }
+
+    checkEmailRecipientIsValid(request.recipient(), request.domainReference(), request.logCorrelationId());
+    checkPriorityIsValid(request.priority(), request.logCorrelationId());
+
+    return createNotification(
+        NotificationType.EMAIL,
+        request.recipient().getEmailAddress(),
+        request.domainReference(),
+        request.logCorrelationId(),
+        mergedTemplate.getMailMergeFields(),
+        Set.of(),
+        mergedTemplate.getTemplate(),
+        request.priority()
+    );
+  }
+
+  private Notification createSmsNotification(SmsNotificationRequest request, Set<Template> validatedTemplates) {
+
+    var mergedTemplate = request.mergedTemplate();
+
+    if (mergedTemplate == null || validatedTemplates.add(mergedTemplate.getTemplate())) {
+      checkSmsTemplateIsValid(mergedTemplate);
+    }
+
+    checkSmsRecipientIsValid(request.recipient(), request.domainReference(), request.logCorrelationId());
+    checkPriorityIsValid(request.priority(), request.logCorrelationId());
+
+    return createNotification(
+        NotificationType.SMS,
+        request.recipient().getSmsRecipient(),
+        request.domainReference(),
+        request.logCorrelationId(),
+        mergedTemplate.getMailMergeFields(),
+        Set.of(),
+        mergedTemplate.getTemplate(),
+        request.priority()
+    );
+  }
+
+  private <T> long enqueueInChunks(Iterator<T> requests,
+                                   Function<T, Notification> notificationCreator,
+                                   Consumer<NotificationEnqueueProgress> progressListener) {
+
+    var chunkSize = libraryConfigurationProperties.getStreamingEnqueueChunkSize();
+    long notificationsQueued = 0;
+
+    while (requests.hasNext()) {
+
+      // only one chunk of notifications is referenced at a time so it can be garbage collected once committed
+      List<Notification> chunk = new ArrayList<>(chunkSize);
+
+      while (requests.hasNext() && chunk.size() < chunkSize) {
+        chunk.add(notificationCreator.apply(requests.next()));
+      }
+
+      notificationBatchPersistenceService.insertNotificationChunk(chunk);
+      notificationsQueued += chunk.size();
+
+      if (progressListener != null) {
+        progressListener.accept(new NotificationEnqueueProgress(
+            notificationsQueued,
+            chunk.stream().map(notification -> String.valueOf(notification.getId())).toList()
+        ));
+      }
+    }
+
+    return notificationsQueued;
+  }
+
+  private Notification createNotification(NotificationType notificationType,
+                                          String recipient,
+                                          DomainReference domainReference,
+                                          String logCorrelationId,
+                                          Set<MailMergeField> mailMergeFields,
+                                          Set<FileAttachment> fileAttachments,
+                                          Template template,
+                                          NotificationPriority priority) {
 
     var notification = new Notification();
     notification.setStatus(NotificationStatus.QUEUED);
@@ -303,12 +635,19 @@ public class NotificationLibraryClient {
     notification.setRequestedOn(clock.instant());
     notification.setRetryCount(0);
     notification.setFileAttachments(fileAttachments);
+    notification.setPriority(priority);
+
+    if (libraryConfigurationProperties.isPayloadCompressionEnabled()) {
+      NotificationPayloadCodec.compress(
+          new NotificationPayload(mailMergeFields, fileAttachments),
+          libraryConfigurationProperties.getPayloadCompressionMinimumBytes()
+      ).ifPresent(notification::setCompressedPayload);
+    }
 
     if (StringUtils.isNotBlank(logCorrelationId)) {
       notification.setLogCorrelationId(logCorrelationId);
     }
 
-    notificationRepository.save(notification);
     return notification;
   }
 
@@ -329,6 +668,11 @@ public class NotificationLibraryClient {
 
   private void checkEmailConfigIsValid(MergedTemplate mergedTemplate, EmailRecipient recipient,
                                        DomainReference domainReference, String logCorrelationId) {
+    checkEmailTemplateIsValid(mergedTemplate);
+    checkEmailRecipientIsValid(recipient, domainReference, logCorrelationId);
+  }
+
+  private void checkEmailTemplateIsValid(MergedTemplate mergedTemplate) {
     if (mergedTemplate == null) {
       throw new DigitalNotificationLibraryException("MergedTemplate must not be null");
     }
@@ -339,7 +683,10 @@ public class NotificationLibraryClient {
               .formatted(mergedTemplate.getTemplate().notifyTemplateId(), mergedTemplate.getTemplate().type())
       );
     }
+  }
 
+  private void checkEmailRecipientIsValid(EmailRecipient recipient, DomainReference domainReference,
+                                          String logCorrelationId) {
     if (recipient == null || StringUtils.isBlank(recipient.getEmailAddress())) {
       throw new DigitalNotificationLibraryException(
           "EmailRecipient must not be null or empty for notification with correlation ID %s".formatted(logCorrelationId)
@@ -353,9 +700,45 @@ public class NotificationLibraryClient {
     }
   }
 
+  private void checkSmsTemplateIsValid(MergedTemplate mergedTemplate) {
+    if (mergedTemplate == null) {
+      throw new DigitalNotificationLibraryException("MergedTemplate must not be null");
+    }
+
+    if (!isSmsTemplateType(mergedTemplate)) {
+      throw new DigitalNotificationLibraryException(
+          "Cannot send an sms for template with ID %s and type %s"
+              .formatted(mergedTemplate.getTemplate().notifyTemplateId(), mergedTemplate.getTemplate().type())
+      );
+    }
+  }
+
+  private void checkSmsRecipientIsValid(SmsRecipient recipient, DomainReference domainReference,
+                                        String logCorrelationId) {
+    if (recipient == null || StringUtils.isBlank(recipient.getSmsRecipient())) {
+      throw new DigitalNotificationLibraryException(
+          "SmsRecipient must not be null or empty for notification with correlation ID %s".formatted(logCorrelationId)
+      );
+    }
+
+    if (domainReference == null) {
+      throw new DigitalNotificationLibraryException(
+          "DomainReference must not be null for notification with correlation ID %s".formatted(logCorrelationId)
+      );
+    }
+  }
+
+  private void checkPriorityIsValid(NotificationPriority priority, String logCorrelationId) {
+    if (priority == null) {
+      throw new DigitalNotificationLibraryException(
+          "NotificationPriority must not be null for notification with correlation ID %s".formatted(logCorrelationId)
+      );
+    }
+  }
+
   private EmailNotification sendEmail(MergedTemplate mergedTemplate, Set<FileAttachment> fileAttachments,
                                       EmailRecipient recipient, DomainReference domainReference,
-                                      String logCorrelationId) {
+                                      String logCorrelationId, NotificationPriority priority) {
 
     var notification = queueNotification(
         NotificationType.EMAIL,
@@ -364,7 +747,8 @@ public class NotificationLibraryClient {
         logCorrelationId,
         mergedTemplate.getMailMergeFields(),
         fileAttachments,
-        mergedTemplate.getTemplate()
+        mergedTemplate.getTemplate(),
+        priority
     );
 
     return new EmailNotification(String.valueOf(notification.getId()));
@@ -0,0 +1,65 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.function.HandlerFunction;
+import org.springframework.web.servlet.function.ServerRequest;
+import org.springframework.web.servlet.function.ServerResponse;
+import uk.co.fivium.digitalnotificationlibrary.core.DigitalNotificationLibraryException;
+
+/**
+ * A Spring MVC handler for GOV.UK notify delivery receipt callbacks. The library does not map the handler to a URL,
+ * consumers using Spring MVC map it to the callback URL configured in GOV.UK notify with a router function. Consumers
+ * not using Spring MVC can pass delivery receipts to {@link NotificationLibraryDeliveryReceiptService} directly.
+ */
+@Component
+@ConditionalOnClass(name = "org.springframework.web.servlet.function.HandlerFunction")
+public class NotificationLibraryDeliveryReceiptHandler implements HandlerFunction<ServerResponse> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationLibraryDeliveryReceiptHandler.class);
+
+  private final NotificationLibraryDeliveryReceiptService deliveryReceiptService;
+
+  @Autowired
+  NotificationLibraryDeliveryReceiptHandler(NotificationLibraryDeliveryReceiptService deliveryReceiptService) {
+    this.deliveryReceiptService = deliveryReceiptService;
+  }
+
+  @Override
+  @NonNull
+  public ServerResponse handle(@NonNull ServerRequest request) throws Exception {
+
+    var authorizationHeader = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+
+    if (!deliveryReceiptService.isAuthorised(authorizationHeader)) {
+      LOGGER.warn("Rejected GOV.UK notify delivery receipt without the configured bearer token");
+      return ServerResponse.status(HttpStatus.UNAUTHORIZED).build();
+    }
+
+    NotifyDeliveryReceipt deliveryReceipt;
+
+    try {
+      deliveryReceipt = NotifyDeliveryReceipt.fromJson(request.body(String.class));
+    } catch (DigitalNotificationLibraryException exception) {
+      LOGGER.warn("Rejected GOV.UK notify delivery receipt which could not be read", exception);
+      return ServerResponse.badRequest().build();
+    }
+
+    var pendingCount = deliveryReceiptService.receiveDeliveryReceipts(authorizationHeader, List.of(deliveryReceipt));
+
+    if (pendingCount > 0) {
+      // GOV.UK notify sends the delivery receipt again if the callback fails
+      LOGGER.debug("Deferred GOV.UK notify delivery receipt for a notification still being sent or updated");
+      return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    return ServerResponse.noContent().build();
+  }
+}
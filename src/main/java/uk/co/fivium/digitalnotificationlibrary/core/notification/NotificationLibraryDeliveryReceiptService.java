@@ -0,0 +1,181 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import jakarta.persistence.EntityManager;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.apache.commons.collections4.ListUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+import uk.co.fivium.digitalnotificationlibrary.core.DigitalNotificationLibraryException;
+
+/**
+ * The service consumers use to pass delivery receipts sent by GOV.UK notify to the library. Notifications updated from a
+ * delivery receipt no longer need their status to be requested from GOV.UK notify, so the status update job becomes a
+ * safety net for delivery receipts which are missed.
+ */
+@Service
+public class NotificationLibraryDeliveryReceiptService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationLibraryDeliveryReceiptService.class);
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final NotificationLibraryNotificationRepository notificationRepository;
+
+  private final EntityManager entityManager;
+
+  private final NotificationStatusUpdateService notificationStatusUpdateService;
+
+  private final NotificationLibraryConfigurationProperties libraryConfigurationProperties;
+
+  private final Clock clock;
+
+  @Autowired
+  NotificationLibraryDeliveryReceiptService(PlatformTransactionManager transactionManager,
+                                            NotificationLibraryNotificationRepository notificationRepository,
+                                            EntityManager entityManager,
+                                            NotificationStatusUpdateService notificationStatusUpdateService,
+                                            NotificationLibraryConfigurationProperties libraryConfigurationProperties,
+                                            Clock clock) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.notificationRepository = notificationRepository;
+    this.entityManager = entityManager;
+    this.notificationStatusUpdateService = notificationStatusUpdateService;
+    this.libraryConfigurationProperties = libraryConfigurationProperties;
+    this.clock = clock;
+  }
+
+  /**
+   * Check if the authorization header of a delivery receipt callback contains the bearer token configured for the
+   * callback in GOV.UK notify.
+   * @param authorizationHeader The value of the authorization header of the callback request
+   * @return true if the header contains the configured bearer token, false otherwise or if no token is configured
+   */
+  public boolean isAuthorised(String authorizationHeader) {
+
+    var bearerToken = libraryConfigurationProperties.getDeliveryReceiptBearerToken();
+
+    if (bearerToken.isEmpty() || authorizationHeader == null || !authorizationHeader.startsWith(BEARER_PREFIX)) {
+      return false;
+    }
+
+    // compare in constant time so the token can't be guessed from how long requests take to be rejected
+    return MessageDigest.isEqual(
+        bearerToken.get().getBytes(StandardCharsets.UTF_8),
+        authorizationHeader.substring(BEARER_PREFIX.length()).getBytes(StandardCharsets.UTF_8)
+    );
+  }
+
+  /**
+   * Update the status of the notifications the provided delivery receipts are for. Delivery receipts for notifications
+   * which are not waiting for their status to be updated are ignored.
+   *
+   * <p>A delivery receipt can arrive before the node which sent its notification has saved the outcome, or while the
+   * status update job is updating the notification. Those delivery receipts can't be applied yet, so they are counted
+   * in the returned value and the callback should fail with a retryable status for GOV.UK notify to send them again.
+   * @param authorizationHeader The value of the authorization header of the callback request
+   * @param deliveryReceipts The delivery receipts sent by GOV.UK notify
+   * @return the number of delivery receipts which could not be applied yet and should be sent again
+   * @throws DigitalNotificationLibraryException if the authorization header does not contain the configured bearer token
+   */
+  public int receiveDeliveryReceipts(String authorizationHeader, Collection<NotifyDeliveryReceipt> deliveryReceipts) {
+
+    if (!isAuthorised(authorizationHeader)) {
+      throw new DigitalNotificationLibraryException("Delivery receipt does not contain the configured bearer token");
+    }
+
+    // only the last delivery receipt received for each notification is applied
+    Map<String, NotifyDeliveryReceipt> deliveryReceiptsByNotifyId = new LinkedHashMap<>();
+    deliveryReceipts.forEach(deliveryReceipt ->
+        deliveryReceiptsByNotifyId.put(deliveryReceipt.notifyNotificationId(), deliveryReceipt)
+    );
+
+    var batchSize = libraryConfigurationProperties.getPersistenceBatchSize();
+    var pendingCount = 0;
+
+    for (List<String> batch : ListUtils.partition(new ArrayList<>(deliveryReceiptsByNotifyId.keySet()), batchSize)) {
+      pendingCount += transactionTemplate.execute(status -> {
+
+        var notifications = notificationRepository.claimNotificationsByNotifyNotificationIds(
+            batch,
+            Set.of(NotificationStatus.SENT_TO_NOTIFY),
+            clock.instant()
+        );
+
+        NotificationJdbcBatching.flushBatch(entityManager, batchSize, () -> {
+          notifications.forEach(notification -> {
+            var deliveryReceipt = deliveryReceiptsByNotifyId.get(notification.getNotifyNotificationId());
+            notificationStatusUpdateService.applyNotifyStatus(
+                notification,
+                deliveryReceipt.status(),
+                Optional.ofNullable(deliveryReceipt.sentAt())
+            );
+            notificationRepository.save(notification);
+          });
+          return notifications;
+        });
+
+        Set<String> unmatchedNotifyIds = new HashSet<>(batch);
+        notifications.forEach(notification -> unmatchedNotifyIds.remove(notification.getNotifyNotificationId()));
+
+        LOGGER.debug("Updated {} of {} notifications from delivery receipts", notifications.size(), batch.size());
+
+        return countPendingDeliveryReceipts(unmatchedNotifyIds, deliveryReceiptsByNotifyId);
+      });
+    }
+
+    if (pendingCount > 0) {
+      LOGGER.info("{} delivery receipts are for notifications which are still being sent or updated", pendingCount);
+    }
+
+    return pendingCount;
+  }
+
+  private int countPendingDeliveryReceipts(Set<String> unmatchedNotifyIds,
+                                           Map<String, NotifyDeliveryReceipt> deliveryReceiptsByNotifyId) {
+
+    if (unmatchedNotifyIds.isEmpty()) {
+      return 0;
+    }
+
+    // the reference is the ID of the notification, which is how notifications still being sent are found before the
+    // GOV.UK notify ID has been saved against them
+    Set<UUID> unmatchedIds = new HashSet<>();
+    unmatchedNotifyIds.forEach(notifyId ->
+        parseReference(deliveryReceiptsByNotifyId.get(notifyId).reference()).ifPresent(unmatchedIds::add)
+    );
+
+    // notifications claimed by the status update job are still sent to notify, and those being sent have no
+    // status yet, anything else already has a final status or doesn't belong to the library
+    return (int) notificationRepository.countNotificationsByNotifyNotificationIdsOrIds(
+        unmatchedNotifyIds,
+        unmatchedIds,
+        Set.of(NotificationStatus.SENDING_TO_NOTIFY, NotificationStatus.SENT_TO_NOTIFY)
+    );
+  }
+
+  private static Optional<UUID> parseReference(String reference) {
+    try {
+      return Optional.ofNullable(reference).map(UUID::fromString);
+    } catch (IllegalArgumentException exception) {
+      return Optional.empty();
+    }
+  }
+}
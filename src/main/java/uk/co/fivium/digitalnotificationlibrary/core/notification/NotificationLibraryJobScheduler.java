@@ -0,0 +1,123 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+/**
+ * Runs the scheduled jobs of the library on a scheduler owned by the library, with a thread for each job. The jobs
+ * neither take turns with each other nor with the scheduled tasks of the consuming application, however the consumer
+ * has sized its own scheduler. The scheduler is deliberately not a bean, as a TaskScheduler bean would replace the
+ * default Spring Boot scheduler used by the consumer's own scheduled tasks.
+ */
+@Component
+class NotificationLibraryJobScheduler implements SmartLifecycle {
+
+  static final String THREAD_NAME_PREFIX = "notification-library-";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationLibraryJobScheduler.class);
+
+  private final ThreadPoolTaskScheduler taskScheduler;
+
+  private final List<ScheduledJob> scheduledJobs = new ArrayList<>();
+
+  private volatile boolean running;
+
+  @Autowired
+  NotificationLibraryJobScheduler(NotificationProcessingJob notificationProcessingJob,
+                                  ObjectProvider<NotificationArchiveJob> notificationArchiveJob,
+                                  ObjectProvider<NotificationRetentionJob> notificationRetentionJob,
+                                  NotificationBacklogMetricsJob notificationBacklogMetricsJob,
+                                  NotificationLibraryConfigurationProperties libraryConfigurationProperties) {
+    this(
+        new ThreadPoolTaskScheduler(),
+        notificationProcessingJob,
+        notificationArchiveJob.getIfAvailable(),
+        notificationRetentionJob.getIfAvailable(),
+        notificationBacklogMetricsJob,
+        libraryConfigurationProperties
+    );
+  }
+
+  NotificationLibraryJobScheduler(ThreadPoolTaskScheduler taskScheduler,
+                                  NotificationProcessingJob notificationProcessingJob,
+                                  NotificationArchiveJob notificationArchiveJob,
+                                  NotificationRetentionJob notificationRetentionJob,
+                                  NotificationBacklogMetricsJob notificationBacklogMetricsJob,
+                                  NotificationLibraryConfigurationProperties libraryConfigurationProperties) {
+
+    // the jobs are called through their beans so the scheduler lock on each job is applied
+    scheduledJobs.add(new ScheduledJob(
+        "sendNotifications",
+        notificationProcessingJob::sendNotifications,
+        Duration.ofSeconds(libraryConfigurationProperties.getSendingPollTimeSeconds())
+    ));
+
+    scheduledJobs.add(new ScheduledJob(
+        "updateNotificationStatuses",
+        notificationProcessingJob::updateNotificationStatuses,
+        Duration.ofSeconds(libraryConfigurationProperties.getStatusUpdatePollTimeSeconds())
+    ));
+
+    if (notificationArchiveJob != null) {
+      scheduledJobs.add(new ScheduledJob(
+          "archiveNotifications",
+          notificationArchiveJob::archiveNotifications,
+          Duration.ofSeconds(libraryConfigurationProperties.getArchivePollTimeSeconds())
+      ));
+    }
+
+    if (notificationRetentionJob != null) {
+      scheduledJobs.add(new ScheduledJob(
+          "purgeNotifications",
+          notificationRetentionJob::purgeNotifications,
+          Duration.ofSeconds(libraryConfigurationProperties.getRetentionPollTimeSeconds())
+      ));
+    }
+
+    scheduledJobs.add(new ScheduledJob(
+        "refreshBacklogMetrics",
+        notificationBacklogMetricsJob::refreshBacklogMetrics,
+        Duration.ofSeconds(libraryConfigurationProperties.getBacklogMetricsPollTimeSeconds())
+    ));
+
+    this.taskScheduler = taskScheduler;
+    this.taskScheduler.setPoolSize(scheduledJobs.size());
+    this.taskScheduler.setThreadNamePrefix(THREAD_NAME_PREFIX);
+  }
+
+  @Override
+  public void start() {
+
+    taskScheduler.initialize();
+
+    scheduledJobs.forEach(scheduledJob -> {
+      LOGGER.debug("Scheduling {} every {}", scheduledJob.name(), scheduledJob.pollTime());
+      taskScheduler.scheduleWithFixedDelay(scheduledJob.job(), scheduledJob.pollTime());
+    });
+
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    taskScheduler.shutdown();
+    running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private record ScheduledJob(String name, Runnable job, Duration pollTime) {
+  }
+}
@@ -1,10 +1,16 @@
 package uk.co.fivium.digitalnotificationlibrary.core.notification;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -15,22 +21,167 @@ import org.springframework.stereotype.Repository;
  * this repository directly.
  */
 @Repository
-public interface NotificationLibraryNotificationRepository extends CrudRepository<Notification, UUID> {
+public interface NotificationLibraryNotificationRepository extends CrudRepository<Notification, UUID>,
+    NotificationClaimRepository, NotificationArchiveRepository, NotificationRetentionRepository,
+    NotificationStatusUpdateRepository {
 
   /**
-   * Get all notifications with the provided statuses taking into account the requested pagination. Notifications
-   * are order by last send attempt date (taking into account null values) followed by the requested on date.
-   * @param statuses The statuses of notifications to return
-   * @param pageRequest pageable The pagination information to restrict results to
-   * @return notifications with the requested statuses and pagination ordered by requested on date ascending
+   * Lock and return the notification with the provided ID if it has one of the provided statuses and is not currently
+   * claimed by another node. A notification locked by another transaction is skipped rather than waited on. Must be
+   * called within a transaction.
+   * @param id The ID of the notification to return
+   * @param statuses The statuses the notification must have
+   * @param claimableAt The instant the claim must have expired by for the notification to be returned
+   * @return the locked notification, or empty if it can't be claimed
    */
+  // a lock timeout of -2 is the Hibernate value for SKIP LOCKED
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query("""
+      SELECT n
+      FROM Notification n
+      WHERE n.id = :id
+      AND n.status IN (:statuses)
+      AND (n.claimedUntil IS NULL OR n.claimedUntil <= :claimableAt)
+      """)
+  Optional<Notification> claimNotificationById(@Param("id") UUID id,
+                                               @Param("statuses") Collection<NotificationStatus> statuses,
+                                               @Param("claimableAt") Instant claimableAt);
+
+  /**
+   * Lock and return the notifications with the provided GOV.UK notify notification IDs if they have one of the provided
+   * statuses and are not currently claimed by another node. Notifications locked by another transaction are skipped
+   * rather than waited on. Must be called within a transaction.
+   * @param notifyNotificationIds The GOV.UK notify notification IDs of the notifications to return
+   * @param statuses The statuses the notifications must have
+   * @param claimableAt The instant the claim must have expired by for a notification to be returned
+   * @return the locked notifications
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query("""
+      SELECT n
+      FROM Notification n
+      WHERE n.notifyNotificationId IN (:notifyNotificationIds)
+      AND n.status IN (:statuses)
+      AND (n.claimedUntil IS NULL OR n.claimedUntil <= :claimableAt)
+      """)
+  List<Notification> claimNotificationsByNotifyNotificationIds(
+      @Param("notifyNotificationIds") Collection<String> notifyNotificationIds,
+      @Param("statuses") Collection<NotificationStatus> statuses,
+      @Param("claimableAt") Instant claimableAt
+  );
+
+  /**
+   * Count the notifications with one of the provided GOV.UK notify notification IDs or IDs which have one of the
+   * provided statuses.
+   * @param notifyNotificationIds The GOV.UK notify notification IDs of the notifications to count
+   * @param ids The IDs of the notifications to count
+   * @param statuses The statuses the notifications must have
+   * @return the number of matching notifications
+   */
+  @Query("""
+      SELECT COUNT(n)
+      FROM Notification n
+      WHERE (n.notifyNotificationId IN (:notifyNotificationIds) OR n.id IN (:ids))
+      AND n.status IN (:statuses)
+      """)
+  long countNotificationsByNotifyNotificationIdsOrIds(
+      @Param("notifyNotificationIds") Collection<String> notifyNotificationIds,
+      @Param("ids") Collection<UUID> ids,
+      @Param("statuses") Collection<NotificationStatus> statuses
+  );
+
+  /**
+   * Count the notifications with each of the provided statuses. Statuses without any notifications are not returned.
+   * @param statuses The statuses to count notifications for
+   * @return the number of notifications with each status
+   */
+  @Query("""
+      SELECT new uk.co.fivium.digitalnotificationlibrary.core.notification.NotificationStatusCount(n.status, COUNT(n))
+      FROM Notification n
+      WHERE n.status IN (:statuses)
+      GROUP BY n.status
+      """)
+  List<NotificationStatusCount> countNotificationsByStatuses(@Param("statuses") Collection<NotificationStatus> statuses);
+
+  /**
+   * Lock and return the notifications with the provided IDs, waiting for any other transaction holding a lock on them.
+   * Used when saving the outcome of processing claimed notifications, so a notification can't be claimed by another
+   * node between checking this node still holds the claim and saving the outcome. Must be called within a transaction.
+   * @param ids The IDs of the notifications to lock
+   * @return the locked notifications which still exist
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("""
+      SELECT n
+      FROM Notification n
+      WHERE n.id IN (:ids)
+      """)
+  List<Notification> lockNotificationsByIds(@Param("ids") Collection<UUID> ids);
+
+  /**
+   * Lease the notifications with the provided IDs to this node until the provided instant, without loading them. The
+   * claim isn't audited, so it can be written with a single update rather than through each notification. Must be
+   * called within a transaction.
+   * @param ids The IDs of the notifications to lease
+   * @param claimedUntil The instant the lease expires
+   * @return the number of notifications leased
+   */
+  @Modifying
+  @Query("""
+      UPDATE Notification n
+      SET n.claimedUntil = :claimedUntil
+      WHERE n.id IN (:ids)
+      """)
+  int updateClaimedUntil(@Param("ids") Collection<UUID> ids, @Param("claimedUntil") Instant claimedUntil);
+
+  /**
+   * Write the outcome of sending a notification to GOV.UK notify and release this node's claim on it, without writing
+   * the rest of the notification. This is the fallback for when the notification itself fails to be saved, so a
+   * notification which has been sent keeps its GOV.UK notify ID and is not sent again once its claim expires. Nothing is
+   * written if another node has claimed the notification since this node's claim expired. The update is not seen by
+   * Envers. Must be called within a transaction.
+   * @param sendOutcome The claimed notification holding the outcome of sending it
+   * @return the number of notifications updated, which is 0 if the notification no longer exists or is no longer
+   *         claimed by this node
+   */
+  default int updateSendOutcome(Notification sendOutcome) {
+    return updateSendOutcome(
+        sendOutcome.getId(),
+        sendOutcome.getStatus(),
+        sendOutcome.getNotifyNotificationId(),
+        sendOutcome.getFailureReason(),
+        sendOutcome.getLastFailedAt(),
+        sendOutcome.getRetryCount(),
+        sendOutcome.getNextStatusCheckAt(),
+        sendOutcome.getNextAttemptAt(),
+        sendOutcome.getClaimedUntil()
+    );
+  }
 
-  @Query(value = """
-        SELECT n
-        FROM Notification n
-        WHERE n.status IN :statuses
-        ORDER BY n.lastSendAttemptAt ASC NULLS FIRST, n.requestedOn ASC
+  // called through updateSendOutcome(Notification) rather than directly
+  @Modifying
+  @Query("""
+      UPDATE Notification n
+      SET n.status = :status,
+        n.notifyNotificationId = :notifyNotificationId,
+        n.failureReason = :failureReason,
+        n.lastFailedAt = :lastFailedAt,
+        n.retryCount = :retryCount,
+        n.nextStatusCheckAt = :nextStatusCheckAt,
+        n.nextAttemptAt = :nextAttemptAt,
+        n.claimedUntil = NULL
+      WHERE n.id = :id
+      AND n.claimedUntil = :claimedUntil
       """)
-  List<Notification> findNotificationsByStatuses(@Param("statuses") Collection<NotificationStatus> statuses,
-                                                 PageRequest pageRequest);
+  int updateSendOutcome(@Param("id") UUID id,
+                        @Param("status") NotificationStatus status,
+                        @Param("notifyNotificationId") String notifyNotificationId,
+                        @Param("failureReason") String failureReason,
+                        @Param("lastFailedAt") Instant lastFailedAt,
+                        @Param("retryCount") Integer retryCount,
+                        @Param("nextStatusCheckAt") Instant nextStatusCheckAt,
+                        @Param("nextAttemptAt") Instant nextAttemptAt,
+                        @Param("claimedUntil") Instant claimedUntil);
 }
@@ -0,0 +1,11 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.util.Set;
+
+/**
+ * The content of a notification which is stored compressed when payload compression is enabled.
+ * @param mailMergeFields The mail merge fields of the notification
+ * @param fileAttachments The files attached to the notification
+ */
+record NotificationPayload(Set<MailMergeField> mailMergeFields, Set<FileAttachment> fileAttachments) {
+}
@@ -0,0 +1,145 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import uk.co.fivium.digitalnotificationlibrary.core.DigitalNotificationLibraryException;
+
+/**
+ * Encodes the mail merge fields and file attachments of a notification into a single compressed payload. Every payload
+ * starts with a header holding the format it was written in, so payloads written by earlier versions of the library
+ * can always be read. A payload without the header is read as plain UTF-8 JSON.
+ */
+class NotificationPayloadCodec {
+
+  // a JSON document can't start with these bytes, so a payload with the header can't be mistaken for plain JSON
+  private static final byte[] HEADER_MAGIC = {'N', 'L'};
+
+  /** The format of payloads holding JSON compressed with DEFLATE. */
+  static final byte DEFLATE_JSON_FORMAT = 1;
+
+  private static final int HEADER_LENGTH = HEADER_MAGIC.length + 1;
+
+  // configured the same as the mapper Hibernate uses for the JSON columns by default. Nested mail merge values are read
+  // back as plain maps and lists.
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+
+  private NotificationPayloadCodec() {
+    throw new IllegalStateException("This is a util class and should not be instantiated");
+  }
+
+  /**
+   * Compress the provided payload, if it is large enough for compressing it to be worthwhile.
+   * @param payload The mail merge fields and file attachments of a notification
+   * @param minimumBytes The size in bytes the payload must reach as JSON before it is compressed
+   * @return the compressed payload with its header, or empty if the payload is too small or doesn't get any smaller
+   */
+  static Optional<byte[]> compress(NotificationPayload payload, int minimumBytes) {
+
+    var json = toJson(payload).getBytes(StandardCharsets.UTF_8);
+
+    if (json.length < minimumBytes) {
+      return Optional.empty();
+    }
+
+    var compressed = deflate(json);
+    return compressed.length < json.length ? Optional.of(compressed) : Optional.empty();
+  }
+
+  /**
+   * Compress the provided payload whatever its size, for a notification which is already stored compressed.
+   * @param payload The mail merge fields and file attachments of a notification
+   * @return the compressed payload with its header
+   */
+  static byte[] encode(NotificationPayload payload) {
+    return deflate(toJson(payload).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static byte[] deflate(byte[] json) {
+
+    var output = new ByteArrayOutputStream(json.length / 2);
+    output.write(HEADER_MAGIC, 0, HEADER_MAGIC.length);
+    output.write(DEFLATE_JSON_FORMAT);
+
+    var deflater = new Deflater(Deflater.BEST_SPEED);
+    try (var deflaterOutput = new DeflaterOutputStream(output, deflater)) {
+      deflaterOutput.write(json);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    } finally {
+      deflater.end();
+    }
+
+    return output.toByteArray();
+  }
+
+  /**
+   * Read a payload written by any version of the library.
+   * @param payload The stored payload
+   * @return the mail merge fields and file attachments held in the payload
+   * @throws DigitalNotificationLibraryException if the payload was written in a format this version can't read
+   */
+  static NotificationPayload decode(byte[] payload) {
+
+    if (!hasHeader(payload)) {
+      return fromJson(new String(payload, StandardCharsets.UTF_8));
+    }
+
+    var format = payload[HEADER_MAGIC.length];
+
+    if (format != DEFLATE_JSON_FORMAT) {
+      throw new DigitalNotificationLibraryException("Unsupported notification payload format %d".formatted(format));
+    }
+
+    var compressed = new ByteArrayInputStream(payload, HEADER_LENGTH, payload.length - HEADER_LENGTH);
+
+    try (var inflaterInput = new InflaterInputStream(compressed)) {
+      return fromJson(new String(inflaterInput.readAllBytes(), StandardCharsets.UTF_8));
+    } catch (IOException exception) {
+      throw new DigitalNotificationLibraryException(
+          "Invalid compressed notification payload: %s".formatted(exception.getMessage())
+      );
+    }
+  }
+
+  private static boolean hasHeader(byte[] payload) {
+    return payload.length >= HEADER_LENGTH
+        && Arrays.equals(payload, 0, HEADER_MAGIC.length, HEADER_MAGIC, 0, HEADER_MAGIC.length);
+  }
+
+  /**
+   * Write the provided payload as the JSON which is compressed. The mail merge fields and file attachments are written
+   * with the same Jackson mapping Hibernate uses for the JSON columns, so they read back the same whichever way they
+   * were stored.
+   * @param payload The mail merge fields and file attachments of a notification
+   * @return the payload as JSON
+   */
+  static String toJson(NotificationPayload payload) {
+    try {
+      return OBJECT_MAPPER.writeValueAsString(payload);
+    } catch (JsonProcessingException exception) {
+      throw new DigitalNotificationLibraryException(
+          "Unable to write notification payload: %s".formatted(exception.getOriginalMessage())
+      );
+    }
+  }
+
+  private static NotificationPayload fromJson(String payload) {
+    try {
+      return OBJECT_MAPPER.readValue(payload, NotificationPayload.class);
+    } catch (JsonProcessingException exception) {
+      throw new DigitalNotificationLibraryException(
+          "Invalid notification payload: %s".formatted(exception.getOriginalMessage())
+      );
+    }
+  }
+}
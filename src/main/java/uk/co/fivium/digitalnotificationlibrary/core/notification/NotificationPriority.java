@@ -0,0 +1,14 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+/**
+ * Enum containing the priority lanes notifications are sent from. Higher priority lanes are served first, but each lane
+ * is given a configurable share of every batch so lower priority notifications still progress during busy periods.
+ */
+public enum NotificationPriority {
+  /** For time-critical notifications, such as one time passcodes, which should not wait behind other notifications. */
+  HIGH,
+  /** The priority used when no priority is provided. */
+  NORMAL,
+  /** For bulk notifications, such as newsletters, which can wait behind other notifications. */
+  LOW
+}
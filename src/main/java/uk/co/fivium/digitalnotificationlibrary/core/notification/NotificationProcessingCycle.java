@@ -0,0 +1,70 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Clock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+/**
+ * A single iteration of the notification sending or status update jobs. When drain mode is enabled, pages of
+ * notifications are sent back to back while a full page was taken from the queue and the cycle time budget has not been
+ * spent. This lets a backlog be cleared faster than one page per poll interval, while keeping each iteration well
+ * within the time the scheduler lock is held for.
+ */
+@Component
+class NotificationProcessingCycle {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationProcessingCycle.class);
+
+  private final NotificationSendingService notificationSendingService;
+
+  private final NotificationStatusUpdateService notificationStatusUpdateService;
+
+  private final NotificationLibraryConfigurationProperties libraryConfigurationProperties;
+
+  private final Clock clock;
+
+  @Autowired
+  NotificationProcessingCycle(NotificationSendingService notificationSendingService,
+                              NotificationStatusUpdateService notificationStatusUpdateService,
+                              NotificationLibraryConfigurationProperties libraryConfigurationProperties,
+                              Clock clock) {
+    this.notificationSendingService = notificationSendingService;
+    this.notificationStatusUpdateService = notificationStatusUpdateService;
+    this.libraryConfigurationProperties = libraryConfigurationProperties;
+    this.clock = clock;
+  }
+
+  void updateNotificationStatuses() {
+    notificationStatusUpdateService.updateNotificationStatuses();
+  }
+
+  void sendNotifications() {
+
+    if (!libraryConfigurationProperties.isDrainEnabled()) {
+      notificationSendingService.sendNotificationsToNotify();
+      return;
+    }
+
+    var bulkRetrievalLimit = libraryConfigurationProperties.getSendingBulkRetrievalLimit();
+
+    // the budget only stops new pages being started, a page already being sent is always finished
+    var cycleDeadline = clock.instant().plusSeconds(libraryConfigurationProperties.getDrainCycleTimeBudgetSeconds());
+
+    var pagesSent = 0;
+    var notificationsSent = 0;
+    int notificationsInPage;
+
+    do {
+      notificationsInPage = notificationSendingService.sendNotificationsToNotify();
+      notificationsSent += notificationsInPage;
+      pagesSent++;
+    } while (notificationsInPage >= bulkRetrievalLimit && clock.instant().isBefore(cycleDeadline));
+
+    if (pagesSent > 1) {
+      LOGGER.info("Drained {} notifications to notify in {} pages", notificationsSent, pagesSent);
+    }
+  }
+}
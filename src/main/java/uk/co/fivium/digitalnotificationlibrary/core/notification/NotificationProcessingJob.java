@@ -0,0 +1,12 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+/**
+ * The scheduled jobs sending queued notifications to GOV.UK notify and updating the statuses of sent notifications.
+ */
+interface NotificationProcessingJob extends NotificationSendingJob {
+
+  /**
+   * Run a single iteration of the status update job.
+   */
+  void updateNotificationStatuses();
+}
@@ -1,49 +1,57 @@
 package uk.co.fivium.digitalnotificationlibrary.core.notification;
 
-import java.util.concurrent.TimeUnit;
 import net.javacrumbs.shedlock.core.LockAssert;
-import net.javacrumbs.shedlock.spring.annotation.EnableSchedulerLock;
 import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Component;
-import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
 
+/**
+ * Processes notifications on a single node at a time, coordinated using a ShedLock scheduler lock. Sending and status
+ * updates are separate jobs, each with its own lock and poll time, so one node can be sending notifications while
+ * another is updating their statuses. This is the default processor and is used unless the library is configured to
+ * use the claim dequeue mode. The jobs are scheduled by the {@link NotificationLibraryJobScheduler}.
+ */
 @Component
-@EnableSchedulerLock(defaultLockAtMostFor = "10m")
-class NotificationProcessor {
+@ConditionalOnExpression(
+    "!'${digital-notification-library.notification.dequeue.mode:scheduler-lock}'.equalsIgnoreCase('claim')"
+)
+class NotificationProcessor implements NotificationProcessingJob {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NotificationProcessor.class);
 
-  private final NotificationSendingService notificationSendingService;
-
-  private final NotificationStatusUpdateService notificationStatusUpdateService;
+  private final NotificationProcessingCycle notificationProcessingCycle;
 
   @Autowired
-  NotificationProcessor(NotificationSendingService notificationSendingService,
-                        NotificationStatusUpdateService notificationStatusUpdateService) {
-    this.notificationSendingService = notificationSendingService;
-    this.notificationStatusUpdateService = notificationStatusUpdateService;
+  NotificationProcessor(NotificationProcessingCycle notificationProcessingCycle) {
+    this.notificationProcessingCycle = notificationProcessingCycle;
+  }
+
+  @Override
+  @SchedulerLock(name = "NotificationScheduler_sendNotifications")
+  public void sendNotifications() {
+
+    LOGGER.debug("Starting scheduled sending of notifications");
+
+    LockAssert.assertLocked();
+
+    notificationProcessingCycle.sendNotifications();
+
+    LOGGER.debug("Finished scheduled sending of notifications");
   }
 
-  @Scheduled(
-      fixedDelayString =
-          "${digital-notification-library.notification.poll-time-seconds:" +
-              NotificationLibraryConfigurationProperties.DEFAULT_NOTIFICATION_POLL_TIME_SECONDS + "}",
-      timeUnit = TimeUnit.SECONDS
-  )
-  @SchedulerLock(name = "NotificationScheduler_processNotifications")
-  void processNotifications() {
+  @Override
+  @SchedulerLock(name = "NotificationScheduler_updateNotificationStatuses")
+  public void updateNotificationStatuses() {
 
-    LOGGER.debug("Starting scheduled processing of notifications");
+    LOGGER.debug("Starting scheduled update of notification statuses");
 
     LockAssert.assertLocked();
 
-    notificationStatusUpdateService.updateNotificationStatuses();
-    notificationSendingService.sendNotificationsToNotify();
+    notificationProcessingCycle.updateNotificationStatuses();
 
-    LOGGER.debug("Finished scheduled processing of notifications");
+    LOGGER.debug("Finished scheduled update of notification statuses");
   }
 }
@@ -0,0 +1,19 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+/**
+ * The outcome of deleting a single batch of notifications whose retention period has passed.
+ * @param notificationsPurged The number of notifications deleted
+ * @param auditRowsPurged The number of audit rows deleted for the notifications
+ * @param statusTransitionsPurged The number of status transition journal rows deleted for the notifications
+ * @param bytesReclaimed The approximate size of the deleted notifications and audit rows
+ * @param last The position of the last notification in the batch, which the next batch starts after. Null if the batch
+ *             was empty.
+ */
+record NotificationPurgeBatch(int notificationsPurged,
+                              int auditRowsPurged,
+                              int statusTransitionsPurged,
+                              long bytesReclaimed,
+                              NotificationPurgeCursor last) {
+
+  static final NotificationPurgeBatch EMPTY = new NotificationPurgeBatch(0, 0, 0, 0, null);
+}
@@ -0,0 +1,9 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+/**
+ * The position of a notification in the order notifications are purged in, which the next batch starts after.
+ * @param requestedOn When the notification was requested, as returned by the database
+ * @param id The ID of the notification, as returned by the database
+ */
+record NotificationPurgeCursor(Object requestedOn, Object id) {
+}
@@ -0,0 +1,34 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+/**
+ * The total outcome of an iteration of the retention job.
+ * @param notificationsPurged The number of notifications deleted
+ * @param auditRowsPurged The number of audit rows deleted for the notifications
+ * @param statusTransitionsPurged The number of status transition journal rows deleted for the notifications
+ * @param bytesReclaimed The approximate size of the deleted notifications and audit rows
+ */
+record NotificationPurgeResult(long notificationsPurged,
+                               long auditRowsPurged,
+                               long statusTransitionsPurged,
+                               long bytesReclaimed) {
+
+  static final NotificationPurgeResult NONE = new NotificationPurgeResult(0, 0, 0, 0);
+
+  NotificationPurgeResult plus(NotificationPurgeBatch batch) {
+    return new NotificationPurgeResult(
+        notificationsPurged + batch.notificationsPurged(),
+        auditRowsPurged + batch.auditRowsPurged(),
+        statusTransitionsPurged + batch.statusTransitionsPurged(),
+        bytesReclaimed + batch.bytesReclaimed()
+    );
+  }
+
+  NotificationPurgeResult plus(NotificationPurgeResult result) {
+    return new NotificationPurgeResult(
+        notificationsPurged + result.notificationsPurged(),
+        auditRowsPurged + result.auditRowsPurged(),
+        statusTransitionsPurged + result.statusTransitionsPurged(),
+        bytesReclaimed + result.bytesReclaimed()
+    );
+  }
+}
@@ -0,0 +1,28 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A position in the notification queue, used to carry on claiming notifications after the last one claimed rather than
+ * reading from the head of the queue again. The queue is ordered by last send attempt date (null values first), then
+ * requested on date and then ID, so every notification has a unique position.
+ * @param lastSendAttemptAt When the notification at this position was last sent to GOV.UK notify, or null if never
+ * @param requestedOn When the notification at this position was requested
+ * @param id The ID of the notification at this position
+ */
+record NotificationQueueCursor(Instant lastSendAttemptAt, Instant requestedOn, UUID id) {
+
+  /**
+   * Get the position of the provided notification in the queue.
+   * @param notification The notification to get the position of
+   * @return a cursor at the position of the notification
+   */
+  static NotificationQueueCursor of(Notification notification) {
+    return new NotificationQueueCursor(
+        notification.getLastSendAttemptAt(),
+        notification.getRequestedOn(),
+        notification.getId()
+    );
+  }
+}
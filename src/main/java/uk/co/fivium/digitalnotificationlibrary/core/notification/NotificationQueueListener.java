@@ -0,0 +1,164 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * Wakes the sending job as soon as notifications are queued, rather than waiting for its next scheduled run. The
+ * {@link NotificationQueuedNotifier} issues a PostgreSQL notification on the {@link #CHANNEL} channel when a transaction
+ * queueing notifications commits, which this listener waits for on a connection of its own. The connection is opened
+ * directly from the datasource properties rather than borrowed from the connection pool, so listening doesn't take a
+ * pooled connection away from the application for as long as it runs. The scheduled sending job keeps running as a
+ * fallback in case a notification is missed, for example while the listener is reconnecting.
+ *
+ * <p>Notifications issued while the sending job is running are delivered together once it has finished, so a burst of
+ * queued notifications only wakes the sending job once more.
+ */
+@Component
+@ConditionalOnClass(name = "org.postgresql.PGConnection")
+@ConditionalOnProperty(prefix = "digital-notification-library.notification.listen", name = "enabled", havingValue = "true")
+class NotificationQueueListener implements SmartLifecycle {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationQueueListener.class);
+
+  static final String CHANNEL = "notification_library_queued";
+
+  // how long to wait for a notification before checking the listener hasn't been stopped
+  private static final Duration WAIT_TIMEOUT = Duration.ofSeconds(5);
+
+  private static final Duration RECONNECT_DELAY = Duration.ofSeconds(10);
+
+  private final DataSource dataSource;
+
+  private final NotificationSendingJob notificationSendingJob;
+
+  private volatile boolean running;
+
+  private Thread listenerThread;
+
+  @Autowired
+  NotificationQueueListener(DataSourceProperties dataSourceProperties, NotificationSendingJob notificationSendingJob) {
+    this(createListenerDataSource(dataSourceProperties), notificationSendingJob);
+  }
+
+  NotificationQueueListener(DataSource dataSource, NotificationSendingJob notificationSendingJob) {
+    this.dataSource = dataSource;
+    this.notificationSendingJob = notificationSendingJob;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    listenerThread = new Thread(this::listen, "notification-library-listener");
+    listenerThread.setDaemon(true);
+    listenerThread.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    if (listenerThread != null) {
+      listenerThread.interrupt();
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void listen() {
+    while (running) {
+      try {
+        listenForQueuedNotifications();
+      } catch (SQLException | RuntimeException exception) {
+        if (running) {
+          LOGGER.warn(
+              "Lost connection listening for queued notifications, reconnecting in {} seconds",
+              RECONNECT_DELAY.toSeconds(),
+              exception
+          );
+          sleep(RECONNECT_DELAY);
+        }
+      }
+    }
+  }
+
+  /**
+   * Listen for queued notifications on a single connection until the listener is stopped or the connection fails.
+   * @throws SQLException if the connection fails
+   */
+  void listenForQueuedNotifications() throws SQLException {
+    // the connection isn't pooled, so closing it ends the session and stops it listening
+    try (Connection connection = dataSource.getConnection()) {
+
+      connection.setAutoCommit(true);
+
+      execute(connection, "LISTEN " + CHANNEL);
+
+      var pgConnection = connection.unwrap(PGConnection.class);
+
+      LOGGER.info("Listening for queued notifications on channel {}", CHANNEL);
+
+      while (running) {
+
+        PGNotification[] notifications = pgConnection.getNotifications((int) WAIT_TIMEOUT.toMillis());
+
+        if (notifications != null && notifications.length > 0) {
+          LOGGER.debug("Woken by {} queued notification events", notifications.length);
+          runSendingJob();
+        }
+      }
+    }
+  }
+
+  void setRunning(boolean running) {
+    this.running = running;
+  }
+
+  private static DataSource createListenerDataSource(DataSourceProperties dataSourceProperties) {
+    return DataSourceBuilder.create()
+        .type(SimpleDriverDataSource.class)
+        .driverClassName(dataSourceProperties.determineDriverClassName())
+        .url(dataSourceProperties.determineUrl())
+        .username(dataSourceProperties.determineUsername())
+        .password(dataSourceProperties.determinePassword())
+        .build();
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (var statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private void runSendingJob() {
+    try {
+      notificationSendingJob.sendNotifications();
+    } catch (RuntimeException exception) {
+      LOGGER.error("Failed to send notifications after being woken by queued notifications", exception);
+    }
+  }
+
+  private static void sleep(Duration duration) {
+    try {
+      Thread.sleep(duration.toMillis());
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
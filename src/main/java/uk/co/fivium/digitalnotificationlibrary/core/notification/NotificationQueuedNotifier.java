@@ -0,0 +1,57 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+/**
+ * Issues a PostgreSQL notification on the {@link NotificationQueueListener#CHANNEL} channel when notifications are
+ * queued, waking the listener on each node. Nothing is issued unless listening is enabled, so consumers who don't
+ * listen don't pay for a notification on every insert.
+ *
+ * <p>The notification is issued once per transaction just before it commits. PostgreSQL only delivers it once the
+ * transaction has committed, and not at all if it rolls back, so the listeners are never woken before the queued
+ * notifications can be claimed.
+ */
+@Component
+class NotificationQueuedNotifier {
+
+  private static final String NOTIFY_QUERY = "NOTIFY " + NotificationQueueListener.CHANNEL;
+
+  private final EntityManager entityManager;
+
+  private final boolean isListenEnabled;
+
+  @Autowired
+  NotificationQueuedNotifier(EntityManager entityManager,
+                             NotificationLibraryConfigurationProperties libraryConfigurationProperties) {
+    this.entityManager = entityManager;
+    this.isListenEnabled = libraryConfigurationProperties.isListenEnabled();
+  }
+
+  /**
+   * Notify the listeners that notifications have been queued once the current transaction commits. Calling this more
+   * than once in a transaction only issues a single notification. Must be called within a transaction.
+   */
+  void notifyQueuedAfterCommit() {
+
+    // synchronizations belong to the current transaction, so a new transaction started within it issues its own
+    if (!isListenEnabled || TransactionSynchronizationManager.getSynchronizations().stream()
+        .anyMatch(QueuedNotification.class::isInstance)) {
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new QueuedNotification());
+  }
+
+  private class QueuedNotification implements TransactionSynchronization {
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      entityManager.createNativeQuery(NOTIFY_QUERY).executeUpdate();
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import net.javacrumbs.shedlock.core.LockAssert;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Deletes processed notifications past their retention period on a single node at a time, coordinated using a ShedLock
+ * scheduler lock. This runs whichever dequeue mode the library is using, as purging doesn't take notifications from the
+ * queue.
+ */
+@Component
+@ConditionalOnProperty(prefix = "digital-notification-library.notification.retention", name = "enabled", havingValue = "true")
+class NotificationRetentionJob {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationRetentionJob.class);
+
+  private final NotificationRetentionService notificationRetentionService;
+
+  @Autowired
+  NotificationRetentionJob(NotificationRetentionService notificationRetentionService) {
+    this.notificationRetentionService = notificationRetentionService;
+  }
+
+  @SchedulerLock(name = "NotificationScheduler_purgeNotifications")
+  void purgeNotifications() {
+
+    LOGGER.debug("Starting scheduled purge of notifications");
+
+    LockAssert.assertLocked();
+
+    notificationRetentionService.purgeNotifications();
+
+    LOGGER.debug("Finished scheduled purge of notifications");
+  }
+}
@@ -0,0 +1,28 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Instant;
+
+/**
+ * Repository fragment for deleting processed notifications, and their audit rows, once their retention period has
+ * passed.
+ */
+interface NotificationRetentionRepository {
+
+  /**
+   * Delete a batch of notifications with the provided status which were requested before the provided instant, along
+   * with their audit rows. Notifications are taken in the order they were requested in, then by ID, starting after the
+   * provided position, so each batch carries on from the last without reading the rows already dealt with. Must be
+   * called within a transaction.
+   * @param table The table to delete notifications from
+   * @param status The status of notifications to delete
+   * @param requestedBefore The instant notifications must have been requested before to be deleted
+   * @param after The position of the last notification in the previous batch, or null for the first batch
+   * @param limit The maximum number of notifications to delete
+   * @return the outcome of deleting the batch
+   */
+  NotificationPurgeBatch purgeNotifications(NotificationRetentionTable table,
+                                            NotificationStatus status,
+                                            Instant requestedBefore,
+                                            NotificationPurgeCursor after,
+                                            int limit);
+}
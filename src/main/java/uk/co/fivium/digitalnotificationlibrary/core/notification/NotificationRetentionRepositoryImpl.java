@@ -0,0 +1,165 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+class NotificationRetentionRepositoryImpl implements NotificationRetentionRepository {
+
+  private static final String AUDIT_TABLE_NAME = "notification_library_notifications_aud";
+
+  // Pages through notifications in the order of the archivable index on the notification table and the status index on
+  // the archive table. The statuses are repeated as literals so PostgreSQL can prove the partial archivable index covers
+  // the query when the status is a bind parameter.
+  private static final String PURGEABLE_NOTIFICATIONS_QUERY = """
+      SELECT t.requested_on, t.id
+      FROM {h-schema}%s t
+      WHERE t.status = :status
+      AND t.status IN ('SENT', 'FAILED_NOT_SENT', 'UNEXPECTED_NOTIFY_STATUS')
+      AND t.requested_on < :requestedBefore
+      %s
+      ORDER BY t.requested_on ASC, t.id ASC
+      """;
+
+  // the row comparison is spelt out as Oracle doesn't support (a, b) > (c, d), with the lower bound on requested_on
+  // letting the index range scan start at the previous batch
+  private static final String AFTER_CURSOR_CONDITION = """
+      AND t.requested_on >= :afterRequestedOn
+      AND (t.requested_on > :afterRequestedOn OR t.id > :afterId)
+      """;
+
+  private static final String POSTGRES_LIMIT = """
+      LIMIT :limit
+      """;
+
+  private static final String ORACLE_LIMIT = """
+      FETCH FIRST :limit ROWS ONLY
+      """;
+
+  // the whole row as stored, including any TOASTed mail merge fields and file attachments
+  private static final String POSTGRES_SIZE_QUERY = """
+      SELECT COALESCE(SUM(pg_column_size(t.*)), 0)
+      FROM {h-schema}%s t
+      WHERE t.id IN (:ids)
+      """;
+
+  // the mail merge fields and file attachments, stored either as JSON or compressed, make up almost all of the size of
+  // a notification
+  private static final String ORACLE_SIZE_QUERY = """
+      SELECT NVL(SUM(
+        NVL(DBMS_LOB.GETLENGTH(t.mail_merge_fields), 0)
+        + NVL(DBMS_LOB.GETLENGTH(t.file_attachments), 0)
+        + NVL(DBMS_LOB.GETLENGTH(t.compressed_payload), 0)
+      ), 0)
+      FROM {h-schema}%s t
+      WHERE t.id IN (:ids)
+      """;
+
+  private static final String DELETE_QUERY = """
+      DELETE FROM {h-schema}%s
+      WHERE id IN (:ids)
+      """;
+
+  // status transitions are recorded against the notification ID, wherever the notification is now stored
+  private static final String STATUS_TRANSITION_DELETE_QUERY = """
+      DELETE FROM {h-schema}notification_library_status_transitions
+      WHERE notification_id IN (:ids)
+      """;
+
+  private final EntityManager entityManager;
+
+  private final boolean isOracle;
+
+  @Autowired
+  NotificationRetentionRepositoryImpl(EntityManager entityManager,
+                                      NotificationLibraryConfigurationProperties libraryConfigurationProperties) {
+    this.entityManager = entityManager;
+    this.isOracle = NotificationLibraryConfigurationProperties.ORACLE_VENDOR
+        .equalsIgnoreCase(libraryConfigurationProperties.flywayVendor());
+  }
+
+  @Override
+  public NotificationPurgeBatch purgeNotifications(NotificationRetentionTable table,
+                                                   NotificationStatus status,
+                                                   Instant requestedBefore,
+                                                   NotificationPurgeCursor after,
+                                                   int limit) {
+
+    var rows = getPurgeableNotifications(table, status, requestedBefore, after, limit);
+
+    if (rows.isEmpty()) {
+      return NotificationPurgeBatch.EMPTY;
+    }
+
+    var ids = rows.stream()
+        .map(row -> row[1])
+        .toList();
+
+    var bytesReclaimed = getSize(table.getTableName(), ids) + getSize(AUDIT_TABLE_NAME, ids);
+
+    var auditRowsPurged = delete(AUDIT_TABLE_NAME, ids);
+    var statusTransitionsPurged = deleteStatusTransitions(ids);
+    var notificationsPurged = delete(table.getTableName(), ids);
+
+    var lastRow = rows.get(rows.size() - 1);
+
+    return new NotificationPurgeBatch(
+        notificationsPurged,
+        auditRowsPurged,
+        statusTransitionsPurged,
+        bytesReclaimed,
+        new NotificationPurgeCursor(lastRow[0], lastRow[1])
+    );
+  }
+
+  private List<Object[]> getPurgeableNotifications(NotificationRetentionTable table,
+                                                   NotificationStatus status,
+                                                   Instant requestedBefore,
+                                                   NotificationPurgeCursor after,
+                                                   int limit) {
+
+    var sql = PURGEABLE_NOTIFICATIONS_QUERY.formatted(table.getTableName(), after != null ? AFTER_CURSOR_CONDITION : "") +
+        (isOracle ? ORACLE_LIMIT : POSTGRES_LIMIT);
+
+    Query query = entityManager.createNativeQuery(sql)
+        .setParameter("status", status.name())
+        .setParameter("requestedBefore", requestedBefore)
+        .setParameter("limit", limit);
+
+    if (after != null) {
+      query
+          .setParameter("afterRequestedOn", after.requestedOn())
+          .setParameter("afterId", after.id());
+    }
+
+    return getResultList(query);
+  }
+
+  private long getSize(String tableName, List<Object> ids) {
+    var sizeQuery = isOracle ? ORACLE_SIZE_QUERY : POSTGRES_SIZE_QUERY;
+    var size = entityManager.createNativeQuery(sizeQuery.formatted(tableName))
+        .setParameter("ids", ids)
+        .getSingleResult();
+    return ((Number) size).longValue();
+  }
+
+  private int delete(String tableName, List<Object> ids) {
+    return entityManager.createNativeQuery(DELETE_QUERY.formatted(tableName))
+        .setParameter("ids", ids)
+        .executeUpdate();
+  }
+
+  private int deleteStatusTransitions(List<Object> ids) {
+    return entityManager.createNativeQuery(STATUS_TRANSITION_DELETE_QUERY)
+        .setParameter("ids", ids)
+        .executeUpdate();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Object[]> getResultList(Query query) {
+    return query.getResultList();
+  }
+}
@@ -0,0 +1,186 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+/**
+ * Deletes processed notifications, and their audit rows, once their retention period has passed. Notifications are
+ * deleted in small batches, each in its own short transaction with a pause between them, so the retention job never
+ * holds locks for long or creates a burst of writes for replicas to catch up on.
+ */
+@Service
+class NotificationRetentionService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+  private static final String METRIC_PREFIX = "notification.library.retention";
+
+  static final Duration RETENTION_CYCLE_TIME_BUDGET =
+      Duration.ofSeconds(NotificationLibraryConfigurationProperties.HOUSEKEEPING_CYCLE_TIME_BUDGET_SECONDS);
+
+  private final TransactionTemplate transactionTemplate;
+
+  private final NotificationLibraryNotificationRepository notificationRepository;
+
+  private final NotificationLibraryConfigurationProperties libraryConfigurationProperties;
+
+  private final Clock clock;
+
+  private final MeterRegistry meterRegistry;
+
+  @Autowired
+  NotificationRetentionService(PlatformTransactionManager transactionManager,
+                               NotificationLibraryNotificationRepository notificationRepository,
+                               NotificationLibraryConfigurationProperties libraryConfigurationProperties,
+                               Clock clock,
+                               ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    this(
+        transactionManager,
+        notificationRepository,
+        libraryConfigurationProperties,
+        clock,
+        meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry)
+    );
+  }
+
+  NotificationRetentionService(PlatformTransactionManager transactionManager,
+                               NotificationLibraryNotificationRepository notificationRepository,
+                               NotificationLibraryConfigurationProperties libraryConfigurationProperties,
+                               Clock clock,
+                               MeterRegistry meterRegistry) {
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.notificationRepository = notificationRepository;
+    this.libraryConfigurationProperties = libraryConfigurationProperties;
+    this.clock = clock;
+    this.meterRegistry = meterRegistry;
+  }
+
+  /**
+   * Delete processed notifications from the notification and archive tables once their retention period has passed,
+   * one batch at a time, until there are none left or the cycle time budget has been spent.
+   * @return the total number of notifications and audit rows deleted and the approximate number of bytes reclaimed
+   */
+  NotificationPurgeResult purgeNotifications() {
+
+    var now = clock.instant();
+    var cycleDeadline = now.plus(RETENTION_CYCLE_TIME_BUDGET);
+
+    var result = NotificationPurgeResult.NONE;
+
+    for (NotificationRetentionTable table : NotificationRetentionTable.values()) {
+      for (Map.Entry<NotificationStatus, Integer> retentionDays : getRetentionDaysByStatus().entrySet()) {
+        var requestedBefore = now.minus(Duration.ofDays(retentionDays.getValue()));
+        result = result.plus(purgeNotifications(table, retentionDays.getKey(), requestedBefore, cycleDeadline));
+      }
+    }
+
+    if (result.notificationsPurged() > 0) {
+      LOGGER.info(
+          "Purged {} notifications, {} audit rows and {} status transitions, reclaiming approximately {} bytes",
+          result.notificationsPurged(),
+          result.auditRowsPurged(),
+          result.statusTransitionsPurged(),
+          result.bytesReclaimed()
+      );
+    }
+
+    return result;
+  }
+
+  private NotificationPurgeResult purgeNotifications(NotificationRetentionTable table,
+                                                     NotificationStatus status,
+                                                     Instant requestedBefore,
+                                                     Instant cycleDeadline) {
+
+    var batchSize = libraryConfigurationProperties.getRetentionBatchSize();
+
+    var result = NotificationPurgeResult.NONE;
+    NotificationPurgeCursor after = null;
+
+    while (clock.instant().isBefore(cycleDeadline)) {
+
+      var previousLast = after;
+
+      var batch = Optional.ofNullable(transactionTemplate.execute(transactionStatus ->
+          notificationRepository.purgeNotifications(table, status, requestedBefore, previousLast, batchSize)
+      ))
+          .orElse(NotificationPurgeBatch.EMPTY);
+
+      recordMetrics(table, batch);
+      result = result.plus(batch);
+
+      if (batch.notificationsPurged() < batchSize || !pauseBetweenBatches()) {
+        break;
+      }
+
+      after = batch.last();
+    }
+
+    return result;
+  }
+
+  private boolean pauseBetweenBatches() {
+    try {
+      Thread.sleep(libraryConfigurationProperties.getRetentionBatchDelayMillis());
+      return true;
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      LOGGER.warn("Interrupted while purging notifications, the remaining notifications will be purged next time");
+      return false;
+    }
+  }
+
+  private void recordMetrics(NotificationRetentionTable table, NotificationPurgeBatch batch) {
+
+    Counter.builder(METRIC_PREFIX + ".notifications.purged")
+        .description("The number of processed notifications deleted once their retention period passed")
+        .tag("table", table.getTableName())
+        .register(meterRegistry)
+        .increment(batch.notificationsPurged());
+
+    Counter.builder(METRIC_PREFIX + ".audit.purged")
+        .description("The number of audit rows deleted along with processed notifications")
+        .register(meterRegistry)
+        .increment(batch.auditRowsPurged());
+
+    Counter.builder(METRIC_PREFIX + ".status.transitions.purged")
+        .description("The number of status transition journal rows deleted along with processed notifications")
+        .register(meterRegistry)
+        .increment(batch.statusTransitionsPurged());
+
+    Counter.builder(METRIC_PREFIX + ".reclaimed")
+        .description("The approximate size of the notifications and audit rows deleted")
+        .baseUnit("bytes")
+        .register(meterRegistry)
+        .increment(batch.bytesReclaimed());
+  }
+
+  private Map<NotificationStatus, Integer> getRetentionDaysByStatus() {
+    Map<NotificationStatus, Integer> retentionDaysByStatus = new EnumMap<>(NotificationStatus.class);
+    retentionDaysByStatus.put(NotificationStatus.SENT, libraryConfigurationProperties.getSentRetentionDays());
+    retentionDaysByStatus.put(
+        NotificationStatus.FAILED_NOT_SENT,
+        libraryConfigurationProperties.getFailedNotSentRetentionDays()
+    );
+    retentionDaysByStatus.put(
+        NotificationStatus.UNEXPECTED_NOTIFY_STATUS,
+        libraryConfigurationProperties.getUnexpectedNotifyStatusRetentionDays()
+    );
+    return retentionDaysByStatus;
+  }
+}
@@ -0,0 +1,20 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+/**
+ * The tables processed notifications are deleted from once their retention period has passed.
+ */
+enum NotificationRetentionTable {
+
+  NOTIFICATIONS("notification_library_notifications"),
+  ARCHIVE("notification_library_notifications_archive");
+
+  private final String tableName;
+
+  NotificationRetentionTable(String tableName) {
+    this.tableName = tableName;
+  }
+
+  String getTableName() {
+    return tableName;
+  }
+}
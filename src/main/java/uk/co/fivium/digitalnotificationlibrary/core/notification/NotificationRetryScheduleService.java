@@ -50,11 +50,23 @@ class NotificationRetryScheduleService {
       return false;
     }
 
-    Duration nextRetryOffset = getNextRetryOffsetDuration(notification);
+    return isCurrentTimeOnOrAfter(getNextRetryTime(notification));
+  }
 
-    Instant nextRetryTime = notification.getLastSendAttemptAt().plus(nextRetryOffset);
+  /**
+   * Get when the provided notification should next be retried, see {@link #hasReachedNextRetryTime(Notification)}.
+   * This is stored on the notification when it fails so notifications which are not due a retry are not taken from
+   * the queue.
+   * @param notification The notification which has failed
+   * @return when the notification should next be retried
+   */
+  Instant getNextRetryTime(Notification notification) {
+
+    var lastSendAttemptAt = Optional.ofNullable(notification.getLastSendAttemptAt()).orElse(clock.instant());
+
+    Duration nextRetryOffset = getNextRetryOffsetDuration(notification);
 
-    return isCurrentTimeOnOrAfter(nextRetryTime);
+    return lastSendAttemptAt.plus(nextRetryOffset);
   }
 
   Duration getNextRetryOffsetDuration(Notification notification) {
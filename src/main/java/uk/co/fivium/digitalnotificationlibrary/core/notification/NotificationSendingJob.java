@@ -0,0 +1,13 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+/**
+ * The scheduled job sending queued notifications to GOV.UK notify. Calling the job outside its schedule goes through
+ * the same coordination between nodes as the scheduled runs.
+ */
+interface NotificationSendingJob {
+
+  /**
+   * Run a single iteration of the sending job.
+   */
+  void sendNotifications();
+}
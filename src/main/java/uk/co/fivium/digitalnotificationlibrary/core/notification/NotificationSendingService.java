@@ -2,6 +2,7 @@ package uk.co.fivium.digitalnotificationlibrary.core.notification;
 
 import java.time.Clock;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import org.apache.commons.collections4.CollectionUtils;
@@ -9,10 +10,7 @@ import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.support.TransactionTemplate;
 import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
 import uk.gov.service.notify.NotificationClient;
 import uk.gov.service.notify.NotificationClientException;
@@ -26,9 +24,7 @@ class NotificationSendingService {
 
   private static final String NOTIFICATION_FAILURE_REASON_MESSAGE_FORMAT = "%s - GOV.UK Notify exception %s";
 
-  private final TransactionTemplate transactionTemplate;
-
-  private final NotificationLibraryNotificationRepository notificationRepository;
+  private final NotificationBatchPersistenceService notificationBatchPersistenceService;
 
   private final GovukNotifySender govukNotifySender;
 
@@ -38,76 +34,165 @@ class NotificationSendingService {
 
   private final NotificationLibraryEmailAttachmentResolver emailAttachmentResolver;
 
+  private final NotificationSendingWorkerPool notificationSendingWorkerPool;
+
+  private final NotificationDequeueService notificationDequeueService;
+
+  private final GovukNotifyRateLimiter govukNotifyRateLimiter;
+
+  private final NotificationStatusCheckScheduleService notificationStatusCheckScheduleService;
+
+  private final NotificationRetryScheduleService notificationRetryScheduleService;
+
   @Autowired
-  NotificationSendingService(PlatformTransactionManager transactionManager,
-                             NotificationLibraryNotificationRepository notificationRepository,
+  NotificationSendingService(NotificationBatchPersistenceService notificationBatchPersistenceService,
                              GovukNotifySender govukNotifySender,
                              NotificationLibraryConfigurationProperties libraryConfigurationProperties,
                              Clock clock,
-                             NotificationLibraryEmailAttachmentResolver emailAttachmentResolver) {
-    this.transactionTemplate = new TransactionTemplate(transactionManager);
-    this.notificationRepository = notificationRepository;
+                             NotificationLibraryEmailAttachmentResolver emailAttachmentResolver,
+                             NotificationSendingWorkerPool notificationSendingWorkerPool,
+                             NotificationDequeueService notificationDequeueService,
+                             GovukNotifyRateLimiter govukNotifyRateLimiter,
+                             NotificationStatusCheckScheduleService notificationStatusCheckScheduleService,
+                             NotificationRetryScheduleService notificationRetryScheduleService) {
+    this.notificationBatchPersistenceService = notificationBatchPersistenceService;
     this.govukNotifySender = govukNotifySender;
     this.libraryConfigurationProperties = libraryConfigurationProperties;
     this.clock = clock;
     this.emailAttachmentResolver = emailAttachmentResolver;
+    this.notificationSendingWorkerPool = notificationSendingWorkerPool;
+    this.notificationDequeueService = notificationDequeueService;
+    this.govukNotifyRateLimiter = govukNotifyRateLimiter;
+    this.notificationStatusCheckScheduleService = notificationStatusCheckScheduleService;
+    this.notificationRetryScheduleService = notificationRetryScheduleService;
   }
 
-  void sendNotificationsToNotify() {
+  /**
+   * Send queued notifications to GOV.UK notify. This is done in three stages so no database connection is held while
+   * waiting on GOV.UK notify:
+   * <ol>
+   *   <li>a short transaction claims a batch of notifications and marks them as being sent</li>
+   *   <li>the notifications are sent to GOV.UK notify outside any transaction</li>
+   *   <li>the outcome of each send is recorded in batches, see {@link NotificationBatchPersistenceService}</li>
+   * </ol>
+   * @return the number of notifications which were taken from the queue to send
+   */
+  int sendNotificationsToNotify() {
 
     LOGGER.debug(
         "Polling notifications with statuses [{}, {}] to send to notify",
         NotificationStatus.QUEUED, NotificationStatus.RETRY
     );
 
-    var bulkRetrievalLimit = libraryConfigurationProperties.getBulkRetrievalLimit();
+    var bulkRetrievalLimit = libraryConfigurationProperties.getSendingBulkRetrievalLimit();
 
-    List<Notification> notificationsToSend = notificationRepository.findNotificationsByStatuses(
+    List<Notification> notificationsToSend = notificationDequeueService.claimNotifications(
         Set.of(NotificationStatus.QUEUED, NotificationStatus.RETRY),
-        PageRequest.of(0, bulkRetrievalLimit)
+        bulkRetrievalLimit,
+        this::markAsSendingToNotify
     );
 
-    notificationsToSend.forEach(notificationToSend ->
-        transactionTemplate.executeWithoutResult(status -> {
-          var notification = addFileAttachmentsAsMailMergeFields(notificationToSend);
-          if (Set.of(NotificationStatus.QUEUED, NotificationStatus.RETRY).contains(notification.getStatus())) {
-            sendNotification(notification);
-          }
-          notificationRepository.save(notification);
-        })
+    if (notificationsToSend.isEmpty()) {
+      return 0;
+    }
+
+    notificationSendingWorkerPool.execute(notificationsToSend, this::attemptToSendNotification);
+
+    notificationBatchPersistenceService.saveNotifications(notificationsToSend);
+
+    return notificationsToSend.size();
+  }
+
+  /**
+   * Send a single queued notification to GOV.UK notify straight away, rather than waiting for it to be taken from the
+   * queue. The notification is claimed and its outcome recorded in the same way as {@link #sendNotificationsToNotify()},
+   * so it is never sent twice. If the notification has already been claimed, for example by the sending job, nothing
+   * is sent.
+   * @param notificationId The ID of the notification to send
+   */
+  void sendNotificationToNotify(UUID notificationId) {
+
+    var notificationToSend = notificationDequeueService.claimNotification(
+        notificationId,
+        Set.of(NotificationStatus.QUEUED),
+        this::markAsSendingToNotify
     );
+
+    notificationToSend.ifPresent(notification -> {
+      attemptToSendNotification(notification);
+      notificationBatchPersistenceService.saveNotifications(List.of(notification));
+    });
+  }
+
+  private void markAsSendingToNotify(Notification notification) {
+
+    if (NotificationStatus.RETRY.equals(notification.getStatus())) {
+      notification.setRetryCount(notification.getRetryCount() + 1);
+    }
+
+    notification.setLastSendAttemptAt(clock.instant());
+    notification.setNextAttemptAt(null);
+    notification.setStatus(NotificationStatus.SENDING_TO_NOTIFY);
   }
 
-  private Notification addFileAttachmentsAsMailMergeFields(Notification notification) {
-    if (CollectionUtils.isNotEmpty(notification.getFileAttachments())
-        && NotificationStatus.QUEUED.equals(notification.getStatus())) {
+  private void attemptToSendNotification(Notification notification) {
+    try {
+      addFileAttachmentsAsMailMergeFields(notification);
+      if (NotificationStatus.SENDING_TO_NOTIFY.equals(notification.getStatus())) {
+        sendNotification(notification);
+      }
+    } catch (RuntimeException exception) {
+      // the outcome of every notification in the batch must be recorded, so unexpected errors are treated the same
+      // as a failed request to GOV.UK notify which will be retried
+      LOGGER.error("Unexpected error when sending notification with ID {} to notify", notification.getId(), exception);
+      handleErrorResponse(
+          notification,
+          new Response.ErrorResponse(HttpStatus.SC_INTERNAL_SERVER_ERROR, exception.getMessage())
+      );
+    }
+  }
+
+  private void addFileAttachmentsAsMailMergeFields(Notification notification) {
+    if (CollectionUtils.isNotEmpty(notification.getFileAttachments())) {
+
+      var mailMergeFields = notification.getMailMergeFields();
+      var isFileResolved = false;
 
       for (FileAttachment fileAttachment : notification.getFileAttachments()) {
-        byte[] fileContents;
+
+        // files resolved on a previous send attempt are already stored as mail merge fields
+        var isAlreadyResolved = mailMergeFields.stream()
+            .anyMatch(mailMergeField -> mailMergeField.name().equals(fileAttachment.key()));
+
+        if (isAlreadyResolved) {
+          continue;
+        }
+
         try {
-          fileContents = emailAttachmentResolver.resolveFileAttachment(fileAttachment.fileId());
-          var mailMergeFields = notification.getMailMergeFields();
+          byte[] fileContents = emailAttachmentResolver.resolveFileAttachment(fileAttachment.fileId());
+          // stored as a plain map so the file reads back the same from the JSON column or the compressed payload
           var fileMailMergeField = new MailMergeField(
               fileAttachment.key(),
-              NotificationClient.prepareUpload(fileContents, fileAttachment.fileName())
+              NotificationClient.prepareUpload(fileContents, fileAttachment.fileName()).toMap()
           );
           mailMergeFields.add(fileMailMergeField);
+          isFileResolved = true;
 
         } catch (NotificationClientException e) {
           handleFileErrorResponse(notification, new Response.ErrorResponse(e.getHttpResult(), e.getMessage()));
         }
       }
+
+      if (isFileResolved) {
+        // the fields of a compressed notification are decoded copies, so the payload is written again to store them
+        notification.updateCompressedPayload();
+      }
     }
-    return notification;
   }
 
   private void sendNotification(Notification notification) {
 
-    if (NotificationStatus.RETRY.equals(notification.getStatus())) {
-      notification.setRetryCount(notification.getRetryCount() + 1);
-    }
-
-    notification.setLastSendAttemptAt(clock.instant());
+    govukNotifyRateLimiter.acquire();
 
     switch (notification.getType()) {
       case EMAIL -> {
@@ -138,6 +223,11 @@ class NotificationSendingService {
     NotificationStatus notificationStatus;
     String failureReason;
 
+    if (isTooManyRequestsResponse(response)) {
+      handleRateLimitedResponse(notification, response);
+      return;
+    }
+
     if (isForbiddenResponse(response)) {
 
       notificationStatus = NotificationStatus.FAILED_NOT_SENT;
@@ -178,6 +268,7 @@ class NotificationSendingService {
     notification.setFailureReason(failureReason);
     notification.setNotifyNotificationId(null);
     notification.setLastFailedAt(clock.instant());
+    setNextAttemptAt(notification);
   }
 
   private void handleFileErrorResponse(Notification notification, Response.ErrorResponse response) {
@@ -223,14 +314,54 @@ class NotificationSendingService {
     notification.setFailureReason(failureReason);
     notification.setNotifyNotificationId(null);
     notification.setLastFailedAt(clock.instant());
+    setNextAttemptAt(notification);
+  }
+
+  private void handleRateLimitedResponse(Notification notification, Response.ErrorResponse response) {
+
+    govukNotifyRateLimiter.onRateLimited();
+
+    var errorMessage = ("Rate limited with 429 response from GOV.UK Notify when sending notification " +
+        "with ID %s to notify. Library will resend the notification.")
+        .formatted(notification.getId());
+
+    LOGGER.info(errorMessage);
+
+    // GOV.UK notify rejected the request without processing it, so the notification goes back on the queue as it was
+    // rather than counting as a failed attempt and waiting for its next retry time
+    var retryCount = Optional.ofNullable(notification.getRetryCount()).orElse(0);
+
+    if (retryCount > 0) {
+      notification.setRetryCount(retryCount - 1);
+      notification.setStatus(NotificationStatus.RETRY);
+    } else {
+      notification.setStatus(NotificationStatus.QUEUED);
+    }
+
+    notification.setFailureReason(NOTIFICATION_FAILURE_REASON_MESSAGE_FORMAT.formatted(errorMessage, response.message()));
+    notification.setNotifyNotificationId(null);
   }
 
   private void setPropertiesForSentToGovukNotify(Notification notification, UUID notifyNotificationId) {
     notification.setStatus(NotificationStatus.SENT_TO_NOTIFY);
     notification.setNotifyNotificationId(String.valueOf(notifyNotificationId));
+    notification.setNextStatusCheckAt(notificationStatusCheckScheduleService.getNextStatusCheckAt(notification));
     LOGGER.debug("Sent notification with ID {} to notify", notification.getId());
   }
 
+  private void setNextAttemptAt(Notification notification) {
+    // the status update job only takes failed notifications from the queue once they are due to be retried
+    notification.setNextAttemptAt(
+        NotificationStatus.FAILED_TO_SEND_TO_NOTIFY.equals(notification.getStatus())
+            ? notificationRetryScheduleService.getNextRetryTime(notification)
+            : null
+    );
+  }
+
+  private boolean isTooManyRequestsResponse(Response.ErrorResponse response) {
+    return response.httpStatus() == HttpStatus.SC_TOO_MANY_REQUESTS;
+  }
+
   private boolean isForbiddenResponse(Response.ErrorResponse response) {
     return response.httpStatus() == HttpStatus.SC_FORBIDDEN;
   }
@@ -0,0 +1,179 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+/**
+ * A bounded pool of workers used to send notifications to GOV.UK notify. When the configured send concurrency is 1
+ * work is carried out sequentially on the calling thread. Otherwise, work is spread across a fixed number of workers
+ * which are backed by virtual threads when running on Java 21 or above and platform threads otherwise.
+ */
+@Component
+class NotificationSendingWorkerPool implements DisposableBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationSendingWorkerPool.class);
+
+  private static final String THREAD_NAME_PREFIX = "notification-library-sender-";
+
+  private static final String METRIC_PREFIX = "notification.library.sending.workers";
+
+  private final int concurrency;
+
+  private final ThreadPoolExecutor executor;
+
+  private final Timer taskTimer;
+
+  @Autowired
+  NotificationSendingWorkerPool(NotificationLibraryConfigurationProperties libraryConfigurationProperties,
+                                ObjectProvider<MeterRegistry> meterRegistryProvider) {
+    this(libraryConfigurationProperties, meterRegistryProvider.getIfAvailable(() -> Metrics.globalRegistry));
+  }
+
+  NotificationSendingWorkerPool(NotificationLibraryConfigurationProperties libraryConfigurationProperties,
+                                MeterRegistry meterRegistry) {
+    this.concurrency = libraryConfigurationProperties.getSendConcurrency();
+
+    this.executor = concurrency > 1
+        ? new ThreadPoolExecutor(
+            concurrency,
+            concurrency,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            createThreadFactory()
+        )
+        : null;
+
+    this.taskTimer = Timer.builder(METRIC_PREFIX + ".task")
+        .description("Time taken for a worker to send a single notification to GOV.UK notify")
+        .register(meterRegistry);
+
+    Gauge.builder(METRIC_PREFIX + ".size", this, pool -> pool.concurrency)
+        .description("The maximum number of notifications which can be sent to GOV.UK notify at the same time")
+        .register(meterRegistry);
+
+    Gauge.builder(METRIC_PREFIX + ".active", this, NotificationSendingWorkerPool::getActiveWorkerCount)
+        .description("The number of workers currently sending a notification to GOV.UK notify")
+        .register(meterRegistry);
+
+    Gauge.builder(METRIC_PREFIX + ".queued", this, NotificationSendingWorkerPool::getQueuedTaskCount)
+        .description("The number of notifications waiting for a free worker")
+        .register(meterRegistry);
+
+    Gauge.builder(METRIC_PREFIX + ".utilisation", this, pool -> pool.getActiveWorkerCount() / pool.concurrency)
+        .description("The proportion of workers currently sending a notification to GOV.UK notify")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Carry out the provided task for each of the provided items. This method will not return until the task has
+   * completed for every item. If the task fails for any item the remaining items will still be processed and the
+   * first failure will be thrown once all items have completed.
+   * @param items The items to carry out the task for
+   * @param task The task to carry out for each item
+   * @param <T> The type of items being processed
+   */
+  <T> void execute(Collection<T> items, Consumer<T> task) {
+
+    if (executor == null) {
+      items.forEach(item -> taskTimer.record(() -> task.accept(item)));
+      return;
+    }
+
+    List<Future<?>> futures = items.stream()
+        .<Future<?>>map(item -> executor.submit(() -> taskTimer.record(() -> task.accept(item))))
+        .toList();
+
+    RuntimeException failure = null;
+
+    for (Future<?> future : futures) {
+      try {
+        future.get();
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        futures.forEach(futureToCancel -> futureToCancel.cancel(true));
+        throw new IllegalStateException("Interrupted while waiting for notifications to be sent", exception);
+      } catch (ExecutionException exception) {
+        var cause = exception.getCause() instanceof RuntimeException runtimeException
+            ? runtimeException
+            : new IllegalStateException(exception.getCause());
+
+        if (failure == null) {
+          failure = cause;
+        } else {
+          failure.addSuppressed(cause);
+        }
+      }
+    }
+
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  int getConcurrency() {
+    return concurrency;
+  }
+
+  double getActiveWorkerCount() {
+    return executor != null ? executor.getActiveCount() : 0;
+  }
+
+  double getQueuedTaskCount() {
+    return executor != null ? executor.getQueue().size() : 0;
+  }
+
+  @Override
+  public void destroy() throws InterruptedException {
+    if (executor != null) {
+      executor.shutdown();
+      if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+        LOGGER.warn("Notification sending workers did not finish within 30 seconds of shutdown being requested");
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Virtual threads are only available from Java 21 and the library is compiled against Java 17, so the virtual
+   * thread builder is looked up reflectively. If it isn't available we fall back to daemon platform threads.
+   * @return a factory for the threads backing the workers
+   */
+  private static ThreadFactory createThreadFactory() {
+    try {
+      var threadBuilderClass = Class.forName("java.lang.Thread$Builder");
+      var threadBuilder = Thread.class.getMethod("ofVirtual").invoke(null);
+      threadBuilder = threadBuilderClass.getMethod("name", String.class, long.class)
+          .invoke(threadBuilder, THREAD_NAME_PREFIX, 0L);
+      LOGGER.info("Notification sending workers will use virtual threads");
+      return (ThreadFactory) threadBuilderClass.getMethod("factory").invoke(threadBuilder);
+    } catch (ReflectiveOperationException | UnsupportedOperationException exception) {
+      LOGGER.info("Virtual threads are not available so notification sending workers will use platform threads");
+      var threadCount = new AtomicLong();
+      return runnable -> {
+        var thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+      };
+    }
+  }
+}
@@ -2,6 +2,7 @@ package uk.co.fivium.digitalnotificationlibrary.core.notification;
 
 enum NotificationStatus {
   QUEUED,
+  SENDING_TO_NOTIFY,
   SENT_TO_NOTIFY,
   SENT,
   RETRY,
@@ -0,0 +1,71 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Decides when the status of a notification sent to GOV.UK notify should next be checked. Most notifications are
+ * delivered within seconds of being sent, so they are checked frequently at first. Notifications which have been
+ * waiting longer are checked less and less often, so notifications stuck in GOV.UK notify don't cause a request and a
+ * database write on every iteration of the status update job.
+ */
+@Service
+class NotificationStatusCheckScheduleService {
+
+  /**
+   * The delay between status checks keyed by how long ago the notification was sent to GOV.UK notify.
+   */
+  static final NavigableMap<Duration, Duration> STATUS_CHECK_DELAYS = new TreeMap<>(Map.of(
+      Duration.ZERO, Duration.ofSeconds(5),
+      Duration.ofMinutes(1), Duration.ofSeconds(15),
+      Duration.ofMinutes(5), Duration.ofMinutes(1),
+      Duration.ofMinutes(30), Duration.ofMinutes(5),
+      Duration.ofHours(2), Duration.ofMinutes(30)
+  ));
+
+  // a pending notification has been handed to the phone network or email provider and GOV.UK notify is waiting for
+  // them to confirm delivery, which can take some time
+  static final Duration MINIMUM_PENDING_STATUS_CHECK_DELAY = Duration.ofMinutes(1);
+
+  private final Clock clock;
+
+  @Autowired
+  NotificationStatusCheckScheduleService(Clock clock) {
+    this.clock = clock;
+  }
+
+  /**
+   * Get when the status of the provided notification should next be checked, based on how long ago it was sent to
+   * GOV.UK notify and its current status in GOV.UK notify.
+   * @param notification The notification sent to GOV.UK notify
+   * @return when the status of the notification should next be checked
+   */
+  Instant getNextStatusCheckAt(Notification notification) {
+
+    var now = clock.instant();
+
+    var sentToNotifyAt = Optional.ofNullable(notification.getLastSendAttemptAt()).orElse(now);
+    var timeSinceSentToNotify = Duration.between(sentToNotifyAt, now);
+
+    var statusCheckDelay = Optional.ofNullable(STATUS_CHECK_DELAYS.floorEntry(timeSinceSentToNotify))
+        .map(Map.Entry::getValue)
+        .orElse(STATUS_CHECK_DELAYS.firstEntry().getValue());
+
+    var isPending = GovukNotifyNotificationStatus.fromNotifyStatus(notification.getNotifyStatus())
+        .filter(GovukNotifyNotificationStatus.PENDING::equals)
+        .isPresent();
+
+    if (isPending && statusCheckDelay.compareTo(MINIMUM_PENDING_STATUS_CHECK_DELAY) < 0) {
+      statusCheckDelay = MINIMUM_PENDING_STATUS_CHECK_DELAY;
+    }
+
+    return now.plus(statusCheckDelay);
+  }
+}
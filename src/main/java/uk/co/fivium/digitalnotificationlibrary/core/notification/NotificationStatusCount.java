@@ -0,0 +1,9 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+/**
+ * The number of notifications with a status.
+ * @param status The status of the notifications
+ * @param count The number of notifications with the status
+ */
+record NotificationStatusCount(NotificationStatus status, Long count) {
+}
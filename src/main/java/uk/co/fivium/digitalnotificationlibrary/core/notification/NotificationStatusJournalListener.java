@@ -0,0 +1,97 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+/**
+ * Records a status transition each time a notification is created or its status changes, when the journal audit
+ * strategy is used. Each transition is a single narrow row, rather than the copy of the whole notification written by
+ * Envers, and saves which only change when the status is next checked don't write anything.
+ */
+class NotificationStatusJournalListener implements PostInsertEventListener, PostUpdateEventListener {
+
+  private static final String STATUS_PROPERTY = "status";
+
+  private static final String FAILURE_REASON_PROPERTY = "failureReason";
+
+  private final Clock clock;
+
+  NotificationStatusJournalListener(Clock clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    if (isNotification(event.getPersister())) {
+      getTransition(event.getPersister(), (UUID) event.getId(), null, event.getState())
+          .ifPresent(transition -> record(event.getSession(), transition));
+    }
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    if (isNotification(event.getPersister())) {
+      getTransition(event.getPersister(), (UUID) event.getId(), event.getOldState(), event.getState())
+          .ifPresent(transition -> record(event.getSession(), transition));
+    }
+  }
+
+  @Override
+  public boolean requiresPostCommitHandling(EntityPersister persister) {
+    return false;
+  }
+
+  /**
+   * Get the status transition made by a change to a notification, if its status changed.
+   * @param persister The persister of the notification
+   * @param notificationId The ID of the notification
+   * @param oldState The property values of the notification before the change, or null if it was just created
+   * @param state The property values of the notification after the change
+   * @return the status transition, or empty if the status didn't change
+   */
+  Optional<NotificationStatusTransition> getTransition(EntityPersister persister,
+                                                       UUID notificationId,
+                                                       Object[] oldState,
+                                                       Object[] state) {
+
+    var propertyNames = Arrays.asList(persister.getPropertyNames());
+    var statusIndex = propertyNames.indexOf(STATUS_PROPERTY);
+
+    var fromStatus = oldState != null ? (NotificationStatus) oldState[statusIndex] : null;
+    var toStatus = (NotificationStatus) state[statusIndex];
+
+    if (Objects.equals(fromStatus, toStatus)) {
+      return Optional.empty();
+    }
+
+    return Optional.of(new NotificationStatusTransition(
+        notificationId,
+        fromStatus,
+        toStatus,
+        clock.instant(),
+        (String) state[propertyNames.indexOf(FAILURE_REASON_PROPERTY)]
+    ));
+  }
+
+  static boolean isNotification(EntityPersister persister) {
+    return Notification.class.equals(persister.getMappedClass());
+  }
+
+  private void record(EventSource session, NotificationStatusTransition transition) {
+    // the transition is written straight away on the connection of the session, so it is committed or rolled back
+    // with the change to the notification without being flushed with the rest of the session
+    var connection = session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection();
+    try (var journalSession = session.getFactory().withStatelessOptions().connection(connection).openStatelessSession()) {
+      journalSession.insert(transition);
+    }
+  }
+}
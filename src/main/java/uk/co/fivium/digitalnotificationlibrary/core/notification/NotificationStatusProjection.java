@@ -0,0 +1,59 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The columns of a notification the status update job needs, read without the mail merge fields and file attachments
+ * so refreshing the status of a notification never reads or deserialises its content.
+ * @param id The ID of the notification
+ * @param status The name of the status of the notification
+ * @param notifyNotificationId The GOV.UK notify ID of the notification
+ * @param notifyStatus The status of the notification in GOV.UK notify
+ * @param notifyStatusLastUpdatedAt When the GOV.UK notify status was last updated
+ * @param requestedOn When the notification was requested
+ * @param sentAt When GOV.UK notify sent the notification
+ * @param failureReason Why the notification last failed
+ * @param lastFailedAt When the notification last failed
+ * @param retryCount The number of times the notification has been retried
+ * @param lastSendAttemptAt When the notification was last sent to GOV.UK notify
+ * @param nextStatusCheckAt When the status of the notification is next due to be checked
+ * @param nextAttemptAt When the notification is next due to be retried
+ */
+record NotificationStatusProjection(UUID id,
+                                    String status,
+                                    String notifyNotificationId,
+                                    String notifyStatus,
+                                    Instant notifyStatusLastUpdatedAt,
+                                    Instant requestedOn,
+                                    Instant sentAt,
+                                    String failureReason,
+                                    Instant lastFailedAt,
+                                    Integer retryCount,
+                                    Instant lastSendAttemptAt,
+                                    Instant nextStatusCheckAt,
+                                    Instant nextAttemptAt) {
+
+  /**
+   * Create a status-only copy of the notification. The copy is never managed by the persistence context and must only
+   * be saved using {@link NotificationBatchPersistenceService#saveNotificationStatuses}.
+   * @return a notification holding only the columns of this projection
+   */
+  Notification toNotification() {
+    var notification = new Notification(id);
+    notification.setStatus(NotificationStatus.valueOf(status));
+    notification.setClaimedStatus(NotificationStatus.valueOf(status));
+    notification.setNotifyNotificationId(notifyNotificationId);
+    notification.setNotifyStatus(notifyStatus);
+    notification.setNotifyStatusLastUpdatedAt(notifyStatusLastUpdatedAt);
+    notification.setRequestedOn(requestedOn);
+    notification.setSentAt(sentAt);
+    notification.setFailureReason(failureReason);
+    notification.setLastFailedAt(lastFailedAt);
+    notification.setRetryCount(retryCount);
+    notification.setLastSendAttemptAt(lastSendAttemptAt);
+    notification.setNextStatusCheckAt(nextStatusCheckAt);
+    notification.setNextAttemptAt(nextAttemptAt);
+    return notification;
+  }
+}
@@ -0,0 +1,79 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * An entry in the append-only journal of notification status changes, written instead of an Envers audit row when the
+ * journal audit strategy is used.
+ */
+@Entity
+@Immutable
+@Table(name = "notification_library_status_transitions")
+class NotificationStatusTransition {
+
+  @Id
+  @JdbcTypeCode(SqlTypes.UUID)
+  private UUID id;
+
+  @JdbcTypeCode(SqlTypes.UUID)
+  private UUID notificationId;
+
+  @Enumerated(EnumType.STRING)
+  private NotificationStatus fromStatus;
+
+  @Enumerated(EnumType.STRING)
+  private NotificationStatus toStatus;
+
+  private Instant transitionedAt;
+
+  private String reason;
+
+  protected NotificationStatusTransition() {
+  }
+
+  NotificationStatusTransition(UUID notificationId,
+                               NotificationStatus fromStatus,
+                               NotificationStatus toStatus,
+                               Instant transitionedAt,
+                               String reason) {
+    this.id = TimeOrderedUuidGenerator.generateUuid();
+    this.notificationId = notificationId;
+    this.fromStatus = fromStatus;
+    this.toStatus = toStatus;
+    this.transitionedAt = transitionedAt;
+    this.reason = reason;
+  }
+
+  UUID getId() {
+    return id;
+  }
+
+  UUID getNotificationId() {
+    return notificationId;
+  }
+
+  NotificationStatus getFromStatus() {
+    return fromStatus;
+  }
+
+  NotificationStatus getToStatus() {
+    return toStatus;
+  }
+
+  Instant getTransitionedAt() {
+    return transitionedAt;
+  }
+
+  String getReason() {
+    return reason;
+  }
+}
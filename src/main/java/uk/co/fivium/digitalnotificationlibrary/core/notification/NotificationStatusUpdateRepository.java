@@ -0,0 +1,22 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.util.List;
+
+/**
+ * Repository fragment for writing the outcome of updating the status of notifications without loading them.
+ */
+interface NotificationStatusUpdateRepository {
+
+  /**
+   * Write the outcome of updating the status of each of the provided status-only copies of notifications and release
+   * this node's claim on them, without loading the notifications. Only the columns the status update job changes are
+   * written, so the mail merge fields and file attachments are never read, and every update is sent to the database in
+   * a single JDBC batch. Nothing is written for a notification which is no longer claimed with the claim held by its
+   * status-only copy, as another node has claimed it since this node's claim expired. The updates are not seen by
+   * Envers. Must be called within a transaction.
+   * @param statusUpdates The status-only copies of the notifications holding the outcome of the status update
+   * @return the status-only copies of the notifications which were updated, leaving out those which no longer exist or
+   *         are no longer claimed by this node
+   */
+  List<Notification> updateNotificationStatuses(List<Notification> statusUpdates);
+}
@@ -0,0 +1,123 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import jakarta.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.metamodel.mapping.BasicValuedModelPart;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+
+class NotificationStatusUpdateRepositoryImpl implements NotificationStatusUpdateRepository {
+
+  // the status columns written by the update, in the order they are bound. Each column name and value is taken from
+  // Hibernate's mapping of the attribute, so they are written the same as when a notification is saved.
+  private static final List<BoundAttribute> STATUS_ATTRIBUTES = List.of(
+      new BoundAttribute("status", Notification::getStatus),
+      new BoundAttribute("notifyNotificationId", Notification::getNotifyNotificationId),
+      new BoundAttribute("notifyStatus", Notification::getNotifyStatus),
+      new BoundAttribute("notifyStatusLastUpdatedAt", Notification::getNotifyStatusLastUpdatedAt),
+      new BoundAttribute("sentAt", Notification::getSentAt),
+      new BoundAttribute("failureReason", Notification::getFailureReason),
+      new BoundAttribute("lastFailedAt", Notification::getLastFailedAt),
+      new BoundAttribute("nextStatusCheckAt", Notification::getNextStatusCheckAt),
+      new BoundAttribute("nextAttemptAt", Notification::getNextAttemptAt)
+  );
+
+  private static final BoundAttribute ID_ATTRIBUTE = new BoundAttribute("id", Notification::getId);
+
+  private static final BoundAttribute CLAIMED_UNTIL_ATTRIBUTE =
+      new BoundAttribute("claimedUntil", Notification::getClaimedUntil);
+
+  private final EntityManager entityManager;
+
+  @Autowired
+  NotificationStatusUpdateRepositoryImpl(EntityManager entityManager) {
+    this.entityManager = entityManager;
+  }
+
+  @Override
+  public List<Notification> updateNotificationStatuses(List<Notification> statusUpdates) {
+
+    if (statusUpdates.isEmpty()) {
+      return List.of();
+    }
+
+    var session = entityManager.unwrap(SessionImplementor.class);
+    var persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Notification.class);
+
+    List<BoundAttribute> boundAttributes = new ArrayList<>(STATUS_ATTRIBUTES);
+    boundAttributes.add(ID_ATTRIBUTE);
+    boundAttributes.add(CLAIMED_UNTIL_ATTRIBUTE);
+
+    var modelParts = boundAttributes.stream()
+        .map(boundAttribute -> (BasicValuedModelPart) persister.findSubPart(boundAttribute.name(), null))
+        .toList();
+
+    int[] updateCounts = session.doReturningWork(connection -> {
+      try (var statement = connection.prepareStatement(getUpdateStatusQuery(persister, modelParts))) {
+
+        for (var statusUpdate : statusUpdates) {
+          for (var index = 0; index < boundAttributes.size(); index++) {
+            bind(statement, index + 1, modelParts.get(index), boundAttributes.get(index).value().apply(statusUpdate));
+          }
+          statement.addBatch();
+        }
+
+        return statement.executeBatch();
+      }
+    });
+
+    List<Notification> updatedStatuses = new ArrayList<>();
+
+    // each update matches at most one row, so a count of 0 means the notification was deleted or claimed by another
+    // node. PostgreSQL and Oracle both report the count of each update in a batch.
+    for (var index = 0; index < statusUpdates.size(); index++) {
+      if (updateCounts[index] != 0) {
+        updatedStatuses.add(statusUpdates.get(index));
+      }
+    }
+
+    return updatedStatuses;
+  }
+
+  private String getUpdateStatusQuery(EntityPersister persister, List<BasicValuedModelPart> modelParts) {
+
+    var statusColumns = modelParts.subList(0, STATUS_ATTRIBUTES.size()).stream()
+        .map(modelPart -> modelPart.getSelectionExpression() + " = ?")
+        .collect(Collectors.joining(", "));
+
+    var idColumn = modelParts.get(STATUS_ATTRIBUTES.size()).getSelectionExpression();
+    var claimedUntilColumn = modelParts.get(STATUS_ATTRIBUTES.size() + 1).getSelectionExpression();
+
+    return "UPDATE %s SET %s, %s = NULL WHERE %s = ? AND %s = ?".formatted(
+        persister.getMappedTableDetails().getTableName(),
+        statusColumns,
+        claimedUntilColumn,
+        idColumn,
+        claimedUntilColumn
+    );
+  }
+
+  @SuppressWarnings("unchecked")
+  private void bind(PreparedStatement statement,
+                    int index,
+                    BasicValuedModelPart modelPart,
+                    Object value) throws SQLException {
+
+    var jdbcMapping = modelPart.getJdbcMapping();
+    jdbcMapping.getJdbcValueBinder().bind(
+        statement,
+        jdbcMapping.convertToRelationalValue(value),
+        index,
+        entityManager.unwrap(SessionImplementor.class)
+    );
+  }
+
+  private record BoundAttribute(String name, Function<Notification, Object> value) {
+  }
+}
@@ -1,17 +1,22 @@
 package uk.co.fivium.digitalnotificationlibrary.core.notification;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.PlatformTransactionManager;
-import org.springframework.transaction.support.TransactionTemplate;
 import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
 
 @Service
@@ -19,11 +24,12 @@ class NotificationStatusUpdateService {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(NotificationStatusUpdateService.class);
 
-  private final NotificationLibraryNotificationRepository notificationRepository;
+  // allows for the clocks of the library and GOV.UK notify disagreeing when deciding if older pages need to be read
+  static final Duration BULK_STATUS_UPDATE_CLOCK_TOLERANCE = Duration.ofMinutes(5);
 
-  private final NotificationLibraryConfigurationProperties libraryConfigurationProperties;
+  private final NotificationBatchPersistenceService notificationBatchPersistenceService;
 
-  private final TransactionTemplate transactionTemplate;
+  private final NotificationLibraryConfigurationProperties libraryConfigurationProperties;
 
   private final GovukNotifyNotificationService govukNotifyNotificationService;
 
@@ -31,72 +37,246 @@ class NotificationStatusUpdateService {
 
   private final NotificationRetryScheduleService notificationRetryScheduleService;
 
+  private final NotificationDequeueService notificationDequeueService;
+
+  private final GovukNotifyRateLimiter govukNotifyRateLimiter;
+
+  private final NotificationStatusCheckScheduleService notificationStatusCheckScheduleService;
+
   @Autowired
-  NotificationStatusUpdateService(PlatformTransactionManager transactionManager,
-                                  NotificationLibraryNotificationRepository notificationRepository,
+  NotificationStatusUpdateService(NotificationBatchPersistenceService notificationBatchPersistenceService,
                                   NotificationLibraryConfigurationProperties libraryConfigurationProperties,
                                   GovukNotifyNotificationService govukNotifyNotificationService,
                                   Clock clock,
-                                  NotificationRetryScheduleService notificationRetryScheduleService) {
-    this.transactionTemplate = new TransactionTemplate(transactionManager);
-    this.notificationRepository = notificationRepository;
+                                  NotificationRetryScheduleService notificationRetryScheduleService,
+                                  NotificationDequeueService notificationDequeueService,
+                                  GovukNotifyRateLimiter govukNotifyRateLimiter,
+                                  NotificationStatusCheckScheduleService notificationStatusCheckScheduleService) {
+    this.notificationBatchPersistenceService = notificationBatchPersistenceService;
     this.libraryConfigurationProperties = libraryConfigurationProperties;
     this.govukNotifyNotificationService = govukNotifyNotificationService;
     this.clock = clock;
     this.notificationRetryScheduleService = notificationRetryScheduleService;
+    this.notificationDequeueService = notificationDequeueService;
+    this.govukNotifyRateLimiter = govukNotifyRateLimiter;
+    this.notificationStatusCheckScheduleService = notificationStatusCheckScheduleService;
   }
 
+  /**
+   * Update the status of notifications which have been sent to GOV.UK notify or have failed to send. Notifications
+   * are claimed in a short transaction, their status is refreshed from GOV.UK notify outside any transaction and the
+   * updates are recorded in batches. Only the status columns of the notifications are read when they are claimed, so
+   * their mail merge fields and file attachments aren't held in memory while GOV.UK notify is being called.
+   */
   void updateNotificationStatuses() {
 
-    var bulkRetrievalLimit = libraryConfigurationProperties.getBulkRetrievalLimit();
+    var bulkRetrievalLimit = libraryConfigurationProperties.getStatusUpdateBulkRetrievalLimit();
 
-    List<Notification> notificationsToUpdate = notificationRepository.findNotificationsByStatuses(
-        Set.of(NotificationStatus.SENT_TO_NOTIFY, NotificationStatus.FAILED_TO_SEND_TO_NOTIFY),
-        PageRequest.of(0, bulkRetrievalLimit)
+    // each status is claimed separately with a guaranteed share of the batch, so a backlog of notifications waiting
+    // in GOV.UK notify can't stop failed notifications being retried. Notifications being sent are only returned once
+    // their claim has expired, which means the node sending them stopped before it could record the outcome
+    Map<NotificationStatus, Integer> statusWeights = new LinkedHashMap<>();
+    statusWeights.put(
+        NotificationStatus.SENT_TO_NOTIFY,
+        libraryConfigurationProperties.getSentToNotifyStatusUpdateWeight()
+    );
+    statusWeights.put(
+        NotificationStatus.FAILED_TO_SEND_TO_NOTIFY,
+        libraryConfigurationProperties.getFailedToSendStatusUpdateWeight()
     );
+    statusWeights.put(
+        NotificationStatus.SENDING_TO_NOTIFY,
+        libraryConfigurationProperties.getSendingToNotifyStatusUpdateWeight()
+    );
+
+    List<Notification> notificationsToUpdate = notificationDequeueService.claimNotificationStatuses(
+        statusWeights,
+        bulkRetrievalLimit
+    );
+
+    if (notificationsToUpdate.isEmpty()) {
+      return;
+    }
+
+    Map<String, uk.gov.service.notify.Notification> notifyNotifications =
+        libraryConfigurationProperties.isBulkStatusUpdateEnabled()
+            ? getNotifyNotificationsInBulk(notificationsToUpdate)
+            : Map.of();
+
+    notificationsToUpdate.forEach(notification -> {
+      switch (notification.getStatus()) {
+        case SENT_TO_NOTIFY -> refreshNotificationStatus(notification, notifyNotifications);
+        case FAILED_TO_SEND_TO_NOTIFY -> setRetryState(notification);
+        case SENDING_TO_NOTIFY -> handleAbandonedSendAttempt(notification);
+        default -> LOGGER.warn(
+            "Notification with ID {} has status {} which cannot be updated",
+            notification.getId(), notification.getStatus()
+        );
+      }
+    });
+
+    notificationBatchPersistenceService.saveNotificationStatuses(notificationsToUpdate);
+  }
+
+  /**
+   * Page through the notifications recently sent by GOV.UK notify, most recent first, collecting those which match
+   * the notifications sent to GOV.UK notify which are being updated. Paging stops once every notification has been
+   * found, the pages are older than any of the notifications were sent or the maximum number of pages has been read.
+   * @param notifications The notifications being updated
+   * @return the GOV.UK notify notifications found, keyed by their GOV.UK notify notification ID
+   */
+  private Map<String, uk.gov.service.notify.Notification> getNotifyNotificationsInBulk(List<Notification> notifications) {
+
+    var sentToNotifyNotifications = notifications.stream()
+        .filter(notification -> NotificationStatus.SENT_TO_NOTIFY.equals(notification.getStatus()))
+        .filter(notification -> notification.getNotifyNotificationId() != null)
+        .toList();
+
+    if (sentToNotifyNotifications.isEmpty()) {
+      return Map.of();
+    }
+
+    Set<String> notifyNotificationIds = sentToNotifyNotifications.stream()
+        .map(Notification::getNotifyNotificationId)
+        .collect(Collectors.toSet());
+
+    Optional<Instant> oldestSendAttempt = sentToNotifyNotifications.stream()
+        .map(Notification::getLastSendAttemptAt)
+        .filter(Objects::nonNull)
+        .min(Comparator.naturalOrder())
+        .map(lastSendAttemptAt -> lastSendAttemptAt.minus(BULK_STATUS_UPDATE_CLOCK_TOLERANCE));
+
+    Map<String, uk.gov.service.notify.Notification> notifyNotifications = new HashMap<>();
+
+    String olderThanNotifyNotificationId = null;
+    var pagesRead = 0;
+
+    while (pagesRead < libraryConfigurationProperties.getBulkStatusUpdateMaxPages()
+        && notifyNotifications.size() < notifyNotificationIds.size()) {
+
+      govukNotifyRateLimiter.acquire();
+
+      var notifyNotificationListResponse = govukNotifyNotificationService.getNotifications(olderThanNotifyNotificationId);
+      pagesRead++;
+
+      if (notifyNotificationListResponse.isErrorResponse()) {
+
+        var errorResponse = notifyNotificationListResponse.error();
+
+        if (errorResponse.httpStatus() == HttpStatus.SC_TOO_MANY_REQUESTS) {
+          govukNotifyRateLimiter.onRateLimited();
+        }
+
+        // any notifications not found will be requested individually
+        LOGGER.warn(
+            "Failed to get notifications from GOV.UK notify in bulk due to {} status. GOV.UK Notify exception: {}",
+            errorResponse.httpStatus(),
+            errorResponse.message()
+        );
+
+        break;
+      }
+
+      var notifyNotificationsInPage = notifyNotificationListResponse.successResponseObject().getNotifications();
+
+      if (notifyNotificationsInPage.isEmpty()) {
+        break;
+      }
+
+      notifyNotificationsInPage.stream()
+          .filter(notifyNotification -> notifyNotificationIds.contains(notifyNotification.getId().toString()))
+          .forEach(notifyNotification -> notifyNotifications.put(notifyNotification.getId().toString(), notifyNotification));
+
+      var oldestNotifyNotificationInPage = notifyNotificationsInPage.get(notifyNotificationsInPage.size() - 1);
+
+      var isPageOlderThanSendAttempts = oldestSendAttempt
+          .map(oldestNotifyNotificationInPage.getCreatedAt().toInstant()::isBefore)
+          .orElse(false);
+
+      if (isPageOlderThanSendAttempts) {
+        break;
+      }
 
-    notificationsToUpdate.forEach(notification ->
-        transactionTemplate.executeWithoutResult(status -> {
-          if (NotificationStatus.SENT_TO_NOTIFY.equals(notification.getStatus())) {
-            refreshNotificationStatus(notification);
-          } else if (NotificationStatus.FAILED_TO_SEND_TO_NOTIFY.equals(notification.getStatus())) {
-            setRetryState(notification);
-          }
+      olderThanNotifyNotificationId = oldestNotifyNotificationInPage.getId().toString();
+    }
 
-          notificationRepository.save(notification);
-        })
+    LOGGER.debug(
+        "Found {} of {} notifications in {} pages of notifications from GOV.UK notify",
+        notifyNotifications.size(),
+        notifyNotificationIds.size(),
+        pagesRead
     );
+
+    return notifyNotifications;
   }
 
-  private void refreshNotificationStatus(Notification notification) {
+  private void refreshNotificationStatus(Notification notification,
+                                         Map<String, uk.gov.service.notify.Notification> notifyNotifications) {
+
+    // the immutable map of notifications found in bulk can't be searched for a notification without a notify ID
+    var notifyNotificationFromBulk = Optional.ofNullable(notification.getNotifyNotificationId())
+        .map(notifyNotifications::get);
+
+    if (notifyNotificationFromBulk.isPresent()) {
+      applyNotifyNotificationStatus(notification, notifyNotificationFromBulk.get());
+      return;
+    }
+
+    govukNotifyRateLimiter.acquire();
 
-    // Potential performance improvement here to get notifications from notify in bulk. With the current API
-    // client there isn't an easy way to do that. Happy with n request for our use case.
     Response<uk.gov.service.notify.Notification> notifyNotificationResponse =
         govukNotifyNotificationService.getNotification(notification);
 
     if (notifyNotificationResponse.isErrorResponse()) {
       var errorResponse = notifyNotificationResponse.error();
 
+      if (errorResponse.httpStatus() == HttpStatus.SC_TOO_MANY_REQUESTS) {
+        govukNotifyRateLimiter.onRateLimited();
+      }
+
       notification.setFailureReason(
           "Failed to update notification status due to %s status from GOV.UK Notify. GOV.UK Notify exception: %s"
               .formatted(errorResponse.httpStatus(), errorResponse.message())
       );
 
       notification.setLastFailedAt(clock.instant());
+      notification.setNextStatusCheckAt(notificationStatusCheckScheduleService.getNextStatusCheckAt(notification));
 
       return;
     }
 
-    var notifyNotification = notifyNotificationResponse.successResponseObject();
+    applyNotifyNotificationStatus(notification, notifyNotificationResponse.successResponseObject());
+  }
+
+  private void applyNotifyNotificationStatus(Notification notification,
+                                             uk.gov.service.notify.Notification notifyNotification) {
+    applyNotifyStatus(
+        notification,
+        notifyNotification.getStatus(),
+        notifyNotification.getSentAt().map(Instant::from)
+    );
+  }
+
+  /**
+   * Update a notification sent to GOV.UK notify with the status GOV.UK notify has for it.
+   * @param notification The notification to update
+   * @param notifyStatus The status of the notification in GOV.UK notify
+   * @param sentAt When GOV.UK notify sent the notification, if it has been sent
+   */
+  void applyNotifyStatus(Notification notification, String notifyStatus, Optional<Instant> sentAt) {
+
+    // only a change of status is recorded, so checking a notification which is still waiting in GOV.UK notify doesn't
+    // change an audited column and write an audit revision on every check
+    if (!Objects.equals(notification.getNotifyStatus(), notifyStatus)) {
+      notification.setNotifyStatus(notifyStatus);
+      notification.setNotifyStatusLastUpdatedAt(clock.instant());
+    }
 
-    notification.setNotifyStatus(notifyNotification.getStatus());
-    notification.setNotifyStatusLastUpdatedAt(clock.instant());
     notification.setFailureReason(null);
     notification.setLastFailedAt(null);
 
     Optional<GovukNotifyNotificationStatus> notifyNotificationStatus =
-        GovukNotifyNotificationStatus.fromNotifyStatus(notifyNotification.getStatus());
+        GovukNotifyNotificationStatus.fromNotifyStatus(notifyStatus);
 
     if (notifyNotificationStatus.isEmpty()) {
 
@@ -115,13 +295,18 @@ class NotificationStatusUpdateService {
         case TEMPORARY_FAILURE, TECHNICAL_FAILURE -> setRetryState(notification);
         case SENT, DELIVERED -> {
           notification.setStatus(NotificationStatus.SENT);
-          notifyNotification.getSentAt().ifPresent(sentAt ->
-              notification.setSentAt(Instant.from(sentAt))
-          );
+          sentAt.ifPresent(notification::setSentAt);
         }
         case CREATED, PENDING, SENDING -> notification.setStatus(NotificationStatus.SENT_TO_NOTIFY);
       }
     }
+
+    // only notifications still waiting to be delivered by GOV.UK notify need their status checking again
+    notification.setNextStatusCheckAt(
+        NotificationStatus.SENT_TO_NOTIFY.equals(notification.getStatus())
+            ? notificationStatusCheckScheduleService.getNextStatusCheckAt(notification)
+            : null
+    );
   }
 
   private void setAsFailedNotSent(Notification notification, String failureReason) {
@@ -131,12 +316,71 @@ class NotificationStatusUpdateService {
     LOGGER.warn("Notification with ID {} not sent and will not retry due to {}", notification.getId(), failureReason);
   }
 
+  private void handleAbandonedSendAttempt(Notification notification) {
+
+    // the notification may have reached GOV.UK notify before the outcome was lost, so it is looked up by the reference it
+    // was sent with before being sent again
+    govukNotifyRateLimiter.acquire();
+
+    var notifyNotificationsResponse = govukNotifyNotificationService.getNotificationsByReference(
+        GovukNotifySenderService.getReference(notification)
+    );
+
+    if (notifyNotificationsResponse.isErrorResponse()) {
+      var errorResponse = notifyNotificationsResponse.error();
+
+      if (errorResponse.httpStatus() == HttpStatus.SC_TOO_MANY_REQUESTS) {
+        govukNotifyRateLimiter.onRateLimited();
+      }
+
+      // left as being sent to notify and looked up again, as sending it again could send it twice
+      notification.setFailureReason(
+          "Failed to look up notification due to %s status from GOV.UK Notify. GOV.UK Notify exception: %s"
+              .formatted(errorResponse.httpStatus(), errorResponse.message())
+      );
+      notification.setLastFailedAt(clock.instant());
+      notification.setNextStatusCheckAt(notificationStatusCheckScheduleService.getNextStatusCheckAt(notification));
+      return;
+    }
+
+    var notifyNotification = notifyNotificationsResponse.successResponseObject().getNotifications().stream()
+        .findFirst();
+
+    if (notifyNotification.isPresent()) {
+
+      LOGGER.info(
+          "Notification with ID {} was being sent to notify but the outcome was never recorded. Found in notify with ID {}.",
+          notification.getId(),
+          notifyNotification.get().getId()
+      );
+
+      notification.setNotifyNotificationId(String.valueOf(notifyNotification.get().getId()));
+      applyNotifyNotificationStatus(notification, notifyNotification.get());
+      return;
+    }
+
+    // GOV.UK notify has no record of the notification, so it is treated as failing to send which will be retried
+    LOGGER.warn(
+        "Notification with ID {} was being sent to notify but the outcome was never recorded. Library will retry sending.",
+        notification.getId()
+    );
+
+    notification.setStatus(NotificationStatus.FAILED_TO_SEND_TO_NOTIFY);
+    notification.setFailureReason("The outcome of the last attempt to send the notification to GOV.UK Notify was not recorded");
+    setRetryState(notification);
+  }
+
   private void setRetryState(Notification notification) {
     notification.setLastFailedAt(clock.instant());
     if (notificationRetryScheduleService.hasReachedMaxRetryTime(notification)) {
       setAsFailedNotSent(notification, "Maximum retry time since requested on date exceeded");
+      notification.setNextAttemptAt(null);
     } else if (notificationRetryScheduleService.hasReachedNextRetryTime(notification)) {
       notification.setStatus(NotificationStatus.RETRY);
+      notification.setNextAttemptAt(null);
+    } else if (NotificationStatus.FAILED_TO_SEND_TO_NOTIFY.equals(notification.getStatus())) {
+      // failed notifications are not taken from the queue again until they are due to be retried
+      notification.setNextAttemptAt(notificationRetryScheduleService.getNextRetryTime(notification));
     }
   }
 }
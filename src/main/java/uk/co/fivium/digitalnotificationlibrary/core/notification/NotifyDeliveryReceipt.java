@@ -0,0 +1,49 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import org.json.JSONException;
+import org.json.JSONObject;
+import uk.co.fivium.digitalnotificationlibrary.core.DigitalNotificationLibraryException;
+
+/**
+ * A delivery receipt sent by GOV.UK notify to a callback URL when the status of a notification changes.
+ * @param notifyNotificationId The GOV.UK notify ID of the notification
+ * @param reference The reference provided when the notification was sent to GOV.UK notify
+ * @param status The status of the notification in GOV.UK notify
+ * @param sentAt When GOV.UK notify sent the notification, if it has been sent
+ * @param completedAt When the notification reached its current status, if it has finished being sent
+ */
+public record NotifyDeliveryReceipt(String notifyNotificationId,
+                                    String reference,
+                                    String status,
+                                    Instant sentAt,
+                                    Instant completedAt) {
+
+  /**
+   * Create a delivery receipt from the JSON body of a GOV.UK notify delivery receipt callback.
+   * @param json The JSON body of the callback
+   * @return the delivery receipt
+   * @throws DigitalNotificationLibraryException if the JSON is not a valid delivery receipt
+   */
+  public static NotifyDeliveryReceipt fromJson(String json) {
+    try {
+      var receiptJson = new JSONObject(json);
+      return new NotifyDeliveryReceipt(
+          receiptJson.getString("id"),
+          receiptJson.optString("reference", null),
+          receiptJson.getString("status"),
+          getInstant(receiptJson, "sent_at"),
+          getInstant(receiptJson, "completed_at")
+      );
+    } catch (JSONException | DateTimeParseException exception) {
+      throw new DigitalNotificationLibraryException(
+          "Invalid GOV.UK notify delivery receipt: %s".formatted(exception.getMessage())
+      );
+    }
+  }
+
+  private static Instant getInstant(JSONObject receiptJson, String key) {
+    return receiptJson.isNull(key) ? null : Instant.parse(receiptJson.getString(key));
+  }
+}
@@ -0,0 +1,18 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/**
+ * Generates the ID of an entity as a time-ordered version 7 UUID when it is first persisted.
+ */
+@IdGeneratorType(TimeOrderedUuidGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+@interface TimeOrderedUuid {
+}
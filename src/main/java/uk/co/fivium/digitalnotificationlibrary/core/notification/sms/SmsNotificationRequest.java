@@ -0,0 +1,32 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification.sms;
+
+import uk.co.fivium.digitalnotificationlibrary.core.notification.DomainReference;
+import uk.co.fivium.digitalnotificationlibrary.core.notification.MergedTemplate;
+import uk.co.fivium.digitalnotificationlibrary.core.notification.NotificationPriority;
+
+/**
+ * A request to queue one sms notification as part of a bulk send.
+ * @param mergedTemplate The template with mail merge fields to send
+ * @param recipient The recipient of the notification
+ * @param domainReference A reference to the consumers domain concept the notification is for
+ * @param logCorrelationId An identifier for log correlation
+ * @param priority The priority lane the notification is sent from
+ */
+public record SmsNotificationRequest(MergedTemplate mergedTemplate,
+                                     SmsRecipient recipient,
+                                     DomainReference domainReference,
+                                     String logCorrelationId,
+                                     NotificationPriority priority) {
+
+  /**
+   * Create a request to queue an sms notification from the normal priority lane without a log correlation ID.
+   * @param mergedTemplate The template with mail merge fields to send
+   * @param recipient The recipient of the notification
+   * @param domainReference A reference to the consumers domain concept the notification is for
+   */
+  public SmsNotificationRequest(MergedTemplate mergedTemplate,
+                                SmsRecipient recipient,
+                                DomainReference domainReference) {
+    this(mergedTemplate, recipient, domainReference, null, NotificationPriority.NORMAL);
+  }
+}
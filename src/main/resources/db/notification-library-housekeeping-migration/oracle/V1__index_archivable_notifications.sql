@@ -0,0 +1,4 @@
+-- The housekeeping migrations are only run when archiving or retention is enabled, so consumers which don't use either
+-- don't maintain an index for them on every write to the notification table.
+CREATE INDEX nl_notifications_archivable_idx
+ON notification_library_notifications (status, requested_on, id);
@@ -0,0 +1,12 @@
+-- The housekeeping migrations are only run when archiving or retention is enabled, so consumers which don't use either
+-- don't maintain an index for them on every write to the notification table.
+--
+-- The index only has entries for processed notifications, which the archive and retention jobs page through in the
+-- order of when they were requested. Once the jobs have caught up, the number of live entries is only the notifications
+-- processed since the last run, however the entries of moved or deleted notifications are only removed by vacuum.
+--
+-- It is built without blocking writes to the table, which can't be done in a transaction. A failed build leaves an
+-- invalid index behind, which needs to be dropped before the migration is run again.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS notification_library_notifications_archivable_idx
+ON notification_library_notifications (requested_on, id)
+WHERE status IN ('SENT', 'FAILED_NOT_SENT', 'UNEXPECTED_NOTIFY_STATUS');
@@ -0,0 +1,2 @@
+CREATE INDEX nl_notifications_aud_id_idx
+ON notification_library_notifications_aud (id);
@@ -0,0 +1,12 @@
+-- the narrow append-only journal written instead of the Envers audit table when the journal audit strategy is used
+CREATE TABLE notification_library_status_transitions (
+  id RAW(16) PRIMARY KEY,
+  notification_id RAW(16) NOT NULL,
+  from_status VARCHAR2(30),
+  to_status VARCHAR2(30) NOT NULL,
+  transitioned_at TIMESTAMP WITH TIME ZONE NOT NULL,
+  reason VARCHAR2(4000)
+);
+
+CREATE INDEX nl_status_transitions_notification_idx
+ON notification_library_status_transitions (notification_id);
@@ -0,0 +1,2 @@
+ALTER TABLE notification_library_notifications
+ADD claimed_until TIMESTAMP WITH TIME ZONE;
@@ -0,0 +1,10 @@
+CREATE TABLE notification_library_rate_limits (
+  name VARCHAR2(4000) PRIMARY KEY,
+  available_tokens BINARY_DOUBLE NOT NULL,
+  current_requests_per_minute BINARY_DOUBLE,
+  refilled_at TIMESTAMP WITH TIME ZONE NOT NULL,
+  last_rate_limited_at TIMESTAMP WITH TIME ZONE
+);
+
+INSERT INTO notification_library_rate_limits (name, available_tokens, refilled_at)
+VALUES ('govuk-notify', 0, CURRENT_TIMESTAMP);
@@ -0,0 +1,5 @@
+ALTER TABLE notification_library_notifications
+ADD priority VARCHAR2(4000) DEFAULT 'NORMAL' NOT NULL;
+
+ALTER TABLE notification_library_notifications_aud
+ADD priority VARCHAR2(4000);
@@ -0,0 +1,4 @@
+-- not indexed, as notifications are claimed through the queue index in the order they were last sent. The column only
+-- filters the rows read from it.
+ALTER TABLE notification_library_notifications
+ADD next_attempt_at TIMESTAMP WITH TIME ZONE;
@@ -0,0 +1,9 @@
+-- The status and priority only hold enum names. Narrowing them lets them be indexed together with the claim order
+-- within the maximum index key length.
+ALTER TABLE notification_library_notifications
+MODIFY (status VARCHAR2(30), priority VARCHAR2(10));
+
+-- Oracle doesn't support partial indexes. Leading with the status keeps notifications which have finished being
+-- processed in parts of the index the claim queries never read.
+CREATE INDEX nl_notifications_queue_idx
+ON notification_library_notifications (status, priority, last_send_attempt_at, requested_on);
@@ -0,0 +1,27 @@
+CREATE TABLE notification_library_notifications_archive (
+  id UUID PRIMARY KEY,
+  type TEXT NOT NULL,
+  status TEXT NOT NULL,
+  notify_template_id TEXT NOT NULL,
+  notify_notification_id TEXT,
+  notify_status TEXT,
+  notify_status_last_updated_at TIMESTAMPTZ,
+  recipient TEXT NOT NULL,
+  mail_merge_fields JSONB,
+  domain_reference_id TEXT NOT NULL,
+  domain_reference_type TEXT NOT NULL,
+  log_correlation_id TEXT,
+  requested_on TIMESTAMPTZ NOT NULL,
+  sent_at TIMESTAMPTZ,
+  failure_reason TEXT,
+  last_failed_at TIMESTAMPTZ,
+  retry_count INT,
+  last_send_attempt_at TIMESTAMPTZ,
+  file_attachments JSONB,
+  priority TEXT NOT NULL,
+  archived_at TIMESTAMPTZ NOT NULL
+);
+
+-- in the order the retention job pages through archived notifications of each status
+CREATE INDEX notification_library_notifications_archive_status_idx
+ON notification_library_notifications_archive (status, requested_on, id);
@@ -0,0 +1,4 @@
+-- lets the audit rows of deleted notifications be found without reading the whole audit table. It is built without
+-- blocking writes to the table, which can't be done in a transaction.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS notification_library_notifications_aud_id_idx
+ON notification_library_notifications_aud (id);
@@ -0,0 +1,12 @@
+-- the narrow append-only journal written instead of the Envers audit table when the journal audit strategy is used
+CREATE TABLE notification_library_status_transitions (
+  id UUID PRIMARY KEY,
+  notification_id UUID NOT NULL,
+  from_status TEXT,
+  to_status TEXT NOT NULL,
+  transitioned_at TIMESTAMPTZ NOT NULL,
+  reason TEXT
+);
+
+CREATE INDEX notification_library_status_transitions_notification_id_idx
+ON notification_library_status_transitions (notification_id);
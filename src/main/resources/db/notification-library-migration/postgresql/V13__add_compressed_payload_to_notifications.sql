@@ -0,0 +1,10 @@
+-- holds the mail merge fields and file attachments of notifications queued with payload compression enabled, in place
+-- of the JSON columns. Existing notifications keep their JSON columns and are read from them as before.
+ALTER TABLE notification_library_notifications
+ADD COLUMN compressed_payload BYTEA;
+
+ALTER TABLE notification_library_notifications_aud
+ADD COLUMN compressed_payload BYTEA;
+
+ALTER TABLE notification_library_notifications_archive
+ADD COLUMN compressed_payload BYTEA;
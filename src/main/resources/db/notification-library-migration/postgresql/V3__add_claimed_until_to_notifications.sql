@@ -0,0 +1,2 @@
+ALTER TABLE notification_library_notifications
+ADD COLUMN claimed_until TIMESTAMPTZ;
@@ -0,0 +1,10 @@
+CREATE TABLE notification_library_rate_limits (
+  name TEXT PRIMARY KEY,
+  available_tokens DOUBLE PRECISION NOT NULL,
+  current_requests_per_minute DOUBLE PRECISION,
+  refilled_at TIMESTAMPTZ NOT NULL,
+  last_rate_limited_at TIMESTAMPTZ
+);
+
+INSERT INTO notification_library_rate_limits (name, available_tokens, refilled_at)
+VALUES ('govuk-notify', 0, CURRENT_TIMESTAMP);
@@ -0,0 +1,5 @@
+ALTER TABLE notification_library_notifications
+ADD COLUMN priority TEXT NOT NULL DEFAULT 'NORMAL';
+
+ALTER TABLE notification_library_notifications_aud
+ADD COLUMN priority TEXT;
@@ -0,0 +1,2 @@
+CREATE INDEX notification_library_notifications_notify_id_idx
+ON notification_library_notifications (notify_notification_id);
@@ -0,0 +1,4 @@
+-- not indexed, as notifications are claimed through the queue indexes in the order they were last sent. The column
+-- only filters the rows read from them.
+ALTER TABLE notification_library_notifications
+ADD COLUMN next_attempt_at TIMESTAMPTZ;
@@ -0,0 +1,4 @@
+-- see V9 for how the queue indexes are built
+CREATE INDEX CONCURRENTLY IF NOT EXISTS notification_library_notifications_update_queue_idx
+ON notification_library_notifications (status, last_send_attempt_at ASC NULLS FIRST, requested_on ASC)
+WHERE status IN ('SENDING_TO_NOTIFY', 'SENT_TO_NOTIFY', 'FAILED_TO_SEND_TO_NOTIFY');
@@ -0,0 +1,12 @@
+-- The queue indexes only have entries for notifications the library is still processing, so the number of live entries
+-- doesn't grow as notifications which have finished being processed build up. Each status change still adds an entry
+-- and the entries of notifications which have moved on are only removed by vacuum, so their size depends on autovacuum
+-- keeping up with the rate notifications are processed at. They are in the order notifications are claimed in, so each
+-- claim reads just the rows it returns.
+--
+-- Each index is built in its own migration without blocking writes to the table, which can't be done in a transaction.
+-- IF NOT EXISTS lets a migration which failed part way be repaired and run again. A failed build leaves an invalid
+-- index behind, which needs to be dropped before the migration is run again.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS notification_library_notifications_send_queue_idx
+ON notification_library_notifications (priority, last_send_attempt_at ASC NULLS FIRST, requested_on ASC)
+WHERE status IN ('QUEUED', 'RETRY');
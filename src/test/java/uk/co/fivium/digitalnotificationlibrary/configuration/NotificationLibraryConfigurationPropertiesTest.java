@@ -3,6 +3,7 @@ package uk.co.fivium.digitalnotificationlibrary.configuration;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeAll;
@@ -15,6 +16,8 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.ArgumentsProvider;
 import org.junit.jupiter.params.provider.ArgumentsSource;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.validation.BeanPropertyBindingResult;
 
@@ -229,4 +232,921 @@ class NotificationLibraryConfigurationPropertiesTest {
           );
     }
   }
+
+  @DisplayName("WHEN I configure the send concurrency")
+  @Nested
+  class WhenSendConcurrency {
+
+    @DisplayName("AND I do not provide a value")
+    @Nested
+    class AndNoValue {
+
+      @DisplayName("THEN notifications will be sent sequentially")
+      @Test
+      void thenDefaultSendConcurrencyUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withNotificationSendConcurrency(null)
+            .build();
+
+        assertThat(libraryProperties.getSendConcurrency())
+            .isEqualTo(NotificationLibraryConfigurationProperties.DEFAULT_SEND_CONCURRENCY);
+      }
+    }
+
+    @DisplayName("AND I provide a value less than 1")
+    @Nested
+    class AndValueLessThanOne {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationSendConcurrency(0)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly("The notification send concurrency must be at least 1");
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure the persistence batch size")
+  @Nested
+  class WhenPersistenceBatchSize {
+
+    @DisplayName("AND I do not provide a value")
+    @Nested
+    class AndNoValue {
+
+      @DisplayName("THEN the default batch size is used")
+      @Test
+      void thenDefaultPersistenceBatchSizeUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withNotificationPersistenceBatchSize(null)
+            .build();
+
+        assertThat(libraryProperties.getPersistenceBatchSize())
+            .isEqualTo(NotificationLibraryConfigurationProperties.DEFAULT_PERSISTENCE_BATCH_SIZE);
+      }
+    }
+
+    @DisplayName("AND I provide a value less than 1")
+    @Nested
+    class AndValueLessThanOne {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationPersistenceBatchSize(0)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly("The notification persistence batch size must be at least 1");
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure drain mode")
+  @Nested
+  class WhenDrain {
+
+    @DisplayName("AND I do not provide any values")
+    @Nested
+    class AndNoValues {
+
+      @DisplayName("THEN drain mode is disabled and the default cycle time budget is used")
+      @Test
+      void thenDefaultsUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+        assertThat(libraryProperties)
+            .extracting(
+                NotificationLibraryConfigurationProperties::isDrainEnabled,
+                NotificationLibraryConfigurationProperties::getDrainCycleTimeBudgetSeconds
+            )
+            .containsExactly(
+                false,
+                NotificationLibraryConfigurationProperties.DEFAULT_DRAIN_CYCLE_TIME_BUDGET_SECONDS
+            );
+      }
+    }
+
+    @DisplayName("AND I provide a cycle time budget which is not less than the scheduler lock time")
+    @Nested
+    class AndBudgetNotLessThanLockTime {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationDrain(
+                true,
+                Integer.parseInt(NotificationLibraryConfigurationProperties.SCHEDULER_LOCK_AT_MOST_FOR_SECONDS)
+            )
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly("The notification drain cycle time budget must be at least 1 second and less than 600 seconds");
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure the rate limit")
+  @Nested
+  class WhenRateLimit {
+
+    @DisplayName("AND I do not provide any values")
+    @Nested
+    class AndNoValues {
+
+      @DisplayName("THEN the rate limit is disabled and defaults to the GOV.UK notify rate limit")
+      @Test
+      void thenDefaultsUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+        assertThat(libraryProperties)
+            .extracting(
+                NotificationLibraryConfigurationProperties::isRateLimitEnabled,
+                NotificationLibraryConfigurationProperties::getRateLimitRequestsPerMinute
+            )
+            .containsExactly(
+                false,
+                NotificationLibraryConfigurationProperties.DEFAULT_RATE_LIMIT_REQUESTS_PER_MINUTE
+            );
+      }
+    }
+
+    @DisplayName("AND I provide a value less than 1")
+    @Nested
+    class AndValueLessThanOne {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationRateLimit(true, 0)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly("The notification rate limit must be at least 1 request per minute");
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure the sending and status update schedules")
+  @Nested
+  class WhenSchedules {
+
+    @DisplayName("AND I do not provide any values")
+    @Nested
+    class AndNoValues {
+
+      @DisplayName("THEN the notification poll time and bulk retrieval limit are used for both")
+      @Test
+      void thenNotificationValuesUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withNotificationPollTimeSeconds(15)
+            .withNotificationRetrievalLimit(90)
+            .build();
+
+        assertThat(libraryProperties)
+            .extracting(
+                NotificationLibraryConfigurationProperties::getSendingPollTimeSeconds,
+                NotificationLibraryConfigurationProperties::getSendingBulkRetrievalLimit,
+                NotificationLibraryConfigurationProperties::getStatusUpdatePollTimeSeconds,
+                NotificationLibraryConfigurationProperties::getStatusUpdateBulkRetrievalLimit
+            )
+            .containsExactly(15, 90, 15, 90);
+      }
+    }
+
+    @DisplayName("AND I provide values for each schedule")
+    @Nested
+    class AndValuesProvided {
+
+      @DisplayName("THEN each schedule uses its own values")
+      @Test
+      void thenScheduleValuesUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withNotificationPollTimeSeconds(15)
+            .withNotificationRetrievalLimit(90)
+            .withNotificationSending(2, 500)
+            .withNotificationStatusUpdate(60, null)
+            .build();
+
+        assertThat(libraryProperties)
+            .extracting(
+                NotificationLibraryConfigurationProperties::getSendingPollTimeSeconds,
+                NotificationLibraryConfigurationProperties::getSendingBulkRetrievalLimit,
+                NotificationLibraryConfigurationProperties::getStatusUpdatePollTimeSeconds,
+                NotificationLibraryConfigurationProperties::getStatusUpdateBulkRetrievalLimit
+            )
+            .containsExactly(2, 500, 60, 90);
+      }
+    }
+
+    @DisplayName("AND I provide values less than 1")
+    @Nested
+    class AndValuesLessThanOne {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationSending(0, 100)
+            .withNotificationStatusUpdate(10, 0)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly(
+                "The notification poll time must be at least 1 second",
+                "The notification bulk retrieval limit must be at least 1"
+            );
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure the priority weights")
+  @Nested
+  class WhenPriorityWeights {
+
+    @DisplayName("AND I do not provide any values")
+    @Nested
+    class AndNoValues {
+
+      @DisplayName("THEN the default weights are used")
+      @Test
+      void thenDefaultsUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+        assertThat(libraryProperties)
+            .extracting(
+                NotificationLibraryConfigurationProperties::getHighPriorityWeight,
+                NotificationLibraryConfigurationProperties::getNormalPriorityWeight,
+                NotificationLibraryConfigurationProperties::getLowPriorityWeight
+            )
+            .containsExactly(
+                NotificationLibraryConfigurationProperties.DEFAULT_HIGH_PRIORITY_WEIGHT,
+                NotificationLibraryConfigurationProperties.DEFAULT_NORMAL_PRIORITY_WEIGHT,
+                NotificationLibraryConfigurationProperties.DEFAULT_LOW_PRIORITY_WEIGHT
+            );
+      }
+    }
+
+    @DisplayName("AND I provide a value less than 1")
+    @Nested
+    class AndValueLessThanOne {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationPriorityWeights(10, 5, 0)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly("The notification priority weights must be at least 1");
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure the status update weights")
+  @Nested
+  class WhenStatusUpdateWeights {
+
+    @DisplayName("AND I do not provide any values")
+    @Nested
+    class AndNoValues {
+
+      @DisplayName("THEN the default weights are used")
+      @Test
+      void thenDefaultsUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+        assertThat(libraryProperties)
+            .extracting(
+                NotificationLibraryConfigurationProperties::getSentToNotifyStatusUpdateWeight,
+                NotificationLibraryConfigurationProperties::getFailedToSendStatusUpdateWeight,
+                NotificationLibraryConfigurationProperties::getSendingToNotifyStatusUpdateWeight
+            )
+            .containsExactly(
+                NotificationLibraryConfigurationProperties.DEFAULT_SENT_TO_NOTIFY_STATUS_UPDATE_WEIGHT,
+                NotificationLibraryConfigurationProperties.DEFAULT_FAILED_TO_SEND_STATUS_UPDATE_WEIGHT,
+                NotificationLibraryConfigurationProperties.DEFAULT_SENDING_TO_NOTIFY_STATUS_UPDATE_WEIGHT
+            );
+      }
+    }
+
+    @DisplayName("AND I provide a value less than 1")
+    @Nested
+    class AndValueLessThanOne {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationStatusUpdateWeights(4, 0, 2)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly("The notification status update weights must be at least 1");
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure archiving")
+  @Nested
+  class WhenArchive {
+
+    @DisplayName("AND I do not provide any values")
+    @Nested
+    class AndNoValues {
+
+      @DisplayName("THEN archiving is disabled and the defaults are used")
+      @Test
+      void thenDefaultsUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+        assertThat(libraryProperties)
+            .extracting(
+                NotificationLibraryConfigurationProperties::isArchiveEnabled,
+                NotificationLibraryConfigurationProperties::getArchiveAfterDays,
+                NotificationLibraryConfigurationProperties::getArchiveBatchSize,
+                NotificationLibraryConfigurationProperties::getArchivePollTimeSeconds
+            )
+            .containsExactly(
+                false,
+                NotificationLibraryConfigurationProperties.DEFAULT_ARCHIVE_AFTER_DAYS,
+                NotificationLibraryConfigurationProperties.DEFAULT_ARCHIVE_BATCH_SIZE,
+                Integer.parseInt(NotificationLibraryConfigurationProperties.DEFAULT_ARCHIVE_POLL_TIME_SECONDS)
+            );
+      }
+    }
+
+    @DisplayName("AND I provide values less than 1")
+    @Nested
+    class AndValuesLessThanOne {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorsReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationArchive(true, 0, 0, 0)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly(
+                "The notification archive after days must be at least 1",
+                "The notification archive batch size must be between 1 and 1000",
+                "The notification archive poll time must be at least 1 second"
+            );
+      }
+    }
+
+    @DisplayName("AND I provide a batch size larger than the maximum")
+    @Nested
+    class AndBatchSizeAboveMaximum {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationArchive(true, null, NotificationLibraryConfigurationProperties.MAX_ARCHIVE_BATCH_SIZE + 1, null)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly("The notification archive batch size must be between 1 and 1000");
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure retention")
+  @Nested
+  class WhenRetention {
+
+    @DisplayName("AND I do not provide any values")
+    @Nested
+    class AndNoValues {
+
+      @DisplayName("THEN retention is disabled and the defaults are used")
+      @Test
+      void thenDefaultsUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+        assertThat(libraryProperties)
+            .extracting(
+                NotificationLibraryConfigurationProperties::isRetentionEnabled,
+                NotificationLibraryConfigurationProperties::getSentRetentionDays,
+                NotificationLibraryConfigurationProperties::getFailedNotSentRetentionDays,
+                NotificationLibraryConfigurationProperties::getUnexpectedNotifyStatusRetentionDays,
+                NotificationLibraryConfigurationProperties::getRetentionBatchSize,
+                NotificationLibraryConfigurationProperties::getRetentionBatchDelayMillis,
+                NotificationLibraryConfigurationProperties::getRetentionPollTimeSeconds
+            )
+            .containsExactly(
+                false,
+                NotificationLibraryConfigurationProperties.DEFAULT_RETENTION_DAYS,
+                NotificationLibraryConfigurationProperties.DEFAULT_RETENTION_DAYS,
+                NotificationLibraryConfigurationProperties.DEFAULT_RETENTION_DAYS,
+                NotificationLibraryConfigurationProperties.DEFAULT_RETENTION_BATCH_SIZE,
+                NotificationLibraryConfigurationProperties.DEFAULT_RETENTION_BATCH_DELAY_MILLIS,
+                Integer.parseInt(NotificationLibraryConfigurationProperties.DEFAULT_RETENTION_POLL_TIME_SECONDS)
+            );
+      }
+    }
+
+    @DisplayName("AND I provide invalid values")
+    @Nested
+    class AndInvalidValues {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorsReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationRetention(true, 30, 0, 30, 1001, -1)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly(
+                "The notification retention periods must be at least 1 day",
+                "The notification retention batch size must be between 1 and 1000",
+                "The notification retention batch delay must not be negative"
+            );
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure immediate dispatch")
+  @Nested
+  class WhenImmediateDispatch {
+
+    @DisplayName("AND I do not provide a value")
+    @Nested
+    class AndNoValue {
+
+      @DisplayName("THEN immediate dispatch is not enabled")
+      @Test
+      void thenNotEnabled() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+        assertThat(libraryProperties.isImmediateDispatchEnabled()).isFalse();
+      }
+    }
+
+    @DisplayName("AND I enable it")
+    @Nested
+    class AndEnabled {
+
+      @DisplayName("THEN immediate dispatch is enabled")
+      @Test
+      void thenEnabled() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withNotificationImmediateDispatch(true)
+            .build();
+
+        assertThat(libraryProperties.isImmediateDispatchEnabled()).isTrue();
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure how notifications are audited")
+  @Nested
+  class WhenAudit {
+
+    @DisplayName("AND I do not provide a value")
+    @Nested
+    class AndNoValue {
+
+      @DisplayName("THEN notifications are audited by Hibernate Envers")
+      @Test
+      void thenEnversUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+        assertThat(libraryProperties.getAuditStrategy()).isEqualTo(NotificationAuditStrategy.ENVERS);
+      }
+    }
+
+    @DisplayName("AND I provide a strategy")
+    @Nested
+    class AndStrategyProvided {
+
+      @DisplayName("THEN the provided strategy is used")
+      @Test
+      void thenProvidedStrategyUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withNotificationAuditStrategy(NotificationAuditStrategy.JOURNAL)
+            .build();
+
+        assertThat(libraryProperties.getAuditStrategy()).isEqualTo(NotificationAuditStrategy.JOURNAL);
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure compressing notification payloads")
+  @Nested
+  class WhenPayloadCompression {
+
+    @DisplayName("AND I do not provide any values")
+    @Nested
+    class AndNoValues {
+
+      @DisplayName("THEN payloads are not compressed and the default minimum size is used")
+      @Test
+      void thenDefaultsUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+        assertThat(libraryProperties.isPayloadCompressionEnabled()).isFalse();
+        assertThat(libraryProperties.getPayloadCompressionMinimumBytes())
+            .isEqualTo(NotificationLibraryConfigurationProperties.DEFAULT_PAYLOAD_COMPRESSION_MINIMUM_BYTES);
+      }
+    }
+
+    @DisplayName("AND I provide values")
+    @Nested
+    class AndValuesProvided {
+
+      @DisplayName("THEN the provided values are used")
+      @Test
+      void thenProvidedValuesUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withNotificationPayloadCompression(true, 1024)
+            .build();
+
+        assertThat(libraryProperties.isPayloadCompressionEnabled()).isTrue();
+        assertThat(libraryProperties.getPayloadCompressionMinimumBytes()).isEqualTo(1024);
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure queueing notifications from a stream")
+  @Nested
+  class WhenStreamingEnqueue {
+
+    @DisplayName("AND I do not provide a value")
+    @Nested
+    class AndNoValue {
+
+      @DisplayName("THEN the default chunk size is used")
+      @Test
+      void thenDefaultUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+        assertThat(libraryProperties.getStreamingEnqueueChunkSize())
+            .isEqualTo(NotificationLibraryConfigurationProperties.DEFAULT_STREAMING_ENQUEUE_CHUNK_SIZE);
+      }
+    }
+
+    @DisplayName("AND I provide a chunk size")
+    @Nested
+    class AndChunkSizeProvided {
+
+      @DisplayName("THEN the provided chunk size is used")
+      @Test
+      void thenProvidedChunkSizeUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withNotificationStreamingEnqueueChunkSize(5000)
+            .build();
+
+        assertThat(libraryProperties.getStreamingEnqueueChunkSize()).isEqualTo(5000);
+      }
+    }
+
+    @DisplayName("AND I provide an invalid chunk size")
+    @Nested
+    class AndInvalidChunkSize {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorsReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationStreamingEnqueueChunkSize(0)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly("The streaming enqueue chunk size must be at least 1");
+      }
+    }
+  }
+
+  @DisplayName("WHEN I configure the backlog metrics")
+  @Nested
+  class WhenBacklogMetrics {
+
+    @DisplayName("AND I do not provide a value")
+    @Nested
+    class AndNoValue {
+
+      @DisplayName("THEN the default poll time is used")
+      @Test
+      void thenDefaultUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+        assertThat(libraryProperties.getBacklogMetricsPollTimeSeconds())
+            .isEqualTo(NotificationLibraryConfigurationProperties.DEFAULT_BACKLOG_METRICS_POLL_TIME_SECONDS);
+      }
+    }
+
+    @DisplayName("AND I provide an invalid poll time")
+    @Nested
+    class AndInvalidPollTime {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorsReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationBacklogMetricsPollTimeSeconds(0)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly("The notification backlog metrics poll time must be at least 1 second");
+      }
+    }
+  }
+
+  @DisplayName("WHEN I want to update notification statuses in bulk")
+  @Nested
+  class WhenBulkStatusUpdate {
+
+    @DisplayName("AND I do not provide any values")
+    @Nested
+    class AndNoValues {
+
+      @DisplayName("THEN bulk status updates are not enabled and the default max pages is used")
+      @Test
+      void thenDefaultsUsed() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+        assertThat(libraryProperties.isBulkStatusUpdateEnabled()).isFalse();
+        assertThat(libraryProperties.getBulkStatusUpdateMaxPages())
+            .isEqualTo(NotificationLibraryConfigurationProperties.DEFAULT_BULK_STATUS_UPDATE_MAX_PAGES);
+      }
+    }
+
+    @DisplayName("AND the max pages is less than 1")
+    @Nested
+    class AndMaxPagesLessThanOne {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationBulkStatusUpdate(true, 0)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly("The notification bulk status update max pages must be at least 1");
+      }
+    }
+  }
+
+  @DisplayName("WHEN I want to receive delivery receipts")
+  @Nested
+  class WhenDeliveryReceipt {
+
+    @DisplayName("AND I provide a bearer token")
+    @Nested
+    class AndBearerToken {
+
+      @DisplayName("THEN the bearer token is returned")
+      @Test
+      void thenBearerTokenReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withNotificationDeliveryReceipt("delivery-receipt-token")
+            .build();
+
+        assertThat(libraryProperties.getDeliveryReceiptBearerToken()).contains("delivery-receipt-token");
+      }
+    }
+
+    @DisplayName("AND I provide a blank bearer token")
+    @Nested
+    class AndBlankBearerToken {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withNotificationDeliveryReceipt(" ")
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly("The notification delivery receipt bearer token must not be blank");
+
+        assertThat(libraryProperties.getDeliveryReceiptBearerToken()).isEmpty();
+      }
+    }
+  }
+
+  @DisplayName("WHEN I enable listening for queued notifications")
+  @Nested
+  class WhenListenEnabled {
+
+    @DisplayName("AND the database is Oracle")
+    @Nested
+    class AndOracle {
+
+      @DisplayName("THEN there will be errors in the library properties")
+      @Test
+      void thenErrorReturned() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withFlywayVendor(NotificationLibraryConfigurationProperties.ORACLE_VENDOR)
+            .withNotificationListen(true)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors())
+            .extracting(DefaultMessageSourceResolvable::getDefaultMessage)
+            .containsExactly("Listening for queued notifications is only supported on PostgreSQL");
+      }
+    }
+
+    @DisplayName("AND the database is PostgreSQL")
+    @Nested
+    class AndPostgres {
+
+      @DisplayName("THEN there will be no errors in the library properties")
+      @Test
+      void thenNoErrors() {
+
+        var libraryProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withMode(NotificationMode.PRODUCTION)
+            .withFlywayVendor("postgresql")
+            .withNotificationListen(true)
+            .build();
+
+        var bindingResult = new BeanPropertyBindingResult(libraryProperties, "properties");
+
+        libraryProperties.validate(libraryProperties, bindingResult);
+
+        assertThat(bindingResult.getAllErrors()).isEmpty();
+        assertThat(libraryProperties.isListenEnabled()).isTrue();
+      }
+    }
+  }
+
+  @DisplayName("WHEN I create the notification configuration with only the poll time and bulk retrieval limit")
+  @Nested
+  class WhenNotificationCreatedWithPollTimeAndLimit {
+
+    @DisplayName("THEN everything else is left to take its default")
+    @Test
+    void notification_whenPollTimeAndLimitOnly_thenEverythingElseNull() {
+
+      var notification = new NotificationLibraryConfigurationProperties.Notification(30, 10);
+
+      assertThat(notification.pollTimeSeconds()).isEqualTo(30);
+      assertThat(notification.bulkRetrievalLimit()).isEqualTo(10);
+      assertThat(notification.sendConcurrency()).isNull();
+      assertThat(notification.backlogMetrics()).isNull();
+    }
+  }
+
+  @DisplayName("WHEN the notification configuration is bound from properties")
+  @Nested
+  class WhenNotificationBound {
+
+    @DisplayName("THEN every property is bound rather than only the poll time and bulk retrieval limit")
+    @Test
+    void notification_whenBound_thenEveryPropertyBound() {
+
+      var properties = new MapConfigurationPropertySource(Map.of(
+          "notification.poll-time-seconds", "30",
+          "notification.bulk-retrieval-limit", "10",
+          "notification.send-concurrency", "4"
+      ));
+
+      var notification = new Binder(properties)
+          .bind("notification", NotificationLibraryConfigurationProperties.Notification.class)
+          .get();
+
+      assertThat(notification.pollTimeSeconds()).isEqualTo(30);
+      assertThat(notification.bulkRetrievalLimit()).isEqualTo(10);
+      assertThat(notification.sendConcurrency()).isEqualTo(4);
+    }
+  }
 }
@@ -19,12 +19,69 @@ public class NotificationLibraryConfigurationPropertiesTestUtil {
 
     private Integer notificationBulkRetrievalLimit = 5;
 
+    private Integer notificationSendConcurrency = 1;
+
+    private Integer notificationPersistenceBatchSize = 50;
+
+    private NotificationLibraryConfigurationProperties.Dequeue notificationDequeue = null;
+
+    private NotificationLibraryConfigurationProperties.Drain notificationDrain = null;
+
+    private NotificationLibraryConfigurationProperties.RateLimit notificationRateLimit = null;
+
+    private NotificationLibraryConfigurationProperties.Schedule notificationSending = null;
+
+    private NotificationLibraryConfigurationProperties.Schedule notificationStatusUpdate = null;
+
+    private NotificationLibraryConfigurationProperties.PriorityWeights notificationPriorityWeights = null;
+
+    private NotificationLibraryConfigurationProperties.ImmediateDispatch notificationImmediateDispatch = null;
+
+    private NotificationLibraryConfigurationProperties.Listen notificationListen = null;
+
+    private NotificationLibraryConfigurationProperties.BulkStatusUpdate notificationBulkStatusUpdate = null;
+
+    private NotificationLibraryConfigurationProperties.DeliveryReceipt notificationDeliveryReceipt = null;
+
+    private NotificationLibraryConfigurationProperties.StatusUpdateWeights notificationStatusUpdateWeights = null;
+
+    private NotificationLibraryConfigurationProperties.Archive notificationArchive = null;
+
+    private NotificationLibraryConfigurationProperties.Retention notificationRetention = null;
+
+    private NotificationLibraryConfigurationProperties.Audit notificationAudit = null;
+
+    private NotificationLibraryConfigurationProperties.PayloadCompression notificationPayloadCompression = null;
+
+    private NotificationLibraryConfigurationProperties.StreamingEnqueue notificationStreamingEnqueue = null;
+
+    private NotificationLibraryConfigurationProperties.BacklogMetrics notificationBacklogMetrics = null;
+
     private boolean hasSetNotificationPropertyObject = false;
 
     private NotificationLibraryConfigurationProperties.Notification notificationProperties =
         new NotificationLibraryConfigurationProperties.Notification(
             notificationPollTimeSeconds,
-            notificationBulkRetrievalLimit
+            notificationBulkRetrievalLimit,
+            notificationSendConcurrency,
+            notificationPersistenceBatchSize,
+            notificationDequeue,
+            notificationDrain,
+            notificationRateLimit,
+            notificationSending,
+            notificationStatusUpdate,
+            notificationPriorityWeights,
+            notificationImmediateDispatch,
+            notificationListen,
+            notificationBulkStatusUpdate,
+            notificationDeliveryReceipt,
+            notificationStatusUpdateWeights,
+            notificationArchive,
+            notificationRetention,
+            notificationAudit,
+            notificationPayloadCompression,
+            notificationStreamingEnqueue,
+            notificationBacklogMetrics
         );
 
     private NotificationMode notificationMode = NotificationMode.TEST;
@@ -33,6 +90,8 @@ public class NotificationLibraryConfigurationPropertiesTestUtil {
 
     private Set<String> testSmsRecipients = new HashSet<>();
 
+    private String flywayVendor = "";
+
     private Builder() {
     }
 
@@ -52,6 +111,134 @@ public class NotificationLibraryConfigurationPropertiesTestUtil {
       return this;
     }
 
+    public Builder withNotificationSendConcurrency(Integer notificationSendConcurrency) {
+      this.notificationSendConcurrency = notificationSendConcurrency;
+      return this;
+    }
+
+    public Builder withNotificationPersistenceBatchSize(Integer notificationPersistenceBatchSize) {
+      this.notificationPersistenceBatchSize = notificationPersistenceBatchSize;
+      return this;
+    }
+
+    public Builder withNotificationDequeue(NotificationDequeueMode dequeueMode, Integer claimLeaseSeconds) {
+      this.notificationDequeue = new NotificationLibraryConfigurationProperties.Dequeue(dequeueMode, claimLeaseSeconds);
+      return this;
+    }
+
+    public Builder withNotificationDrain(Boolean enabled, Integer cycleTimeBudgetSeconds) {
+      this.notificationDrain = new NotificationLibraryConfigurationProperties.Drain(enabled, cycleTimeBudgetSeconds);
+      return this;
+    }
+
+    public Builder withNotificationRateLimit(Boolean enabled, Integer requestsPerMinute) {
+      this.notificationRateLimit = new NotificationLibraryConfigurationProperties.RateLimit(enabled, requestsPerMinute);
+      return this;
+    }
+
+    public Builder withNotificationSending(Integer pollTimeSeconds, Integer bulkRetrievalLimit) {
+      this.notificationSending = new NotificationLibraryConfigurationProperties.Schedule(
+          pollTimeSeconds,
+          bulkRetrievalLimit
+      );
+      return this;
+    }
+
+    public Builder withNotificationStatusUpdate(Integer pollTimeSeconds, Integer bulkRetrievalLimit) {
+      this.notificationStatusUpdate = new NotificationLibraryConfigurationProperties.Schedule(
+          pollTimeSeconds,
+          bulkRetrievalLimit
+      );
+      return this;
+    }
+
+    public Builder withNotificationPriorityWeights(Integer high, Integer normal, Integer low) {
+      this.notificationPriorityWeights = new NotificationLibraryConfigurationProperties.PriorityWeights(high, normal, low);
+      return this;
+    }
+
+    public Builder withNotificationImmediateDispatch(Boolean enabled) {
+      this.notificationImmediateDispatch = new NotificationLibraryConfigurationProperties.ImmediateDispatch(enabled);
+      return this;
+    }
+
+    public Builder withNotificationListen(Boolean enabled) {
+      this.notificationListen = new NotificationLibraryConfigurationProperties.Listen(enabled);
+      return this;
+    }
+
+    public Builder withNotificationBulkStatusUpdate(Boolean enabled, Integer maxPages) {
+      this.notificationBulkStatusUpdate = new NotificationLibraryConfigurationProperties.BulkStatusUpdate(enabled, maxPages);
+      return this;
+    }
+
+    public Builder withNotificationDeliveryReceipt(String bearerToken) {
+      this.notificationDeliveryReceipt = new NotificationLibraryConfigurationProperties.DeliveryReceipt(bearerToken);
+      return this;
+    }
+
+    public Builder withNotificationStatusUpdateWeights(Integer sentToNotify,
+                                                       Integer failedToSendToNotify,
+                                                       Integer sendingToNotify) {
+      this.notificationStatusUpdateWeights = new NotificationLibraryConfigurationProperties.StatusUpdateWeights(
+          sentToNotify,
+          failedToSendToNotify,
+          sendingToNotify
+      );
+      return this;
+    }
+
+    public Builder withNotificationArchive(Boolean enabled, Integer afterDays, Integer batchSize, Integer pollTimeSeconds) {
+      this.notificationArchive = new NotificationLibraryConfigurationProperties.Archive(
+          enabled,
+          afterDays,
+          batchSize,
+          pollTimeSeconds
+      );
+      return this;
+    }
+
+    public Builder withNotificationRetention(Boolean enabled,
+                                             Integer sentDays,
+                                             Integer failedNotSentDays,
+                                             Integer unexpectedNotifyStatusDays,
+                                             Integer batchSize,
+                                             Integer batchDelayMillis) {
+      this.notificationRetention = new NotificationLibraryConfigurationProperties.Retention(
+          enabled,
+          sentDays,
+          failedNotSentDays,
+          unexpectedNotifyStatusDays,
+          batchSize,
+          batchDelayMillis,
+          null
+      );
+      return this;
+    }
+
+    public Builder withNotificationAuditStrategy(NotificationAuditStrategy auditStrategy) {
+      this.notificationAudit = new NotificationLibraryConfigurationProperties.Audit(auditStrategy);
+      return this;
+    }
+
+    public Builder withNotificationPayloadCompression(Boolean enabled, Integer minimumBytes) {
+      this.notificationPayloadCompression = new NotificationLibraryConfigurationProperties.PayloadCompression(
+          enabled,
+          minimumBytes
+      );
+      return this;
+    }
+
+    public Builder withNotificationStreamingEnqueueChunkSize(Integer chunkSize) {
+      this.notificationStreamingEnqueue = new NotificationLibraryConfigurationProperties.StreamingEnqueue(chunkSize);
+      return this;
+    }
+
+    public Builder withNotificationBacklogMetricsPollTimeSeconds(Integer pollTimeSeconds) {
+      this.notificationBacklogMetrics = new NotificationLibraryConfigurationProperties.BacklogMetrics(pollTimeSeconds);
+      return this;
+    }
+
     public Builder withMode(NotificationMode notificationMode) {
       this.notificationMode = notificationMode;
       return this;
@@ -77,13 +264,37 @@ public class NotificationLibraryConfigurationPropertiesTestUtil {
       return this;
     }
 
+    public Builder withFlywayVendor(String flywayVendor) {
+      this.flywayVendor = flywayVendor;
+      return this;
+    }
+
     public NotificationLibraryConfigurationProperties build() {
 
       var notificationObjectProperties = hasSetNotificationPropertyObject
           ? notificationProperties
           : new NotificationLibraryConfigurationProperties.Notification(
               notificationPollTimeSeconds,
-              notificationBulkRetrievalLimit
+              notificationBulkRetrievalLimit,
+              notificationSendConcurrency,
+              notificationPersistenceBatchSize,
+              notificationDequeue,
+              notificationDrain,
+              notificationRateLimit,
+              notificationSending,
+              notificationStatusUpdate,
+              notificationPriorityWeights,
+              notificationImmediateDispatch,
+              notificationListen,
+              notificationBulkStatusUpdate,
+              notificationDeliveryReceipt,
+              notificationStatusUpdateWeights,
+              notificationArchive,
+              notificationRetention,
+              notificationAudit,
+              notificationPayloadCompression,
+              notificationStreamingEnqueue,
+              notificationBacklogMetrics
       );
 
       var testMode = new NotificationLibraryConfigurationProperties.TestMode(testEmailRecipients, testSmsRecipients);
@@ -93,7 +304,7 @@ public class NotificationLibraryConfigurationPropertiesTestUtil {
           notificationObjectProperties,
           notificationMode,
           testMode,
-          "",
+          flywayVendor,
           ""
       );
     }
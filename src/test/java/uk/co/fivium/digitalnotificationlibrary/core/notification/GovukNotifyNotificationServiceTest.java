@@ -2,6 +2,7 @@ package uk.co.fivium.digitalnotificationlibrary.core.notification;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -12,6 +13,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import uk.gov.service.notify.NotificationClient;
 import uk.gov.service.notify.NotificationClientException;
+import uk.gov.service.notify.NotificationList;
 
 @DisplayName("GIVEN I want to get a notification from notify")
 @ExtendWith(MockitoExtension.class)
@@ -74,4 +76,24 @@ class GovukNotifyNotificationServiceTest {
     }
 
   }
+
+  @DisplayName("WHEN I look up notifications by the reference they were sent with")
+  @Nested
+  class WhenGettingNotificationsByReference {
+
+    @DisplayName("THEN the notifications with the reference are returned")
+    @Test
+    void getNotificationsByReference_thenNotificationsReturned() throws NotificationClientException {
+
+      var expectedNotificationList = mock(NotificationList.class);
+
+      given(govukNotificationClient.getNotifications(null, null, "reference", null))
+          .willReturn(expectedNotificationList);
+
+      var resultingNotifyResponse = govukNotifyNotificationService.getNotificationsByReference("reference");
+
+      assertThat(resultingNotifyResponse.successResponseObject()).isEqualTo(expectedNotificationList);
+      assertThat(resultingNotifyResponse.error()).isNull();
+    }
+  }
 }
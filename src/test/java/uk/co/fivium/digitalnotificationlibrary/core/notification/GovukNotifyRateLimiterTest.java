@@ -0,0 +1,256 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+
+@DisplayName("GIVEN I want to limit the rate of requests to GOV.UK notify")
+class GovukNotifyRateLimiterTest {
+
+  private static final int REQUESTS_PER_MINUTE = 600;
+
+  private static final int TOKENS_PER_SECOND = REQUESTS_PER_MINUTE / 60;
+
+  private final AtomicReference<Instant> now = new AtomicReference<>(Instant.now());
+
+  private final List<Duration> sleeps = new ArrayList<>();
+
+  private GovukNotifyRateLimitRepository rateLimitRepository;
+
+  private GovukNotifyRateLimit rateLimit;
+
+  private GovukNotifyRateLimiter rateLimiter;
+
+  @BeforeEach
+  void setup() {
+
+    rateLimitRepository = mock(GovukNotifyRateLimitRepository.class);
+
+    rateLimit = new GovukNotifyRateLimit(GovukNotifyRateLimiter.RATE_LIMIT_NAME, now.get());
+
+    given(rateLimitRepository.findLockedByName(GovukNotifyRateLimiter.RATE_LIMIT_NAME))
+        .willAnswer(invocation -> Optional.of(rateLimit));
+
+    rateLimiter = createRateLimiter(true);
+  }
+
+  @DisplayName("WHEN the rate limit is disabled")
+  @Nested
+  class WhenRateLimitDisabled {
+
+    @DisplayName("THEN requests are not limited")
+    @Test
+    void acquire_whenDisabled_thenNoTokensReserved() {
+
+      rateLimiter = createRateLimiter(false);
+
+      rateLimiter.acquire();
+      rateLimiter.onRateLimited();
+
+      then(rateLimitRepository).shouldHaveNoInteractions();
+    }
+  }
+
+  @DisplayName("WHEN there are tokens in the shared bucket")
+  @Nested
+  class WhenTokensAvailable {
+
+    @DisplayName("THEN a second's worth of tokens is reserved and spent before the bucket is used again")
+    @Test
+    void acquire_whenTokensAvailable_thenTokensReservedInBlocks() {
+
+      rateLimit.setRefilledAt(now.get().minusSeconds(2));
+
+      for (int request = 0; request < TOKENS_PER_SECOND; request++) {
+        rateLimiter.acquire();
+      }
+
+      then(rateLimitRepository)
+          .should(times(1))
+          .findLockedByName(GovukNotifyRateLimiter.RATE_LIMIT_NAME);
+
+      // the bucket only holds one second's worth of tokens, however long it has been since it was refilled
+      assertThat(rateLimit)
+          .extracting(GovukNotifyRateLimit::getAvailableTokens, GovukNotifyRateLimit::getRefilledAt)
+          .containsExactly(0d, now.get());
+
+      assertThat(sleeps).isEmpty();
+    }
+  }
+
+  @DisplayName("WHEN the shared bucket is empty")
+  @Nested
+  class WhenNoTokensAvailable {
+
+    @DisplayName("THEN the request waits until a token is available")
+    @Test
+    void acquire_whenNoTokensAvailable_thenWaitsForToken() {
+
+      rateLimiter.acquire();
+
+      // at 600 requests a minute a new token is available every 100 milliseconds
+      assertThat(sleeps).containsExactly(Duration.ofMillis(100));
+      assertThat(rateLimit.getAvailableTokens()).isZero();
+    }
+
+    @DisplayName("THEN other workers on the node are not blocked while the request waits")
+    @Test
+    void acquire_whenNoTokensAvailable_thenOtherWorkersNotBlocked() {
+
+      var otherWorkerStarted = new AtomicBoolean();
+
+      rateLimiter = createRateLimiter(true, duration -> {
+
+        now.set(now.get().plus(duration));
+
+        // the other worker can only take the token made available while this one waits if the lock was released
+        if (!otherWorkerStarted.getAndSet(true)) {
+          assertThat(CompletableFuture.runAsync(rateLimiter::acquire)).succeedsWithin(Duration.ofSeconds(5));
+        }
+      });
+
+      rateLimiter.acquire();
+
+      assertThat(otherWorkerStarted).isTrue();
+    }
+  }
+
+  @DisplayName("WHEN GOV.UK notify rejects a request for exceeding the rate limit")
+  @Nested
+  class WhenRateLimited {
+
+    @DisplayName("THEN the shared rate is halved and the bucket emptied")
+    @Test
+    void onRateLimited_thenRateHalved() {
+
+      rateLimit.setAvailableTokens(5);
+
+      rateLimiter.onRateLimited();
+
+      assertThat(rateLimit)
+          .extracting(
+              GovukNotifyRateLimit::getCurrentRequestsPerMinute,
+              GovukNotifyRateLimit::getAvailableTokens,
+              GovukNotifyRateLimit::getLastRateLimitedAt
+          )
+          .containsExactly((double) REQUESTS_PER_MINUTE / 2, 0d, now.get());
+
+      then(rateLimitRepository).should().save(rateLimit);
+    }
+
+    @DisplayName("AND several requests are rejected at the same time")
+    @Nested
+    class AndSeveralRequestsRejected {
+
+      @DisplayName("THEN the shared rate is only halved once")
+      @Test
+      void onRateLimited_whenRejectedTogether_thenRateHalvedOnce() {
+
+        rateLimiter.onRateLimited();
+        rateLimiter.onRateLimited();
+
+        assertThat(rateLimit.getCurrentRequestsPerMinute()).isEqualTo((double) REQUESTS_PER_MINUTE / 2);
+      }
+    }
+
+    @DisplayName("AND the shared rate is already at its minimum")
+    @Nested
+    class AndRateAtMinimum {
+
+      @DisplayName("THEN the shared rate is not reduced any further")
+      @Test
+      void onRateLimited_whenRateAtMinimum_thenRateNotReduced() {
+
+        var minimumRate = REQUESTS_PER_MINUTE * GovukNotifyRateLimiter.MINIMUM_RATE_FRACTION;
+        rateLimit.setCurrentRequestsPerMinute(minimumRate);
+
+        rateLimiter.onRateLimited();
+
+        assertThat(rateLimit.getCurrentRequestsPerMinute()).isEqualTo(minimumRate);
+      }
+    }
+
+    @DisplayName("AND time passes")
+    @Nested
+    class AndTimePasses {
+
+      @DisplayName("THEN the shared rate recovers back to the configured rate")
+      @Test
+      void acquire_whenTimePassesAfterRateLimited_thenRateRecovers() {
+
+        rateLimiter.onRateLimited();
+
+        now.set(now.get().plusSeconds((long) GovukNotifyRateLimiter.RATE_RECOVERY_SECONDS));
+
+        rateLimiter.acquire();
+
+        assertThat(rateLimit.getCurrentRequestsPerMinute()).isEqualTo(REQUESTS_PER_MINUTE);
+      }
+    }
+  }
+
+  @DisplayName("WHEN there is no shared bucket")
+  @Nested
+  class WhenNoSharedBucket {
+
+    @DisplayName("THEN the shared bucket is created")
+    @Test
+    void acquire_whenNoSharedBucket_thenBucketCreated() {
+
+      given(rateLimitRepository.findLockedByName(GovukNotifyRateLimiter.RATE_LIMIT_NAME))
+          .willReturn(Optional.empty())
+          .willReturn(Optional.of(rateLimit));
+
+      rateLimiter.acquire();
+
+      then(rateLimitRepository)
+          .should(times(2))
+          .save(any());
+    }
+  }
+
+  private GovukNotifyRateLimiter createRateLimiter(boolean enabled) {
+    return createRateLimiter(enabled, duration -> {
+      sleeps.add(duration);
+      now.set(now.get().plus(duration));
+    });
+  }
+
+  private GovukNotifyRateLimiter createRateLimiter(boolean enabled, Consumer<Duration> sleeper) {
+
+    var clock = mock(Clock.class);
+    given(clock.instant()).willAnswer(invocation -> now.get());
+
+    var libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationRateLimit(enabled, REQUESTS_PER_MINUTE)
+        .build();
+
+    return new GovukNotifyRateLimiter(
+        mock(PlatformTransactionManager.class),
+        rateLimitRepository,
+        libraryConfigurationProperties,
+        clock,
+        sleeper
+    );
+  }
+}
@@ -80,7 +80,7 @@ class GovukNotifySenderServiceTest {
               notification.getNotifyTemplateId(),
               notification.getRecipient(),
               Map.of("key", "value"),
-              notification.getLogCorrelationId()
+              String.valueOf(notification.getId())
           ))
               .willReturn(expectedEmailResponse);
 
@@ -113,7 +113,7 @@ class GovukNotifySenderServiceTest {
               notification.getNotifyTemplateId(),
               "someone.else@example.com",
               Map.of("key", "value"),
-              notification.getLogCorrelationId()
+              String.valueOf(notification.getId())
           ))
               .willReturn(expectedEmailResponse);
 
@@ -150,7 +150,7 @@ class GovukNotifySenderServiceTest {
               notification.getNotifyTemplateId(),
               notification.getRecipient(),
               Map.of("key", "value"),
-              notification.getLogCorrelationId()
+              String.valueOf(notification.getId())
           ))
               .willThrow(expectedNotifyException);
 
@@ -182,7 +182,7 @@ class GovukNotifySenderServiceTest {
               notification.getNotifyTemplateId(),
               "someone.else@example.com",
               Map.of("key", "value"),
-              notification.getLogCorrelationId()
+              String.valueOf(notification.getId())
           ))
               .willThrow(expectedNotifyException);
 
@@ -246,7 +246,7 @@ class GovukNotifySenderServiceTest {
               notification.getNotifyTemplateId(),
               notification.getRecipient(),
               Map.of("key", "value"),
-              notification.getLogCorrelationId()
+              String.valueOf(notification.getId())
           ))
               .willReturn(expectedSmsResponse);
 
@@ -279,7 +279,7 @@ class GovukNotifySenderServiceTest {
               notification.getNotifyTemplateId(),
               "9876543210",
               Map.of("key", "value"),
-              notification.getLogCorrelationId()
+              String.valueOf(notification.getId())
           ))
               .willReturn(expectedSmsResponse);
 
@@ -315,7 +315,7 @@ class GovukNotifySenderServiceTest {
               notification.getNotifyTemplateId(),
               notification.getRecipient(),
               Map.of("key", "value"),
-              notification.getLogCorrelationId()
+              String.valueOf(notification.getId())
           ))
               .willThrow(expectedNotifyException);
 
@@ -347,7 +347,7 @@ class GovukNotifySenderServiceTest {
               notification.getNotifyTemplateId(),
               "9876543210",
               Map.of("key", "value"),
-              notification.getLogCorrelationId()
+              String.valueOf(notification.getId())
           ))
               .willThrow(expectedNotifyException);
 
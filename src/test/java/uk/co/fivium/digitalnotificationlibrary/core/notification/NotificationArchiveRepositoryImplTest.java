@@ -0,0 +1,167 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+@DisplayName("GIVEN I want to archive processed notifications")
+class NotificationArchiveRepositoryImplTest {
+
+  private static final Instant REQUESTED_BEFORE = Instant.now().minusSeconds(86400);
+
+  private static final Instant ARCHIVED_AT = Instant.now();
+
+  private static final Set<NotificationStatus> STATUSES = Set.of(NotificationStatus.SENT);
+
+  private EntityManager entityManager;
+
+  private Query selectQuery;
+
+  private Query copyQuery;
+
+  private Query deleteQuery;
+
+  @BeforeEach
+  void setup() {
+    entityManager = mock(EntityManager.class);
+    selectQuery = mock(Query.class);
+    copyQuery = mock(Query.class);
+    deleteQuery = mock(Query.class);
+
+    given(entityManager.createNativeQuery(startsWith("SELECT"))).willReturn(selectQuery);
+    given(entityManager.createNativeQuery(startsWith("INSERT"))).willReturn(copyQuery);
+    given(entityManager.createNativeQuery(startsWith("DELETE"))).willReturn(deleteQuery);
+
+    given(selectQuery.setParameter(anyString(), any())).willReturn(selectQuery);
+    given(selectQuery.setHint(anyString(), any())).willReturn(selectQuery);
+    given(copyQuery.setParameter(anyString(), any())).willReturn(copyQuery);
+    given(deleteQuery.setParameter(anyString(), any())).willReturn(deleteQuery);
+  }
+
+  @DisplayName("WHEN the database is PostgreSQL")
+  @Nested
+  class WhenPostgres {
+
+    @DisplayName("THEN the notifications are copied to the archive and deleted")
+    @Test
+    void archiveNotifications_whenPostgres_thenCopiedAndDeleted() {
+
+      List<Object> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+      given(selectQuery.getResultList()).willReturn(ids);
+      given(deleteQuery.executeUpdate()).willReturn(2);
+
+      var archivedCount = createRepository("postgresql")
+          .archiveNotifications(STATUSES, REQUESTED_BEFORE, ARCHIVED_AT, 10);
+
+      assertThat(archivedCount).isEqualTo(2);
+
+      var sqlCaptor = ArgumentCaptor.forClass(String.class);
+      then(entityManager).should(times(3)).createNativeQuery(sqlCaptor.capture());
+
+      assertThat(sqlCaptor.getAllValues().get(0))
+          .contains("LIMIT :limit")
+          .contains("FOR UPDATE SKIP LOCKED");
+
+      assertThat(sqlCaptor.getAllValues().get(1))
+          .contains("INSERT INTO {h-schema}notification_library_notifications_archive");
+
+      then(selectQuery).should().setParameter("statuses", List.of("SENT"));
+      then(selectQuery).should().setParameter("requestedBefore", REQUESTED_BEFORE);
+      then(selectQuery).should().setParameter("limit", 10);
+
+      then(copyQuery).should().setParameter("ids", ids);
+      then(copyQuery).should().setParameter("archivedAt", ARCHIVED_AT);
+      then(copyQuery).should().executeUpdate();
+
+      then(deleteQuery).should().setParameter("ids", ids);
+    }
+
+    @DisplayName("AND there are no notifications to archive")
+    @Nested
+    class AndNoNotifications {
+
+      @DisplayName("THEN nothing is copied or deleted")
+      @Test
+      void archiveNotifications_whenNoNotifications_thenNothingCopiedOrDeleted() {
+
+        given(selectQuery.getResultList()).willReturn(List.of());
+
+        var archivedCount = createRepository("postgresql")
+            .archiveNotifications(STATUSES, REQUESTED_BEFORE, ARCHIVED_AT, 10);
+
+        assertThat(archivedCount).isZero();
+
+        then(copyQuery).shouldHaveNoInteractions();
+        then(deleteQuery).shouldHaveNoInteractions();
+      }
+    }
+  }
+
+  @DisplayName("WHEN the database is Oracle")
+  @Nested
+  class WhenOracle {
+
+    @DisplayName("THEN only the limited number of rows are fetched from a query skipping locked rows")
+    @Test
+    void archiveNotifications_whenOracle_thenRowsLimitedWhenFetched() {
+
+      var firstId = new byte[] {1};
+      var secondId = new byte[] {2};
+      var thirdId = new byte[] {3};
+
+      given(selectQuery.getResultStream()).willReturn(Stream.of(firstId, secondId, thirdId));
+      given(deleteQuery.executeUpdate()).willReturn(2);
+
+      var archivedCount = createRepository("oracle")
+          .archiveNotifications(STATUSES, REQUESTED_BEFORE, ARCHIVED_AT, 2);
+
+      assertThat(archivedCount).isEqualTo(2);
+
+      var sqlCaptor = ArgumentCaptor.forClass(String.class);
+      then(entityManager).should(times(3)).createNativeQuery(sqlCaptor.capture());
+
+      assertThat(sqlCaptor.getAllValues().get(0))
+          .doesNotContain("LIMIT")
+          .contains("FOR UPDATE SKIP LOCKED");
+
+      then(selectQuery).should().setHint("org.hibernate.fetchSize", 2);
+      then(selectQuery).should(never()).setParameter(eq("limit"), anyInt());
+      then(copyQuery).should().setParameter("ids", List.of(firstId, secondId));
+      then(deleteQuery).should().setParameter("ids", List.of(firstId, secondId));
+    }
+  }
+
+  private NotificationArchiveRepositoryImpl createRepository(String flywayVendor) {
+    var libraryConfigurationProperties = new NotificationLibraryConfigurationProperties(
+        new NotificationLibraryConfigurationProperties.GovukNotify("api-key"),
+        null,
+        null,
+        null,
+        flywayVendor,
+        null
+    );
+    return new NotificationArchiveRepositoryImpl(entityManager, libraryConfigurationProperties);
+  }
+}
@@ -0,0 +1,138 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+
+@DisplayName("GIVEN I want to archive processed notifications")
+class NotificationArchiveServiceTest {
+
+  private static final Instant NOW = Instant.now();
+
+  private static final int ARCHIVE_AFTER_DAYS = 30;
+
+  private static final int BATCH_SIZE = 100;
+
+  private static final Instant REQUESTED_BEFORE = NOW.minus(Duration.ofDays(ARCHIVE_AFTER_DAYS));
+
+  private NotificationLibraryNotificationRepository notificationRepository;
+
+  private Clock clock;
+
+  private NotificationArchiveService notificationArchiveService;
+
+  @BeforeEach
+  void setup() {
+
+    notificationRepository = mock(NotificationLibraryNotificationRepository.class);
+    clock = mock(Clock.class);
+
+    var libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationArchive(true, ARCHIVE_AFTER_DAYS, BATCH_SIZE, null)
+        .build();
+
+    notificationArchiveService = new NotificationArchiveService(
+        mock(PlatformTransactionManager.class),
+        notificationRepository,
+        libraryConfigurationProperties,
+        clock
+    );
+  }
+
+  @DisplayName("WHEN there are fewer processed notifications to archive than the batch size")
+  @Nested
+  class WhenSingleBatch {
+
+    @DisplayName("THEN a single batch of notifications requested before the archive age is archived")
+    @Test
+    void archiveNotifications_whenPartialBatch_thenSingleBatchArchived() {
+
+      given(clock.instant()).willReturn(NOW);
+
+      given(notificationRepository.archiveNotifications(
+          NotificationArchiveService.ARCHIVABLE_STATUSES,
+          REQUESTED_BEFORE,
+          NOW,
+          BATCH_SIZE
+      ))
+          .willReturn(20);
+
+      var archivedCount = notificationArchiveService.archiveNotifications();
+
+      assertThat(archivedCount).isEqualTo(20);
+
+      then(notificationRepository)
+          .should(times(1))
+          .archiveNotifications(any(), any(), any(), anyInt());
+    }
+  }
+
+  @DisplayName("WHEN there are more processed notifications to archive than the batch size")
+  @Nested
+  class WhenSeveralBatches {
+
+    @DisplayName("THEN batches are archived until a batch is not full")
+    @Test
+    void archiveNotifications_whenFullBatches_thenBatchesArchivedUntilNotFull() {
+
+      given(clock.instant()).willReturn(NOW);
+
+      given(notificationRepository.archiveNotifications(
+          eq(NotificationArchiveService.ARCHIVABLE_STATUSES),
+          eq(REQUESTED_BEFORE),
+          any(),
+          eq(BATCH_SIZE)
+      ))
+          .willReturn(BATCH_SIZE, BATCH_SIZE, 5);
+
+      var archivedCount = notificationArchiveService.archiveNotifications();
+
+      assertThat(archivedCount).isEqualTo(BATCH_SIZE * 2 + 5);
+
+      then(notificationRepository)
+          .should(times(3))
+          .archiveNotifications(any(), any(), any(), anyInt());
+    }
+
+    @DisplayName("AND the cycle time budget has been spent")
+    @Nested
+    class AndCycleTimeBudgetSpent {
+
+      @DisplayName("THEN no more batches are archived until the next iteration")
+      @Test
+      void archiveNotifications_whenBudgetSpent_thenNoMoreBatchesArchived() {
+
+        given(clock.instant()).willReturn(
+            NOW,
+            NOW,
+            NOW.plus(NotificationArchiveService.ARCHIVE_CYCLE_TIME_BUDGET)
+        );
+
+        given(notificationRepository.archiveNotifications(any(), any(), any(), anyInt())).willReturn(BATCH_SIZE);
+
+        var archivedCount = notificationArchiveService.archiveNotifications();
+
+        assertThat(archivedCount).isEqualTo(BATCH_SIZE);
+
+        then(notificationRepository)
+            .should(times(1))
+            .archiveNotifications(any(), any(), any(), anyInt());
+      }
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.envers.AuditReaderFactory;
+import org.hibernate.envers.Audited;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationAuditStrategy;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+import uk.co.fivium.digitalnotificationlibrary.core.DigitalNotificationLibraryException;
+
+@DisplayName("GIVEN I want to leave notifications out of the Envers audit")
+class NotificationAuditIntegratorTest {
+
+  private static final Instant FIXED_INSTANT = Instant.now();
+
+  private static final Clock FIXED_CLOCK = Clock.fixed(FIXED_INSTANT, ZoneId.systemDefault());
+
+  private EntityManagerFactory entityManagerFactory;
+
+  @AfterEach
+  void tearDown() {
+    if (entityManagerFactory != null) {
+      entityManagerFactory.close();
+    }
+  }
+
+  @DisplayName("WHEN Hibernate is bootstrapped with the journal audit strategy")
+  @Nested
+  class WhenBootstrappedWithJournal {
+
+    @DisplayName("THEN status changes are journalled, notifications aren't audited and other entities still are")
+    @Test
+    void bootstrap_whenJournal_thenNotificationsJournalledAndOtherEntitiesAudited() {
+
+      entityManagerFactory = bootstrap(NotificationAuditStrategy.JOURNAL, new HashMap<>());
+
+      var notificationId = inTransaction(entityManager -> {
+        var notification = new Notification();
+        notification.setStatus(NotificationStatus.QUEUED);
+        notification.setRequestedOn(FIXED_INSTANT);
+        entityManager.persist(notification);
+        entityManager.persist(new AuditedConsumerEntity(1L, "created"));
+        return notification.getId();
+      });
+
+      inTransaction(entityManager -> {
+        entityManager.find(Notification.class, notificationId).setStatus(NotificationStatus.SENDING_TO_NOTIFY);
+        entityManager.find(AuditedConsumerEntity.class, 1L).name = "updated";
+        return null;
+      });
+
+      inTransaction(entityManager -> {
+
+        var transitions = entityManager
+            .createQuery("SELECT t FROM NotificationStatusTransition t ORDER BY t.id", NotificationStatusTransition.class)
+            .getResultList();
+
+        assertThat(transitions)
+            .extracting(NotificationStatusTransition::getFromStatus, NotificationStatusTransition::getToStatus)
+            .containsExactly(
+                tuple(null, NotificationStatus.QUEUED),
+                tuple(NotificationStatus.QUEUED, NotificationStatus.SENDING_TO_NOTIFY)
+            );
+
+        var auditReader = AuditReaderFactory.get(entityManager);
+
+        assertThat(auditReader.getRevisions(Notification.class, notificationId)).isEmpty();
+        assertThat(auditReader.getRevisions(AuditedConsumerEntity.class, 1L)).hasSize(2);
+        return null;
+      });
+    }
+  }
+
+  @DisplayName("WHEN the consumer has already configured an integrator provider")
+  @Nested
+  class WhenIntegratorProviderConfigured {
+
+    @DisplayName("THEN the integrators of the consumer's provider are still integrated")
+    @Test
+    void bootstrap_whenIntegratorProviderConfigured_thenConsumerIntegratorsKept() {
+
+      Map<String, Object> hibernateProperties = new HashMap<>();
+      hibernateProperties.put(
+          NotificationAuditIntegrator.INTEGRATOR_PROVIDER_PROPERTY,
+          RecordingIntegratorProvider.class.getName()
+      );
+
+      RecordingIntegrator.integrated = false;
+
+      entityManagerFactory = bootstrap(NotificationAuditStrategy.JOURNAL, hibernateProperties);
+
+      assertThat(RecordingIntegrator.integrated).isTrue();
+
+      var notificationId = inTransaction(entityManager -> {
+        var notification = new Notification();
+        notification.setStatus(NotificationStatus.QUEUED);
+        entityManager.persist(notification);
+        return notification.getId();
+      });
+
+      var transitions = inTransaction(entityManager -> entityManager
+          .createQuery(
+              "SELECT t FROM NotificationStatusTransition t WHERE t.notificationId = :id",
+              NotificationStatusTransition.class
+          )
+          .setParameter("id", notificationId)
+          .getResultList()
+      );
+
+      assertThat(transitions).hasSize(1);
+    }
+
+    @DisplayName("AND the provider can't be created")
+    @Nested
+    class AndProviderCannotBeCreated {
+
+      @DisplayName("THEN an exception is thrown")
+      @Test
+      void withIntegratorProvider_whenProviderCannotBeCreated_thenException() {
+
+        var integrator = new NotificationAuditIntegrator(NotificationAuditStrategy.JOURNAL, FIXED_CLOCK);
+
+        assertThatThrownBy(() -> integrator.withIntegratorProvider("uk.co.fivium.UnknownIntegratorProvider"))
+            .isInstanceOf(DigitalNotificationLibraryException.class);
+      }
+    }
+  }
+
+  private EntityManagerFactory bootstrap(NotificationAuditStrategy auditStrategy,
+                                         Map<String, Object> hibernateProperties) {
+
+    var libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationAuditStrategy(auditStrategy)
+        .build();
+
+    new NotificationAutoConfiguration()
+        .notificationAuditHibernatePropertiesCustomizer(libraryConfigurationProperties, FIXED_CLOCK)
+        .customize(hibernateProperties);
+
+    hibernateProperties.put("hibernate.hbm2ddl.auto", "create-drop");
+
+    var dataSource = new DriverManagerDataSource("jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1".formatted(UUID.randomUUID()));
+
+    var entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+    entityManagerFactoryBean.setDataSource(dataSource);
+    entityManagerFactoryBean.setPackagesToScan(Notification.class.getPackageName());
+    entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+    entityManagerFactoryBean.setJpaPropertyMap(hibernateProperties);
+    entityManagerFactoryBean.afterPropertiesSet();
+
+    return entityManagerFactoryBean.getObject();
+  }
+
+  private <T> T inTransaction(Function<EntityManager, T> work) {
+
+    var entityManager = entityManagerFactory.createEntityManager();
+
+    try {
+      entityManager.getTransaction().begin();
+      var result = work.apply(entityManager);
+      entityManager.getTransaction().commit();
+      return result;
+    } finally {
+      entityManager.close();
+    }
+  }
+
+  @Entity
+  @Table(name = "audited_consumer_entities")
+  @Audited
+  static class AuditedConsumerEntity {
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    protected AuditedConsumerEntity() {
+    }
+
+    AuditedConsumerEntity(Long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+  public static class RecordingIntegratorProvider implements IntegratorProvider {
+
+    @Override
+    public List<Integrator> getIntegrators() {
+      return List.of(new RecordingIntegrator());
+    }
+  }
+
+  static class RecordingIntegrator implements Integrator {
+
+    static boolean integrated;
+
+    @Override
+    public void integrate(Metadata metadata,
+                          BootstrapContext bootstrapContext,
+                          SessionFactoryImplementor sessionFactory) {
+      integrated = true;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+      // nothing to release
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("GIVEN I want to publish the notification backlog")
+class NotificationBacklogMetricsTest {
+
+  private NotificationLibraryNotificationRepository notificationRepository;
+
+  private SimpleMeterRegistry meterRegistry;
+
+  private NotificationBacklogMetrics notificationBacklogMetrics;
+
+  @BeforeEach
+  void setup() {
+    notificationRepository = mock(NotificationLibraryNotificationRepository.class);
+    meterRegistry = new SimpleMeterRegistry();
+    notificationBacklogMetrics = new NotificationBacklogMetrics(notificationRepository, meterRegistry);
+  }
+
+  @DisplayName("WHEN the backlog has not been refreshed")
+  @Nested
+  class WhenNotRefreshed {
+
+    @DisplayName("THEN a backlog of zero is published for each status")
+    @Test
+    void whenNotRefreshed_thenZeroBacklog() {
+      NotificationBacklogMetrics.BACKLOG_STATUSES.forEach(status ->
+          assertThat(getBacklog(status)).isZero()
+      );
+    }
+  }
+
+  @DisplayName("WHEN the backlog is refreshed")
+  @Nested
+  class WhenRefreshed {
+
+    @DisplayName("THEN the number of notifications with each status is published")
+    @Test
+    void refresh_thenCountsPublished() {
+
+      given(notificationRepository.countNotificationsByStatuses(NotificationBacklogMetrics.BACKLOG_STATUSES))
+          .willReturn(List.of(
+              new NotificationStatusCount(NotificationStatus.QUEUED, 120L),
+              new NotificationStatusCount(NotificationStatus.SENT_TO_NOTIFY, 45L)
+          ));
+
+      notificationBacklogMetrics.refresh();
+
+      assertThat(getBacklog(NotificationStatus.QUEUED)).isEqualTo(120);
+      assertThat(getBacklog(NotificationStatus.SENT_TO_NOTIFY)).isEqualTo(45);
+      assertThat(getBacklog(NotificationStatus.FAILED_TO_SEND_TO_NOTIFY)).isZero();
+    }
+
+    @DisplayName("AND a status no longer has any notifications")
+    @Nested
+    class AndStatusEmptied {
+
+      @DisplayName("THEN a backlog of zero is published for the status")
+      @Test
+      void refresh_whenStatusEmptied_thenZeroPublished() {
+
+        given(notificationRepository.countNotificationsByStatuses(NotificationBacklogMetrics.BACKLOG_STATUSES))
+            .willReturn(List.of(new NotificationStatusCount(NotificationStatus.RETRY, 3L)))
+            .willReturn(List.of());
+
+        notificationBacklogMetrics.refresh();
+        assertThat(getBacklog(NotificationStatus.RETRY)).isEqualTo(3);
+
+        notificationBacklogMetrics.refresh();
+        assertThat(getBacklog(NotificationStatus.RETRY)).isZero();
+      }
+    }
+  }
+
+  private double getBacklog(NotificationStatus status) {
+    return meterRegistry.get(NotificationBacklogMetrics.METRIC_NAME)
+        .tag("status", status.name())
+        .gauge()
+        .value();
+  }
+}
@@ -0,0 +1,624 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import jakarta.persistence.EntityManager;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationAuditStrategy;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+
+@DisplayName("GIVEN I want to save the outcome of processing notifications")
+class NotificationBatchPersistenceServiceTest {
+
+  private static final int PERSISTENCE_BATCH_SIZE = 2;
+
+  private static final Instant FIXED_INSTANT = Instant.now();
+
+  private static final Clock FIXED_CLOCK = Clock.fixed(FIXED_INSTANT, ZoneId.systemDefault());
+
+  private NotificationLibraryNotificationRepository notificationRepository;
+
+  private PlatformTransactionManager transactionManager;
+
+  private Session session;
+
+  private EntityManager entityManager;
+
+  private NotificationQueuedNotifier notificationQueuedNotifier;
+
+  private NotificationBatchPersistenceService notificationBatchPersistenceService;
+
+  @BeforeEach
+  void setup() {
+
+    notificationRepository = mock(NotificationLibraryNotificationRepository.class);
+    given(notificationRepository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
+    transactionManager = mock(PlatformTransactionManager.class);
+    session = mock(Session.class);
+
+    entityManager = mock(EntityManager.class);
+    given(entityManager.unwrap(Session.class)).willReturn(session);
+
+    notificationQueuedNotifier = mock(NotificationQueuedNotifier.class);
+
+    var libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationPersistenceBatchSize(PERSISTENCE_BATCH_SIZE)
+        .build();
+
+    notificationBatchPersistenceService = new NotificationBatchPersistenceService(
+        transactionManager,
+        notificationRepository,
+        entityManager,
+        libraryConfigurationProperties,
+        FIXED_CLOCK,
+        notificationQueuedNotifier
+    );
+  }
+
+  @DisplayName("WHEN I insert newly queued notifications")
+  @Nested
+  class WhenInserting {
+
+    @DisplayName("THEN the notifications are inserted in batches, all in one transaction")
+    @Test
+    void insertNotifications_thenInsertedInBatches() {
+
+      var firstNotification = NotificationTestUtil.builder().build();
+      var secondNotification = NotificationTestUtil.builder().build();
+      var thirdNotification = NotificationTestUtil.builder().build();
+
+      given(session.getJdbcBatchSize()).willReturn(null);
+
+      given(notificationRepository.saveAll(List.of(firstNotification, secondNotification)))
+          .willReturn(List.of(firstNotification, secondNotification));
+
+      given(notificationRepository.saveAll(List.of(thirdNotification)))
+          .willReturn(List.of(thirdNotification));
+
+      notificationBatchPersistenceService.insertNotifications(
+          List.of(firstNotification, secondNotification, thirdNotification)
+      );
+
+      // one transaction for every batch of two notifications
+      then(transactionManager)
+          .should()
+          .getTransaction(argThat(definition ->
+              definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRED
+          ));
+
+      then(transactionManager)
+          .should()
+          .commit(any());
+
+      then(session)
+          .should(times(2))
+          .setJdbcBatchSize(PERSISTENCE_BATCH_SIZE);
+
+      then(notificationRepository)
+          .should()
+          .saveAll(List.of(firstNotification, secondNotification));
+
+      then(notificationRepository)
+          .should()
+          .saveAll(List.of(thirdNotification));
+
+      then(entityManager)
+          .should(times(2))
+          .flush();
+
+      then(notificationQueuedNotifier)
+          .should()
+          .notifyQueuedAfterCommit();
+
+      // the batch size of the session is restored and the notifications detached after each batch is flushed
+      then(session)
+          .should(times(2))
+          .setJdbcBatchSize(null);
+
+      then(entityManager).should().detach(firstNotification);
+      then(entityManager).should().detach(secondNotification);
+      then(entityManager).should().detach(thirdNotification);
+    }
+
+    @DisplayName("THEN a batch failing to insert rolls back every batch and the exception is thrown")
+    @Test
+    void insertNotifications_whenBatchFails_thenEveryBatchRolledBack() {
+
+      var firstNotification = NotificationTestUtil.builder().build();
+      var secondNotification = NotificationTestUtil.builder().build();
+      var thirdNotification = NotificationTestUtil.builder().build();
+
+      var exception = new RuntimeException("insert failed");
+
+      given(notificationRepository.saveAll(List.of(firstNotification, secondNotification)))
+          .willReturn(List.of(firstNotification, secondNotification));
+
+      given(notificationRepository.saveAll(List.of(thirdNotification)))
+          .willThrow(exception);
+
+      assertThatThrownBy(() -> notificationBatchPersistenceService.insertNotifications(
+          List.of(firstNotification, secondNotification, thirdNotification)
+      ))
+          .isSameAs(exception);
+
+      // the batch already written is in the same transaction, so it is rolled back with the failed batch
+      then(transactionManager)
+          .should()
+          .getTransaction(any());
+
+      then(transactionManager)
+          .should()
+          .rollback(any());
+
+      then(transactionManager)
+          .should(never())
+          .commit(any());
+    }
+  }
+
+  @DisplayName("WHEN I insert a chunk of notifications queued from a stream")
+  @Nested
+  class WhenInsertingChunk {
+
+    @DisplayName("THEN the chunk is committed in a new transaction and the persistence context is cleared")
+    @Test
+    void insertNotificationChunk_thenInsertedInNewTransactionAndCleared() {
+
+      var firstNotification = NotificationTestUtil.builder().build();
+      var secondNotification = NotificationTestUtil.builder().build();
+      var thirdNotification = NotificationTestUtil.builder().build();
+
+      var chunk = List.of(firstNotification, secondNotification, thirdNotification);
+
+      notificationBatchPersistenceService.insertNotificationChunk(chunk);
+
+      then(transactionManager)
+          .should()
+          .getTransaction(argThat(definition ->
+              definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+          ));
+
+      then(session)
+          .should()
+          .setJdbcBatchSize(PERSISTENCE_BATCH_SIZE);
+
+      var inOrder = inOrder(notificationRepository, entityManager);
+      inOrder.verify(notificationRepository).saveAll(chunk);
+      inOrder.verify(entityManager).flush();
+
+      then(notificationQueuedNotifier).should().notifyQueuedAfterCommit();
+      inOrder.verify(entityManager).clear();
+    }
+  }
+
+  @DisplayName("WHEN all the notifications save successfully")
+  @Nested
+  class WhenAllNotificationsSave {
+
+    @DisplayName("THEN the notifications are saved in batches and their claims are released")
+    @Test
+    void saveNotifications_whenSuccessful_thenSavedInBatches() {
+
+      var firstNotification = claimedNotification();
+      var secondNotification = claimedNotification();
+      var thirdNotification = claimedNotification();
+
+      givenStillClaimed(firstNotification, secondNotification, thirdNotification);
+
+      notificationBatchPersistenceService.saveNotifications(
+          List.of(firstNotification, secondNotification, thirdNotification)
+      );
+
+      // one transaction for each batch of two notifications
+      then(transactionManager)
+          .should(times(2))
+          .getTransaction(any());
+
+      then(session)
+          .should(times(2))
+          .setJdbcBatchSize(PERSISTENCE_BATCH_SIZE);
+
+      then(notificationRepository)
+          .should()
+          .lockNotificationsByIds(List.of(firstNotification.getId(), secondNotification.getId()));
+
+      then(notificationRepository)
+          .should()
+          .lockNotificationsByIds(List.of(thirdNotification.getId()));
+
+      then(notificationRepository).should().save(firstNotification);
+      then(notificationRepository).should().save(secondNotification);
+      then(notificationRepository).should().save(thirdNotification);
+
+      assertThat(List.of(firstNotification, secondNotification, thirdNotification))
+          .extracting(Notification::getClaimedUntil)
+          .containsOnlyNulls();
+    }
+  }
+
+  @DisplayName("WHEN a notification has been claimed by another node since this node's claim expired")
+  @Nested
+  class WhenNotificationClaimedByAnotherNode {
+
+    @DisplayName("THEN the outcome is not saved over the other node's claim and the other notifications are saved")
+    @Test
+    void saveNotifications_whenClaimedByAnotherNode_thenNotSaved() {
+
+      var reclaimedNotification = claimedNotification();
+      var claimedNotification = claimedNotification();
+
+      var lockedReclaimedNotification = new Notification(reclaimedNotification.getId());
+      lockedReclaimedNotification.setClaimedUntil(reclaimedNotification.getClaimedUntil().plusSeconds(60));
+
+      var lockedClaimedNotification = new Notification(claimedNotification.getId());
+      lockedClaimedNotification.setClaimedUntil(claimedNotification.getClaimedUntil());
+
+      given(notificationRepository.lockNotificationsByIds(any()))
+          .willReturn(List.of(lockedReclaimedNotification, lockedClaimedNotification));
+
+      notificationBatchPersistenceService.saveNotifications(List.of(reclaimedNotification, claimedNotification));
+
+      then(notificationRepository).should(never()).save(reclaimedNotification);
+      then(notificationRepository).should().save(claimedNotification);
+
+      assertThat(lockedReclaimedNotification.getClaimedUntil())
+          .isEqualTo(reclaimedNotification.getClaimedUntil().plusSeconds(60));
+    }
+
+    @DisplayName("THEN the status is not applied over the other node's claim")
+    @Test
+    void saveNotificationStatuses_whenClaimedByAnotherNode_thenNotSaved() {
+
+      var lockedNotification = NotificationTestUtil.builder()
+          .withStatus(NotificationStatus.SENT_TO_NOTIFY)
+          .build();
+      lockedNotification.setClaimedUntil(Instant.now().plusSeconds(60));
+
+      var statusUpdate = new Notification(lockedNotification.getId());
+      statusUpdate.setStatus(NotificationStatus.SENT);
+      statusUpdate.setClaimedUntil(Instant.now());
+
+      given(notificationRepository.lockNotificationsByIds(List.of(statusUpdate.getId())))
+          .willReturn(List.of(lockedNotification));
+
+      notificationBatchPersistenceService.saveNotificationStatuses(List.of(statusUpdate));
+
+      then(notificationRepository).should(never()).save(any());
+
+      assertThat(lockedNotification)
+          .extracting(Notification::getStatus, Notification::getClaimedUntil)
+          .containsExactly(NotificationStatus.SENT_TO_NOTIFY, lockedNotification.getClaimedUntil());
+    }
+  }
+
+  @DisplayName("WHEN a notification in a batch fails to save")
+  @Nested
+  class WhenNotificationFailsToSave {
+
+    @DisplayName("THEN the other notifications in the batch are saved individually")
+    @Test
+    void saveNotifications_whenNotificationFails_thenOtherNotificationsSaved() {
+
+      var failingNotification = claimedNotification();
+      var successfulNotification = claimedNotification();
+
+      givenStillClaimed(failingNotification, successfulNotification);
+
+      given(notificationRepository.save(failingNotification))
+          .willThrow(new IllegalStateException("failed to save"));
+
+      notificationBatchPersistenceService.saveNotifications(List.of(failingNotification, successfulNotification));
+
+      // once as part of the failed batch and again on its own
+      then(notificationRepository)
+          .should(times(2))
+          .save(failingNotification);
+
+      // only attempted on its own as the batch failed before reaching it
+      then(notificationRepository)
+          .should()
+          .save(successfulNotification);
+
+      then(notificationRepository)
+          .should()
+          .updateSendOutcome(failingNotification);
+
+      then(notificationRepository)
+          .should(never())
+          .updateSendOutcome(successfulNotification);
+
+      // the failed batch didn't release the claim, so the outcome of the failing notification is written with it
+      assertThat(failingNotification.getClaimedUntil()).isNotNull();
+
+      // the failed batch, each notification being retried individually and the outcome of the failing notification
+      // are rolled back or committed separately
+      then(transactionManager)
+          .should(times(4))
+          .getTransaction(any());
+    }
+
+    @DisplayName("AND the journal audit strategy is used")
+    @Nested
+    class AndJournalAuditStrategy {
+
+      @BeforeEach
+      void setup() {
+        notificationBatchPersistenceService = createPersistenceService(NotificationAuditStrategy.JOURNAL);
+      }
+
+      @DisplayName("THEN the outcome of sending it is written on its own and the transition is journalled")
+      @Test
+      void saveNotifications_whenNotificationFails_thenSendOutcomeUpdatedAndTransitionJournalled() {
+
+        var failingNotification = claimedNotification();
+        failingNotification.setStatus(NotificationStatus.SENT_TO_NOTIFY);
+        failingNotification.setNotifyNotificationId("notify-id");
+
+        givenStillClaimed(failingNotification);
+
+        given(notificationRepository.save(failingNotification))
+            .willThrow(new IllegalStateException("failed to save"));
+
+        given(notificationRepository.updateSendOutcome(failingNotification)).willReturn(1);
+
+        notificationBatchPersistenceService.saveNotifications(List.of(failingNotification));
+
+        then(notificationRepository).should().updateSendOutcome(failingNotification);
+
+        var transitionCaptor = ArgumentCaptor.forClass(NotificationStatusTransition.class);
+        then(entityManager).should().persist(transitionCaptor.capture());
+
+        assertThat(transitionCaptor.getValue())
+            .extracting(
+                NotificationStatusTransition::getNotificationId,
+                NotificationStatusTransition::getFromStatus,
+                NotificationStatusTransition::getToStatus
+            )
+            .containsExactly(
+                failingNotification.getId(),
+                NotificationStatus.SENDING_TO_NOTIFY,
+                NotificationStatus.SENT_TO_NOTIFY
+            );
+      }
+
+      @DisplayName("THEN nothing is journalled when the notification no longer exists")
+      @Test
+      void saveNotifications_whenNotificationFailsAndDeleted_thenNothingJournalled() {
+
+        var failingNotification = claimedNotification();
+        failingNotification.setStatus(NotificationStatus.SENT_TO_NOTIFY);
+
+        givenStillClaimed(failingNotification);
+
+        given(notificationRepository.save(failingNotification))
+            .willThrow(new IllegalStateException("failed to save"));
+
+        notificationBatchPersistenceService.saveNotifications(List.of(failingNotification));
+
+        then(notificationRepository).should().updateSendOutcome(failingNotification);
+        then(entityManager).should(never()).persist(any());
+      }
+    }
+  }
+
+  @DisplayName("WHEN I save the status of notifications")
+  @Nested
+  class WhenSavingStatuses {
+
+    @DisplayName("THEN only the status is applied to the loaded notification and its claim is released")
+    @Test
+    void saveNotificationStatuses_thenStatusAppliedToLoadedNotification() {
+
+      var loadedNotification = NotificationTestUtil.builder()
+          .withStatus(NotificationStatus.SENT_TO_NOTIFY)
+          .withMailMergeField("name", "value")
+          .build();
+      loadedNotification.setClaimedUntil(Instant.now());
+
+      var statusUpdate = new Notification(loadedNotification.getId());
+      statusUpdate.setStatus(NotificationStatus.SENT);
+      statusUpdate.setNotifyStatus("delivered");
+      statusUpdate.setClaimedUntil(loadedNotification.getClaimedUntil());
+
+      given(notificationRepository.lockNotificationsByIds(List.of(loadedNotification.getId())))
+          .willReturn(List.of(loadedNotification));
+
+      notificationBatchPersistenceService.saveNotificationStatuses(List.of(statusUpdate));
+
+      then(notificationRepository).should().save(loadedNotification);
+      then(notificationRepository).should(never()).save(statusUpdate);
+
+      assertThat(loadedNotification)
+          .extracting(
+              Notification::getStatus,
+              Notification::getNotifyStatus,
+              Notification::getMailMergeFields,
+              Notification::getClaimedUntil
+          )
+          .containsExactly(NotificationStatus.SENT, "delivered", Set.of(new MailMergeField("name", "value")), null);
+    }
+
+    @DisplayName("AND the journal audit strategy is used")
+    @Nested
+    class AndJournalAuditStrategy {
+
+      @BeforeEach
+      void setup() {
+        notificationBatchPersistenceService = createPersistenceService(NotificationAuditStrategy.JOURNAL);
+      }
+
+      @DisplayName("THEN the status is written without loading the notification and the transition is journalled")
+      @Test
+      void saveNotificationStatuses_whenStatusChanged_thenStatusUpdatedAndTransitionJournalled() {
+
+        var statusUpdate = statusUpdate(NotificationStatus.SENT_TO_NOTIFY, NotificationStatus.FAILED_NOT_SENT);
+        statusUpdate.setFailureReason("permanent failure");
+
+        given(notificationRepository.updateNotificationStatuses(List.of(statusUpdate))).willReturn(List.of(statusUpdate));
+
+        notificationBatchPersistenceService.saveNotificationStatuses(List.of(statusUpdate));
+
+        then(notificationRepository).should().updateNotificationStatuses(List.of(statusUpdate));
+        then(notificationRepository).should(never()).lockNotificationsByIds(any());
+        then(notificationRepository).should(never()).save(any());
+
+        var transitionCaptor = ArgumentCaptor.forClass(NotificationStatusTransition.class);
+        then(entityManager).should().persist(transitionCaptor.capture());
+
+        assertThat(transitionCaptor.getValue())
+            .extracting(
+                NotificationStatusTransition::getNotificationId,
+                NotificationStatusTransition::getFromStatus,
+                NotificationStatusTransition::getToStatus,
+                NotificationStatusTransition::getTransitionedAt,
+                NotificationStatusTransition::getReason
+            )
+            .containsExactly(
+                statusUpdate.getId(),
+                NotificationStatus.SENT_TO_NOTIFY,
+                NotificationStatus.FAILED_NOT_SENT,
+                FIXED_INSTANT,
+                "permanent failure"
+            );
+      }
+
+      @DisplayName("THEN nothing is journalled when the status is unchanged")
+      @Test
+      void saveNotificationStatuses_whenStatusUnchanged_thenNothingJournalled() {
+
+        var statusUpdate = statusUpdate(NotificationStatus.SENT_TO_NOTIFY, NotificationStatus.SENT_TO_NOTIFY);
+
+        given(notificationRepository.updateNotificationStatuses(List.of(statusUpdate))).willReturn(List.of(statusUpdate));
+
+        notificationBatchPersistenceService.saveNotificationStatuses(List.of(statusUpdate));
+
+        then(notificationRepository).should().updateNotificationStatuses(List.of(statusUpdate));
+        then(entityManager).should(never()).persist(any());
+      }
+
+      @DisplayName("THEN nothing is journalled when the notification no longer exists")
+      @Test
+      void saveNotificationStatuses_whenNotificationDeleted_thenNothingJournalled() {
+
+        var statusUpdate = statusUpdate(NotificationStatus.SENT_TO_NOTIFY, NotificationStatus.SENT);
+
+        given(notificationRepository.updateNotificationStatuses(List.of(statusUpdate))).willReturn(List.of());
+
+        notificationBatchPersistenceService.saveNotificationStatuses(List.of(statusUpdate));
+
+        then(entityManager).should(never()).persist(any());
+      }
+    }
+
+    @DisplayName("AND notifications are not audited")
+    @Nested
+    class AndNoAuditStrategy {
+
+      @DisplayName("THEN the status is written without loading the notification and nothing is journalled")
+      @Test
+      void saveNotificationStatuses_whenNotAudited_thenStatusUpdatedWithoutLoading() {
+
+        notificationBatchPersistenceService = createPersistenceService(NotificationAuditStrategy.NONE);
+
+        var statusUpdate = statusUpdate(NotificationStatus.SENT_TO_NOTIFY, NotificationStatus.SENT);
+
+        given(notificationRepository.updateNotificationStatuses(List.of(statusUpdate))).willReturn(List.of(statusUpdate));
+
+        notificationBatchPersistenceService.saveNotificationStatuses(List.of(statusUpdate));
+
+        then(notificationRepository).should().updateNotificationStatuses(List.of(statusUpdate));
+        then(notificationRepository).should(never()).lockNotificationsByIds(any());
+        then(entityManager).should(never()).persist(any());
+      }
+    }
+
+    @DisplayName("AND the notification no longer exists")
+    @Nested
+    class AndNotificationDeleted {
+
+      @DisplayName("THEN nothing is saved")
+      @Test
+      void saveNotificationStatuses_whenNotificationDeleted_thenNothingSaved() {
+
+        var statusUpdate = claimedNotification();
+
+        notificationBatchPersistenceService.saveNotificationStatuses(List.of(statusUpdate));
+
+        then(notificationRepository).should(never()).save(any());
+      }
+    }
+  }
+
+  private NotificationBatchPersistenceService createPersistenceService(NotificationAuditStrategy auditStrategy) {
+
+    var libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationPersistenceBatchSize(PERSISTENCE_BATCH_SIZE)
+        .withNotificationAuditStrategy(auditStrategy)
+        .build();
+
+    return new NotificationBatchPersistenceService(
+        transactionManager,
+        notificationRepository,
+        entityManager,
+        libraryConfigurationProperties,
+        FIXED_CLOCK,
+        notificationQueuedNotifier
+    );
+  }
+
+  private Notification statusUpdate(NotificationStatus claimedStatus, NotificationStatus status) {
+    var statusUpdate = new Notification(UUID.randomUUID());
+    statusUpdate.setClaimedStatus(claimedStatus);
+    statusUpdate.setStatus(status);
+    statusUpdate.setClaimedUntil(Instant.now());
+    return statusUpdate;
+  }
+
+  private void givenStillClaimed(Notification... claimedNotifications) {
+
+    var lockedNotifications = Arrays.stream(claimedNotifications)
+        .map(claimedNotification -> {
+          var lockedNotification = new Notification(claimedNotification.getId());
+          lockedNotification.setClaimedUntil(claimedNotification.getClaimedUntil());
+          return lockedNotification;
+        })
+        .toList();
+
+    given(notificationRepository.lockNotificationsByIds(any())).willAnswer(invocation -> {
+      Collection<UUID> ids = invocation.getArgument(0);
+      return lockedNotifications.stream()
+          .filter(lockedNotification -> ids.contains(lockedNotification.getId()))
+          .toList();
+    });
+  }
+
+  private Notification claimedNotification() {
+    var notification = NotificationTestUtil.builder().build();
+    notification.setClaimedUntil(Instant.now());
+    return notification;
+  }
+}
@@ -0,0 +1,337 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+@DisplayName("GIVEN I want to claim notifications using row locking")
+class NotificationClaimRepositoryImplTest {
+
+  private static final Instant CLAIMABLE_AT = Instant.now();
+
+  private EntityManager entityManager;
+
+  private Query query;
+
+  @BeforeEach
+  void setup() {
+    entityManager = mock(EntityManager.class);
+    query = mock(Query.class);
+
+    given(entityManager.createNativeQuery(anyString(), eq(Notification.class))).willReturn(query);
+    given(query.setParameter(anyString(), any())).willReturn(query);
+    given(query.setHint(anyString(), any())).willReturn(query);
+  }
+
+  @DisplayName("WHEN the database is PostgreSQL")
+  @Nested
+  class WhenPostgres {
+
+    @DisplayName("THEN a limited query skipping locked rows is used")
+    @Test
+    void claimNotificationsByStatuses_whenPostgres_thenLimitAndSkipLockedUsed() {
+
+      var notification = NotificationTestUtil.builder().build();
+      given(query.getResultList()).willReturn(List.of(notification));
+
+      var claimedNotifications = createRepository("postgresql")
+          .claimNotificationsByStatuses(
+              Set.of(NotificationStatus.QUEUED),
+              Set.of(NotificationPriority.HIGH),
+              CLAIMABLE_AT,
+              null,
+              10
+          );
+
+      assertThat(claimedNotifications).containsExactly(notification);
+
+      var sqlCaptor = ArgumentCaptor.forClass(String.class);
+      then(entityManager).should().createNativeQuery(sqlCaptor.capture(), eq(Notification.class));
+
+      assertThat(sqlCaptor.getValue())
+          .contains("LIMIT :limit")
+          .contains("FOR UPDATE SKIP LOCKED");
+
+      then(query).should().setParameter("statuses", List.of("QUEUED"));
+      then(query).should().setParameter("priorities", List.of("HIGH"));
+      then(query).should().setParameter("claimableAt", CLAIMABLE_AT);
+      then(query).should().setParameter("limit", 10);
+    }
+  }
+
+  @DisplayName("WHEN I claim notifications from one of the queues")
+  @Nested
+  class WhenClaimingFromQueue {
+
+    @DisplayName("THEN the statuses of the send queue are repeated as literals so its partial index can be used")
+    @Test
+    void claimNotificationsByStatuses_whenSendQueue_thenSendQueueStatusesRepeated() {
+
+      createRepository("postgresql")
+          .claimNotificationsByStatuses(
+              Set.of(NotificationStatus.RETRY),
+              Set.of(NotificationPriority.HIGH),
+              CLAIMABLE_AT,
+              null,
+              10
+          );
+
+      var sqlCaptor = ArgumentCaptor.forClass(String.class);
+      then(entityManager).should().createNativeQuery(sqlCaptor.capture(), eq(Notification.class));
+
+      assertThat(sqlCaptor.getValue())
+          .contains("n.status IN (:statuses)")
+          .contains("n.status IN ('QUEUED', 'RETRY')");
+    }
+
+    @DisplayName("THEN the statuses of the update queue are repeated as literals so its partial index can be used")
+    @Test
+    void claimNotificationsByStatuses_whenUpdateQueue_thenUpdateQueueStatusesRepeated() {
+
+      createRepository("postgresql")
+          .claimNotificationsByStatuses(
+              Set.of(NotificationStatus.SENT_TO_NOTIFY),
+              Set.of(NotificationPriority.HIGH),
+              CLAIMABLE_AT,
+              null,
+              10
+          );
+
+      var sqlCaptor = ArgumentCaptor.forClass(String.class);
+      then(entityManager).should().createNativeQuery(sqlCaptor.capture(), eq(Notification.class));
+
+      assertThat(sqlCaptor.getValue())
+          .contains("n.status IN (:statuses)")
+          .contains("n.status IN ('SENDING_TO_NOTIFY', 'SENT_TO_NOTIFY', 'FAILED_TO_SEND_TO_NOTIFY')");
+    }
+
+    @DisplayName("THEN no statuses are repeated when the statuses span both queues")
+    @Test
+    void claimNotificationsByStatuses_whenStatusesSpanQueues_thenNoStatusesRepeated() {
+
+      createRepository("postgresql")
+          .claimNotificationsByStatuses(
+              Set.of(NotificationStatus.QUEUED, NotificationStatus.SENT_TO_NOTIFY),
+              Set.of(NotificationPriority.HIGH),
+              CLAIMABLE_AT,
+              null,
+              10
+          );
+
+      var sqlCaptor = ArgumentCaptor.forClass(String.class);
+      then(entityManager).should().createNativeQuery(sqlCaptor.capture(), eq(Notification.class));
+
+      assertThat(sqlCaptor.getValue())
+          .doesNotContain("n.status IN ('");
+    }
+  }
+
+  @DisplayName("WHEN I claim notifications after a position in the queue")
+  @Nested
+  class WhenClaimingAfterCursor {
+
+    @DisplayName("AND the notification at the position has been sent before")
+    @Nested
+    class AndCursorSent {
+
+      @DisplayName("THEN only notifications after the position are read")
+      @Test
+      void claimNotificationsByStatuses_whenCursorSent_thenNotificationsAfterCursorRead() {
+
+        var cursor = new NotificationQueueCursor(Instant.now().minusSeconds(60), Instant.now(), UUID.randomUUID());
+
+        createRepository("postgresql")
+            .claimNotificationsByStatuses(
+                Set.of(NotificationStatus.QUEUED),
+                Set.of(NotificationPriority.HIGH),
+                CLAIMABLE_AT,
+                cursor,
+                10
+            );
+
+        var sqlCaptor = ArgumentCaptor.forClass(String.class);
+        then(entityManager).should().createNativeQuery(sqlCaptor.capture(), eq(Notification.class));
+
+        assertThat(sqlCaptor.getValue())
+            .contains("n.last_send_attempt_at >= :afterLastSendAttemptAt")
+            .contains("(n.requested_on = :afterRequestedOn AND n.id > :afterId)")
+            .contains("ORDER BY n.last_send_attempt_at ASC NULLS FIRST, n.requested_on ASC, n.id ASC");
+
+        then(query).should().setParameter("afterLastSendAttemptAt", cursor.lastSendAttemptAt());
+        then(query).should().setParameter("afterRequestedOn", cursor.requestedOn());
+        then(query).should().setParameter("afterId", cursor.id());
+      }
+    }
+
+    @DisplayName("AND the notification at the position has never been sent")
+    @Nested
+    class AndCursorNeverSent {
+
+      @DisplayName("THEN notifications which have been sent are read after those never sent")
+      @Test
+      void claimNotificationsByStatuses_whenCursorNeverSent_thenSentNotificationsIncluded() {
+
+        var cursor = new NotificationQueueCursor(null, Instant.now(), UUID.randomUUID());
+
+        createRepository("postgresql")
+            .claimNotificationsByStatuses(
+                Set.of(NotificationStatus.QUEUED),
+                Set.of(NotificationPriority.HIGH),
+                CLAIMABLE_AT,
+                cursor,
+                10
+            );
+
+        var sqlCaptor = ArgumentCaptor.forClass(String.class);
+        then(entityManager).should().createNativeQuery(sqlCaptor.capture(), eq(Notification.class));
+
+        assertThat(sqlCaptor.getValue())
+            .contains("n.last_send_attempt_at IS NOT NULL")
+            .doesNotContain(":afterLastSendAttemptAt");
+
+        then(query).should(never()).setParameter(eq("afterLastSendAttemptAt"), any());
+        then(query).should().setParameter("afterRequestedOn", cursor.requestedOn());
+        then(query).should().setParameter("afterId", cursor.id());
+      }
+    }
+  }
+
+  @DisplayName("WHEN the database is Oracle")
+  @Nested
+  class WhenOracle {
+
+    @DisplayName("THEN only the limited number of rows are fetched from a query skipping locked rows")
+    @Test
+    void claimNotificationsByStatuses_whenOracle_thenRowsLimitedWhenFetched() {
+
+      var firstNotification = NotificationTestUtil.builder().build();
+      var secondNotification = NotificationTestUtil.builder().build();
+      var thirdNotification = NotificationTestUtil.builder().build();
+
+      given(query.getResultStream()).willReturn(Stream.of(firstNotification, secondNotification, thirdNotification));
+
+      var claimedNotifications = createRepository("oracle")
+          .claimNotificationsByStatuses(
+              Set.of(NotificationStatus.QUEUED),
+              Set.of(NotificationPriority.HIGH),
+              CLAIMABLE_AT,
+              null,
+              2
+          );
+
+      assertThat(claimedNotifications).containsExactly(firstNotification, secondNotification);
+
+      var sqlCaptor = ArgumentCaptor.forClass(String.class);
+      then(entityManager).should().createNativeQuery(sqlCaptor.capture(), eq(Notification.class));
+
+      assertThat(sqlCaptor.getValue())
+          .doesNotContain("LIMIT")
+          .contains("FOR UPDATE SKIP LOCKED");
+
+      then(query).should().setHint("org.hibernate.fetchSize", 2);
+      then(query).should(never()).setParameter(eq("limit"), anyInt());
+    }
+  }
+
+  @DisplayName("WHEN I claim notifications to update their status")
+  @Nested
+  class WhenClaimingStatuses {
+
+    @DisplayName("THEN only the status columns are read and mapped to status-only copies of the notifications")
+    @Test
+    void claimNotificationStatusesByStatuses_thenOnlyStatusColumnsRead() {
+
+      var statusQuery = mock(Query.class);
+      given(entityManager.createNativeQuery(anyString(), eq(Notification.STATUS_PROJECTION_MAPPING)))
+          .willReturn(statusQuery);
+      given(statusQuery.setParameter(anyString(), any())).willReturn(statusQuery);
+
+      var id = UUID.randomUUID();
+      var lastSendAttemptAt = Instant.now();
+
+      var projection = new NotificationStatusProjection(
+          id,
+          NotificationStatus.SENT_TO_NOTIFY.name(),
+          "notify-id",
+          "pending",
+          null,
+          Instant.now(),
+          null,
+          null,
+          null,
+          0,
+          lastSendAttemptAt,
+          null,
+          null
+      );
+
+      given(statusQuery.getResultList()).willReturn(List.of(projection));
+
+      var claimedNotifications = createRepository("postgresql")
+          .claimNotificationStatusesByStatuses(
+              Set.of(NotificationStatus.SENT_TO_NOTIFY),
+              Set.of(NotificationPriority.HIGH),
+              CLAIMABLE_AT,
+              null,
+              10
+          );
+
+      assertThat(claimedNotifications)
+          .singleElement()
+          .satisfies(notification -> {
+            assertThat(notification.getId()).isEqualTo(id);
+            assertThat(notification.getStatus()).isEqualTo(NotificationStatus.SENT_TO_NOTIFY);
+            assertThat(notification.getNotifyNotificationId()).isEqualTo("notify-id");
+            assertThat(notification.getLastSendAttemptAt()).isEqualTo(lastSendAttemptAt);
+            assertThat(notification.getMailMergeFields()).isNull();
+            assertThat(notification.getFileAttachments()).isNull();
+          });
+
+      var sqlCaptor = ArgumentCaptor.forClass(String.class);
+      then(entityManager)
+          .should()
+          .createNativeQuery(sqlCaptor.capture(), eq(Notification.STATUS_PROJECTION_MAPPING));
+
+      assertThat(sqlCaptor.getValue())
+          .doesNotContain("n.*")
+          .doesNotContain("mail_merge_fields")
+          .doesNotContain("file_attachments")
+          .contains("LIMIT :limit")
+          .contains("FOR UPDATE SKIP LOCKED");
+
+      then(entityManager).should(never()).createNativeQuery(anyString(), eq(Notification.class));
+    }
+  }
+
+  private NotificationClaimRepositoryImpl createRepository(String flywayVendor) {
+    var libraryConfigurationProperties = new NotificationLibraryConfigurationProperties(
+        new NotificationLibraryConfigurationProperties.GovukNotify("api-key"),
+        null,
+        null,
+        null,
+        flywayVendor,
+        null
+    );
+    return new NotificationClaimRepositoryImpl(entityManager, libraryConfigurationProperties);
+  }
+}
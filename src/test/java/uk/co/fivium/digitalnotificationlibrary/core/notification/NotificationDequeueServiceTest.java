@@ -0,0 +1,390 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.groups.Tuple.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationDequeueMode;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+
+@DisplayName("GIVEN I want to claim notifications from the queue")
+class NotificationDequeueServiceTest {
+
+  // the nanoseconds are truncated from the claim, as the databases only store microseconds
+  private static final Instant FIXED_INSTANT = Instant.parse("2024-01-01T12:00:00.123456789Z");
+
+  private static final Clock FIXED_CLOCK = Clock.fixed(FIXED_INSTANT, ZoneId.systemDefault());
+
+  private static final int CLAIM_LEASE_SECONDS = 60;
+
+  private static final Instant CLAIMED_UNTIL = Instant.parse("2024-01-01T12:01:00.123456Z");
+
+  private static final Set<NotificationStatus> STATUSES = Set.of(NotificationStatus.QUEUED, NotificationStatus.RETRY);
+
+  private static final Set<NotificationPriority> HIGH_LANE = Set.of(NotificationPriority.HIGH);
+
+  private static final Set<NotificationPriority> NORMAL_LANE = Set.of(NotificationPriority.NORMAL);
+
+  private static final Set<NotificationPriority> LOW_LANE = Set.of(NotificationPriority.LOW);
+
+  private static final Set<NotificationPriority> ALL_PRIORITIES = EnumSet.allOf(NotificationPriority.class);
+
+  // with the default weights of 6, 3 and 1 and a limit of 10
+  private static final int HIGH_SHARE = 6;
+
+  private static final int NORMAL_SHARE = 3;
+
+  private static final int LOW_SHARE = 1;
+
+  private NotificationLibraryNotificationRepository notificationRepository;
+
+  private NotificationDequeueService notificationDequeueService;
+
+  @BeforeEach
+  void setup() {
+
+    notificationRepository = mock(NotificationLibraryNotificationRepository.class);
+
+    var libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationDequeue(NotificationDequeueMode.CLAIM, CLAIM_LEASE_SECONDS)
+        .build();
+
+    notificationDequeueService = new NotificationDequeueService(
+        mock(PlatformTransactionManager.class),
+        notificationRepository,
+        libraryConfigurationProperties,
+        FIXED_CLOCK
+    );
+  }
+
+  @DisplayName("WHEN there are notifications to claim")
+  @Nested
+  class WhenNotificationsToClaim {
+
+    @DisplayName("THEN the notifications are leased to this node")
+    @Test
+    void claimNotifications_whenNotifications_thenClaimLeaseSet() {
+
+      var firstNotification = NotificationTestUtil.builder().build();
+      var secondNotification = NotificationTestUtil.builder().build();
+
+      given(notificationRepository.claimNotificationsByStatuses(STATUSES, NORMAL_LANE, FIXED_INSTANT, null, NORMAL_SHARE))
+          .willReturn(List.of(firstNotification, secondNotification));
+
+      var claimedNotifications = notificationDequeueService.claimNotifications(STATUSES, 10);
+
+      assertThat(claimedNotifications)
+          .containsExactly(firstNotification, secondNotification)
+          .extracting(Notification::getClaimedUntil)
+          .containsOnly(CLAIMED_UNTIL);
+
+      then(notificationRepository)
+          .should()
+          .saveAll(List.of(firstNotification, secondNotification));
+    }
+
+    @DisplayName("AND a claim action is provided")
+    @Nested
+    class AndClaimAction {
+
+      @DisplayName("THEN the claim action is applied to each notification before they are saved")
+      @Test
+      void claimNotifications_whenClaimAction_thenActionAppliedBeforeSave() {
+
+        var notification = NotificationTestUtil.builder()
+            .withStatus(NotificationStatus.QUEUED)
+            .build();
+
+        given(notificationRepository.claimNotificationsByStatuses(STATUSES, NORMAL_LANE, FIXED_INSTANT, null, NORMAL_SHARE))
+            .willReturn(List.of(notification));
+
+        var claimedNotifications = notificationDequeueService.claimNotifications(
+            STATUSES,
+            10,
+            claimedNotification -> claimedNotification.setStatus(NotificationStatus.SENDING_TO_NOTIFY)
+        );
+
+        assertThat(claimedNotifications)
+            .extracting(Notification::getStatus, Notification::getClaimedUntil)
+            .containsExactly(tuple(NotificationStatus.SENDING_TO_NOTIFY, CLAIMED_UNTIL));
+
+        then(notificationRepository)
+            .should()
+            .saveAll(List.of(notification));
+      }
+    }
+  }
+
+  @DisplayName("WHEN there are notifications waiting in more than one priority lane")
+  @Nested
+  class WhenNotificationsInSeveralLanes {
+
+    @DisplayName("THEN each lane is given its share and the unused share goes to the highest priority busy lane")
+    @Test
+    void claimNotifications_whenSeveralLanes_thenSharedByWeight() {
+
+      var highNotifications = IntStream.range(0, HIGH_SHARE)
+          .mapToObj(index -> NotificationTestUtil.builder().withPriority(NotificationPriority.HIGH).build())
+          .toList();
+
+      var additionalHighNotifications = List.of(
+          NotificationTestUtil.builder().withPriority(NotificationPriority.HIGH).build(),
+          NotificationTestUtil.builder().withPriority(NotificationPriority.HIGH).build()
+      );
+
+      var normalNotification = NotificationTestUtil.builder().withPriority(NotificationPriority.NORMAL).build();
+      var lowNotification = NotificationTestUtil.builder().withPriority(NotificationPriority.LOW).build();
+
+      given(notificationRepository.claimNotificationsByStatuses(STATUSES, HIGH_LANE, FIXED_INSTANT, null, HIGH_SHARE))
+          .willReturn(highNotifications);
+
+      given(notificationRepository.claimNotificationsByStatuses(STATUSES, NORMAL_LANE, FIXED_INSTANT, null, NORMAL_SHARE))
+          .willReturn(List.of(normalNotification));
+
+      given(notificationRepository.claimNotificationsByStatuses(STATUSES, LOW_LANE, FIXED_INSTANT, null, LOW_SHARE))
+          .willReturn(List.of(lowNotification));
+
+      // the high lane carries on from the last notification it claimed
+      given(notificationRepository.claimNotificationsByStatuses(
+          STATUSES,
+          HIGH_LANE,
+          FIXED_INSTANT,
+          NotificationQueueCursor.of(highNotifications.get(HIGH_SHARE - 1)),
+          2
+      ))
+          .willReturn(additionalHighNotifications);
+
+      var claimedNotifications = notificationDequeueService.claimNotifications(STATUSES, 10);
+
+      assertThat(claimedNotifications)
+          .hasSize(10)
+          .extracting(Notification::getPriority)
+          .containsExactly(
+              NotificationPriority.HIGH,
+              NotificationPriority.HIGH,
+              NotificationPriority.HIGH,
+              NotificationPriority.HIGH,
+              NotificationPriority.HIGH,
+              NotificationPriority.HIGH,
+              NotificationPriority.HIGH,
+              NotificationPriority.HIGH,
+              NotificationPriority.NORMAL,
+              NotificationPriority.LOW
+          );
+
+      assertThat(claimedNotifications)
+          .containsAll(additionalHighNotifications)
+          .contains(lowNotification)
+          .doesNotHaveDuplicates();
+
+      // the low lane returned its full share but the limit had already been reached
+      then(notificationRepository)
+          .should(times(1))
+          .claimNotificationsByStatuses(eq(STATUSES), eq(LOW_LANE), eq(FIXED_INSTANT), any(), anyInt());
+    }
+
+    @DisplayName("THEN the shares are rounded so they add up to the limit")
+    @Test
+    void claimNotifications_whenSharesNotWhole_thenRoundedToLimit() {
+
+      // exact shares of 3, 1.5 and 0.5 are rounded to 3, 2 and 0 as the normal lane is higher priority on a tie
+      var highNotifications = IntStream.range(0, 3)
+          .mapToObj(index -> NotificationTestUtil.builder().withPriority(NotificationPriority.HIGH).build())
+          .toList();
+
+      var normalNotifications = IntStream.range(0, 2)
+          .mapToObj(index -> NotificationTestUtil.builder().withPriority(NotificationPriority.NORMAL).build())
+          .toList();
+
+      given(notificationRepository.claimNotificationsByStatuses(STATUSES, HIGH_LANE, FIXED_INSTANT, null, 3))
+          .willReturn(highNotifications);
+
+      given(notificationRepository.claimNotificationsByStatuses(STATUSES, NORMAL_LANE, FIXED_INSTANT, null, 2))
+          .willReturn(normalNotifications);
+
+      var claimedNotifications = notificationDequeueService.claimNotifications(STATUSES, 5);
+
+      assertThat(claimedNotifications)
+          .hasSize(5)
+          .containsAll(highNotifications)
+          .containsAll(normalNotifications);
+
+      then(notificationRepository)
+          .should(never())
+          .claimNotificationsByStatuses(eq(STATUSES), eq(LOW_LANE), any(), any(), anyInt());
+    }
+  }
+
+  @DisplayName("WHEN I claim notifications to update their status with a share of the limit for each status")
+  @Nested
+  class WhenClaimingByStatus {
+
+    @DisplayName("THEN each status is claimed separately and the unused share goes to the busy status")
+    @Test
+    void claimNotificationStatuses_whenStatusBusy_thenOtherStatusesStillClaimed() {
+
+      Map<NotificationStatus, Integer> statusWeights = new LinkedHashMap<>();
+      statusWeights.put(NotificationStatus.SENT_TO_NOTIFY, 6);
+      statusWeights.put(NotificationStatus.FAILED_TO_SEND_TO_NOTIFY, 3);
+      statusWeights.put(NotificationStatus.SENDING_TO_NOTIFY, 1);
+
+      var sentToNotifyNotifications = IntStream.range(0, 6)
+          .mapToObj(index -> NotificationTestUtil.builder().withStatus(NotificationStatus.SENT_TO_NOTIFY).build())
+          .toList();
+
+      var additionalSentToNotifyNotifications = IntStream.range(0, 3)
+          .mapToObj(index -> NotificationTestUtil.builder().withStatus(NotificationStatus.SENT_TO_NOTIFY).build())
+          .toList();
+
+      var failedNotification = NotificationTestUtil.builder()
+          .withStatus(NotificationStatus.FAILED_TO_SEND_TO_NOTIFY)
+          .build();
+
+      given(notificationRepository.claimNotificationStatusesByStatuses(
+          Set.of(NotificationStatus.SENT_TO_NOTIFY), ALL_PRIORITIES, FIXED_INSTANT, null, 6
+      ))
+          .willReturn(sentToNotifyNotifications);
+
+      given(notificationRepository.claimNotificationStatusesByStatuses(
+          Set.of(NotificationStatus.FAILED_TO_SEND_TO_NOTIFY), ALL_PRIORITIES, FIXED_INSTANT, null, 3
+      ))
+          .willReturn(List.of(failedNotification));
+
+      given(notificationRepository.claimNotificationStatusesByStatuses(
+          Set.of(NotificationStatus.SENDING_TO_NOTIFY), ALL_PRIORITIES, FIXED_INSTANT, null, 1
+      ))
+          .willReturn(List.of());
+
+      // the busy status carries on from the last notification it claimed
+      given(notificationRepository.claimNotificationStatusesByStatuses(
+          Set.of(NotificationStatus.SENT_TO_NOTIFY),
+          ALL_PRIORITIES,
+          FIXED_INSTANT,
+          NotificationQueueCursor.of(sentToNotifyNotifications.get(5)),
+          3
+      ))
+          .willReturn(additionalSentToNotifyNotifications);
+
+      var claimedNotifications = notificationDequeueService.claimNotificationStatuses(statusWeights, 10);
+
+      assertThat(claimedNotifications)
+          .hasSize(10)
+          .containsAll(additionalSentToNotifyNotifications)
+          .doesNotHaveDuplicates()
+          .last()
+          .isEqualTo(failedNotification);
+
+      assertThat(claimedNotifications)
+          .extracting(Notification::getClaimedUntil)
+          .containsOnly(CLAIMED_UNTIL);
+
+      // the claims are written with a single update as the claimed notifications are status-only copies
+      then(notificationRepository)
+          .should()
+          .updateClaimedUntil(
+              claimedNotifications.stream().map(Notification::getId).toList(),
+              CLAIMED_UNTIL
+          );
+      then(notificationRepository).should(never()).saveAll(any());
+      then(notificationRepository)
+          .should(never())
+          .claimNotificationsByStatuses(any(), any(), any(), any(), anyInt());
+    }
+  }
+
+  @DisplayName("WHEN I claim a single notification")
+  @Nested
+  class WhenClaimingSingleNotification {
+
+    @DisplayName("THEN the notification is leased to this node and the claim action applied")
+    @Test
+    void claimNotification_whenClaimable_thenClaimLeaseSet() {
+
+      var notification = NotificationTestUtil.builder()
+          .withStatus(NotificationStatus.QUEUED)
+          .build();
+
+      given(notificationRepository.claimNotificationById(notification.getId(), STATUSES, FIXED_INSTANT))
+          .willReturn(Optional.of(notification));
+
+      var claimedNotification = notificationDequeueService.claimNotification(
+          notification.getId(),
+          STATUSES,
+          notificationToClaim -> notificationToClaim.setStatus(NotificationStatus.SENDING_TO_NOTIFY)
+      );
+
+      assertThat(claimedNotification)
+          .get()
+          .extracting(Notification::getStatus, Notification::getClaimedUntil)
+          .containsExactly(NotificationStatus.SENDING_TO_NOTIFY, CLAIMED_UNTIL);
+
+      then(notificationRepository)
+          .should()
+          .save(notification);
+    }
+
+    @DisplayName("AND the notification can't be claimed")
+    @Nested
+    class AndNotClaimable {
+
+      @DisplayName("THEN nothing is claimed or saved")
+      @Test
+      void claimNotification_whenNotClaimable_thenNothingSaved() {
+
+        var notificationId = UUID.randomUUID();
+
+        given(notificationRepository.claimNotificationById(notificationId, STATUSES, FIXED_INSTANT))
+            .willReturn(Optional.empty());
+
+        assertThat(notificationDequeueService.claimNotification(notificationId, STATUSES, notification -> {
+        })).isEmpty();
+
+        then(notificationRepository)
+            .should(never())
+            .save(any());
+      }
+    }
+  }
+
+  @DisplayName("WHEN there are no notifications to claim")
+  @Nested
+  class WhenNoNotificationsToClaim {
+
+    @DisplayName("THEN no notifications are returned or saved")
+    @Test
+    void claimNotifications_whenNoNotifications_thenNothingSaved() {
+
+      given(notificationRepository.claimNotificationsByStatuses(STATUSES, NORMAL_LANE, FIXED_INSTANT, null, NORMAL_SHARE))
+          .willReturn(List.of());
+
+      assertThat(notificationDequeueService.claimNotifications(STATUSES, 10)).isEmpty();
+
+      then(notificationRepository)
+          .should(never())
+          .saveAll(any());
+    }
+  }
+}
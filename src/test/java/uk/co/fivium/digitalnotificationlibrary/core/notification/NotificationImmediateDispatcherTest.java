@@ -0,0 +1,149 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+
+@DisplayName("GIVEN I want to send notifications as soon as they have been queued")
+class NotificationImmediateDispatcherTest {
+
+  private static final UUID NOTIFICATION_ID = UUID.randomUUID();
+
+  private NotificationSendingService notificationSendingService;
+
+  private NotificationImmediateDispatcher notificationImmediateDispatcher;
+
+  @BeforeEach
+  void setup() {
+    notificationSendingService = mock(NotificationSendingService.class);
+    notificationImmediateDispatcher = new NotificationImmediateDispatcher(notificationSendingService, Runnable::run);
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @DisplayName("WHEN the notification is queued within a transaction")
+  @Nested
+  class WhenInTransaction {
+
+    @DisplayName("THEN the notification is only sent once the transaction commits")
+    @Test
+    void dispatchAfterCommit_whenInTransaction_thenSentAfterCommit() {
+
+      TransactionSynchronizationManager.initSynchronization();
+
+      notificationImmediateDispatcher.dispatchAfterCommit(NOTIFICATION_ID);
+
+      then(notificationSendingService).shouldHaveNoInteractions();
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+      then(notificationSendingService).should().sendNotificationToNotify(NOTIFICATION_ID);
+    }
+
+    @DisplayName("AND the transaction rolls back")
+    @Nested
+    class AndTransactionRollsBack {
+
+      @DisplayName("THEN the notification is not sent")
+      @Test
+      void dispatchAfterCommit_whenRolledBack_thenNotSent() {
+
+        TransactionSynchronizationManager.initSynchronization();
+
+        notificationImmediateDispatcher.dispatchAfterCommit(NOTIFICATION_ID);
+
+        TransactionSynchronizationManager.getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        then(notificationSendingService).shouldHaveNoInteractions();
+      }
+    }
+  }
+
+  @DisplayName("WHEN the notification is not queued within a transaction")
+  @Nested
+  class WhenNoTransaction {
+
+    @DisplayName("THEN the notification is sent straight away")
+    @Test
+    void dispatchAfterCommit_whenNoTransaction_thenSentImmediately() {
+
+      notificationImmediateDispatcher.dispatchAfterCommit(NOTIFICATION_ID);
+
+      then(notificationSendingService).should().sendNotificationToNotify(NOTIFICATION_ID);
+    }
+  }
+
+  @DisplayName("WHEN immediate dispatch is not enabled")
+  @Nested
+  class WhenNotEnabled {
+
+    @DisplayName("THEN the notification is left for the sending job")
+    @Test
+    void dispatchAfterCommit_whenNotEnabled_thenNotSent() {
+
+      var libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+          .withNotificationImmediateDispatch(false)
+          .build();
+
+      new NotificationImmediateDispatcher(notificationSendingService, libraryConfigurationProperties)
+          .dispatchAfterCommit(NOTIFICATION_ID);
+
+      then(notificationSendingService).shouldHaveNoInteractions();
+    }
+  }
+
+  @DisplayName("WHEN the dispatcher is busy")
+  @Nested
+  class WhenBusy {
+
+    @DisplayName("THEN the notification is left for the sending job without an error")
+    @Test
+    void dispatchAfterCommit_whenBusy_thenNoError() {
+
+      Executor busyExecutor = runnable -> {
+        throw new RejectedExecutionException("busy");
+      };
+
+      new NotificationImmediateDispatcher(notificationSendingService, busyExecutor)
+          .dispatchAfterCommit(NOTIFICATION_ID);
+
+      then(notificationSendingService).shouldHaveNoInteractions();
+    }
+  }
+
+  @DisplayName("WHEN the notification fails to send")
+  @Nested
+  class WhenSendFails {
+
+    @DisplayName("THEN the error is not passed back to the committing thread")
+    @Test
+    void dispatchAfterCommit_whenSendFails_thenNoError() {
+
+      willThrow(new IllegalStateException("failed"))
+          .given(notificationSendingService)
+          .sendNotificationToNotify(NOTIFICATION_ID);
+
+      notificationImmediateDispatcher.dispatchAfterCommit(NOTIFICATION_ID);
+
+      then(notificationSendingService).should().sendNotificationToNotify(NOTIFICATION_ID);
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("GIVEN I want to write a batch of notifications using JDBC batching")
+class NotificationJdbcBatchingTest {
+
+  private static final int PREVIOUS_BATCH_SIZE = 5;
+
+  private static final int BATCH_SIZE = 100;
+
+  private EntityManager entityManager;
+
+  private Session session;
+
+  @BeforeEach
+  void setup() {
+    entityManager = mock(EntityManager.class);
+    session = mock(Session.class);
+    given(entityManager.unwrap(Session.class)).willReturn(session);
+    given(session.getJdbcBatchSize()).willReturn(PREVIOUS_BATCH_SIZE);
+  }
+
+  @DisplayName("WHEN the batch is written")
+  @Nested
+  class WhenWritten {
+
+    @DisplayName("THEN it is flushed with the batch size, detached and the previous batch size is restored")
+    @Test
+    void flushBatch_thenFlushedDetachedAndBatchSizeRestored() {
+
+      var firstNotification = NotificationTestUtil.builder().build();
+      var secondNotification = NotificationTestUtil.builder().build();
+
+      NotificationJdbcBatching.flushBatch(
+          entityManager,
+          BATCH_SIZE,
+          () -> List.of(firstNotification, secondNotification)
+      );
+
+      var inOrder = inOrder(session, entityManager);
+      inOrder.verify(session).setJdbcBatchSize(BATCH_SIZE);
+      inOrder.verify(entityManager).flush();
+      inOrder.verify(entityManager).detach(firstNotification);
+      inOrder.verify(entityManager).detach(secondNotification);
+      inOrder.verify(session).setJdbcBatchSize(PREVIOUS_BATCH_SIZE);
+    }
+  }
+
+  @DisplayName("WHEN writing the batch fails")
+  @Nested
+  class WhenWriteFails {
+
+    @DisplayName("THEN the previous batch size is still restored")
+    @Test
+    void flushBatch_whenWriteFails_thenBatchSizeRestored() {
+
+      assertThatThrownBy(() -> NotificationJdbcBatching.flushBatch(
+          entityManager,
+          BATCH_SIZE,
+          () -> {
+            throw new IllegalStateException("write failed");
+          }
+      ))
+          .isInstanceOf(IllegalStateException.class);
+
+      then(entityManager).should(never()).flush();
+      then(session).should().setJdbcBatchSize(PREVIOUS_BATCH_SIZE);
+    }
+  }
+}
@@ -7,13 +7,17 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,7 +34,11 @@ import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibrary
 import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
 import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationMode;
 import uk.co.fivium.digitalnotificationlibrary.core.DigitalNotificationLibraryException;
+import uk.co.fivium.digitalnotificationlibrary.core.notification.email.EmailNotification;
+import uk.co.fivium.digitalnotificationlibrary.core.notification.email.EmailNotificationRequest;
 import uk.co.fivium.digitalnotificationlibrary.core.notification.email.EmailRecipient;
+import uk.co.fivium.digitalnotificationlibrary.core.notification.sms.SmsNotification;
+import uk.co.fivium.digitalnotificationlibrary.core.notification.sms.SmsNotificationRequest;
 import uk.co.fivium.digitalnotificationlibrary.core.notification.sms.SmsRecipient;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,6 +64,18 @@ class NotificationLibraryClientTest {
   @Mock
   private NotificationLibraryEmailAttachmentResolver emailAttachmentResolver;
 
+  @Mock
+  private NotificationImmediateDispatcher notificationImmediateDispatcher;
+
+  @Mock
+  private NotificationBatchPersistenceService notificationBatchPersistenceService;
+
+  @Mock
+  private NotificationQueuedNotifier notificationQueuedNotifier;
+
+  @Captor
+  private ArgumentCaptor<List<Notification>> notificationsCaptor;
+
   @BeforeEach
   void setup() {
     libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
@@ -64,7 +84,10 @@ class NotificationLibraryClientTest {
         templateService,
         FIXED_CLOCK,
         libraryConfigurationProperties,
-        emailAttachmentResolver
+        emailAttachmentResolver,
+        notificationImmediateDispatcher,
+        notificationBatchPersistenceService,
+        notificationQueuedNotifier
     );
   }
 
@@ -455,6 +478,90 @@ class NotificationLibraryClientTest {
         );
   }
 
+  @Test
+  void sendEmail_whenPayloadCompressionEnabled_thenMailMergeFieldsStoredCompressed() {
+
+    libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationPayloadCompression(true, 64)
+        .build();
+
+    notificationLibraryClient = new NotificationLibraryClient(
+        notificationRepository,
+        templateService,
+        FIXED_CLOCK,
+        libraryConfigurationProperties,
+        emailAttachmentResolver,
+        notificationImmediateDispatcher,
+        notificationBatchPersistenceService,
+        notificationQueuedNotifier
+    );
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.EMAIL)
+        .build();
+
+    var mergedTemplate = MergedTemplate.builder(template)
+        .withMailMergeField("body", StringUtils.repeat("A long paragraph of personalisation text. ", 50))
+        .merge();
+
+    notificationLibraryClient.sendEmail(
+        mergedTemplate,
+        EmailRecipient.directEmailAddress("someone@example.com"),
+        DomainReference.from("domain-id", "domain-type")
+    );
+
+    then(notificationRepository)
+        .should()
+        .save(notificationCaptor.capture());
+
+    var savedNotification = notificationCaptor.getValue();
+
+    assertThat(savedNotification.getCompressedPayload()).isNotNull();
+    assertThat(savedNotification.getMailMergeFields()).isEqualTo(mergedTemplate.getMailMergeFields());
+  }
+
+  @Test
+  void sendEmail_whenPayloadBelowCompressionMinimum_thenMailMergeFieldsStoredUncompressed() {
+
+    libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationPayloadCompression(true, 1024)
+        .build();
+
+    notificationLibraryClient = new NotificationLibraryClient(
+        notificationRepository,
+        templateService,
+        FIXED_CLOCK,
+        libraryConfigurationProperties,
+        emailAttachmentResolver,
+        notificationImmediateDispatcher,
+        notificationBatchPersistenceService,
+        notificationQueuedNotifier
+    );
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.EMAIL)
+        .build();
+
+    var mergedTemplate = MergedTemplate.builder(template)
+        .withMailMergeField("name", "value")
+        .merge();
+
+    notificationLibraryClient.sendEmail(
+        mergedTemplate,
+        EmailRecipient.directEmailAddress("someone@example.com"),
+        DomainReference.from("domain-id", "domain-type")
+    );
+
+    then(notificationRepository)
+        .should()
+        .save(notificationCaptor.capture());
+
+    var savedNotification = notificationCaptor.getValue();
+
+    assertThat(savedNotification.getCompressedPayload()).isNull();
+    assertThat(savedNotification.getMailMergeFields()).isEqualTo(mergedTemplate.getMailMergeFields());
+  }
+
   @Test
   void sendEmail_withFiles_whenMergedTemplateIsNull_thenException() {
 
@@ -1182,6 +1289,426 @@ class NotificationLibraryClientTest {
     assertThat(savedNotification.getFileAttachments()).isEmpty();
   }
 
+  @Test
+  void sendSms_withoutPriority_verifyNormalPriority() {
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.SMS)
+        .build();
+
+    notificationLibraryClient.sendSms(
+        MergedTemplate.builder(template).merge(),
+        SmsRecipient.directPhoneNumber("01234567890"),
+        DomainReference.from("domain-id", "domain-type")
+    );
+
+    then(notificationRepository)
+        .should()
+        .save(notificationCaptor.capture());
+
+    assertThat(notificationCaptor.getValue().getPriority()).isEqualTo(NotificationPriority.NORMAL);
+  }
+
+  @ParameterizedTest
+  @EnumSource(NotificationPriority.class)
+  void sendSms_withPriority_verifyQueuedWithPriority(NotificationPriority priority) {
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.SMS)
+        .build();
+
+    notificationLibraryClient.sendSms(
+        MergedTemplate.builder(template).merge(),
+        SmsRecipient.directPhoneNumber("01234567890"),
+        DomainReference.from("domain-id", "domain-type"),
+        "log-correlation-id",
+        priority
+    );
+
+    then(notificationRepository)
+        .should()
+        .save(notificationCaptor.capture());
+
+    assertThat(notificationCaptor.getValue().getPriority()).isEqualTo(priority);
+  }
+
+  @Test
+  void sendEmail_withPriority_verifyQueuedWithPriority() {
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.EMAIL)
+        .build();
+
+    notificationLibraryClient.sendEmail(
+        MergedTemplate.builder(template).merge(),
+        EmailRecipient.directEmailAddress("someone@example.com"),
+        DomainReference.from("domain-id", "domain-type"),
+        "log-correlation-id",
+        NotificationPriority.HIGH
+    );
+
+    then(notificationRepository)
+        .should()
+        .save(notificationCaptor.capture());
+
+    assertThat(notificationCaptor.getValue().getPriority()).isEqualTo(NotificationPriority.HIGH);
+  }
+
+  @Test
+  void sendSms_verifyDispatchedAfterCommit() {
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.SMS)
+        .build();
+
+    notificationLibraryClient.sendSms(
+        MergedTemplate.builder(template).merge(),
+        SmsRecipient.directPhoneNumber("01234567890"),
+        DomainReference.from("domain-id", "domain-type")
+    );
+
+    then(notificationRepository)
+        .should()
+        .save(notificationCaptor.capture());
+
+    then(notificationQueuedNotifier)
+        .should()
+        .notifyQueuedAfterCommit();
+
+    then(notificationImmediateDispatcher)
+        .should()
+        .dispatchAfterCommit(notificationCaptor.getValue().getId());
+  }
+
+  @Test
+  void sendSms_whenPriorityIsNull_thenException() {
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.SMS)
+        .build();
+
+    var mergedTemplate = MergedTemplate.builder(template).merge();
+    var recipient = SmsRecipient.directPhoneNumber("01234567890");
+    var domainReference = DomainReference.from("domain-id", "domain-type");
+
+    assertThatThrownBy(() -> notificationLibraryClient.sendSms(
+        mergedTemplate,
+        recipient,
+        domainReference,
+        "log-correlation-id",
+        null
+    ))
+        .isInstanceOf(DigitalNotificationLibraryException.class)
+        .hasMessage("NotificationPriority must not be null for notification with correlation ID log-correlation-id");
+
+    then(notificationRepository).shouldHaveNoInteractions();
+  }
+
+  @Test
+  void sendEmails_whenValid_thenNotificationsInsertedInBulkAndIdsReturned() {
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.EMAIL)
+        .build();
+
+    var firstRequest = new EmailNotificationRequest(
+        MergedTemplate.builder(template).withMailMergeField("name", "first").merge(),
+        EmailRecipient.directEmailAddress("first@example.com"),
+        DomainReference.from("first-domain-id", "domain-type")
+    );
+
+    var secondRequest = new EmailNotificationRequest(
+        MergedTemplate.builder(template).withMailMergeField("name", "second").merge(),
+        EmailRecipient.directEmailAddress("second@example.com"),
+        DomainReference.from("second-domain-id", "domain-type"),
+        "log-correlation-id",
+        NotificationPriority.LOW
+    );
+
+    var emailNotifications = notificationLibraryClient.sendEmails(List.of(firstRequest, secondRequest));
+
+    then(notificationBatchPersistenceService)
+        .should()
+        .insertNotifications(notificationsCaptor.capture());
+
+    then(notificationRepository).shouldHaveNoInteractions();
+    then(notificationImmediateDispatcher).shouldHaveNoInteractions();
+
+    var insertedNotifications = notificationsCaptor.getValue();
+
+    assertThat(insertedNotifications)
+        .extracting(
+            Notification::getType,
+            Notification::getStatus,
+            Notification::getRecipient,
+            Notification::getDomainReferenceId,
+            Notification::getLogCorrelationId,
+            Notification::getPriority,
+            Notification::getRequestedOn
+        )
+        .containsExactly(
+            tuple(
+                NotificationType.EMAIL,
+                NotificationStatus.QUEUED,
+                "first@example.com",
+                "first-domain-id",
+                null,
+                NotificationPriority.NORMAL,
+                FIXED_INSTANT
+            ),
+            tuple(
+                NotificationType.EMAIL,
+                NotificationStatus.QUEUED,
+                "second@example.com",
+                "second-domain-id",
+                "log-correlation-id",
+                NotificationPriority.LOW,
+                FIXED_INSTANT
+            )
+        );
+
+    assertThat(emailNotifications)
+        .extracting(EmailNotification::id)
+        .containsExactly(
+            String.valueOf(insertedNotifications.get(0).getId()),
+            String.valueOf(insertedNotifications.get(1).getId())
+        );
+  }
+
+  @Test
+  void sendEmails_whenAnyRequestInvalid_thenNothingQueued() {
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.EMAIL)
+        .build();
+
+    var validRequest = new EmailNotificationRequest(
+        MergedTemplate.builder(template).merge(),
+        EmailRecipient.directEmailAddress("someone@example.com"),
+        DomainReference.from("domain-id", "domain-type")
+    );
+
+    var invalidRequest = new EmailNotificationRequest(
+        MergedTemplate.builder(template).merge(),
+        EmailRecipient.directEmailAddress(""),
+        DomainReference.from("domain-id", "domain-type"),
+        "log-correlation-id",
+        NotificationPriority.NORMAL
+    );
+
+    var requests = List.of(validRequest, invalidRequest);
+
+    assertThatThrownBy(() -> notificationLibraryClient.sendEmails(requests))
+        .isInstanceOf(DigitalNotificationLibraryException.class)
+        .hasMessage("EmailRecipient must not be null or empty for notification with correlation ID log-correlation-id");
+
+    then(notificationBatchPersistenceService).shouldHaveNoInteractions();
+  }
+
+  @Test
+  void sendEmails_whenTemplateTypeIsNotEmail_thenException() {
+
+    var template = TemplateTestUtil.builder()
+        .withNotifyTemplateId("notify-template-id")
+        .withType(TemplateType.SMS)
+        .build();
+
+    var requests = List.of(new EmailNotificationRequest(
+        MergedTemplate.builder(template).merge(),
+        EmailRecipient.directEmailAddress("someone@example.com"),
+        DomainReference.from("domain-id", "domain-type")
+    ));
+
+    assertThatThrownBy(() -> notificationLibraryClient.sendEmails(requests))
+        .isInstanceOf(DigitalNotificationLibraryException.class)
+        .hasMessage("Cannot send an email for template with ID notify-template-id and type SMS");
+
+    then(notificationBatchPersistenceService).shouldHaveNoInteractions();
+  }
+
+  @Test
+  void sendSmsBatch_whenValid_thenNotificationsInsertedInBulkAndIdsReturned() {
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.SMS)
+        .build();
+
+    var request = new SmsNotificationRequest(
+        MergedTemplate.builder(template).merge(),
+        SmsRecipient.directPhoneNumber("0800 123 4567"),
+        DomainReference.from("domain-id", "domain-type")
+    );
+
+    var smsNotifications = notificationLibraryClient.sendSmsBatch(List.of(request));
+
+    then(notificationBatchPersistenceService)
+        .should()
+        .insertNotifications(notificationsCaptor.capture());
+
+    var insertedNotifications = notificationsCaptor.getValue();
+
+    assertThat(insertedNotifications)
+        .extracting(Notification::getType, Notification::getRecipient)
+        .containsExactly(tuple(NotificationType.SMS, "0800 123 4567"));
+
+    assertThat(smsNotifications)
+        .extracting(SmsNotification::id)
+        .containsExactly(String.valueOf(insertedNotifications.get(0).getId()));
+  }
+
+  @Test
+  void streamEmails_whenValid_thenNotificationsInsertedInChunksAndProgressReported() {
+
+    libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationStreamingEnqueueChunkSize(2)
+        .build();
+
+    notificationLibraryClient = new NotificationLibraryClient(
+        notificationRepository,
+        templateService,
+        FIXED_CLOCK,
+        libraryConfigurationProperties,
+        emailAttachmentResolver,
+        notificationImmediateDispatcher,
+        notificationBatchPersistenceService,
+        notificationQueuedNotifier
+    );
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.EMAIL)
+        .build();
+
+    var requests = Stream.of("first", "second", "third")
+        .map(name -> new EmailNotificationRequest(
+            MergedTemplate.builder(template).withMailMergeField("name", name).merge(),
+            EmailRecipient.directEmailAddress("%s@example.com".formatted(name)),
+            DomainReference.from("%s-domain-id".formatted(name), "domain-type")
+        ));
+
+    List<NotificationEnqueueProgress> progressReports = new ArrayList<>();
+
+    var notificationsQueued = notificationLibraryClient.streamEmails(requests, progressReports::add);
+
+    assertThat(notificationsQueued).isEqualTo(3);
+
+    then(notificationBatchPersistenceService)
+        .should(times(2))
+        .insertNotificationChunk(notificationsCaptor.capture());
+
+    then(notificationRepository).shouldHaveNoInteractions();
+    then(notificationImmediateDispatcher).shouldHaveNoInteractions();
+
+    var insertedChunks = notificationsCaptor.getAllValues();
+
+    assertThat(insertedChunks.get(0))
+        .extracting(Notification::getType, Notification::getStatus, Notification::getRecipient)
+        .containsExactly(
+            tuple(NotificationType.EMAIL, NotificationStatus.QUEUED, "first@example.com"),
+            tuple(NotificationType.EMAIL, NotificationStatus.QUEUED, "second@example.com")
+        );
+
+    assertThat(insertedChunks.get(1))
+        .extracting(Notification::getType, Notification::getStatus, Notification::getRecipient)
+        .containsExactly(tuple(NotificationType.EMAIL, NotificationStatus.QUEUED, "third@example.com"));
+
+    assertThat(progressReports)
+        .extracting(NotificationEnqueueProgress::notificationsQueued, NotificationEnqueueProgress::chunkNotificationIds)
+        .containsExactly(
+            tuple(2L, List.of(
+                String.valueOf(insertedChunks.get(0).get(0).getId()),
+                String.valueOf(insertedChunks.get(0).get(1).getId())
+            )),
+            tuple(3L, List.of(String.valueOf(insertedChunks.get(1).get(0).getId())))
+        );
+  }
+
+  @Test
+  void streamEmails_whenRequestInvalid_thenEarlierChunksQueuedAndException() {
+
+    libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationStreamingEnqueueChunkSize(1)
+        .build();
+
+    notificationLibraryClient = new NotificationLibraryClient(
+        notificationRepository,
+        templateService,
+        FIXED_CLOCK,
+        libraryConfigurationProperties,
+        emailAttachmentResolver,
+        notificationImmediateDispatcher,
+        notificationBatchPersistenceService,
+        notificationQueuedNotifier
+    );
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.EMAIL)
+        .build();
+
+    var validRequest = new EmailNotificationRequest(
+        MergedTemplate.builder(template).merge(),
+        EmailRecipient.directEmailAddress("someone@example.com"),
+        DomainReference.from("domain-id", "domain-type")
+    );
+
+    var invalidRequest = new EmailNotificationRequest(
+        MergedTemplate.builder(template).merge(),
+        EmailRecipient.directEmailAddress(""),
+        DomainReference.from("domain-id", "domain-type"),
+        "log-correlation-id",
+        NotificationPriority.NORMAL
+    );
+
+    var requests = List.of(validRequest, invalidRequest).iterator();
+
+    assertThatThrownBy(() -> notificationLibraryClient.streamEmails(requests, null))
+        .isInstanceOf(DigitalNotificationLibraryException.class)
+        .hasMessage("EmailRecipient must not be null or empty for notification with correlation ID log-correlation-id");
+
+    then(notificationBatchPersistenceService)
+        .should(times(1))
+        .insertNotificationChunk(notificationsCaptor.capture());
+
+    assertThat(notificationsCaptor.getValue())
+        .extracting(Notification::getRecipient)
+        .containsExactly("someone@example.com");
+  }
+
+  @Test
+  void streamSms_whenValid_thenNotificationsInsertedInChunks() {
+
+    var template = TemplateTestUtil.builder()
+        .withType(TemplateType.SMS)
+        .build();
+
+    var request = new SmsNotificationRequest(
+        MergedTemplate.builder(template).merge(),
+        SmsRecipient.directPhoneNumber("0800 123 4567"),
+        DomainReference.from("domain-id", "domain-type")
+    );
+
+    var notificationsQueued = notificationLibraryClient.streamSms(Stream.of(request), null);
+
+    assertThat(notificationsQueued).isEqualTo(1);
+
+    then(notificationBatchPersistenceService)
+        .should()
+        .insertNotificationChunk(notificationsCaptor.capture());
+
+    assertThat(notificationsCaptor.getValue())
+        .extracting(Notification::getType, Notification::getRecipient)
+        .containsExactly(tuple(NotificationType.SMS, "0800 123 4567"));
+  }
+
+  @Test
+  void streamEmails_whenRequestsNull_thenException() {
+
+    assertThatThrownBy(() -> notificationLibraryClient.streamEmails((Stream<EmailNotificationRequest>) null, null))
+        .isInstanceOf(DigitalNotificationLibraryException.class)
+        .hasMessage("EmailNotificationRequests must not be null");
+
+    then(notificationBatchPersistenceService).shouldHaveNoInteractions();
+  }
+
   @Test
   void isRunningTestMode_whenTestMode_thenTrue() {
 
@@ -1194,7 +1721,10 @@ class NotificationLibraryClientTest {
         templateService,
         FIXED_CLOCK,
         libraryConfigurationProperties,
-        emailAttachmentResolver
+        emailAttachmentResolver,
+        notificationImmediateDispatcher,
+        notificationBatchPersistenceService,
+        notificationQueuedNotifier
     );
 
     assertTrue(notificationLibraryClient.isRunningTestMode());
@@ -1213,7 +1743,10 @@ class NotificationLibraryClientTest {
         templateService,
         FIXED_CLOCK,
         libraryConfigurationProperties,
-        emailAttachmentResolver
+        emailAttachmentResolver,
+        notificationImmediateDispatcher,
+        notificationBatchPersistenceService,
+        notificationQueuedNotifier
     );
 
     assertFalse(notificationLibraryClient.isRunningTestMode());
@@ -1231,7 +1764,10 @@ class NotificationLibraryClientTest {
         templateService,
         FIXED_CLOCK,
         libraryConfigurationProperties,
-        emailAttachmentResolver
+        emailAttachmentResolver,
+        notificationImmediateDispatcher,
+        notificationBatchPersistenceService,
+        notificationQueuedNotifier
     );
 
     assertTrue(notificationLibraryClient.isRunningProductionMode());
@@ -1250,7 +1786,10 @@ class NotificationLibraryClientTest {
         templateService,
         FIXED_CLOCK,
         libraryConfigurationProperties,
-        emailAttachmentResolver
+        emailAttachmentResolver,
+        notificationImmediateDispatcher,
+        notificationBatchPersistenceService,
+        notificationQueuedNotifier
     );
 
     assertFalse(notificationLibraryClient.isRunningProductionMode());
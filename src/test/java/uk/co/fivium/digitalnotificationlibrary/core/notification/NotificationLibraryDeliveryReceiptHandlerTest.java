@@ -0,0 +1,149 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.function.ServerRequest;
+
+@DisplayName("GIVEN I want to handle delivery receipt callbacks from GOV.UK notify")
+class NotificationLibraryDeliveryReceiptHandlerTest {
+
+  private static final String AUTHORIZATION_HEADER = "Bearer delivery-receipt-token";
+
+  private static final String DELIVERY_RECEIPT_JSON = """
+      {
+        "id": "740e5834-3a29-46b4-9a6f-16142fde533a",
+        "reference": "log-correlation-id",
+        "to": "someone@example.com",
+        "status": "delivered",
+        "created_at": "2024-03-01T12:00:00.000000Z",
+        "completed_at": "2024-03-01T12:00:05.000000Z",
+        "sent_at": "2024-03-01T12:00:01.000000Z",
+        "notification_type": "email",
+        "template_id": "f33517ff-2a88-4f6e-b855-c550268ce08a",
+        "template_version": 1
+      }
+      """;
+
+  private NotificationLibraryDeliveryReceiptService deliveryReceiptService;
+
+  private NotificationLibraryDeliveryReceiptHandler deliveryReceiptHandler;
+
+  @BeforeEach
+  void setup() {
+    deliveryReceiptService = mock(NotificationLibraryDeliveryReceiptService.class);
+    deliveryReceiptHandler = new NotificationLibraryDeliveryReceiptHandler(deliveryReceiptService);
+  }
+
+  @DisplayName("WHEN the callback contains the configured bearer token")
+  @Nested
+  class WhenAuthorised {
+
+    @BeforeEach
+    void setup() {
+      given(deliveryReceiptService.isAuthorised(AUTHORIZATION_HEADER)).willReturn(true);
+    }
+
+    @DisplayName("THEN the delivery receipt is passed to the library")
+    @Test
+    void handle_whenAuthorised_thenDeliveryReceiptReceived() throws Exception {
+
+      var response = deliveryReceiptHandler.handle(request(AUTHORIZATION_HEADER, DELIVERY_RECEIPT_JSON));
+
+      assertThat(response.statusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+
+      then(deliveryReceiptService)
+          .should()
+          .receiveDeliveryReceipts(
+              AUTHORIZATION_HEADER,
+              List.of(new NotifyDeliveryReceipt(
+                  "740e5834-3a29-46b4-9a6f-16142fde533a",
+                  "log-correlation-id",
+                  "delivered",
+                  Instant.parse("2024-03-01T12:00:01Z"),
+                  Instant.parse("2024-03-01T12:00:05Z")
+              ))
+          );
+    }
+
+    @DisplayName("AND the delivery receipt is for a notification still being sent or updated")
+    @Nested
+    class AndDeliveryReceiptPending {
+
+      @DisplayName("THEN the callback fails so GOV.UK notify sends the delivery receipt again")
+      @Test
+      void handle_whenDeliveryReceiptPending_thenServiceUnavailable() throws Exception {
+
+        given(deliveryReceiptService.receiveDeliveryReceipts(anyString(), any())).willReturn(1);
+
+        var response = deliveryReceiptHandler.handle(request(AUTHORIZATION_HEADER, DELIVERY_RECEIPT_JSON));
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+      }
+    }
+
+    @DisplayName("AND the delivery receipt can't be read")
+    @Nested
+    class AndInvalidDeliveryReceipt {
+
+      @DisplayName("THEN the callback is rejected as a bad request")
+      @Test
+      void handle_whenInvalidBody_thenBadRequest() throws Exception {
+
+        var response = deliveryReceiptHandler.handle(request(AUTHORIZATION_HEADER, "{\"status\": \"delivered\"}"));
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        then(deliveryReceiptService)
+            .should(never())
+            .receiveDeliveryReceipts(anyString(), any());
+      }
+    }
+  }
+
+  @DisplayName("WHEN the callback does not contain the configured bearer token")
+  @Nested
+  class WhenNotAuthorised {
+
+    @DisplayName("THEN the callback is rejected as unauthorised")
+    @Test
+    void handle_whenNotAuthorised_thenUnauthorised() throws Exception {
+
+      given(deliveryReceiptService.isAuthorised("Bearer another-token")).willReturn(false);
+
+      var response = deliveryReceiptHandler.handle(request("Bearer another-token", DELIVERY_RECEIPT_JSON));
+
+      assertThat(response.statusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+
+      then(deliveryReceiptService)
+          .should(never())
+          .receiveDeliveryReceipts(anyString(), any());
+    }
+  }
+
+  private ServerRequest request(String authorizationHeader, String body) {
+
+    var servletRequest = new MockHttpServletRequest("POST", "/notify/delivery-receipts");
+    servletRequest.addHeader(HttpHeaders.AUTHORIZATION, authorizationHeader);
+    servletRequest.setContentType("application/json");
+    servletRequest.setContent(body.getBytes(StandardCharsets.UTF_8));
+
+    return ServerRequest.create(servletRequest, List.of(new StringHttpMessageConverter()));
+  }
+}
@@ -0,0 +1,233 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+
+import jakarta.persistence.EntityManager;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+import uk.co.fivium.digitalnotificationlibrary.core.DigitalNotificationLibraryException;
+
+@DisplayName("GIVEN I want to receive delivery receipts from GOV.UK notify")
+class NotificationLibraryDeliveryReceiptServiceTest {
+
+  private static final String BEARER_TOKEN = "delivery-receipt-token";
+
+  private static final String AUTHORIZATION_HEADER = "Bearer " + BEARER_TOKEN;
+
+  private static final Instant FIXED_INSTANT = Instant.now();
+
+  private static final Clock FIXED_CLOCK = Clock.fixed(FIXED_INSTANT, ZoneId.systemDefault());
+
+  private NotificationLibraryNotificationRepository notificationRepository;
+
+  private NotificationStatusUpdateService notificationStatusUpdateService;
+
+  private NotificationLibraryDeliveryReceiptService deliveryReceiptService;
+
+  @BeforeEach
+  void setup() {
+
+    notificationRepository = mock(NotificationLibraryNotificationRepository.class);
+    notificationStatusUpdateService = mock(NotificationStatusUpdateService.class);
+
+    deliveryReceiptService = createDeliveryReceiptService(
+        NotificationLibraryConfigurationPropertiesTestUtil.builder()
+            .withNotificationDeliveryReceipt(BEARER_TOKEN)
+            .build()
+    );
+  }
+
+  @DisplayName("WHEN I check if a delivery receipt is authorised")
+  @Nested
+  class WhenCheckingAuthorisation {
+
+    @DisplayName("THEN only the configured bearer token is authorised")
+    @Test
+    void isAuthorised_thenOnlyConfiguredTokenAuthorised() {
+      assertThat(deliveryReceiptService.isAuthorised(AUTHORIZATION_HEADER)).isTrue();
+      assertThat(deliveryReceiptService.isAuthorised("Bearer another-token")).isFalse();
+      assertThat(deliveryReceiptService.isAuthorised(BEARER_TOKEN)).isFalse();
+      assertThat(deliveryReceiptService.isAuthorised(null)).isFalse();
+    }
+
+    @DisplayName("AND no bearer token is configured")
+    @Nested
+    class AndNoBearerTokenConfigured {
+
+      @DisplayName("THEN no delivery receipts are authorised")
+      @Test
+      void isAuthorised_whenNoTokenConfigured_thenNotAuthorised() {
+
+        deliveryReceiptService = createDeliveryReceiptService(
+            NotificationLibraryConfigurationPropertiesTestUtil.builder().build()
+        );
+
+        assertThat(deliveryReceiptService.isAuthorised("Bearer ")).isFalse();
+        assertThat(deliveryReceiptService.isAuthorised(AUTHORIZATION_HEADER)).isFalse();
+      }
+    }
+  }
+
+  @DisplayName("WHEN I receive delivery receipts")
+  @Nested
+  class WhenReceivingDeliveryReceipts {
+
+    @DisplayName("THEN the notifications are updated from the delivery receipts")
+    @Test
+    void receiveDeliveryReceipts_thenNotificationsUpdated() {
+
+      var notification = NotificationTestUtil.builder()
+          .withStatus(NotificationStatus.SENT_TO_NOTIFY)
+          .withNotifyNotificationId(UUID.randomUUID().toString())
+          .build();
+
+      var sentAt = FIXED_INSTANT.minusSeconds(10);
+
+      var deliveryReceipt = new NotifyDeliveryReceipt(
+          notification.getNotifyNotificationId(),
+          "log-correlation-id",
+          GovukNotifyNotificationStatus.DELIVERED.getStatus(),
+          sentAt,
+          FIXED_INSTANT
+      );
+
+      var unknownDeliveryReceipt = new NotifyDeliveryReceipt(
+          UUID.randomUUID().toString(),
+          null,
+          GovukNotifyNotificationStatus.DELIVERED.getStatus(),
+          null,
+          null
+      );
+
+      given(notificationRepository.claimNotificationsByNotifyNotificationIds(
+          List.of(deliveryReceipt.notifyNotificationId(), unknownDeliveryReceipt.notifyNotificationId()),
+          Set.of(NotificationStatus.SENT_TO_NOTIFY),
+          FIXED_INSTANT
+      ))
+          .willReturn(List.of(notification));
+
+      var pendingCount = deliveryReceiptService.receiveDeliveryReceipts(
+          AUTHORIZATION_HEADER,
+          List.of(deliveryReceipt, unknownDeliveryReceipt)
+      );
+
+      assertThat(pendingCount).isZero();
+
+      then(notificationStatusUpdateService)
+          .should()
+          .applyNotifyStatus(notification, GovukNotifyNotificationStatus.DELIVERED.getStatus(), Optional.of(sentAt));
+
+      then(notificationRepository)
+          .should()
+          .save(notification);
+    }
+
+    @DisplayName("AND a delivery receipt is for a notification which is still being sent")
+    @Nested
+    class AndNotificationStillBeingSent {
+
+      @DisplayName("THEN the delivery receipt is counted as pending so it can be sent again")
+      @Test
+      void receiveDeliveryReceipts_whenNotificationStillBeingSent_thenPending() {
+
+        var notificationId = UUID.randomUUID();
+
+        var deliveryReceipt = new NotifyDeliveryReceipt(
+            UUID.randomUUID().toString(),
+            notificationId.toString(),
+            GovukNotifyNotificationStatus.DELIVERED.getStatus(),
+            null,
+            null
+        );
+
+        given(notificationRepository.claimNotificationsByNotifyNotificationIds(
+            List.of(deliveryReceipt.notifyNotificationId()),
+            Set.of(NotificationStatus.SENT_TO_NOTIFY),
+            FIXED_INSTANT
+        ))
+            .willReturn(List.of());
+
+        given(notificationRepository.countNotificationsByNotifyNotificationIdsOrIds(
+            Set.of(deliveryReceipt.notifyNotificationId()),
+            Set.of(notificationId),
+            Set.of(NotificationStatus.SENDING_TO_NOTIFY, NotificationStatus.SENT_TO_NOTIFY)
+        ))
+            .willReturn(1L);
+
+        var pendingCount = deliveryReceiptService.receiveDeliveryReceipts(
+            AUTHORIZATION_HEADER,
+            List.of(deliveryReceipt)
+        );
+
+        assertThat(pendingCount).isEqualTo(1);
+
+        then(notificationStatusUpdateService).shouldHaveNoInteractions();
+      }
+    }
+
+    @DisplayName("AND the delivery receipts are not authorised")
+    @Nested
+    class AndNotAuthorised {
+
+      @DisplayName("THEN an exception is thrown and no notifications are updated")
+      @Test
+      void receiveDeliveryReceipts_whenNotAuthorised_thenException() {
+
+        var deliveryReceipt = new NotifyDeliveryReceipt(
+            UUID.randomUUID().toString(),
+            null,
+            GovukNotifyNotificationStatus.DELIVERED.getStatus(),
+            null,
+            null
+        );
+
+        assertThatThrownBy(() -> deliveryReceiptService.receiveDeliveryReceipts(
+            "Bearer another-token",
+            List.of(deliveryReceipt)
+        ))
+            .isInstanceOf(DigitalNotificationLibraryException.class);
+
+        then(notificationRepository)
+            .should(never())
+            .claimNotificationsByNotifyNotificationIds(anyCollection(), anyCollection(), any());
+      }
+    }
+  }
+
+  private NotificationLibraryDeliveryReceiptService createDeliveryReceiptService(
+      NotificationLibraryConfigurationProperties libraryConfigurationProperties
+  ) {
+
+    var entityManager = mock(EntityManager.class);
+    given(entityManager.unwrap(Session.class)).willReturn(mock(Session.class));
+
+    return new NotificationLibraryDeliveryReceiptService(
+        mock(PlatformTransactionManager.class),
+        notificationRepository,
+        entityManager,
+        notificationStatusUpdateService,
+        libraryConfigurationProperties,
+        FIXED_CLOCK
+    );
+  }
+}
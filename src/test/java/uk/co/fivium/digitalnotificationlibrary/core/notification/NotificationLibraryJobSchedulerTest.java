@@ -0,0 +1,160 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+
+@DisplayName("GIVEN I want to run the scheduled jobs of the library")
+class NotificationLibraryJobSchedulerTest {
+
+  private static final int SENDING_POLL_TIME_SECONDS = 2;
+
+  private static final int STATUS_UPDATE_POLL_TIME_SECONDS = 60;
+
+  private static final int ARCHIVE_POLL_TIME_SECONDS = 600;
+
+  private ThreadPoolTaskScheduler taskScheduler;
+
+  private NotificationProcessingJob notificationProcessingJob;
+
+  private NotificationArchiveJob notificationArchiveJob;
+
+  private NotificationRetentionJob notificationRetentionJob;
+
+  private NotificationBacklogMetricsJob notificationBacklogMetricsJob;
+
+  private NotificationLibraryConfigurationProperties libraryConfigurationProperties;
+
+  @BeforeEach
+  void setup() {
+
+    taskScheduler = mock(ThreadPoolTaskScheduler.class);
+    notificationProcessingJob = mock(NotificationProcessingJob.class);
+    notificationArchiveJob = mock(NotificationArchiveJob.class);
+    notificationRetentionJob = mock(NotificationRetentionJob.class);
+    notificationBacklogMetricsJob = mock(NotificationBacklogMetricsJob.class);
+
+    libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationSending(SENDING_POLL_TIME_SECONDS, null)
+        .withNotificationStatusUpdate(STATUS_UPDATE_POLL_TIME_SECONDS, null)
+        .withNotificationArchive(true, null, null, ARCHIVE_POLL_TIME_SECONDS)
+        .build();
+  }
+
+  @DisplayName("WHEN the library is started")
+  @Nested
+  class WhenStarted {
+
+    @DisplayName("THEN each job is scheduled with its own poll time on a thread of its own")
+    @Test
+    void start_thenJobsScheduled() {
+
+      var jobScheduler = new NotificationLibraryJobScheduler(
+          taskScheduler,
+          notificationProcessingJob,
+          notificationArchiveJob,
+          notificationRetentionJob,
+          notificationBacklogMetricsJob,
+          libraryConfigurationProperties
+      );
+
+      jobScheduler.start();
+
+      then(taskScheduler).should().setPoolSize(5);
+      then(taskScheduler).should().setThreadNamePrefix(NotificationLibraryJobScheduler.THREAD_NAME_PREFIX);
+      then(taskScheduler).should().initialize();
+
+      var jobCaptor = ArgumentCaptor.forClass(Runnable.class);
+      var pollTimeCaptor = ArgumentCaptor.forClass(Duration.class);
+
+      then(taskScheduler)
+          .should(times(5))
+          .scheduleWithFixedDelay(jobCaptor.capture(), pollTimeCaptor.capture());
+
+      assertThat(pollTimeCaptor.getAllValues())
+          .containsExactly(
+              Duration.ofSeconds(SENDING_POLL_TIME_SECONDS),
+              Duration.ofSeconds(STATUS_UPDATE_POLL_TIME_SECONDS),
+              Duration.ofSeconds(ARCHIVE_POLL_TIME_SECONDS),
+              Duration.ofSeconds(
+                  Integer.parseInt(NotificationLibraryConfigurationProperties.DEFAULT_RETENTION_POLL_TIME_SECONDS)
+              ),
+              Duration.ofSeconds(NotificationLibraryConfigurationProperties.DEFAULT_BACKLOG_METRICS_POLL_TIME_SECONDS)
+          );
+
+      jobCaptor.getAllValues().forEach(Runnable::run);
+
+      then(notificationProcessingJob).should().sendNotifications();
+      then(notificationProcessingJob).should().updateNotificationStatuses();
+      then(notificationArchiveJob).should().archiveNotifications();
+      then(notificationRetentionJob).should().purgeNotifications();
+      then(notificationBacklogMetricsJob).should().refreshBacklogMetrics();
+
+      assertThat(jobScheduler.isRunning()).isTrue();
+    }
+
+    @DisplayName("AND archiving and retention are disabled")
+    @Nested
+    class AndArchiveAndRetentionDisabled {
+
+      @DisplayName("THEN only the sending, status update and backlog metrics jobs are scheduled")
+      @Test
+      void start_whenArchiveAndRetentionDisabled_thenProcessingJobsScheduled() {
+
+        var jobScheduler = new NotificationLibraryJobScheduler(
+            taskScheduler,
+            notificationProcessingJob,
+            null,
+            null,
+            notificationBacklogMetricsJob,
+            libraryConfigurationProperties
+        );
+
+        jobScheduler.start();
+
+        then(taskScheduler).should().setPoolSize(3);
+        then(taskScheduler)
+            .should(times(3))
+            .scheduleWithFixedDelay(any(Runnable.class), any(Duration.class));
+      }
+    }
+  }
+
+  @DisplayName("WHEN the library is stopped")
+  @Nested
+  class WhenStopped {
+
+    @DisplayName("THEN the scheduler of the library is shut down")
+    @Test
+    void stop_thenSchedulerShutDown() {
+
+      var jobScheduler = new NotificationLibraryJobScheduler(
+          taskScheduler,
+          notificationProcessingJob,
+          null,
+          null,
+          notificationBacklogMetricsJob,
+          libraryConfigurationProperties
+      );
+
+      jobScheduler.start();
+      jobScheduler.stop();
+
+      then(taskScheduler).should().shutdown();
+
+      assertThat(jobScheduler.isRunning()).isFalse();
+    }
+  }
+}
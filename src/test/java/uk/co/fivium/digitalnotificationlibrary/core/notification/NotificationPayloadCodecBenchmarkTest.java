@@ -0,0 +1,95 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures the size of compressed payloads and how long they take to compress and read back, for payloads of varied
+ * prose of increasing length. The prose is generated from a fixed seed so each run measures the same payloads. This is
+ * only run by the benchmark task, which shows the logged results.
+ */
+@Tag("benchmark")
+@DisplayName("GIVEN I want to measure compressing the payload of a notification")
+class NotificationPayloadCodecBenchmarkTest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(NotificationPayloadCodecBenchmarkTest.class);
+
+  private static final int WARM_UP_ITERATIONS = 20_000;
+
+  private static final int MEASURED_ITERATIONS = 20_000;
+
+  private static final List<String> WORDS = List.of(
+      "application", "received", "reviewed", "licence", "offshore", "installation", "consent", "decision", "submitted",
+      "operator", "pipeline", "well", "field", "approval", "request", "date", "reference", "please", "contact", "team",
+      "the", "your", "has", "been", "and", "for", "with", "within", "days", "of", "this", "email", "we", "will", "you"
+  );
+
+  @DisplayName("WHEN payloads of increasing size are compressed and read back")
+  @ParameterizedTest(name = "WHEN the personalisation is {0} words")
+  @ValueSource(ints = {40, 150, 600})
+  void compressAndDecode_thenResultsLogged(int wordCount) {
+
+    var payload = new NotificationPayload(
+        Set.of(
+            new MailMergeField("name", "Applicant name"),
+            new MailMergeField("reference", "REF/2024/0001"),
+            new MailMergeField("body", generateProse(wordCount))
+        ),
+        Set.of(new FileAttachment("link_to_file", UUID.randomUUID(), "document.pdf"))
+    );
+
+    var jsonBytes = NotificationPayloadCodec.toJson(payload).getBytes(StandardCharsets.UTF_8).length;
+    var compressed = NotificationPayloadCodec.compress(payload, 0).orElseThrow();
+
+    for (int iteration = 0; iteration < WARM_UP_ITERATIONS; iteration++) {
+      NotificationPayloadCodec.decode(NotificationPayloadCodec.compress(payload, 0).orElseThrow());
+    }
+
+    var compressStartedAt = System.nanoTime();
+    for (int iteration = 0; iteration < MEASURED_ITERATIONS; iteration++) {
+      NotificationPayloadCodec.compress(payload, 0);
+    }
+    var compressNanos = (System.nanoTime() - compressStartedAt) / MEASURED_ITERATIONS;
+
+    var decodeStartedAt = System.nanoTime();
+    for (int iteration = 0; iteration < MEASURED_ITERATIONS; iteration++) {
+      NotificationPayloadCodec.decode(compressed);
+    }
+    var decodeNanos = (System.nanoTime() - decodeStartedAt) / MEASURED_ITERATIONS;
+
+    LOGGER.info(
+        "{} byte JSON payload compressed to {} bytes, compressed in {}us and read back in {}us on average",
+        jsonBytes,
+        compressed.length,
+        compressNanos / 1_000.0,
+        decodeNanos / 1_000.0
+    );
+
+    assertThat(NotificationPayloadCodec.decode(compressed)).isEqualTo(payload);
+    assertThat(compressed.length).isLessThan(jsonBytes);
+  }
+
+  private static String generateProse(int wordCount) {
+
+    var random = new Random(wordCount);
+    var prose = new StringBuilder();
+
+    for (int word = 0; word < wordCount; word++) {
+      prose.append(WORDS.get(random.nextInt(WORDS.size())));
+      prose.append(random.nextInt(12) == 0 ? ". " : " ");
+    }
+
+    return prose.toString().trim();
+  }
+}
@@ -0,0 +1,171 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.co.fivium.digitalnotificationlibrary.core.DigitalNotificationLibraryException;
+
+@DisplayName("GIVEN I want to store the payload of a notification compressed")
+class NotificationPayloadCodecTest {
+
+  private static final String LONG_TEXT = StringUtils.repeat("Your application has been received and is being reviewed. ", 40);
+
+  @DisplayName("WHEN the payload is larger than the minimum size")
+  @Nested
+  class WhenLargePayload {
+
+    @DisplayName("THEN the payload is compressed and can be read back")
+    @Test
+    void compress_whenLargePayload_thenPayloadCompressedAndReadable() {
+
+      var fileId = UUID.randomUUID();
+
+      var payload = new NotificationPayload(
+          Set.of(
+              new MailMergeField("body", LONG_TEXT),
+              new MailMergeField("count", 3),
+              new MailMergeField("items", List.of("first", "second")),
+              new MailMergeField("address", Map.of("postcode", "AB1 2CD")),
+              new MailMergeField("missing", null)
+          ),
+          Set.of(new FileAttachment("link_to_file", fileId, "document.pdf"))
+      );
+
+      var compressed = NotificationPayloadCodec.compress(payload, 64);
+
+      assertThat(compressed).hasValueSatisfying(bytes -> {
+        assertThat(bytes.length).isLessThan(LONG_TEXT.getBytes(StandardCharsets.UTF_8).length);
+        assertThat(bytes[2]).isEqualTo(NotificationPayloadCodec.DEFLATE_JSON_FORMAT);
+        assertThat(NotificationPayloadCodec.decode(bytes)).isEqualTo(payload);
+      });
+    }
+
+    @DisplayName("AND there are no file attachments")
+    @Nested
+    class AndNoFileAttachments {
+
+      @DisplayName("THEN the file attachments are read back as not provided")
+      @Test
+      void compress_whenNoFileAttachments_thenFileAttachmentsNull() {
+
+        var payload = new NotificationPayload(Set.of(new MailMergeField("body", LONG_TEXT)), null);
+
+        var compressed = NotificationPayloadCodec.compress(payload, 64).orElseThrow();
+
+        assertThat(NotificationPayloadCodec.decode(compressed).fileAttachments()).isNull();
+      }
+    }
+  }
+
+  @DisplayName("WHEN the mail merge values are maps and lists")
+  @Nested
+  class WhenNestedValues {
+
+    @DisplayName("THEN they read back the same as from the JSON column")
+    @Test
+    void compress_whenNestedValues_thenReadBackAsFromJsonColumn() throws JsonProcessingException {
+
+      var address = Map.of("lines", List.of("1 Street", "Town"), "postcode", "AB1 2CD", "distance", 1.5);
+      var items = List.of(Map.of("name", "first", "quantity", 2), "second");
+
+      var mailMergeFields = Set.of(
+          new MailMergeField("body", LONG_TEXT),
+          new MailMergeField("address", address),
+          new MailMergeField("items", items)
+      );
+
+      var decoded = NotificationPayloadCodec.decode(
+          NotificationPayloadCodec.compress(new NotificationPayload(mailMergeFields, null), 64).orElseThrow()
+      );
+
+      // the mapper Hibernate uses by default for the JSON columns
+      var objectMapper = new ObjectMapper().findAndRegisterModules();
+      Set<MailMergeField> fromJsonColumn = objectMapper.readValue(
+          objectMapper.writeValueAsString(mailMergeFields),
+          new TypeReference<>() {}
+      );
+
+      assertThat(decoded.mailMergeFields())
+          .isEqualTo(fromJsonColumn)
+          .contains(new MailMergeField("address", address), new MailMergeField("items", items));
+    }
+  }
+
+  @DisplayName("WHEN a compressed payload is encoded again")
+  @Nested
+  class WhenEncodedAgain {
+
+    @DisplayName("THEN the payload is compressed whatever its size")
+    @Test
+    void encode_whenSmallPayload_thenCompressed() {
+
+      var payload = new NotificationPayload(Set.of(new MailMergeField("name", "value")), null);
+
+      var encoded = NotificationPayloadCodec.encode(payload);
+
+      assertThat(encoded[2]).isEqualTo(NotificationPayloadCodec.DEFLATE_JSON_FORMAT);
+      assertThat(NotificationPayloadCodec.decode(encoded)).isEqualTo(payload);
+    }
+  }
+
+  @DisplayName("WHEN the payload is smaller than the minimum size")
+  @Nested
+  class WhenSmallPayload {
+
+    @DisplayName("THEN the payload is not compressed")
+    @Test
+    void compress_whenSmallPayload_thenNotCompressed() {
+
+      var payload = new NotificationPayload(Set.of(new MailMergeField("name", "value")), null);
+
+      assertThat(NotificationPayloadCodec.compress(payload, 512)).isEmpty();
+    }
+  }
+
+  @DisplayName("WHEN the stored payload has no header")
+  @Nested
+  class WhenNoHeader {
+
+    @DisplayName("THEN the payload is read as plain JSON")
+    @Test
+    void decode_whenNoHeader_thenReadAsJson() {
+
+      var json = """
+          {"mailMergeFields": [{"name": "name", "value": "value"}]}
+          """;
+
+      var payload = NotificationPayloadCodec.decode(json.getBytes(StandardCharsets.UTF_8));
+
+      assertThat(payload.mailMergeFields()).containsExactly(new MailMergeField("name", "value"));
+      assertThat(payload.fileAttachments()).isNull();
+    }
+  }
+
+  @DisplayName("WHEN the stored payload was written in an unknown format")
+  @Nested
+  class WhenUnknownFormat {
+
+    @DisplayName("THEN an exception is thrown")
+    @Test
+    void decode_whenUnknownFormat_thenException() {
+
+      var payload = new byte[] {'N', 'L', 9, 0};
+
+      assertThatThrownBy(() -> NotificationPayloadCodec.decode(payload))
+          .isInstanceOf(DigitalNotificationLibraryException.class)
+          .hasMessage("Unsupported notification payload format 9");
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+
+import java.time.Clock;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+
+@DisplayName("GIVEN I want to process notifications")
+class NotificationProcessingCycleTest {
+
+  private static final int BULK_RETRIEVAL_LIMIT = 5;
+
+  private static final int CYCLE_TIME_BUDGET_SECONDS = 60;
+
+  private static final Instant CYCLE_START = Instant.now();
+
+  private NotificationSendingService notificationSendingService;
+
+  private NotificationStatusUpdateService notificationStatusUpdateService;
+
+  private Clock clock;
+
+  @BeforeEach
+  void setup() {
+    notificationSendingService = mock(NotificationSendingService.class);
+    notificationStatusUpdateService = mock(NotificationStatusUpdateService.class);
+    clock = mock(Clock.class);
+  }
+
+  @DisplayName("WHEN I update notification statuses")
+  @Nested
+  class WhenUpdatingStatuses {
+
+    @DisplayName("THEN the statuses are updated without sending any notifications")
+    @Test
+    void updateNotificationStatuses_thenNoNotificationsSent() {
+
+      var libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
+
+      createProcessingCycle(libraryConfigurationProperties).updateNotificationStatuses();
+
+      then(notificationStatusUpdateService).should().updateNotificationStatuses();
+      then(notificationSendingService).shouldHaveNoInteractions();
+    }
+  }
+
+  @DisplayName("WHEN drain mode is not enabled")
+  @Nested
+  class WhenDrainNotEnabled {
+
+    @DisplayName("THEN a single page of notifications is sent even if the page was full")
+    @Test
+    void sendNotifications_whenDrainNotEnabled_thenSinglePageSent() {
+
+      var libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+          .withNotificationRetrievalLimit(BULK_RETRIEVAL_LIMIT)
+          .build();
+
+      given(notificationSendingService.sendNotificationsToNotify()).willReturn(BULK_RETRIEVAL_LIMIT);
+
+      createProcessingCycle(libraryConfigurationProperties).sendNotifications();
+
+      then(notificationSendingService).should().sendNotificationsToNotify();
+      then(notificationStatusUpdateService).shouldHaveNoInteractions();
+    }
+  }
+
+  @DisplayName("WHEN drain mode is enabled")
+  @Nested
+  class WhenDrainEnabled {
+
+    private NotificationLibraryConfigurationProperties libraryConfigurationProperties;
+
+    @BeforeEach
+    void setup() {
+      libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+          .withNotificationSending(null, BULK_RETRIEVAL_LIMIT)
+          .withNotificationDrain(true, CYCLE_TIME_BUDGET_SECONDS)
+          .build();
+    }
+
+    @DisplayName("THEN pages are sent until a page is not full")
+    @Test
+    void sendNotifications_whenDrainEnabled_thenPagesSentUntilQueueEmpty() {
+
+      given(clock.instant()).willReturn(CYCLE_START);
+
+      given(notificationSendingService.sendNotificationsToNotify())
+          .willReturn(BULK_RETRIEVAL_LIMIT, BULK_RETRIEVAL_LIMIT, 2);
+
+      createProcessingCycle(libraryConfigurationProperties).sendNotifications();
+
+      then(notificationSendingService).should(times(3)).sendNotificationsToNotify();
+    }
+
+    @DisplayName("AND the cycle time budget has been spent")
+    @Nested
+    class AndCycleTimeBudgetSpent {
+
+      @DisplayName("THEN no more pages are sent even if the queue is not empty")
+      @Test
+      void sendNotifications_whenBudgetSpent_thenNoMorePagesSent() {
+
+        given(clock.instant()).willReturn(
+            CYCLE_START,
+            CYCLE_START.plusSeconds(CYCLE_TIME_BUDGET_SECONDS - 1),
+            CYCLE_START.plusSeconds(CYCLE_TIME_BUDGET_SECONDS)
+        );
+
+        given(notificationSendingService.sendNotificationsToNotify()).willReturn(BULK_RETRIEVAL_LIMIT);
+
+        createProcessingCycle(libraryConfigurationProperties).sendNotifications();
+
+        then(notificationSendingService).should(times(2)).sendNotificationsToNotify();
+      }
+    }
+  }
+
+  private NotificationProcessingCycle createProcessingCycle(
+      NotificationLibraryConfigurationProperties libraryConfigurationProperties
+  ) {
+    return new NotificationProcessingCycle(
+        notificationSendingService,
+        notificationStatusUpdateService,
+        libraryConfigurationProperties,
+        clock
+    );
+  }
+}
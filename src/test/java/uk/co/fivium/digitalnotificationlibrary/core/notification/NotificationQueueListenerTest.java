@@ -0,0 +1,133 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+@DisplayName("GIVEN I want to wake the sending job when notifications are queued")
+class NotificationQueueListenerTest {
+
+  private Connection connection;
+
+  private Statement statement;
+
+  private PGConnection pgConnection;
+
+  private NotificationSendingJob notificationSendingJob;
+
+  private NotificationQueueListener notificationQueueListener;
+
+  @BeforeEach
+  void setup() throws SQLException {
+
+    var dataSource = mock(DataSource.class);
+    connection = mock(Connection.class);
+    statement = mock(Statement.class);
+    pgConnection = mock(PGConnection.class);
+    notificationSendingJob = mock(NotificationSendingJob.class);
+
+    given(dataSource.getConnection()).willReturn(connection);
+    given(connection.createStatement()).willReturn(statement);
+    given(connection.unwrap(PGConnection.class)).willReturn(pgConnection);
+
+    notificationQueueListener = new NotificationQueueListener(dataSource, notificationSendingJob);
+    notificationQueueListener.setRunning(true);
+  }
+
+  @DisplayName("WHEN notifications are queued")
+  @Nested
+  class WhenNotificationsQueued {
+
+    @DisplayName("THEN the sending job is run once for all the queued notification events received together")
+    @Test
+    void listenForQueuedNotifications_whenNotified_thenSendingJobRun() throws SQLException {
+
+      given(pgConnection.getNotifications(anyInt())).willAnswer(invocation -> {
+        notificationQueueListener.setRunning(false);
+        return new PGNotification[] {mock(PGNotification.class), mock(PGNotification.class)};
+      });
+
+      notificationQueueListener.listenForQueuedNotifications();
+
+      then(statement).should().execute("LISTEN " + NotificationQueueListener.CHANNEL);
+      then(notificationSendingJob).should().sendNotifications();
+      then(connection).should().close();
+    }
+  }
+
+  @DisplayName("WHEN no notifications are queued before the wait times out")
+  @Nested
+  class WhenNoNotificationsQueued {
+
+    @DisplayName("THEN the sending job is not run")
+    @Test
+    void listenForQueuedNotifications_whenTimedOut_thenSendingJobNotRun() throws SQLException {
+
+      given(pgConnection.getNotifications(anyInt())).willAnswer(invocation -> {
+        notificationQueueListener.setRunning(false);
+        return new PGNotification[0];
+      });
+
+      notificationQueueListener.listenForQueuedNotifications();
+
+      then(notificationSendingJob).shouldHaveNoInteractions();
+    }
+  }
+
+  @DisplayName("WHEN the sending job fails")
+  @Nested
+  class WhenSendingJobFails {
+
+    @DisplayName("THEN the listener keeps listening")
+    @Test
+    void listenForQueuedNotifications_whenSendingJobFails_thenKeepsListening() throws SQLException {
+
+      willThrow(new IllegalStateException("failed"))
+          .given(notificationSendingJob)
+          .sendNotifications();
+
+      given(pgConnection.getNotifications(anyInt()))
+          .willReturn(new PGNotification[] {mock(PGNotification.class)})
+          .willAnswer(invocation -> {
+            notificationQueueListener.setRunning(false);
+            return new PGNotification[0];
+          });
+
+      notificationQueueListener.listenForQueuedNotifications();
+
+      then(pgConnection).should(times(2)).getNotifications(anyInt());
+    }
+  }
+
+  @DisplayName("WHEN the connection fails")
+  @Nested
+  class WhenConnectionFails {
+
+    @DisplayName("THEN the connection is closed and the failure is thrown to reconnect")
+    @Test
+    void listenForQueuedNotifications_whenConnectionFails_thenExceptionThrown() throws SQLException {
+
+      given(pgConnection.getNotifications(anyInt())).willThrow(new SQLException("connection lost"));
+
+      assertThatThrownBy(() -> notificationQueueListener.listenForQueuedNotifications())
+          .isInstanceOf(SQLException.class);
+
+      then(connection).should().close();
+    }
+  }
+}
@@ -0,0 +1,83 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+
+@DisplayName("GIVEN I want to wake the listeners when notifications are queued")
+class NotificationQueuedNotifierTest {
+
+  private EntityManager entityManager;
+
+  private Query notifyQuery;
+
+  @BeforeEach
+  void setup() {
+    entityManager = mock(EntityManager.class);
+    notifyQuery = mock(Query.class);
+    given(entityManager.createNativeQuery("NOTIFY " + NotificationQueueListener.CHANNEL)).willReturn(notifyQuery);
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+
+  @DisplayName("WHEN notifications are queued more than once in a transaction")
+  @Nested
+  class WhenQueuedInTransaction {
+
+    @DisplayName("THEN a single notification is issued just before the transaction commits")
+    @Test
+    void notifyQueuedAfterCommit_whenListenEnabled_thenNotifiedOnceBeforeCommit() {
+
+      var notificationQueuedNotifier = createNotifier(true);
+
+      notificationQueuedNotifier.notifyQueuedAfterCommit();
+      notificationQueuedNotifier.notifyQueuedAfterCommit();
+
+      then(entityManager).shouldHaveNoInteractions();
+
+      assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(synchronization -> synchronization.beforeCommit(false));
+
+      then(notifyQuery).should().executeUpdate();
+    }
+  }
+
+  @DisplayName("WHEN listening is not enabled")
+  @Nested
+  class WhenListenNotEnabled {
+
+    @DisplayName("THEN no notification is issued")
+    @Test
+    void notifyQueuedAfterCommit_whenListenNotEnabled_thenNotNotified() {
+
+      createNotifier(false).notifyQueuedAfterCommit();
+
+      assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+      then(entityManager).shouldHaveNoInteractions();
+    }
+  }
+
+  private NotificationQueuedNotifier createNotifier(boolean isListenEnabled) {
+    var libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationListen(isListenEnabled)
+        .build();
+    return new NotificationQueuedNotifier(entityManager, libraryConfigurationProperties);
+  }
+}
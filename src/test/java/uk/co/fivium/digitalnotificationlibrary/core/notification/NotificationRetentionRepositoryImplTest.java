@@ -0,0 +1,225 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
+
+@DisplayName("GIVEN I want to purge notifications past their retention period")
+class NotificationRetentionRepositoryImplTest {
+
+  private static final Instant REQUESTED_BEFORE = Instant.now().minusSeconds(86400);
+
+  private EntityManager entityManager;
+
+  private Query selectQuery;
+
+  private Query sizeQuery;
+
+  private Query deleteQuery;
+
+  @BeforeEach
+  void setup() {
+    entityManager = mock(EntityManager.class);
+    selectQuery = mock(Query.class);
+    sizeQuery = mock(Query.class);
+    deleteQuery = mock(Query.class);
+
+    given(entityManager.createNativeQuery(startsWith("SELECT t.requested_on, t.id"))).willReturn(selectQuery);
+    given(entityManager.createNativeQuery(contains("SUM("))).willReturn(sizeQuery);
+    given(entityManager.createNativeQuery(startsWith("DELETE"))).willReturn(deleteQuery);
+
+    given(selectQuery.setParameter(anyString(), any())).willReturn(selectQuery);
+    given(sizeQuery.setParameter(anyString(), any())).willReturn(sizeQuery);
+    given(deleteQuery.setParameter(anyString(), any())).willReturn(deleteQuery);
+  }
+
+  @DisplayName("WHEN the database is PostgreSQL")
+  @Nested
+  class WhenPostgres {
+
+    @DisplayName("THEN the audit rows, status transitions and notifications are deleted and the size is reported")
+    @Test
+    void purgeNotifications_whenPostgres_thenAuditRowsAndNotificationsDeleted() {
+
+      var firstId = UUID.randomUUID();
+      var lastId = UUID.randomUUID();
+      var lastRequestedOn = REQUESTED_BEFORE.minusSeconds(60);
+      List<Object> ids = List.of(firstId, lastId);
+
+      given(selectQuery.getResultList()).willReturn(List.of(
+          new Object[] {REQUESTED_BEFORE.minusSeconds(120), firstId},
+          new Object[] {lastRequestedOn, lastId}
+      ));
+      given(sizeQuery.getSingleResult()).willReturn(2000L, 500L);
+      given(deleteQuery.executeUpdate()).willReturn(6, 3, 2);
+
+      var batch = createRepository("postgresql").purgeNotifications(
+          NotificationRetentionTable.NOTIFICATIONS,
+          NotificationStatus.SENT,
+          REQUESTED_BEFORE,
+          null,
+          10
+      );
+
+      assertThat(batch).isEqualTo(new NotificationPurgeBatch(
+          2,
+          6,
+          3,
+          2500L,
+          new NotificationPurgeCursor(lastRequestedOn, lastId)
+      ));
+
+      var sqlCaptor = ArgumentCaptor.forClass(String.class);
+      then(entityManager).should(times(6)).createNativeQuery(sqlCaptor.capture());
+
+      assertThat(sqlCaptor.getAllValues().get(0))
+          .contains("FROM {h-schema}notification_library_notifications t")
+          .contains("AND t.status IN ('SENT', 'FAILED_NOT_SENT', 'UNEXPECTED_NOTIFY_STATUS')")
+          .contains("ORDER BY t.requested_on ASC, t.id ASC")
+          .contains("LIMIT :limit")
+          .doesNotContain(":afterRequestedOn")
+          .doesNotContain(":afterId");
+
+      assertThat(sqlCaptor.getAllValues().get(1)).contains("pg_column_size");
+      assertThat(sqlCaptor.getAllValues().get(3)).contains("DELETE FROM {h-schema}notification_library_notifications_aud");
+      assertThat(sqlCaptor.getAllValues().get(4))
+          .contains("DELETE FROM {h-schema}notification_library_status_transitions")
+          .contains("WHERE notification_id IN (:ids)");
+      assertThat(sqlCaptor.getAllValues().get(5)).contains("DELETE FROM {h-schema}notification_library_notifications\n");
+
+      then(selectQuery).should().setParameter("status", "SENT");
+      then(selectQuery).should().setParameter("requestedBefore", REQUESTED_BEFORE);
+      then(selectQuery).should().setParameter("limit", 10);
+      then(selectQuery).should(never()).setParameter(eq("afterRequestedOn"), any());
+      then(selectQuery).should(never()).setParameter(eq("afterId"), any());
+
+      then(deleteQuery).should(times(3)).setParameter("ids", ids);
+    }
+
+    @DisplayName("AND a previous batch has been purged")
+    @Nested
+    class AndPreviousBatchPurged {
+
+      @DisplayName("THEN only notifications after the last purged notification are selected")
+      @Test
+      void purgeNotifications_whenAfterCursor_thenNotificationsAfterCursorSelected() {
+
+        var after = new NotificationPurgeCursor(REQUESTED_BEFORE.minusSeconds(60), UUID.randomUUID());
+
+        given(selectQuery.getResultList()).willReturn(List.of());
+
+        createRepository("postgresql").purgeNotifications(
+            NotificationRetentionTable.ARCHIVE,
+            NotificationStatus.FAILED_NOT_SENT,
+            REQUESTED_BEFORE,
+            after,
+            10
+        );
+
+        var sqlCaptor = ArgumentCaptor.forClass(String.class);
+        then(entityManager).should().createNativeQuery(sqlCaptor.capture());
+
+        assertThat(sqlCaptor.getValue())
+            .contains("FROM {h-schema}notification_library_notifications_archive t")
+            .contains("AND t.requested_on >= :afterRequestedOn")
+            .contains("AND (t.requested_on > :afterRequestedOn OR t.id > :afterId)");
+
+        then(selectQuery).should().setParameter("afterRequestedOn", after.requestedOn());
+        then(selectQuery).should().setParameter("afterId", after.id());
+      }
+    }
+
+    @DisplayName("AND there are no notifications to purge")
+    @Nested
+    class AndNoNotifications {
+
+      @DisplayName("THEN nothing is deleted")
+      @Test
+      void purgeNotifications_whenNoNotifications_thenNothingDeleted() {
+
+        given(selectQuery.getResultList()).willReturn(List.of());
+
+        var batch = createRepository("postgresql").purgeNotifications(
+            NotificationRetentionTable.NOTIFICATIONS,
+            NotificationStatus.SENT,
+            REQUESTED_BEFORE,
+            null,
+            10
+        );
+
+        assertThat(batch).isEqualTo(NotificationPurgeBatch.EMPTY);
+
+        then(sizeQuery).shouldHaveNoInteractions();
+        then(deleteQuery).shouldHaveNoInteractions();
+      }
+    }
+  }
+
+  @DisplayName("WHEN the database is Oracle")
+  @Nested
+  class WhenOracle {
+
+    @DisplayName("THEN the batch is limited with a row limiting clause and the LOB sizes are reported")
+    @Test
+    void purgeNotifications_whenOracle_thenRowLimitingClauseUsed() {
+
+      var id = new byte[] {1};
+
+      given(selectQuery.getResultList()).willReturn(List.<Object[]>of(new Object[] {REQUESTED_BEFORE, id}));
+      given(sizeQuery.getSingleResult()).willReturn(100L, 0L);
+      given(deleteQuery.executeUpdate()).willReturn(3, 0, 1);
+
+      var batch = createRepository("oracle").purgeNotifications(
+          NotificationRetentionTable.NOTIFICATIONS,
+          NotificationStatus.SENT,
+          REQUESTED_BEFORE,
+          null,
+          10
+      );
+
+      assertThat(batch.notificationsPurged()).isEqualTo(1);
+      assertThat(batch.bytesReclaimed()).isEqualTo(100L);
+
+      var sqlCaptor = ArgumentCaptor.forClass(String.class);
+      then(entityManager).should(times(6)).createNativeQuery(sqlCaptor.capture());
+
+      assertThat(sqlCaptor.getAllValues().get(0))
+          .doesNotContain("LIMIT")
+          .contains("FETCH FIRST :limit ROWS ONLY");
+
+      assertThat(sqlCaptor.getAllValues().get(1)).contains("DBMS_LOB.GETLENGTH");
+    }
+  }
+
+  private NotificationRetentionRepositoryImpl createRepository(String flywayVendor) {
+    var libraryConfigurationProperties = new NotificationLibraryConfigurationProperties(
+        new NotificationLibraryConfigurationProperties.GovukNotify("api-key"),
+        null,
+        null,
+        null,
+        flywayVendor,
+        null
+    );
+    return new NotificationRetentionRepositoryImpl(entityManager, libraryConfigurationProperties);
+  }
+}
@@ -0,0 +1,210 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+
+@DisplayName("GIVEN I want to purge notifications past their retention period")
+class NotificationRetentionServiceTest {
+
+  private static final Instant NOW = Instant.now();
+
+  private static final int SENT_RETENTION_DAYS = 30;
+
+  private static final int FAILED_NOT_SENT_RETENTION_DAYS = 60;
+
+  private static final int UNEXPECTED_NOTIFY_STATUS_RETENTION_DAYS = 90;
+
+  private static final int BATCH_SIZE = 100;
+
+  private NotificationLibraryNotificationRepository notificationRepository;
+
+  private Clock clock;
+
+  private MeterRegistry meterRegistry;
+
+  private NotificationRetentionService notificationRetentionService;
+
+  @BeforeEach
+  void setup() {
+
+    notificationRepository = mock(NotificationLibraryNotificationRepository.class);
+    clock = mock(Clock.class);
+    meterRegistry = new SimpleMeterRegistry();
+
+    var libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationRetention(
+            true,
+            SENT_RETENTION_DAYS,
+            FAILED_NOT_SENT_RETENTION_DAYS,
+            UNEXPECTED_NOTIFY_STATUS_RETENTION_DAYS,
+            BATCH_SIZE,
+            0
+        )
+        .build();
+
+    notificationRetentionService = new NotificationRetentionService(
+        mock(PlatformTransactionManager.class),
+        notificationRepository,
+        libraryConfigurationProperties,
+        clock,
+        meterRegistry
+    );
+
+    given(notificationRepository.purgeNotifications(any(), any(), any(), any(), anyInt()))
+        .willReturn(NotificationPurgeBatch.EMPTY);
+  }
+
+  @DisplayName("WHEN there are no notifications past their retention period")
+  @Nested
+  class WhenNothingToPurge {
+
+    @DisplayName("THEN each status is checked in each table using its own retention period")
+    @Test
+    void purgeNotifications_whenNothingToPurge_thenEachStatusCheckedWithOwnRetention() {
+
+      given(clock.instant()).willReturn(NOW);
+
+      var result = notificationRetentionService.purgeNotifications();
+
+      assertThat(result).isEqualTo(NotificationPurgeResult.NONE);
+
+      for (NotificationRetentionTable table : NotificationRetentionTable.values()) {
+        then(notificationRepository).should().purgeNotifications(
+            table,
+            NotificationStatus.SENT,
+            NOW.minus(Duration.ofDays(SENT_RETENTION_DAYS)),
+            null,
+            BATCH_SIZE
+        );
+        then(notificationRepository).should().purgeNotifications(
+            table,
+            NotificationStatus.FAILED_NOT_SENT,
+            NOW.minus(Duration.ofDays(FAILED_NOT_SENT_RETENTION_DAYS)),
+            null,
+            BATCH_SIZE
+        );
+        then(notificationRepository).should().purgeNotifications(
+            table,
+            NotificationStatus.UNEXPECTED_NOTIFY_STATUS,
+            NOW.minus(Duration.ofDays(UNEXPECTED_NOTIFY_STATUS_RETENTION_DAYS)),
+            null,
+            BATCH_SIZE
+        );
+      }
+    }
+  }
+
+  @DisplayName("WHEN there are more notifications to purge than the batch size")
+  @Nested
+  class WhenSeveralBatches {
+
+    @DisplayName("THEN batches are purged after the last purged notification until a batch is not full")
+    @Test
+    void purgeNotifications_whenFullBatches_thenBatchesPurgedUntilNotFull() {
+
+      given(clock.instant()).willReturn(NOW);
+
+      var firstLast = new NotificationPurgeCursor(NOW, UUID.randomUUID());
+      var secondLast = new NotificationPurgeCursor(NOW, UUID.randomUUID());
+
+      given(notificationRepository.purgeNotifications(
+          eq(NotificationRetentionTable.NOTIFICATIONS),
+          eq(NotificationStatus.SENT),
+          any(),
+          isNull(),
+          eq(BATCH_SIZE)
+      ))
+          .willReturn(new NotificationPurgeBatch(BATCH_SIZE, BATCH_SIZE * 3, BATCH_SIZE * 2, 1000L, firstLast));
+
+      given(notificationRepository.purgeNotifications(
+          eq(NotificationRetentionTable.NOTIFICATIONS),
+          eq(NotificationStatus.SENT),
+          any(),
+          eq(firstLast),
+          eq(BATCH_SIZE)
+      ))
+          .willReturn(new NotificationPurgeBatch(5, 15, 10, 50L, secondLast));
+
+      var result = notificationRetentionService.purgeNotifications();
+
+      assertThat(result).isEqualTo(new NotificationPurgeResult(
+          BATCH_SIZE + 5,
+          BATCH_SIZE * 3 + 15,
+          BATCH_SIZE * 2 + 10,
+          1050L
+      ));
+
+      then(notificationRepository)
+          .should(times(2))
+          .purgeNotifications(
+              eq(NotificationRetentionTable.NOTIFICATIONS),
+              eq(NotificationStatus.SENT),
+              any(),
+              any(),
+              anyInt()
+          );
+
+      assertThat(meterRegistry.get("notification.library.retention.notifications.purged")
+          .tag("table", NotificationRetentionTable.NOTIFICATIONS.getTableName())
+          .counter()
+          .count())
+          .isEqualTo(BATCH_SIZE + 5);
+
+      assertThat(meterRegistry.get("notification.library.retention.audit.purged").counter().count())
+          .isEqualTo(BATCH_SIZE * 3 + 15);
+
+      assertThat(meterRegistry.get("notification.library.retention.status.transitions.purged").counter().count())
+          .isEqualTo(BATCH_SIZE * 2 + 10);
+
+      assertThat(meterRegistry.get("notification.library.retention.reclaimed").counter().count())
+          .isEqualTo(1050);
+    }
+
+    @DisplayName("AND the cycle time budget has been spent")
+    @Nested
+    class AndCycleTimeBudgetSpent {
+
+      @DisplayName("THEN no more batches are purged until the next iteration")
+      @Test
+      void purgeNotifications_whenBudgetSpent_thenNoMoreBatchesPurged() {
+
+        given(clock.instant()).willReturn(
+            NOW,
+            NOW,
+            NOW.plus(NotificationRetentionService.RETENTION_CYCLE_TIME_BUDGET)
+        );
+
+        given(notificationRepository.purgeNotifications(any(), any(), any(), any(), anyInt()))
+            .willReturn(new NotificationPurgeBatch(BATCH_SIZE, 0, 0, 0L, new NotificationPurgeCursor(NOW, UUID.randomUUID())));
+
+        var result = notificationRetentionService.purgeNotifications();
+
+        assertThat(result.notificationsPurged()).isEqualTo(BATCH_SIZE);
+
+        then(notificationRepository)
+            .should(times(1))
+            .purgeNotifications(any(), any(), any(), any(), anyInt());
+      }
+    }
+  }
+}
@@ -196,6 +196,49 @@ class NotificationRetryScheduleServiceTest {
     }
   }
 
+  @DisplayName("GIVEN I want to know when a notification should next be retried")
+  @Nested
+  class GetNextRetryTime {
+
+    @DisplayName("WHEN the notification has made a send attempt")
+    @Nested
+    class WithSendAttempt {
+
+      @DisplayName("THEN the next retry time is the retry offset after the last send attempt")
+      @Test
+      void getNextRetryTime_whenSendAttempt_thenOffsetFromLastSendAttempt() {
+
+        var lastSendAttemptAt = FIXED_INSTANT.minusSeconds(5);
+
+        var notification = NotificationTestUtil.builder()
+            .withRetryCount(2)
+            .withLastSendAttemptAt(lastSendAttemptAt)
+            .build();
+
+        assertThat(notificationRetryScheduleService.getNextRetryTime(notification))
+            .isEqualTo(lastSendAttemptAt.plusSeconds(POLL_TIME_SECONDS * 2));
+      }
+    }
+
+    @DisplayName("WHEN the notification has never made a send attempt")
+    @Nested
+    class WithoutSendAttempt {
+
+      @DisplayName("THEN the next retry time is the retry offset from now")
+      @Test
+      void getNextRetryTime_whenNoSendAttempt_thenOffsetFromNow() {
+
+        var notification = NotificationTestUtil.builder()
+            .withRetryCount(0)
+            .withLastSendAttemptAt(null)
+            .build();
+
+        assertThat(notificationRetryScheduleService.getNextRetryTime(notification))
+            .isEqualTo(FIXED_INSTANT.plusSeconds(POLL_TIME_SECONDS));
+      }
+    }
+  }
+
   @DisplayName("GIVEN I want to know the next retry offset for a notification")
   @ParameterizedTest(name = "WHEN retry count is {0} THEN expected offset seconds is {1}")
   @MethodSource("getRetryOffsetArguments")
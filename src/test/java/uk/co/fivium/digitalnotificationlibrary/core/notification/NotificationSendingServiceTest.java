@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.groups.Tuple.tuple;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.mock;
@@ -11,6 +12,8 @@ import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.time.Clock;
@@ -19,8 +22,12 @@ import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import org.hibernate.Session;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -34,7 +41,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.util.ResourceUtils;
 import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
@@ -56,10 +62,16 @@ class NotificationSendingServiceTest {
 
   private static NotificationLibraryNotificationRepository notificationRepository;
 
+  private static NotificationDequeueService notificationDequeueService;
+
+  private static GovukNotifyRateLimiter govukNotifyRateLimiter;
+
   private static TestGovukNotifySender govukNotifyService;
 
   private static PlatformTransactionManager transactionManager;
 
+  private static EntityManager entityManager;
+
   private static NotificationLibraryConfigurationProperties libraryConfigurationProperties;
 
   private static NotificationLibraryEmailAttachmentResolver emailAttachmentResolver;
@@ -74,22 +86,39 @@ class NotificationSendingServiceTest {
 
     libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder().build();
     transactionManager = mock(PlatformTransactionManager.class);
+
+    entityManager = mock(EntityManager.class);
+    given(entityManager.unwrap(Session.class)).willReturn(mock(Session.class));
   }
 
   @BeforeEach
   void beforeEachSetup() {
 
     notificationRepository = mock(NotificationLibraryNotificationRepository.class);
+
+    notificationDequeueService = mock(NotificationDequeueService.class);
+    govukNotifyRateLimiter = mock(GovukNotifyRateLimiter.class);
     emailAttachmentResolver = mock(NotificationLibraryEmailAttachmentResolver.class);
     govukNotifyService = mock(TestGovukNotifySender.class);
 
     notificationSendingService = new NotificationSendingService(
-        transactionManager,
-        notificationRepository,
+        new NotificationBatchPersistenceService(
+            transactionManager,
+            notificationRepository,
+            entityManager,
+            libraryConfigurationProperties,
+            FIXED_CLOCK,
+            mock(NotificationQueuedNotifier.class)
+        ),
         govukNotifyService,
         libraryConfigurationProperties,
         FIXED_CLOCK,
-        emailAttachmentResolver
+        emailAttachmentResolver,
+        new NotificationSendingWorkerPool(libraryConfigurationProperties, new SimpleMeterRegistry()),
+        notificationDequeueService,
+        govukNotifyRateLimiter,
+        new NotificationStatusCheckScheduleService(FIXED_CLOCK),
+        new NotificationRetryScheduleService(FIXED_CLOCK, libraryConfigurationProperties)
     );
   }
 
@@ -106,21 +135,33 @@ class NotificationSendingServiceTest {
           .build();
 
       notificationSendingService = new NotificationSendingService(
-          transactionManager,
-          notificationRepository,
+          new NotificationBatchPersistenceService(
+              transactionManager,
+              notificationRepository,
+              entityManager,
+              libraryConfigurationProperties,
+              FIXED_CLOCK,
+              mock(NotificationQueuedNotifier.class)
+          ),
           govukNotifyService,
           libraryConfigurationProperties,
           FIXED_CLOCK,
-          emailAttachmentResolver
+          emailAttachmentResolver,
+          new NotificationSendingWorkerPool(libraryConfigurationProperties, new SimpleMeterRegistry()),
+          notificationDequeueService,
+          govukNotifyRateLimiter,
+          new NotificationStatusCheckScheduleService(FIXED_CLOCK),
+          new NotificationRetryScheduleService(FIXED_CLOCK, libraryConfigurationProperties)
       );
 
       notificationSendingService.sendNotificationsToNotify();
 
-      then(notificationRepository)
+      then(notificationDequeueService)
           .should()
-          .findNotificationsByStatuses(
-              Set.of(NotificationStatus.QUEUED, NotificationStatus.RETRY),
-              PageRequest.of(0, NotificationLibraryConfigurationProperties.DEFAULT_BULK_RETRIEVAL_LIMIT)
+          .claimNotifications(
+              eq(Set.of(NotificationStatus.QUEUED, NotificationStatus.RETRY)),
+              eq(NotificationLibraryConfigurationProperties.DEFAULT_BULK_RETRIEVAL_LIMIT),
+              any()
           );
     }
 
@@ -137,21 +178,33 @@ class NotificationSendingServiceTest {
             .build();
 
         notificationSendingService = new NotificationSendingService(
-            transactionManager,
-            notificationRepository,
+            new NotificationBatchPersistenceService(
+                transactionManager,
+                notificationRepository,
+                entityManager,
+                libraryConfigurationProperties,
+                FIXED_CLOCK,
+                mock(NotificationQueuedNotifier.class)
+            ),
             govukNotifyService,
             libraryConfigurationProperties,
             FIXED_CLOCK,
-            emailAttachmentResolver
+            emailAttachmentResolver,
+            new NotificationSendingWorkerPool(libraryConfigurationProperties, new SimpleMeterRegistry()),
+            notificationDequeueService,
+            govukNotifyRateLimiter,
+            new NotificationStatusCheckScheduleService(FIXED_CLOCK),
+            new NotificationRetryScheduleService(FIXED_CLOCK, libraryConfigurationProperties)
         );
 
         notificationSendingService.sendNotificationsToNotify();
 
-        then(notificationRepository)
+        then(notificationDequeueService)
             .should()
-            .findNotificationsByStatuses(
-                Set.of(NotificationStatus.QUEUED, NotificationStatus.RETRY),
-                PageRequest.of(0, NotificationLibraryConfigurationProperties.DEFAULT_BULK_RETRIEVAL_LIMIT)
+            .claimNotifications(
+                eq(Set.of(NotificationStatus.QUEUED, NotificationStatus.RETRY)),
+                eq(NotificationLibraryConfigurationProperties.DEFAULT_BULK_RETRIEVAL_LIMIT),
+                any()
             );
       }
     }
@@ -170,21 +223,33 @@ class NotificationSendingServiceTest {
           .build();
 
       notificationSendingService = new NotificationSendingService(
-          transactionManager,
-          notificationRepository,
+          new NotificationBatchPersistenceService(
+              transactionManager,
+              notificationRepository,
+              entityManager,
+              libraryConfigurationProperties,
+              FIXED_CLOCK,
+              mock(NotificationQueuedNotifier.class)
+          ),
           govukNotifyService,
           libraryConfigurationProperties,
           FIXED_CLOCK,
-          emailAttachmentResolver
+          emailAttachmentResolver,
+          new NotificationSendingWorkerPool(libraryConfigurationProperties, new SimpleMeterRegistry()),
+          notificationDequeueService,
+          govukNotifyRateLimiter,
+          new NotificationStatusCheckScheduleService(FIXED_CLOCK),
+          new NotificationRetryScheduleService(FIXED_CLOCK, libraryConfigurationProperties)
       );
 
       notificationSendingService.sendNotificationsToNotify();
 
-      then(notificationRepository)
+      then(notificationDequeueService)
           .should()
-          .findNotificationsByStatuses(
-              Set.of(NotificationStatus.QUEUED, NotificationStatus.RETRY),
-              PageRequest.of(0, 42)
+          .claimNotifications(
+              eq(Set.of(NotificationStatus.QUEUED, NotificationStatus.RETRY)),
+              eq(42),
+              any()
           );
     }
   }
@@ -260,12 +325,15 @@ class NotificationSendingServiceTest {
               .extracting(
                   Notification::getStatus,
                   Notification::getNotifyNotificationId,
-                  Notification::getLastSendAttemptAt
+                  Notification::getLastSendAttemptAt,
+                  Notification::getNextStatusCheckAt
               )
               .containsExactly(
                   NotificationStatus.SENT_TO_NOTIFY,
                   String.valueOf(expectedEmailResponse.successResponseObject().getNotificationId()),
-                  FIXED_INSTANT
+                  FIXED_INSTANT,
+                  // the status of a notification just sent to notify is checked again shortly after
+                  FIXED_INSTANT.plus(NotificationStatusCheckScheduleService.STATUS_CHECK_DELAYS.firstEntry().getValue())
               );
 
           assertThat(savedNotification)
@@ -274,7 +342,61 @@ class NotificationSendingServiceTest {
 
           assertThat(savedNotification.getMailMergeFields())
               .extracting(MailMergeField::name, MailMergeField::value)
-              .containsExactly(tuple("link_to_file", uploadedFile));
+              .containsExactly(tuple("link_to_file", uploadedFile.toMap()));
+        }
+      }
+
+      @DisplayName("AND the notification is stored compressed")
+      @Nested
+      class AndNotificationCompressed {
+
+        @DisplayName("THEN the resolved file is written back into the compressed payload")
+        @Test
+        void whenCompressedNotificationWithFile_thenResolvedFileStoredInPayload()
+            throws IOException, NotificationClientException {
+          var fileId = UUID.randomUUID();
+          var fileName = "fileName";
+
+          var queuedNotification = NotificationTestUtil.builder()
+              .withType(NotificationType.EMAIL)
+              .withStatus(NotificationStatus.QUEUED)
+              .withLastSendAttemptAt(null)
+              .withFileAttachment("link_to_file", fileId, fileName)
+              .build();
+
+          queuedNotification.setCompressedPayload(NotificationPayloadCodec.encode(new NotificationPayload(
+              queuedNotification.getMailMergeFields(),
+              queuedNotification.getFileAttachments()
+          )));
+
+          givenDatabaseReturnsNotification(queuedNotification);
+
+          given(govukNotifyService.sendEmail(queuedNotification))
+              .willReturn(Response.successfulResponse(
+                  new SendEmailResponse(new String(readFileData("notifySendEmailResponse.json")))
+              ));
+
+          var fileContents = new byte[]{1, 2, 3};
+          given(emailAttachmentResolver.resolveFileAttachment(fileId)).willReturn(fileContents);
+          var uploadedFile = new JSONObject();
+          uploadedFile.put("file", "AQID");
+
+          try (MockedStatic<NotificationClient> mockedStatic = mockStatic(NotificationClient.class)) {
+            given(NotificationClient.prepareUpload(fileContents, fileName)).willReturn(uploadedFile);
+
+            notificationSendingService.sendNotificationsToNotify();
+          }
+
+          then(notificationRepository)
+              .should()
+              .save(notificationCaptor.capture());
+
+          // read from the stored payload, as a retry loading the notification would
+          var storedPayload = NotificationPayloadCodec.decode(notificationCaptor.getValue().getCompressedPayload());
+
+          assertThat(storedPayload.mailMergeFields())
+              .extracting(MailMergeField::name, MailMergeField::value)
+              .containsExactly(tuple("link_to_file", Map.of("file", "AQID")));
         }
       }
     }
@@ -654,7 +776,7 @@ class NotificationSendingServiceTest {
               .containsExactly(
                   NotificationStatus.FAILED_NOT_SENT,
                   null, // no notification ID from notify as we never successfully sent
-                  null, // no last send attempt as if the file attachment fails, then we never send to notify
+                  FIXED_INSTANT, // the send attempt starts when the notification is claimed, before attachments are resolved
                   FIXED_INSTANT
               );
 
@@ -755,6 +877,10 @@ class NotificationSendingServiceTest {
             );
 
         assertThat(savedNotification.getFailureReason()).isNotNull();
+
+        // the first retry is one poll interval after the failed send attempt
+        assertThat(savedNotification.getNextAttemptAt())
+            .isEqualTo(FIXED_INSTANT.plusSeconds(libraryConfigurationProperties.getPollTimeSeconds()));
       }
     }
 
@@ -804,7 +930,7 @@ class NotificationSendingServiceTest {
               .containsExactly(
                   NotificationStatus.FAILED_TO_SEND_TO_NOTIFY,
                   null, // no notification ID from notify as we never successfully sent
-                  null,
+                  FIXED_INSTANT, // the send attempt starts when the notification is claimed, before attachments are resolved
                   FIXED_INSTANT
               );
 
@@ -860,6 +986,225 @@ class NotificationSendingServiceTest {
     }
   }
 
+  @DisplayName("WHEN notify responds that the rate limit has been exceeded")
+  @Nested
+  class WhenRateLimited {
+
+    @DisplayName("THEN the rate limiter is told to slow down")
+    @Test
+    void whenRateLimited_thenRateLimiterNotified() {
+
+      var queuedNotification = NotificationTestUtil.builder()
+          .withType(NotificationType.SMS)
+          .withStatus(NotificationStatus.QUEUED)
+          .build();
+
+      givenDatabaseReturnsNotification(queuedNotification);
+
+      given(govukNotifyService.sendSms(queuedNotification))
+          .willReturn(Response.failedResponse(429, "error-message"));
+
+      notificationSendingService.sendNotificationsToNotify();
+
+      then(govukNotifyRateLimiter)
+          .should()
+          .acquire();
+
+      then(govukNotifyRateLimiter)
+          .should()
+          .onRateLimited();
+    }
+
+    @DisplayName("AND the notification was QUEUED")
+    @Nested
+    class AndNotificationWasQueued {
+
+      @DisplayName("THEN the notification is put back on the queue without counting as a failed attempt")
+      @Test
+      void whenRateLimited_andQueuedNotification_thenNotificationQueued() {
+
+        var queuedNotification = NotificationTestUtil.builder()
+            .withType(NotificationType.SMS)
+            .withStatus(NotificationStatus.QUEUED)
+            .withRetryCount(0)
+            .build();
+
+        givenDatabaseReturnsNotification(queuedNotification);
+
+        given(govukNotifyService.sendSms(queuedNotification))
+            .willReturn(Response.failedResponse(429, "error-message"));
+
+        notificationSendingService.sendNotificationsToNotify();
+
+        then(notificationRepository)
+            .should()
+            .save(notificationCaptor.capture());
+
+        assertThat(notificationCaptor.getValue())
+            .extracting(Notification::getStatus, Notification::getRetryCount, Notification::getLastFailedAt)
+            .containsExactly(NotificationStatus.QUEUED, 0, null);
+      }
+    }
+
+    @DisplayName("AND the notification was RETRY")
+    @Nested
+    class AndNotificationWasRetry {
+
+      @DisplayName("THEN the notification is put back on the queue without using up a retry")
+      @Test
+      void whenRateLimited_andRetryNotification_thenNotificationRetry() {
+
+        var retryNotification = NotificationTestUtil.builder()
+            .withType(NotificationType.SMS)
+            .withStatus(NotificationStatus.RETRY)
+            .withRetryCount(2)
+            .build();
+
+        givenDatabaseReturnsNotification(retryNotification);
+
+        given(govukNotifyService.sendSms(retryNotification))
+            .willReturn(Response.failedResponse(429, "error-message"));
+
+        notificationSendingService.sendNotificationsToNotify();
+
+        then(notificationRepository)
+            .should()
+            .save(notificationCaptor.capture());
+
+        assertThat(notificationCaptor.getValue())
+            .extracting(Notification::getStatus, Notification::getRetryCount, Notification::getLastFailedAt)
+            .containsExactly(NotificationStatus.RETRY, 2, null);
+      }
+    }
+  }
+
+  @DisplayName("WHEN an unexpected error occurs when sending the notification")
+  @Nested
+  class WhenUnexpectedErrorWhenSending {
+
+    @DisplayName("THEN the notification is set to FAILED_TO_SEND_TO_NOTIFY so it will be retried")
+    @Test
+    void whenUnexpectedError_thenVerifySavedProperties() {
+
+      var fileId = UUID.randomUUID();
+
+      var queuedNotification = NotificationTestUtil.builder()
+          .withType(NotificationType.EMAIL)
+          .withStatus(NotificationStatus.QUEUED)
+          .withLastSendAttemptAt(null)
+          .withFileAttachment("link_to_file", fileId, "fileName")
+          .build();
+
+      givenDatabaseReturnsNotification(queuedNotification);
+
+      given(emailAttachmentResolver.resolveFileAttachment(fileId))
+          .willThrow(new IllegalStateException("unexpected error"));
+
+      notificationSendingService.sendNotificationsToNotify();
+
+      then(notificationRepository)
+          .should()
+          .save(notificationCaptor.capture());
+
+      var savedNotification = notificationCaptor.getValue();
+
+      assertThat(savedNotification)
+          .extracting(
+              Notification::getStatus,
+              Notification::getNotifyNotificationId,
+              Notification::getLastSendAttemptAt,
+              Notification::getLastFailedAt,
+              Notification::getClaimedUntil
+          )
+          .containsExactly(
+              NotificationStatus.FAILED_TO_SEND_TO_NOTIFY,
+              null, // no notification ID from notify as we never successfully sent
+              FIXED_INSTANT,
+              FIXED_INSTANT,
+              null // the claim is released once the outcome is recorded
+          );
+
+      assertThat(savedNotification.getFailureReason()).contains("unexpected error");
+
+      verify(govukNotifyService, never()).sendEmail(any());
+    }
+  }
+
+  @DisplayName("WHEN a single notification is sent straight away")
+  @Nested
+  class WhenSendingSingleNotification {
+
+    @DisplayName("THEN the notification is claimed, sent and its outcome saved")
+    @Test
+    void sendNotificationToNotify_whenClaimed_thenSentAndSaved() throws IOException {
+
+      var queuedNotification = NotificationTestUtil.builder()
+          .withType(NotificationType.SMS)
+          .withStatus(NotificationStatus.QUEUED)
+          .build();
+
+      given(notificationDequeueService.claimNotification(
+          eq(queuedNotification.getId()),
+          eq(Set.of(NotificationStatus.QUEUED)),
+          any()
+      ))
+          .willAnswer(invocation -> {
+            Consumer<Notification> claimAction = invocation.getArgument(2);
+            claimAction.accept(queuedNotification);
+            return Optional.of(queuedNotification);
+          });
+
+      givenNotificationsStillClaimed(List.of(queuedNotification));
+
+      Response<SendSmsResponse> expectedSmsResponse = Response.successfulResponse(
+          new SendSmsResponse(new String(readFileData("notifySendSmsResponse.json")))
+      );
+
+      given(govukNotifyService.sendSms(queuedNotification))
+          .willReturn(expectedSmsResponse);
+
+      notificationSendingService.sendNotificationToNotify(queuedNotification.getId());
+
+      then(govukNotifyRateLimiter).should().acquire();
+
+      then(notificationRepository)
+          .should()
+          .save(notificationCaptor.capture());
+
+      assertThat(notificationCaptor.getValue())
+          .extracting(Notification::getStatus, Notification::getNotifyNotificationId, Notification::getClaimedUntil)
+          .containsExactly(
+              NotificationStatus.SENT_TO_NOTIFY,
+              String.valueOf(expectedSmsResponse.successResponseObject().getNotificationId()),
+              null
+          );
+    }
+
+    @DisplayName("AND the notification has already been claimed")
+    @Nested
+    class AndAlreadyClaimed {
+
+      @DisplayName("THEN nothing is sent")
+      @Test
+      void sendNotificationToNotify_whenNotClaimed_thenNothingSent() {
+
+        var notificationId = UUID.randomUUID();
+
+        given(notificationDequeueService.claimNotification(
+            eq(notificationId),
+            eq(Set.of(NotificationStatus.QUEUED)),
+            any()
+        ))
+            .willReturn(Optional.empty());
+
+        notificationSendingService.sendNotificationToNotify(notificationId);
+
+        then(govukNotifyService).shouldHaveNoInteractions();
+        then(notificationRepository).shouldHaveNoInteractions();
+      }
+    }
+  }
+
   private byte[] readFileData(String resourceName) throws IOException {
     var file = ResourceUtils.getFile(
         "classpath:uk/co/fivium/digitalnotificationlibrary/core/notification/notify/" + resourceName
@@ -868,11 +1213,26 @@ class NotificationSendingServiceTest {
   }
 
   private void givenDatabaseReturnsNotifications(List<Notification> notifications) {
-    given(notificationRepository.findNotificationsByStatuses(
-        Set.of(NotificationStatus.QUEUED, NotificationStatus.RETRY),
-        PageRequest.of(0, BULK_RETRIEVAL_SIZE)
+    given(notificationDequeueService.claimNotifications(
+        eq(Set.of(NotificationStatus.QUEUED, NotificationStatus.RETRY)),
+        eq(BULK_RETRIEVAL_SIZE),
+        any()
     ))
-        .willReturn(notifications);
+        .willAnswer(invocation -> {
+          Consumer<Notification> claimAction = invocation.getArgument(2);
+          notifications.forEach(claimAction);
+          return notifications;
+        });
+
+    if (!notifications.isEmpty()) {
+      givenNotificationsStillClaimed(notifications);
+    }
+  }
+
+  private void givenNotificationsStillClaimed(List<Notification> notifications) {
+    // the outcome is saved over the notifications locked when saving, which here are the claimed notifications
+    given(notificationRepository.lockNotificationsByIds(any())).willReturn(notifications);
+    given(notificationRepository.save(any())).willAnswer(invocation -> invocation.getArgument(0));
   }
 
   private void givenDatabaseReturnsNotification(Notification notification) {
@@ -0,0 +1,121 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+
+@DisplayName("GIVEN I want to send notifications using the sending worker pool")
+class NotificationSendingWorkerPoolTest {
+
+  private NotificationSendingWorkerPool workerPool;
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    workerPool.destroy();
+  }
+
+  @DisplayName("WHEN the send concurrency is 1")
+  @Nested
+  class WhenSequential {
+
+    @DisplayName("THEN all tasks are carried out on the calling thread")
+    @Test
+    void execute_whenSequential_thenTasksRunOnCallingThread() {
+
+      workerPool = createWorkerPool(1, new SimpleMeterRegistry());
+
+      Set<Thread> taskThreads = ConcurrentHashMap.newKeySet();
+
+      workerPool.execute(List.of(1, 2, 3), item -> taskThreads.add(Thread.currentThread()));
+
+      assertThat(taskThreads).containsExactly(Thread.currentThread());
+    }
+  }
+
+  @DisplayName("WHEN the send concurrency is more than 1")
+  @Nested
+  class WhenConcurrent {
+
+    @DisplayName("THEN tasks are carried out at the same time on the workers")
+    @Test
+    void execute_whenConcurrent_thenTasksRunAtTheSameTime() {
+
+      workerPool = createWorkerPool(3, new SimpleMeterRegistry());
+
+      // each task waits until all three tasks have started, so this can only complete if they run at the same time
+      var allTasksStarted = new CountDownLatch(3);
+      Set<Integer> processedItems = ConcurrentHashMap.newKeySet();
+
+      workerPool.execute(List.of(1, 2, 3), item -> {
+        allTasksStarted.countDown();
+        try {
+          assertThat(allTasksStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException exception) {
+          Thread.currentThread().interrupt();
+        }
+        processedItems.add(item);
+      });
+
+      assertThat(processedItems).containsExactlyInAnyOrder(1, 2, 3);
+    }
+
+    @DisplayName("AND a task fails")
+    @Nested
+    class AndTaskFails {
+
+      @DisplayName("THEN the remaining tasks are still carried out and the failure is thrown")
+      @Test
+      void execute_whenTaskFails_thenOtherTasksCompleteAndFailureThrown() {
+
+        workerPool = createWorkerPool(2, new SimpleMeterRegistry());
+
+        Set<Integer> processedItems = ConcurrentHashMap.newKeySet();
+
+        assertThatThrownBy(() ->
+            workerPool.execute(List.of(1, 2, 3, 4), item -> {
+              if (item == 2) {
+                throw new IllegalStateException("failed item");
+              }
+              processedItems.add(item);
+            })
+        )
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("failed item");
+
+        assertThat(processedItems).containsExactlyInAnyOrder(1, 3, 4);
+      }
+    }
+  }
+
+  @DisplayName("THEN metrics about the worker pool are recorded")
+  @Test
+  void execute_thenMetricsRecorded() {
+
+    var meterRegistry = new SimpleMeterRegistry();
+    workerPool = createWorkerPool(4, meterRegistry);
+
+    workerPool.execute(List.of(1, 2), item -> {
+    });
+
+    assertThat(meterRegistry.get("notification.library.sending.workers.size").gauge().value()).isEqualTo(4);
+    assertThat(meterRegistry.get("notification.library.sending.workers.task").timer().count()).isEqualTo(2);
+  }
+
+  private NotificationSendingWorkerPool createWorkerPool(int concurrency, SimpleMeterRegistry meterRegistry) {
+    var libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+        .withNotificationSendConcurrency(concurrency)
+        .build();
+    return new NotificationSendingWorkerPool(libraryConfigurationProperties, meterRegistry);
+  }
+}
@@ -0,0 +1,90 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+@DisplayName("GIVEN I want to know when to next check the status of a notification")
+class NotificationStatusCheckScheduleServiceTest {
+
+  private static final Instant FIXED_INSTANT = Instant.now();
+
+  private static final Clock FIXED_CLOCK = Clock.fixed(FIXED_INSTANT, ZoneId.systemDefault());
+
+  private final NotificationStatusCheckScheduleService notificationStatusCheckScheduleService =
+      new NotificationStatusCheckScheduleService(FIXED_CLOCK);
+
+  @DisplayName("WHEN the notification has been waiting longer")
+  @Nested
+  class WhenWaitingLonger {
+
+    static Stream<Arguments> timeSinceSentAndExpectedDelay() {
+      return Stream.of(
+          Arguments.of(Duration.ZERO, Duration.ofSeconds(5)),
+          Arguments.of(Duration.ofSeconds(59), Duration.ofSeconds(5)),
+          Arguments.of(Duration.ofMinutes(1), Duration.ofSeconds(15)),
+          Arguments.of(Duration.ofMinutes(5), Duration.ofMinutes(1)),
+          Arguments.of(Duration.ofMinutes(30), Duration.ofMinutes(5)),
+          Arguments.of(Duration.ofDays(2), Duration.ofMinutes(30))
+      );
+    }
+
+    @DisplayName("THEN its status is checked less often")
+    @ParameterizedTest(name = "WHEN sent {0} ago THEN checked again in {1}")
+    @MethodSource("timeSinceSentAndExpectedDelay")
+    void getNextStatusCheckAt_thenDelayIncreasesWithTimeSinceSent(Duration timeSinceSent, Duration expectedDelay) {
+
+      var notification = NotificationTestUtil.builder()
+          .withLastSendAttemptAt(FIXED_INSTANT.minus(timeSinceSent))
+          .build();
+
+      assertThat(notificationStatusCheckScheduleService.getNextStatusCheckAt(notification))
+          .isEqualTo(FIXED_INSTANT.plus(expectedDelay));
+    }
+  }
+
+  @DisplayName("WHEN notify is waiting for the provider to confirm delivery")
+  @Nested
+  class WhenPending {
+
+    @DisplayName("THEN its status is not checked more often than the minimum pending delay")
+    @Test
+    void getNextStatusCheckAt_whenPending_thenMinimumDelayUsed() {
+
+      var notification = NotificationTestUtil.builder()
+          .withLastSendAttemptAt(FIXED_INSTANT)
+          .build();
+      notification.setNotifyStatus(GovukNotifyNotificationStatus.PENDING.getStatus());
+
+      assertThat(notificationStatusCheckScheduleService.getNextStatusCheckAt(notification))
+          .isEqualTo(FIXED_INSTANT.plus(NotificationStatusCheckScheduleService.MINIMUM_PENDING_STATUS_CHECK_DELAY));
+    }
+  }
+
+  @DisplayName("WHEN the notification has no send attempt")
+  @Nested
+  class WhenNoSendAttempt {
+
+    @DisplayName("THEN its status is checked again after the shortest delay")
+    @Test
+    void getNextStatusCheckAt_whenNoSendAttempt_thenShortestDelayUsed() {
+
+      var notification = NotificationTestUtil.builder()
+          .withLastSendAttemptAt(null)
+          .build();
+
+      assertThat(notificationStatusCheckScheduleService.getNextStatusCheckAt(notification))
+          .isEqualTo(FIXED_INSTANT.plusSeconds(5));
+    }
+  }
+}
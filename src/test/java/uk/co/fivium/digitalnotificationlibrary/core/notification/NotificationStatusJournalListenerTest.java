@@ -0,0 +1,102 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.UUID;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("GIVEN I want to journal the status transitions of a notification")
+class NotificationStatusJournalListenerTest {
+
+  private static final Instant FIXED_INSTANT = Instant.now();
+
+  private static final Clock FIXED_CLOCK = Clock.fixed(FIXED_INSTANT, ZoneId.systemDefault());
+
+  private static final UUID NOTIFICATION_ID = UUID.randomUUID();
+
+  private final NotificationStatusJournalListener journalListener = new NotificationStatusJournalListener(FIXED_CLOCK);
+
+  private EntityPersister persister;
+
+  @BeforeEach
+  void setup() {
+    persister = mock(EntityPersister.class);
+    given(persister.getPropertyNames()).willReturn(new String[] {"notifyStatus", "status", "failureReason"});
+  }
+
+  @DisplayName("WHEN the notification is created")
+  @Nested
+  class WhenCreated {
+
+    @DisplayName("THEN a transition into its initial status is recorded")
+    @Test
+    void getTransition_whenCreated_thenTransitionFromNoStatus() {
+
+      var transition = journalListener.getTransition(
+          persister,
+          NOTIFICATION_ID,
+          null,
+          new Object[] {null, NotificationStatus.QUEUED, null}
+      );
+
+      assertThat(transition).hasValueSatisfying(statusTransition -> {
+        assertThat(statusTransition.getNotificationId()).isEqualTo(NOTIFICATION_ID);
+        assertThat(statusTransition.getFromStatus()).isNull();
+        assertThat(statusTransition.getToStatus()).isEqualTo(NotificationStatus.QUEUED);
+        assertThat(statusTransition.getTransitionedAt()).isEqualTo(FIXED_INSTANT);
+        assertThat(statusTransition.getReason()).isNull();
+      });
+    }
+  }
+
+  @DisplayName("WHEN the status of the notification changes")
+  @Nested
+  class WhenStatusChanges {
+
+    @DisplayName("THEN the transition is recorded with the failure reason")
+    @Test
+    void getTransition_whenStatusChanges_thenTransitionRecorded() {
+
+      var transition = journalListener.getTransition(
+          persister,
+          NOTIFICATION_ID,
+          new Object[] {"sending", NotificationStatus.SENT_TO_NOTIFY, null},
+          new Object[] {"permanent-failure", NotificationStatus.FAILED_NOT_SENT, "permanent-failure"}
+      );
+
+      assertThat(transition).hasValueSatisfying(statusTransition -> {
+        assertThat(statusTransition.getFromStatus()).isEqualTo(NotificationStatus.SENT_TO_NOTIFY);
+        assertThat(statusTransition.getToStatus()).isEqualTo(NotificationStatus.FAILED_NOT_SENT);
+        assertThat(statusTransition.getReason()).isEqualTo("permanent-failure");
+      });
+    }
+  }
+
+  @DisplayName("WHEN the notification changes without its status changing")
+  @Nested
+  class WhenStatusUnchanged {
+
+    @DisplayName("THEN no transition is recorded")
+    @Test
+    void getTransition_whenStatusUnchanged_thenNoTransition() {
+
+      var transition = journalListener.getTransition(
+          persister,
+          NOTIFICATION_ID,
+          new Object[] {"sending", NotificationStatus.SENT_TO_NOTIFY, null},
+          new Object[] {"pending", NotificationStatus.SENT_TO_NOTIFY, null}
+      );
+
+      assertThat(transition).isEmpty();
+    }
+  }
+}
@@ -0,0 +1,245 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+@DisplayName("GIVEN I want to write the outcome of updating the status of notifications")
+class NotificationStatusUpdateRepositoryImplTest {
+
+  private static final Instant CLAIMED_UNTIL = Instant.now().plusSeconds(60).truncatedTo(ChronoUnit.MICROS);
+
+  private final AtomicInteger preparedUpdateCount = new AtomicInteger();
+
+  private final AtomicInteger executedBatchCount = new AtomicInteger();
+
+  private final AtomicInteger executedUpdateCount = new AtomicInteger();
+
+  private EntityManagerFactory entityManagerFactory;
+
+  @BeforeEach
+  void setup() {
+
+    var entityManagerFactoryBean = new LocalContainerEntityManagerFactoryBean();
+    entityManagerFactoryBean.setDataSource(new StatementCountingDataSource(
+        new DriverManagerDataSource("jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1".formatted(UUID.randomUUID()))
+    ));
+    entityManagerFactoryBean.setPackagesToScan(Notification.class.getPackageName());
+    entityManagerFactoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+    entityManagerFactoryBean.setJpaPropertyMap(new HashMap<>(Map.of("hibernate.hbm2ddl.auto", "create-drop")));
+    entityManagerFactoryBean.afterPropertiesSet();
+
+    entityManagerFactory = entityManagerFactoryBean.getObject();
+  }
+
+  @AfterEach
+  void tearDown() {
+    entityManagerFactory.close();
+  }
+
+  @DisplayName("WHEN the status of several claimed notifications is updated")
+  @Nested
+  class WhenSeveralNotificationsUpdated {
+
+    @DisplayName("THEN the updates are written in a single JDBC batch and the claims are released")
+    @Test
+    void updateNotificationStatuses_whenSeveralNotifications_thenWrittenInSingleBatch() {
+
+      var statusUpdates = List.of(
+          statusUpdate(claimedNotification(CLAIMED_UNTIL), NotificationStatus.SENT),
+          statusUpdate(claimedNotification(CLAIMED_UNTIL), NotificationStatus.FAILED_NOT_SENT),
+          statusUpdate(claimedNotification(CLAIMED_UNTIL), NotificationStatus.SENT_TO_NOTIFY)
+      );
+
+      resetCounts();
+
+      var updatedStatuses = inTransaction(entityManager ->
+          new NotificationStatusUpdateRepositoryImpl(entityManager).updateNotificationStatuses(statusUpdates)
+      );
+
+      assertThat(updatedStatuses).containsExactlyElementsOf(statusUpdates);
+
+      assertThat(preparedUpdateCount).hasValue(1);
+      assertThat(executedBatchCount).hasValue(1);
+      assertThat(executedUpdateCount).hasValue(0);
+
+      assertThat(statusUpdates)
+          .extracting(statusUpdate -> findNotification(statusUpdate.getId()))
+          .extracting(Notification::getStatus, Notification::getNotifyStatus, Notification::getClaimedUntil)
+          .containsExactly(
+              tuple(NotificationStatus.SENT, "delivered", null),
+              tuple(NotificationStatus.FAILED_NOT_SENT, "delivered", null),
+              tuple(NotificationStatus.SENT_TO_NOTIFY, "delivered", null)
+          );
+    }
+  }
+
+  @DisplayName("WHEN a notification has been claimed by another node")
+  @Nested
+  class WhenClaimedByAnotherNode {
+
+    @DisplayName("THEN its status is not written and it is left out of the updated notifications")
+    @Test
+    void updateNotificationStatuses_whenClaimedByAnotherNode_thenNotUpdated() {
+
+      var claimedStatusUpdate = statusUpdate(claimedNotification(CLAIMED_UNTIL), NotificationStatus.SENT);
+
+      var reclaimedNotification = claimedNotification(CLAIMED_UNTIL);
+      var reclaimedStatusUpdate = statusUpdate(reclaimedNotification, NotificationStatus.SENT);
+
+      // the notification was claimed again by another node after this node's claim expired
+      var otherNodeClaimedUntil = CLAIMED_UNTIL.plusSeconds(60);
+      inTransaction(entityManager -> {
+        entityManager.find(Notification.class, reclaimedNotification.getId()).setClaimedUntil(otherNodeClaimedUntil);
+        return null;
+      });
+
+      var updatedStatuses = inTransaction(entityManager ->
+          new NotificationStatusUpdateRepositoryImpl(entityManager)
+              .updateNotificationStatuses(List.of(claimedStatusUpdate, reclaimedStatusUpdate))
+      );
+
+      assertThat(updatedStatuses).containsExactly(claimedStatusUpdate);
+
+      assertThat(findNotification(reclaimedNotification.getId()))
+          .extracting(Notification::getStatus, Notification::getClaimedUntil)
+          .containsExactly(NotificationStatus.SENT_TO_NOTIFY, otherNodeClaimedUntil);
+    }
+  }
+
+  @DisplayName("WHEN there are no notifications to update")
+  @Nested
+  class WhenNoNotifications {
+
+    @DisplayName("THEN no statement is sent to the database")
+    @Test
+    void updateNotificationStatuses_whenNoNotifications_thenNothingWritten() {
+
+      resetCounts();
+
+      var updatedStatuses = inTransaction(entityManager ->
+          new NotificationStatusUpdateRepositoryImpl(entityManager).updateNotificationStatuses(List.of())
+      );
+
+      assertThat(updatedStatuses).isEmpty();
+      assertThat(preparedUpdateCount).hasValue(0);
+    }
+  }
+
+  private Notification claimedNotification(Instant claimedUntil) {
+    return inTransaction(entityManager -> {
+      var notification = new Notification();
+      notification.setStatus(NotificationStatus.SENT_TO_NOTIFY);
+      notification.setRequestedOn(Instant.now());
+      notification.setClaimedUntil(claimedUntil);
+      entityManager.persist(notification);
+      return notification;
+    });
+  }
+
+  private Notification statusUpdate(Notification claimedNotification, NotificationStatus status) {
+    // the notification was loaded in another transaction, so is detached like a status-only copy
+    claimedNotification.setStatus(status);
+    claimedNotification.setNotifyStatus("delivered");
+    claimedNotification.setNotifyStatusLastUpdatedAt(Instant.now());
+    return claimedNotification;
+  }
+
+  private Notification findNotification(UUID id) {
+    return inTransaction(entityManager -> entityManager.find(Notification.class, id));
+  }
+
+  private void resetCounts() {
+    preparedUpdateCount.set(0);
+    executedBatchCount.set(0);
+    executedUpdateCount.set(0);
+  }
+
+  private <T> T inTransaction(Function<EntityManager, T> work) {
+
+    var entityManager = entityManagerFactory.createEntityManager();
+
+    try {
+      entityManager.getTransaction().begin();
+      var result = work.apply(entityManager);
+      entityManager.getTransaction().commit();
+      return result;
+    } finally {
+      entityManager.close();
+    }
+  }
+
+  /**
+   * Counts the update statements prepared on its connections and how they are executed, so a test can tell whether
+   * the updates were sent in a JDBC batch.
+   */
+  private class StatementCountingDataSource extends DelegatingDataSource {
+
+    StatementCountingDataSource(DriverManagerDataSource targetDataSource) {
+      super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+
+      var connection = super.getConnection();
+
+      return proxy(Connection.class, connection, (proxy, method, args) -> {
+
+        var result = invoke(connection, method, args);
+
+        if ("prepareStatement".equals(method.getName()) && ((String) args[0]).trim().startsWith("UPDATE")) {
+          preparedUpdateCount.incrementAndGet();
+          var statement = (PreparedStatement) result;
+          return proxy(PreparedStatement.class, statement, (statementProxy, statementMethod, statementArgs) -> {
+            if ("executeBatch".equals(statementMethod.getName())) {
+              executedBatchCount.incrementAndGet();
+            } else if ("executeUpdate".equals(statementMethod.getName())) {
+              executedUpdateCount.incrementAndGet();
+            }
+            return invoke(statement, statementMethod, statementArgs);
+          });
+        }
+
+        return result;
+      });
+    }
+
+    private static <T> T proxy(Class<T> type, T target, InvocationHandler handler) {
+      return type.cast(Proxy.newProxyInstance(target.getClass().getClassLoader(), new Class<?>[] {type}, handler));
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException exception) {
+        throw exception.getCause();
+      }
+    }
+  }
+}
@@ -6,15 +6,19 @@ import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 
+import jakarta.persistence.EntityManager;
 import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Stream;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -30,10 +34,10 @@ import org.junit.jupiter.params.provider.EnumSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.transaction.PlatformTransactionManager;
 import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationProperties;
 import uk.co.fivium.digitalnotificationlibrary.configuration.NotificationLibraryConfigurationPropertiesTestUtil;
+import uk.gov.service.notify.NotificationList;
 
 @DisplayName("GIVEN I want to update the status of a notification")
 @ExtendWith(MockitoExtension.class)
@@ -45,10 +49,25 @@ class NotificationStatusUpdateServiceTest {
 
   private static final Integer BULK_RETRIEVAL_LIMIT = 10;
 
+  private static final Map<NotificationStatus, Integer> DEFAULT_STATUS_UPDATE_WEIGHTS = Map.of(
+      NotificationStatus.SENT_TO_NOTIFY,
+      NotificationLibraryConfigurationProperties.DEFAULT_SENT_TO_NOTIFY_STATUS_UPDATE_WEIGHT,
+      NotificationStatus.FAILED_TO_SEND_TO_NOTIFY,
+      NotificationLibraryConfigurationProperties.DEFAULT_FAILED_TO_SEND_STATUS_UPDATE_WEIGHT,
+      NotificationStatus.SENDING_TO_NOTIFY,
+      NotificationLibraryConfigurationProperties.DEFAULT_SENDING_TO_NOTIFY_STATUS_UPDATE_WEIGHT
+  );
+
   private static NotificationLibraryNotificationRepository notificationRepository;
 
+  private static NotificationDequeueService notificationDequeueService;
+
+  private static GovukNotifyRateLimiter govukNotifyRateLimiter;
+
   private static PlatformTransactionManager transactionManager;
 
+  private static EntityManager entityManager;
+
   private static GovukNotifyNotificationService govukNotifyNotificationService;
 
   private static NotificationRetryScheduleService notificationRetryScheduleService;
@@ -65,8 +84,15 @@ class NotificationStatusUpdateServiceTest {
 
     notificationRepository = mock(NotificationLibraryNotificationRepository.class);
 
+    notificationDequeueService = mock(NotificationDequeueService.class);
+
+    govukNotifyRateLimiter = mock(GovukNotifyRateLimiter.class);
+
     transactionManager = mock(PlatformTransactionManager.class);
 
+    entityManager = mock(EntityManager.class);
+    given(entityManager.unwrap(Session.class)).willReturn(mock(Session.class));
+
     govukNotifyNotificationService = mock(GovukNotifyNotificationService.class);
 
     notificationRetryScheduleService = mock(NotificationRetryScheduleService.class);
@@ -76,12 +102,21 @@ class NotificationStatusUpdateServiceTest {
         .build();
 
     notificationStatusUpdateService = new NotificationStatusUpdateService(
-        transactionManager,
-        notificationRepository,
+        new NotificationBatchPersistenceService(
+            transactionManager,
+            notificationRepository,
+            entityManager,
+            libraryConfigurationProperties,
+            FIXED_CLOCK,
+            mock(NotificationQueuedNotifier.class)
+        ),
         libraryConfigurationProperties,
         govukNotifyNotificationService,
         FIXED_CLOCK,
-        notificationRetryScheduleService
+        notificationRetryScheduleService,
+        notificationDequeueService,
+        govukNotifyRateLimiter,
+        new NotificationStatusCheckScheduleService(FIXED_CLOCK)
     );
   }
 
@@ -94,13 +129,24 @@ class NotificationStatusUpdateServiceTest {
 
       notificationRepository = mock(NotificationLibraryNotificationRepository.class);
 
+      notificationDequeueService = mock(NotificationDequeueService.class);
+
       notificationStatusUpdateService = new NotificationStatusUpdateService(
-          transactionManager,
-          notificationRepository,
+          new NotificationBatchPersistenceService(
+              transactionManager,
+              notificationRepository,
+              entityManager,
+              libraryConfigurationProperties,
+              FIXED_CLOCK,
+              mock(NotificationQueuedNotifier.class)
+          ),
           libraryConfigurationProperties,
           govukNotifyNotificationService,
           FIXED_CLOCK,
-          notificationRetryScheduleService
+          notificationRetryScheduleService,
+          notificationDequeueService,
+          govukNotifyRateLimiter,
+          new NotificationStatusCheckScheduleService(FIXED_CLOCK)
       );
     }
 
@@ -127,7 +173,7 @@ class NotificationStatusUpdateServiceTest {
     @BeforeEach
     void beforeEachSetup() {
 
-      sentToNotifyNotification = new Notification();
+      sentToNotifyNotification = new Notification(UUID.randomUUID());
       sentToNotifyNotification.setStatus(NotificationStatus.SENT_TO_NOTIFY);
 
       libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
@@ -136,13 +182,24 @@ class NotificationStatusUpdateServiceTest {
 
       notificationRepository = mock(NotificationLibraryNotificationRepository.class);
 
+      notificationDequeueService = mock(NotificationDequeueService.class);
+
       notificationStatusUpdateService = new NotificationStatusUpdateService(
-          transactionManager,
-          notificationRepository,
+          new NotificationBatchPersistenceService(
+              transactionManager,
+              notificationRepository,
+              entityManager,
+              libraryConfigurationProperties,
+              FIXED_CLOCK,
+              mock(NotificationQueuedNotifier.class)
+          ),
           libraryConfigurationProperties,
           govukNotifyNotificationService,
           FIXED_CLOCK,
-          notificationRetryScheduleService
+          notificationRetryScheduleService,
+          notificationDequeueService,
+          govukNotifyRateLimiter,
+          new NotificationStatusCheckScheduleService(FIXED_CLOCK)
       );
     }
 
@@ -216,6 +273,80 @@ class NotificationStatusUpdateServiceTest {
       }
     }
 
+    @DisplayName("AND notify has not finished sending the notification")
+    @Nested
+    class WhenNotifyStillSending {
+
+      @DisplayName("THEN the next status check is scheduled based on how long ago the notification was sent")
+      @Test
+      void whenNotifyStillSending_thenNextStatusCheckScheduled() {
+
+        sentToNotifyNotification.setLastSendAttemptAt(FIXED_INSTANT.minus(10, ChronoUnit.MINUTES));
+
+        givenDatabaseReturnsNotification(sentToNotifyNotification);
+
+        var notifyNotification = NotifyNotificationTestUtil.builder()
+            .withStatus(GovukNotifyNotificationStatus.SENDING)
+            .build();
+
+        given(govukNotifyNotificationService.getNotification(sentToNotifyNotification))
+            .willReturn(Response.successfulResponse(notifyNotification));
+
+        notificationStatusUpdateService.updateNotificationStatuses();
+
+        then(notificationRepository)
+            .should()
+            .save(notificationCaptor.capture());
+
+        assertThat(notificationCaptor.getValue())
+            .extracting(Notification::getStatus, Notification::getNextStatusCheckAt)
+            .containsExactly(NotificationStatus.SENT_TO_NOTIFY, FIXED_INSTANT.plus(1, ChronoUnit.MINUTES));
+      }
+
+      @DisplayName("AND the status in notify has not changed since the last check")
+      @Nested
+      class AndNotifyStatusUnchanged {
+
+        @DisplayName("THEN when the notify status was last updated is left as it was")
+        @Test
+        void whenNotifyStatusUnchanged_thenNotifyStatusLastUpdatedAtUnchanged() {
+
+          var notifyStatusLastUpdatedAt = FIXED_INSTANT.minus(5, ChronoUnit.MINUTES);
+
+          sentToNotifyNotification.setLastSendAttemptAt(FIXED_INSTANT.minus(10, ChronoUnit.MINUTES));
+          sentToNotifyNotification.setNotifyStatus(GovukNotifyNotificationStatus.SENDING.getStatus());
+          sentToNotifyNotification.setNotifyStatusLastUpdatedAt(notifyStatusLastUpdatedAt);
+
+          givenDatabaseReturnsNotification(sentToNotifyNotification);
+
+          var notifyNotification = NotifyNotificationTestUtil.builder()
+              .withStatus(GovukNotifyNotificationStatus.SENDING)
+              .build();
+
+          given(govukNotifyNotificationService.getNotification(sentToNotifyNotification))
+              .willReturn(Response.successfulResponse(notifyNotification));
+
+          notificationStatusUpdateService.updateNotificationStatuses();
+
+          then(notificationRepository)
+              .should()
+              .save(notificationCaptor.capture());
+
+          assertThat(notificationCaptor.getValue())
+              .extracting(
+                  Notification::getNotifyStatus,
+                  Notification::getNotifyStatusLastUpdatedAt,
+                  Notification::getNextStatusCheckAt
+              )
+              .containsExactly(
+                  GovukNotifyNotificationStatus.SENDING.getStatus(),
+                  notifyStatusLastUpdatedAt,
+                  FIXED_INSTANT.plus(1, ChronoUnit.MINUTES)
+              );
+        }
+      }
+    }
+
     @DisplayName("AND notify returns a status indicating we should not retry sending")
     @Nested
     class WhenPermanentFailureNotifyStatus {
@@ -256,6 +387,8 @@ class NotificationStatusUpdateServiceTest {
                 "GOV.UK notify returned permanent failure response.",
                 FIXED_INSTANT
             );
+
+        assertThat(savedNotification.getNextStatusCheckAt()).isNull();
       }
     }
 
@@ -270,7 +403,7 @@ class NotificationStatusUpdateServiceTest {
 
         Instant yesterday = FIXED_CLOCK.instant().minus(1, ChronoUnit.DAYS);
 
-        failingNotification = new Notification();
+        failingNotification = new Notification(UUID.randomUUID());
         failingNotification.setStatus(NotificationStatus.SENT_TO_NOTIFY);
         failingNotification.setLastFailedAt(yesterday);
         failingNotification.setFailureReason("failure reason");
@@ -526,6 +659,450 @@ class NotificationStatusUpdateServiceTest {
     }
   }
 
+  @DisplayName("WHEN a notification was being sent to notify but the outcome was never recorded")
+  @Nested
+  class WhenAbandonedSendingToNotifyNotification {
+
+    @BeforeEach
+    void setup() {
+
+      notificationRepository = mock(NotificationLibraryNotificationRepository.class);
+
+      notificationDequeueService = mock(NotificationDequeueService.class);
+
+      notificationStatusUpdateService = new NotificationStatusUpdateService(
+          new NotificationBatchPersistenceService(
+              transactionManager,
+              notificationRepository,
+              entityManager,
+              libraryConfigurationProperties,
+              FIXED_CLOCK,
+              mock(NotificationQueuedNotifier.class)
+          ),
+          libraryConfigurationProperties,
+          govukNotifyNotificationService,
+          FIXED_CLOCK,
+          notificationRetryScheduleService,
+          notificationDequeueService,
+          govukNotifyRateLimiter,
+          new NotificationStatusCheckScheduleService(FIXED_CLOCK)
+      );
+    }
+
+    @DisplayName("THEN the notification is treated as failing to send and is retried when notify has no record of it")
+    @Test
+    void whenAbandonedSendAttempt_thenStatusIsRetry() {
+
+      var abandonedNotification = NotificationTestUtil.builder()
+          .withStatus(NotificationStatus.SENDING_TO_NOTIFY)
+          .build();
+
+      abandonedNotification.setClaimedUntil(FIXED_INSTANT.minusSeconds(1));
+
+      givenDatabaseReturnsNotification(abandonedNotification);
+
+      // built before stubbing as building the list stubs the list itself
+      var notifyNotifications = notifyNotificationsWithReference();
+
+      given(govukNotifyNotificationService.getNotificationsByReference(abandonedNotification.getId().toString()))
+          .willReturn(notifyNotifications);
+
+      given(notificationRetryScheduleService.hasReachedNextRetryTime(abandonedNotification))
+          .willReturn(true);
+
+      notificationStatusUpdateService.updateNotificationStatuses();
+
+      then(notificationRepository)
+          .should()
+          .save(notificationCaptor.capture());
+
+      var savedNotification = notificationCaptor.getValue();
+
+      assertThat(savedNotification)
+          .extracting(
+              Notification::getStatus,
+              Notification::getLastFailedAt,
+              Notification::getClaimedUntil
+          )
+          .containsExactly(
+              NotificationStatus.RETRY,
+              FIXED_INSTANT,
+              null
+          );
+
+      assertThat(savedNotification.getFailureReason()).isNotNull();
+
+      then(govukNotifyNotificationService)
+          .should(never())
+          .getNotification(abandonedNotification);
+    }
+
+    @DisplayName("THEN the notification is updated with the status from notify when notify received it")
+    @Test
+    void whenAbandonedSendAttemptReceivedByNotify_thenNotifyStatusApplied() {
+
+      var abandonedNotification = NotificationTestUtil.builder()
+          .withStatus(NotificationStatus.SENDING_TO_NOTIFY)
+          .build();
+
+      abandonedNotification.setClaimedUntil(FIXED_INSTANT.minusSeconds(1));
+
+      givenDatabaseReturnsNotification(abandonedNotification);
+
+      var notifyNotification = NotifyNotificationTestUtil.builder()
+          .withStatus(GovukNotifyNotificationStatus.SENDING)
+          .build();
+
+      var notifyNotifications = notifyNotificationsWithReference(notifyNotification);
+
+      given(govukNotifyNotificationService.getNotificationsByReference(abandonedNotification.getId().toString()))
+          .willReturn(notifyNotifications);
+
+      notificationStatusUpdateService.updateNotificationStatuses();
+
+      then(notificationRepository)
+          .should()
+          .save(notificationCaptor.capture());
+
+      assertThat(notificationCaptor.getValue())
+          .extracting(
+              Notification::getStatus,
+              Notification::getNotifyNotificationId,
+              Notification::getNotifyStatus,
+              Notification::getClaimedUntil
+          )
+          .containsExactly(
+              NotificationStatus.SENT_TO_NOTIFY,
+              notifyNotification.getId().toString(),
+              GovukNotifyNotificationStatus.SENDING.getStatus(),
+              null
+          );
+    }
+
+    @DisplayName("THEN the notification is left being sent to notify to be looked up again when notify can't be reached")
+    @Test
+    void whenAbandonedSendAttemptLookupFails_thenStatusUnchanged() {
+
+      var abandonedNotification = NotificationTestUtil.builder()
+          .withStatus(NotificationStatus.SENDING_TO_NOTIFY)
+          .build();
+
+      abandonedNotification.setClaimedUntil(FIXED_INSTANT.minusSeconds(1));
+
+      givenDatabaseReturnsNotification(abandonedNotification);
+
+      given(govukNotifyNotificationService.getNotificationsByReference(abandonedNotification.getId().toString()))
+          .willReturn(Response.failedResponse(500, "notify is down"));
+
+      notificationStatusUpdateService.updateNotificationStatuses();
+
+      then(notificationRepository)
+          .should()
+          .save(notificationCaptor.capture());
+
+      var savedNotification = notificationCaptor.getValue();
+
+      assertThat(savedNotification)
+          .extracting(
+              Notification::getStatus,
+              Notification::getNotifyNotificationId,
+              Notification::getLastFailedAt,
+              Notification::getClaimedUntil
+          )
+          .containsExactly(
+              NotificationStatus.SENDING_TO_NOTIFY,
+              null,
+              FIXED_INSTANT,
+              null
+          );
+
+      assertThat(savedNotification.getNextStatusCheckAt()).isNotNull();
+      assertThat(savedNotification.getFailureReason()).contains("notify is down");
+    }
+
+    private Response<NotificationList> notifyNotificationsWithReference(
+        uk.gov.service.notify.Notification... notifyNotifications
+    ) {
+      var notificationList = mock(NotificationList.class);
+      given(notificationList.getNotifications()).willReturn(List.of(notifyNotifications));
+      return Response.successfulResponse(notificationList);
+    }
+  }
+
+  @DisplayName("WHEN a notification failed to send to notify and is not due to be retried")
+  @Nested
+  class WhenFailedToSendNotificationNotDue {
+
+    @BeforeEach
+    void setup() {
+
+      notificationRepository = mock(NotificationLibraryNotificationRepository.class);
+
+      notificationDequeueService = mock(NotificationDequeueService.class);
+
+      notificationStatusUpdateService = new NotificationStatusUpdateService(
+          new NotificationBatchPersistenceService(
+              transactionManager,
+              notificationRepository,
+              entityManager,
+              libraryConfigurationProperties,
+              FIXED_CLOCK,
+              mock(NotificationQueuedNotifier.class)
+          ),
+          libraryConfigurationProperties,
+          govukNotifyNotificationService,
+          FIXED_CLOCK,
+          notificationRetryScheduleService,
+          notificationDequeueService,
+          govukNotifyRateLimiter,
+          new NotificationStatusCheckScheduleService(FIXED_CLOCK)
+      );
+    }
+
+    @DisplayName("THEN the next attempt is scheduled so it is not taken from the queue until it is due")
+    @Test
+    void whenNextRetryTimeNotReached_thenNextAttemptScheduled() {
+
+      var failedNotification = NotificationTestUtil.builder()
+          .withStatus(NotificationStatus.FAILED_TO_SEND_TO_NOTIFY)
+          .build();
+
+      var nextRetryTime = FIXED_INSTANT.plusSeconds(60);
+
+      givenDatabaseReturnsNotification(failedNotification);
+
+      given(notificationRetryScheduleService.hasReachedNextRetryTime(failedNotification))
+          .willReturn(false);
+
+      given(notificationRetryScheduleService.getNextRetryTime(failedNotification))
+          .willReturn(nextRetryTime);
+
+      notificationStatusUpdateService.updateNotificationStatuses();
+
+      then(notificationRepository)
+          .should()
+          .save(notificationCaptor.capture());
+
+      assertThat(notificationCaptor.getValue())
+          .extracting(Notification::getStatus, Notification::getNextAttemptAt)
+          .containsExactly(NotificationStatus.FAILED_TO_SEND_TO_NOTIFY, nextRetryTime);
+    }
+  }
+
+  @DisplayName("WHEN bulk status updates are enabled")
+  @Nested
+  class WhenBulkStatusUpdateEnabled {
+
+    private static final int MAX_PAGES = 3;
+
+    private Notification firstNotification;
+
+    private Notification secondNotification;
+
+    @BeforeEach
+    void setup() {
+
+      libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+          .withNotificationRetrievalLimit(BULK_RETRIEVAL_LIMIT)
+          .withNotificationBulkStatusUpdate(true, MAX_PAGES)
+          .build();
+
+      notificationRepository = mock(NotificationLibraryNotificationRepository.class);
+
+      notificationDequeueService = mock(NotificationDequeueService.class);
+
+      govukNotifyNotificationService = mock(GovukNotifyNotificationService.class);
+
+      govukNotifyRateLimiter = mock(GovukNotifyRateLimiter.class);
+
+      notificationStatusUpdateService = new NotificationStatusUpdateService(
+          new NotificationBatchPersistenceService(
+              transactionManager,
+              notificationRepository,
+              entityManager,
+              libraryConfigurationProperties,
+              FIXED_CLOCK,
+              mock(NotificationQueuedNotifier.class)
+          ),
+          libraryConfigurationProperties,
+          govukNotifyNotificationService,
+          FIXED_CLOCK,
+          notificationRetryScheduleService,
+          notificationDequeueService,
+          govukNotifyRateLimiter,
+          new NotificationStatusCheckScheduleService(FIXED_CLOCK)
+      );
+
+      firstNotification = sentToNotifyNotification();
+      secondNotification = sentToNotifyNotification();
+    }
+
+    @DisplayName("THEN the notifications are matched from pages of notifications from notify")
+    @Test
+    void whenNotificationsInPages_thenStatusesUpdatedWithoutIndividualRequests() {
+
+      givenDatabaseReturnsNotifications(List.of(firstNotification, secondNotification));
+
+      var unrelatedNotifyNotification = NotifyNotificationTestUtil.builder()
+          .withCreatedAt(FIXED_INSTANT)
+          .build();
+
+      var firstNotifyNotification = notifyNotificationFor(firstNotification, GovukNotifyNotificationStatus.DELIVERED);
+      var secondNotifyNotification = notifyNotificationFor(secondNotification, GovukNotifyNotificationStatus.SENDING);
+
+      // pages are built before stubbing as building a page stubs the page itself
+      var firstPage = notifyNotificationPage(unrelatedNotifyNotification, firstNotifyNotification);
+      var secondPage = notifyNotificationPage(secondNotifyNotification);
+
+      given(govukNotifyNotificationService.getNotifications(null))
+          .willReturn(firstPage);
+
+      given(govukNotifyNotificationService.getNotifications(firstNotification.getNotifyNotificationId()))
+          .willReturn(secondPage);
+
+      notificationStatusUpdateService.updateNotificationStatuses();
+
+      then(govukNotifyNotificationService)
+          .should(never())
+          .getNotification(any());
+
+      then(notificationRepository)
+          .should()
+          .save(firstNotification);
+
+      assertThat(firstNotification)
+          .extracting(Notification::getStatus, Notification::getNotifyStatus, Notification::getNotifyStatusLastUpdatedAt)
+          .containsExactly(NotificationStatus.SENT, GovukNotifyNotificationStatus.DELIVERED.getStatus(), FIXED_INSTANT);
+
+      assertThat(secondNotification)
+          .extracting(Notification::getStatus, Notification::getNotifyStatus, Notification::getNotifyStatusLastUpdatedAt)
+          .containsExactly(NotificationStatus.SENT_TO_NOTIFY, GovukNotifyNotificationStatus.SENDING.getStatus(), FIXED_INSTANT);
+    }
+
+    @DisplayName("AND a page is older than the notifications were sent")
+    @Nested
+    class AndPageOlderThanSendAttempts {
+
+      @DisplayName("THEN no more pages are requested and the missing notifications are requested individually")
+      @Test
+      void whenPageOlderThanSendAttempts_thenMissingNotificationsRequestedIndividually() {
+
+        givenDatabaseReturnsNotification(firstNotification);
+
+        var olderNotifyNotification = NotifyNotificationTestUtil.builder()
+            .withCreatedAt(
+                firstNotification.getLastSendAttemptAt()
+                    .minus(NotificationStatusUpdateService.BULK_STATUS_UPDATE_CLOCK_TOLERANCE)
+                    .minusSeconds(1)
+            )
+            .build();
+
+        var page = notifyNotificationPage(olderNotifyNotification);
+
+        given(govukNotifyNotificationService.getNotifications(null))
+            .willReturn(page);
+
+        given(govukNotifyNotificationService.getNotification(firstNotification))
+            .willReturn(Response.successfulResponse(
+                notifyNotificationFor(firstNotification, GovukNotifyNotificationStatus.DELIVERED)
+            ));
+
+        notificationStatusUpdateService.updateNotificationStatuses();
+
+        then(govukNotifyNotificationService)
+            .should()
+            .getNotifications(null);
+
+        then(govukNotifyNotificationService)
+            .should(never())
+            .getNotifications(olderNotifyNotification.getId().toString());
+
+        assertThat(firstNotification.getStatus()).isEqualTo(NotificationStatus.SENT);
+      }
+    }
+
+    @DisplayName("AND the maximum number of pages is reached")
+    @Nested
+    class AndMaxPagesReached {
+
+      @DisplayName("THEN no more pages are requested and the missing notifications are requested individually")
+      @Test
+      void whenMaxPagesReached_thenMissingNotificationsRequestedIndividually() {
+
+        givenDatabaseReturnsNotification(firstNotification);
+
+        given(govukNotifyNotificationService.getNotifications(any()))
+            .willAnswer(invocation -> notifyNotificationPage(
+                NotifyNotificationTestUtil.builder().withCreatedAt(FIXED_INSTANT).build()
+            ));
+
+        given(govukNotifyNotificationService.getNotification(firstNotification))
+            .willReturn(Response.successfulResponse(
+                notifyNotificationFor(firstNotification, GovukNotifyNotificationStatus.DELIVERED)
+            ));
+
+        notificationStatusUpdateService.updateNotificationStatuses();
+
+        then(govukNotifyNotificationService)
+            .should(times(MAX_PAGES))
+            .getNotifications(any());
+
+        assertThat(firstNotification.getStatus()).isEqualTo(NotificationStatus.SENT);
+      }
+    }
+
+    @DisplayName("AND notify returns an error getting a page of notifications")
+    @Nested
+    class AndErrorResponseFromNotify {
+
+      @DisplayName("THEN the notifications are requested individually")
+      @Test
+      void whenErrorResponse_thenNotificationsRequestedIndividually() {
+
+        givenDatabaseReturnsNotification(firstNotification);
+
+        given(govukNotifyNotificationService.getNotifications(null))
+            .willReturn(Response.failedResponse(429, "too many requests"));
+
+        given(govukNotifyNotificationService.getNotification(firstNotification))
+            .willReturn(Response.successfulResponse(
+                notifyNotificationFor(firstNotification, GovukNotifyNotificationStatus.DELIVERED)
+            ));
+
+        notificationStatusUpdateService.updateNotificationStatuses();
+
+        then(govukNotifyRateLimiter)
+            .should()
+            .onRateLimited();
+
+        assertThat(firstNotification.getStatus()).isEqualTo(NotificationStatus.SENT);
+      }
+    }
+
+    private Notification sentToNotifyNotification() {
+      var notification = new Notification(UUID.randomUUID());
+      notification.setStatus(NotificationStatus.SENT_TO_NOTIFY);
+      notification.setNotifyNotificationId(UUID.randomUUID().toString());
+      notification.setLastSendAttemptAt(FIXED_INSTANT.minus(1, ChronoUnit.HOURS));
+      return notification;
+    }
+
+    private uk.gov.service.notify.Notification notifyNotificationFor(Notification notification,
+                                                                     GovukNotifyNotificationStatus status) {
+      return NotifyNotificationTestUtil.builder()
+          .withId(UUID.fromString(notification.getNotifyNotificationId()))
+          .withStatus(status)
+          .withCreatedAt(notification.getLastSendAttemptAt())
+          .build();
+    }
+
+    private Response<NotificationList> notifyNotificationPage(uk.gov.service.notify.Notification... notifyNotifications) {
+      var notificationList = mock(NotificationList.class);
+      given(notificationList.getNotifications()).willReturn(List.of(notifyNotifications));
+      return Response.successfulResponse(notificationList);
+    }
+  }
+
   @DisplayName("WHEN no custom bulk retrieval value provided")
   @Nested
   class WhenNoCustomBulkRetrievalSet {
@@ -538,12 +1115,21 @@ class NotificationStatusUpdateServiceTest {
           .build();
 
       notificationStatusUpdateService = new NotificationStatusUpdateService(
-          transactionManager,
-          notificationRepository,
+          new NotificationBatchPersistenceService(
+              transactionManager,
+              notificationRepository,
+              entityManager,
+              libraryConfigurationProperties,
+              FIXED_CLOCK,
+              mock(NotificationQueuedNotifier.class)
+          ),
           libraryConfigurationProperties,
           govukNotifyNotificationService,
           FIXED_CLOCK,
-          notificationRetryScheduleService
+          notificationRetryScheduleService,
+          notificationDequeueService,
+          govukNotifyRateLimiter,
+          new NotificationStatusCheckScheduleService(FIXED_CLOCK)
       );
     }
 
@@ -553,11 +1139,11 @@ class NotificationStatusUpdateServiceTest {
 
       notificationStatusUpdateService.updateNotificationStatuses();
 
-      then(notificationRepository)
+      then(notificationDequeueService)
           .should()
-          .findNotificationsByStatuses(
-              Set.of(NotificationStatus.SENT_TO_NOTIFY, NotificationStatus.FAILED_TO_SEND_TO_NOTIFY),
-              PageRequest.of(0, NotificationLibraryConfigurationProperties.DEFAULT_BULK_RETRIEVAL_LIMIT)
+          .claimNotificationStatuses(
+              DEFAULT_STATUS_UPDATE_WEIGHTS,
+              NotificationLibraryConfigurationProperties.DEFAULT_BULK_RETRIEVAL_LIMIT
           );
     }
 
@@ -574,13 +1160,24 @@ class NotificationStatusUpdateServiceTest {
 
         notificationRepository = mock(NotificationLibraryNotificationRepository.class);
 
+        notificationDequeueService = mock(NotificationDequeueService.class);
+
         notificationStatusUpdateService = new NotificationStatusUpdateService(
-            transactionManager,
-            notificationRepository,
+            new NotificationBatchPersistenceService(
+                transactionManager,
+                notificationRepository,
+                entityManager,
+                libraryConfigurationProperties,
+                FIXED_CLOCK,
+                mock(NotificationQueuedNotifier.class)
+            ),
             libraryConfigurationProperties,
             govukNotifyNotificationService,
             FIXED_CLOCK,
-            notificationRetryScheduleService
+            notificationRetryScheduleService,
+            notificationDequeueService,
+            govukNotifyRateLimiter,
+            new NotificationStatusCheckScheduleService(FIXED_CLOCK)
         );
       }
 
@@ -590,11 +1187,11 @@ class NotificationStatusUpdateServiceTest {
 
         notificationStatusUpdateService.updateNotificationStatuses();
 
-        then(notificationRepository)
+        then(notificationDequeueService)
             .should()
-            .findNotificationsByStatuses(
-                Set.of(NotificationStatus.SENT_TO_NOTIFY, NotificationStatus.FAILED_TO_SEND_TO_NOTIFY),
-                PageRequest.of(0, NotificationLibraryConfigurationProperties.DEFAULT_BULK_RETRIEVAL_LIMIT)
+            .claimNotificationStatuses(
+                DEFAULT_STATUS_UPDATE_WEIGHTS,
+                NotificationLibraryConfigurationProperties.DEFAULT_BULK_RETRIEVAL_LIMIT
             );
       }
     }
@@ -613,13 +1210,24 @@ class NotificationStatusUpdateServiceTest {
 
       notificationRepository = mock(NotificationLibraryNotificationRepository.class);
 
+      notificationDequeueService = mock(NotificationDequeueService.class);
+
       notificationStatusUpdateService = new NotificationStatusUpdateService(
-          transactionManager,
-          notificationRepository,
+          new NotificationBatchPersistenceService(
+              transactionManager,
+              notificationRepository,
+              entityManager,
+              libraryConfigurationProperties,
+              FIXED_CLOCK,
+              mock(NotificationQueuedNotifier.class)
+          ),
           libraryConfigurationProperties,
           govukNotifyNotificationService,
           FIXED_CLOCK,
-          notificationRetryScheduleService
+          notificationRetryScheduleService,
+          notificationDequeueService,
+          govukNotifyRateLimiter,
+          new NotificationStatusCheckScheduleService(FIXED_CLOCK)
       );
     }
 
@@ -629,21 +1237,80 @@ class NotificationStatusUpdateServiceTest {
 
       notificationStatusUpdateService.updateNotificationStatuses();
 
-      then(notificationRepository)
+      then(notificationDequeueService)
           .should()
-          .findNotificationsByStatuses(
-              Set.of(NotificationStatus.SENT_TO_NOTIFY, NotificationStatus.FAILED_TO_SEND_TO_NOTIFY),
-              PageRequest.of(0, BULK_RETRIEVAL_LIMIT)
+          .claimNotificationStatuses(
+              DEFAULT_STATUS_UPDATE_WEIGHTS,
+              BULK_RETRIEVAL_LIMIT
+          );
+    }
+  }
+
+  @DisplayName("WHEN custom status update weights provided")
+  @Nested
+  class WhenCustomStatusUpdateWeightsSet {
+
+    @BeforeEach
+    void setup() {
+
+      libraryConfigurationProperties = NotificationLibraryConfigurationPropertiesTestUtil.builder()
+          .withNotificationRetrievalLimit(BULK_RETRIEVAL_LIMIT)
+          .withNotificationStatusUpdateWeights(2, 5, 3)
+          .build();
+
+      notificationRepository = mock(NotificationLibraryNotificationRepository.class);
+
+      notificationDequeueService = mock(NotificationDequeueService.class);
+
+      notificationStatusUpdateService = new NotificationStatusUpdateService(
+          new NotificationBatchPersistenceService(
+              transactionManager,
+              notificationRepository,
+              entityManager,
+              libraryConfigurationProperties,
+              FIXED_CLOCK,
+              mock(NotificationQueuedNotifier.class)
+          ),
+          libraryConfigurationProperties,
+          govukNotifyNotificationService,
+          FIXED_CLOCK,
+          notificationRetryScheduleService,
+          notificationDequeueService,
+          govukNotifyRateLimiter,
+          new NotificationStatusCheckScheduleService(FIXED_CLOCK)
+      );
+    }
+
+    @DisplayName("THEN each status is claimed with its custom weight")
+    @Test
+    void whenStatusUpdateWeightsSet_thenCustomWeightsUsed() {
+
+      notificationStatusUpdateService.updateNotificationStatuses();
+
+      then(notificationDequeueService)
+          .should()
+          .claimNotificationStatuses(
+              Map.of(
+                  NotificationStatus.SENT_TO_NOTIFY, 2,
+                  NotificationStatus.FAILED_TO_SEND_TO_NOTIFY, 5,
+                  NotificationStatus.SENDING_TO_NOTIFY, 3
+              ),
+              BULK_RETRIEVAL_LIMIT
           );
     }
   }
 
   private void givenDatabaseReturnsNotifications(List<Notification> notifications) {
-    given(notificationRepository.findNotificationsByStatuses(
-        Set.of(NotificationStatus.SENT_TO_NOTIFY, NotificationStatus.FAILED_TO_SEND_TO_NOTIFY),
-        PageRequest.of(0, BULK_RETRIEVAL_LIMIT)
+    given(notificationDequeueService.claimNotificationStatuses(
+        DEFAULT_STATUS_UPDATE_WEIGHTS,
+        BULK_RETRIEVAL_LIMIT
     ))
         .willReturn(notifications);
+
+    // the status updates are applied to the notifications locked when saving, which here are the claimed notifications
+    if (!notifications.isEmpty()) {
+      given(notificationRepository.lockNotificationsByIds(any())).willReturn(notifications);
+    }
   }
 
   private void givenDatabaseReturnsNotification(Notification notification) {
@@ -38,6 +38,8 @@ class NotificationTestUtil {
 
     private String notifyNotificationId;
 
+    private NotificationPriority priority = NotificationPriority.NORMAL;
+
     private Builder() {
     }
 
@@ -91,6 +93,11 @@ class NotificationTestUtil {
       return this;
     }
 
+    Builder withPriority(NotificationPriority priority) {
+      this.priority = priority;
+      return this;
+    }
+
     Notification build() {
       var notification = new Notification(id);
       notification.setType(type);
@@ -108,6 +115,7 @@ class NotificationTestUtil {
       notification.setLastSendAttemptAt(lastSendAttemptAt);
       notification.setLastFailedAt(lastFailedAt);
       notification.setFileAttachments(fileAttachments);
+      notification.setPriority(priority);
       return notification;
     }
   }
@@ -17,12 +17,26 @@ class NotifyNotificationTestUtil {
 
   static class Builder {
 
+    private UUID id = UUID.randomUUID();
+
     private String status = GovukNotifyNotificationStatus.SENT.getStatus();
 
+    private String createdAt = "2023-12-03T10:15:30+01:00";
+
     private Instant sentAt = Instant.now();
 
     private Builder() {}
 
+    Builder withId(UUID id) {
+      this.id = id;
+      return this;
+    }
+
+    Builder withCreatedAt(Instant createdAt) {
+      this.createdAt = createdAt.toString();
+      return this;
+    }
+
     Builder withStatus(String status) {
       this.status = status;
       return this;
@@ -40,7 +54,7 @@ class NotifyNotificationTestUtil {
     Notification build() {
 
       var notificationJson = new JSONObject();
-      notificationJson.put("id", UUID.randomUUID().toString());
+      notificationJson.put("id", id.toString());
       notificationJson.put("status", status);
       notificationJson.put("type", "email");
 
@@ -51,7 +65,7 @@ class NotifyNotificationTestUtil {
 
       notificationJson.put("template", templateJson);
       notificationJson.put("body", "body");
-      notificationJson.put("created_at", "2023-12-03T10:15:30+01:00");
+      notificationJson.put("created_at", createdAt);
 
       if (sentAt != null) {
         notificationJson.put("sent_at", sentAt.toString());
@@ -0,0 +1,90 @@
+package uk.co.fivium.digitalnotificationlibrary.core.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("GIVEN I want to generate time-ordered notification IDs")
+class TimeOrderedUuidGeneratorTest {
+
+  @DisplayName("WHEN an ID is generated")
+  @Nested
+  class WhenGenerated {
+
+    @DisplayName("THEN it is a version 7 RFC 9562 UUID holding the time it was generated")
+    @Test
+    void generateUuid_thenVersion7UuidWithTimestamp() {
+
+      // later than the other tests in this class, which move the last generated timestamp on
+      var generatedAt = Instant.now().plus(Duration.ofDays(1)).toEpochMilli();
+
+      var uuid = TimeOrderedUuidGenerator.generateUuid(generatedAt);
+
+      assertThat(uuid.version()).isEqualTo(7);
+      assertThat(uuid.variant()).isEqualTo(2);
+      assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(generatedAt);
+    }
+
+    @DisplayName("THEN it can be read back from its string form like any other UUID")
+    @Test
+    void generateUuid_thenStringFormRoundTrips() {
+
+      var uuid = TimeOrderedUuidGenerator.generateUuid();
+
+      assertThat(UUID.fromString(uuid.toString())).isEqualTo(uuid);
+    }
+  }
+
+  @DisplayName("WHEN many IDs are generated within the same millisecond")
+  @Nested
+  class WhenGeneratedWithinSameMillisecond {
+
+    @DisplayName("THEN the IDs are unique and in the order they were generated")
+    @Test
+    void generateUuid_whenSameMillisecond_thenUniqueAndOrdered() {
+
+      var generatedAt = Instant.now().plusSeconds(120).toEpochMilli();
+
+      List<UUID> uuids = new ArrayList<>();
+      for (int i = 0; i < 10_000; i++) {
+        uuids.add(TimeOrderedUuidGenerator.generateUuid(generatedAt));
+      }
+
+      assertThat(new HashSet<>(uuids)).hasSize(uuids.size());
+      assertThat(uuids).isSortedAccordingTo(TimeOrderedUuidGeneratorTest::compareAsUnsignedBytes);
+    }
+  }
+
+  @DisplayName("WHEN the clock goes backwards")
+  @Nested
+  class WhenClockGoesBackwards {
+
+    @DisplayName("THEN the next ID still sorts after the previous ID")
+    @Test
+    void generateUuid_whenClockGoesBackwards_thenStillOrdered() {
+
+      var generatedAt = Instant.now().plusSeconds(180).toEpochMilli();
+
+      var first = TimeOrderedUuidGenerator.generateUuid(generatedAt);
+      var second = TimeOrderedUuidGenerator.generateUuid(generatedAt - 1000);
+
+      assertThat(compareAsUnsignedBytes(first, second)).isNegative();
+    }
+  }
+
+  // the order the database sorts UUID and RAW(16) columns in
+  private static int compareAsUnsignedBytes(UUID first, UUID second) {
+    var mostSignificant = Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits());
+    return mostSignificant != 0
+        ? mostSignificant
+        : Long.compareUnsigned(first.getLeastSignificantBits(), second.getLeastSignificantBits());
+  }
+}